@@ -43,7 +43,7 @@ testFixtures {
 
 jmh {
     withGroovyBuilder {
-        setProperty("include", listOf("HashingAlgorithmsBenchmark"))
+        setProperty("include", listOf("HashingAlgorithmsBenchmark", "ContentHashingBenchmark"))
     }
 }
 
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.hash;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Compares the hash functions for file content on a real corpus: the jars on the benchmark's classpath, and the class files they contain.
+ */
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class ContentHashingBenchmark {
+    private static final int BUFFER_SIZE = 8192;
+
+    @Param({"jars", "classes"})
+    String corpus;
+
+    @Param({"md5", "murmur3"})
+    String type;
+
+    List<byte[]> contents;
+    HashFunction hashFunction;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        hashFunction = type.equals("md5") ? Hashing.md5() : Hashing.murmur3();
+        contents = new ArrayList<byte[]>();
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            File file = new File(entry);
+            if (!file.isFile() || !file.getName().endsWith(".jar")) {
+                continue;
+            }
+            if (corpus.equals("jars")) {
+                contents.add(Files.toByteArray(file));
+            } else {
+                ZipFile zipFile = new ZipFile(file);
+                try {
+                    Enumeration<? extends ZipEntry> entries = zipFile.entries();
+                    while (entries.hasMoreElements()) {
+                        ZipEntry zipEntry = entries.nextElement();
+                        if (zipEntry.getName().endsWith(".class")) {
+                            contents.add(ByteStreams.toByteArray(zipFile.getInputStream(zipEntry)));
+                        }
+                    }
+                } finally {
+                    zipFile.close();
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void hashContent(Blackhole blackhole) {
+        for (byte[] content : contents) {
+            // Feed the content in chunks, the same way the stream hasher does
+            PrimitiveHasher hasher = hashFunction.newPrimitiveHasher();
+            for (int offset = 0; offset < content.length; offset += BUFFER_SIZE) {
+                hasher.putBytes(content, offset, Math.min(BUFFER_SIZE, content.length - offset));
+            }
+            blackhole.consume(hasher.hash());
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package org.gradle.internal.hash
 
 import spock.lang.Specification
+import spock.lang.Unroll
 
 class HashingTest extends Specification {
 
@@ -40,6 +41,44 @@ class HashingTest extends Specification {
         hashStrings(["abc", "de"]) != hashStrings(["ab", "cde"])
     }
 
+    @Unroll
+    def 'murmur3 produces the same hash as Guava for #length bytes fed in chunks of #chunkSize'() {
+        def bytes = new byte[length]
+        new Random(length).nextBytes(bytes)
+
+        when:
+        def hasher = Hashing.murmur3().newPrimitiveHasher()
+        for (int offset = 0; offset < length; offset += chunkSize) {
+            int count = Math.min(chunkSize, length - offset)
+            if (count == 1) {
+                hasher.putByte(bytes[offset])
+            } else {
+                hasher.putBytes(bytes, offset, count)
+            }
+        }
+
+        then:
+        hasher.hash().toString() == com.google.common.hash.Hashing.murmur3_128().hashBytes(bytes).toString()
+
+        where:
+        [length, chunkSize] << [[0, 1, 7, 8, 15, 16, 17, 31, 100, 8193], [1, 5, 16, 8192]].combinations()
+    }
+
+    def 'murmur3 hashes primitives as their little endian bytes'() {
+        when:
+        def hasher = Hashing.murmur3().newPrimitiveHasher()
+        hasher.putInt(42)
+        hasher.putLong(1234L)
+        hasher.putString("abc")
+
+        then:
+        hasher.hash().toString() == com.google.common.hash.Hashing.murmur3_128().newHasher()
+            .putInt(42)
+            .putLong(1234L)
+            .putBytes("abc".getBytes("UTF-8"))
+            .hash().toString()
+    }
+
     def hashKey(String value) {
         def hasher = Hashing.newHasher()
         hasher.putString(value)
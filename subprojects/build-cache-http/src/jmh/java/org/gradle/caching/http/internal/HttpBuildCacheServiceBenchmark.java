@@ -0,0 +1,147 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.http.internal;
+
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.HttpServer;
+import org.gradle.authentication.Authentication;
+import org.gradle.caching.BuildCacheEntryWriter;
+import org.gradle.caching.BuildCacheKey;
+import org.gradle.internal.resource.transport.http.DefaultHttpSettings;
+import org.gradle.internal.resource.transport.http.DefaultSslContextFactory;
+import org.gradle.internal.resource.transport.http.HttpClientHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures concurrent loads and stores against a local stand-in for a remote cache, which adds a fixed latency to every request.
+ */
+@Fork(1)
+@Threads(16)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class HttpBuildCacheServiceBenchmark {
+    @Param({"4", "20", "64"})
+    int maxConnections;
+
+    @Param({"20"})
+    int latencyMs;
+
+    @Param({"4096"})
+    int entrySize;
+
+    private final AtomicInteger keys = new AtomicInteger();
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private HttpBuildCacheService service;
+    private byte[] entry;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        entry = new byte[entrySize];
+        serverExecutor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(serverExecutor);
+        server.createContext("/cache/", exchange -> {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ByteStreams.exhaust(exchange.getRequestBody());
+            if (exchange.getRequestMethod().equals("GET")) {
+                exchange.sendResponseHeaders(200, entry.length);
+                exchange.getResponseBody().write(entry);
+            } else {
+                exchange.sendResponseHeaders(200, -1);
+            }
+            exchange.close();
+        });
+        server.start();
+
+        URI url = URI.create("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/cache/");
+        DefaultHttpSettings.Builder settings = DefaultHttpSettings.builder()
+            .withAuthenticationSettings(Collections.<Authentication>emptyList())
+            .withSslContextFactory(new DefaultSslContextFactory())
+            .followRedirects(false)
+            .maxConnections(maxConnections);
+        service = new HttpBuildCacheService(new HttpClientHelper(settings.build()), url);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        service.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public void load(Blackhole blackhole) {
+        blackhole.consume(service.load(nextKey(), input -> blackhole.consume(ByteStreams.exhaust(input))));
+    }
+
+    @Benchmark
+    public void store() {
+        service.store(nextKey(), new BuildCacheEntryWriter() {
+            @Override
+            public void writeTo(OutputStream output) throws IOException {
+                output.write(entry);
+            }
+
+            @Override
+            public long getSize() {
+                return entry.length;
+            }
+        });
+    }
+
+    private BuildCacheKey nextKey() {
+        String hashCode = Integer.toHexString(keys.incrementAndGet());
+        return new BuildCacheKey() {
+            @Override
+            public String getHashCode() {
+                return hashCode;
+            }
+
+            @Override
+            public String getDisplayName() {
+                return hashCode;
+            }
+        };
+    }
+}
@@ -24,6 +24,7 @@ import org.gradle.caching.BuildCacheServiceFactory;
 import org.gradle.caching.http.HttpBuildCache;
 import org.gradle.caching.http.HttpBuildCacheCredentials;
 import org.gradle.internal.authentication.DefaultBasicAuthentication;
+import org.gradle.internal.concurrent.ParallelismConfigurationManager;
 import org.gradle.internal.resource.transport.http.DefaultHttpSettings;
 import org.gradle.internal.resource.transport.http.HttpClientHelper;
 import org.gradle.internal.resource.transport.http.SslContextFactory;
@@ -39,11 +40,23 @@ import java.util.Collections;
  */
 public class DefaultHttpBuildCacheServiceFactory implements BuildCacheServiceFactory<HttpBuildCache> {
 
+    /**
+     * Overrides the maximum number of connections to the cache.
+     * The default is the usual pool size of {@value DefaultHttpSettings#DEFAULT_MAX_CONNECTIONS}, raised to one connection per worker for builds with more workers.
+     */
+    public static final String MAX_CONNECTIONS_PROPERTY = "org.gradle.internal.http-build-cache.max-connections";
+    /**
+     * Limits how long idle connections to the cache are kept open for reuse.
+     */
+    public static final String KEEP_ALIVE_TIMEOUT_PROPERTY = "org.gradle.internal.http-build-cache.keep-alive-timeout-ms";
+
     private final SslContextFactory sslContextFactory;
+    private final ParallelismConfigurationManager parallelismConfigurationManager;
 
     @Inject
-    public DefaultHttpBuildCacheServiceFactory(SslContextFactory sslContextFactory) {
+    public DefaultHttpBuildCacheServiceFactory(SslContextFactory sslContextFactory, ParallelismConfigurationManager parallelismConfigurationManager) {
         this.sslContextFactory = sslContextFactory;
+        this.parallelismConfigurationManager = parallelismConfigurationManager;
     }
 
     @Override
@@ -70,7 +83,9 @@ public class DefaultHttpBuildCacheServiceFactory implements BuildCacheServiceFac
         boolean allowUntrustedServer = configuration.isAllowUntrustedServer();
         DefaultHttpSettings.Builder builder = DefaultHttpSettings.builder()
             .withAuthenticationSettings(authentications)
-            .followRedirects(false);
+            .followRedirects(false)
+            .maxConnections(maxConnections())
+            .keepAliveTimeoutMs(Long.getLong(KEEP_ALIVE_TIMEOUT_PROPERTY, -1));
         if (allowUntrustedServer) {
             builder.allowUntrustedConnections();
         } else {
@@ -86,6 +101,12 @@ public class DefaultHttpBuildCacheServiceFactory implements BuildCacheServiceFac
         return new HttpBuildCacheService(httpClientHelper, noUserInfoUrl);
     }
 
+    private int maxConnections() {
+        // Each worker loads or stores at most one entry at a time, so only builds with more workers than the usual pool size need a larger one
+        int maxWorkerCount = parallelismConfigurationManager.getParallelismConfiguration().getMaxWorkerCount();
+        return Integer.getInteger(MAX_CONNECTIONS_PROPERTY, Math.max(DefaultHttpSettings.DEFAULT_MAX_CONNECTIONS, maxWorkerCount));
+    }
+
     @VisibleForTesting
     static HttpBuildCacheCredentials extractCredentialsFromUserInfo(URI url) {
         HttpBuildCacheCredentials credentials = new HttpBuildCacheCredentials();
@@ -234,6 +234,11 @@ public class BuildCacheCommandFactory {
                 public long getArtifactEntryCount() {
                     return packResult.getEntries();
                 }
+
+                @Override
+                public int getArtifactCompressionThreads() {
+                    return packResult.getCompressionThreads();
+                }
             };
         }
     }
@@ -33,14 +33,24 @@ public interface BuildCacheEntryPacker {
 
     class PackResult {
         private final long entries;
+        private final int compressionThreads;
 
         public PackResult(long entries) {
+            this(entries, 1);
+        }
+
+        public PackResult(long entries, int compressionThreads) {
             this.entries = entries;
+            this.compressionThreads = compressionThreads;
         }
 
         public long getEntries() {
             return entries;
         }
+
+        public int getCompressionThreads() {
+            return compressionThreads;
+        }
     }
 
     UnpackResult unpack(CacheableEntity entity, InputStream input, OriginReader readOrigin) throws IOException;
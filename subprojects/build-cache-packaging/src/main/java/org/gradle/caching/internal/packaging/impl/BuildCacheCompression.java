@@ -0,0 +1,65 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl;
+
+import java.util.Locale;
+import java.util.zip.Deflater;
+
+/**
+ * The compression level used for build cache entries.
+ *
+ * <p>All levels produce GZIP archives, so entries can be unpacked regardless of the level they were packed with.
+ * The level is selected via the {@value #SYSTEM_PROPERTY} system property of the daemon.</p>
+ */
+public enum BuildCacheCompression {
+    /**
+     * GZIP at its default level.
+     */
+    DEFAULT(Deflater.DEFAULT_COMPRESSION),
+    /**
+     * GZIP at its fastest level, trading archive size for less time spent packing.
+     */
+    FAST(Deflater.BEST_SPEED),
+    /**
+     * GZIP without compression, for outputs which are already compressed.
+     */
+    STORE(Deflater.NO_COMPRESSION);
+
+    public static final String SYSTEM_PROPERTY = "org.gradle.internal.build-cache.compression";
+
+    private final int level;
+
+    BuildCacheCompression(int level) {
+        this.level = level;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public static BuildCacheCompression current() {
+        String value = System.getProperty(SYSTEM_PROPERTY);
+        if (value == null) {
+            return DEFAULT;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("Unknown build cache compression '%s' specified via the '%s' system property.", value, SYSTEM_PROPERTY), e);
+        }
+    }
+}
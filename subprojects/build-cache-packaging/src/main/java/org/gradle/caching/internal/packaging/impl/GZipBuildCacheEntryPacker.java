@@ -16,37 +16,99 @@
 
 package org.gradle.caching.internal.packaging.impl;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import org.gradle.caching.internal.CacheableEntity;
 import org.gradle.caching.internal.origin.OriginReader;
 import org.gradle.caching.internal.origin.OriginWriter;
 import org.gradle.caching.internal.packaging.BuildCacheEntryPacker;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.fingerprint.CurrentFileCollectionFingerprint;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
-public class GZipBuildCacheEntryPacker implements BuildCacheEntryPacker {
+public class GZipBuildCacheEntryPacker implements BuildCacheEntryPacker, Stoppable {
+    private static final int READ_AHEAD_CHUNK_SIZE = 64 * 1024;
+    private static final int READ_AHEAD_CHUNKS = 16;
+
     private final BuildCacheEntryPacker delegate;
+    private final BuildCacheCompression compression;
+    private final int maxThreads;
+    @Nullable
+    private final ManagedExecutor executor;
+    @Nullable
+    private final ManagedExecutor readAheadExecutor;
+    private final Semaphore blockPermits;
 
     public GZipBuildCacheEntryPacker(BuildCacheEntryPacker delegate) {
+        this(delegate, BuildCacheCompression.DEFAULT);
+    }
+
+    public GZipBuildCacheEntryPacker(BuildCacheEntryPacker delegate, BuildCacheCompression compression) {
+        this.delegate = delegate;
+        this.compression = compression;
+        this.maxThreads = 1;
+        this.executor = null;
+        this.readAheadExecutor = null;
+        this.blockPermits = ParallelGZipOutputStream.newBlockPermits(maxThreads);
+    }
+
+    /**
+     * Creates a packer which compresses entries in blocks using up to the given number of threads,
+     * and which inflates entries on a separate thread while they are unpacked.
+     *
+     * <p>The blocks in flight are limited across all entries packed at the same time, and at most the given number of entries read ahead
+     * at the same time, so the memory used does not grow with the number of concurrent pack and unpack operations. Reading ahead uses its own
+     * threads, so that it does not wait for compression and the other way around.</p>
+     */
+    public GZipBuildCacheEntryPacker(BuildCacheEntryPacker delegate, BuildCacheCompression compression, ExecutorFactory executorFactory, int maxThreads) {
         this.delegate = delegate;
+        this.compression = compression;
+        this.maxThreads = maxThreads;
+        this.executor = maxThreads > 1 ? executorFactory.create("Build cache entry compression", maxThreads) : null;
+        this.readAheadExecutor = maxThreads > 1 ? executorFactory.create("Build cache entry read-ahead", maxThreads) : null;
+        this.blockPermits = ParallelGZipOutputStream.newBlockPermits(maxThreads);
     }
 
     @Override
     public PackResult pack(CacheableEntity entity, Map<String, CurrentFileCollectionFingerprint> fingerprints, OutputStream output, OriginWriter writeOrigin) throws IOException {
-        try (GZIPOutputStream gzipOutput = new GZIPOutputStream(output)) {
-            return delegate.pack(entity, fingerprints, gzipOutput, writeOrigin);
+        Executor compressionExecutor = executor == null ? MoreExecutors.directExecutor() : executor;
+        ParallelGZipOutputStream gzipOutput = new ParallelGZipOutputStream(output, compressionExecutor, maxThreads, compression.getLevel(), blockPermits);
+        PackResult result;
+        try {
+            result = delegate.pack(entity, fingerprints, gzipOutput, writeOrigin);
+        } finally {
+            gzipOutput.close();
         }
+        return new PackResult(result.getEntries(), gzipOutput.getCompressionThreads());
     }
 
     @Override
     public UnpackResult unpack(CacheableEntity entity, InputStream input, OriginReader readOrigin) throws IOException {
-        try (GZIPInputStream gzipInput = new GZIPInputStream(input)) {
-            return delegate.unpack(entity, gzipInput, readOrigin);
+        if (readAheadExecutor == null) {
+            try (GZIPInputStream gzipInput = new GZIPInputStream(input)) {
+                return delegate.unpack(entity, gzipInput, readOrigin);
+            }
+        }
+        try (
+            GZIPInputStream gzipInput = new GZIPInputStream(input);
+            ReadAheadInputStream readAheadInput = new ReadAheadInputStream(gzipInput, readAheadExecutor, READ_AHEAD_CHUNK_SIZE, READ_AHEAD_CHUNKS)
+        ) {
+            return delegate.unpack(entity, readAheadInput, readOrigin);
         }
     }
+
+    @Override
+    public void stop() {
+        CompositeStoppable.stoppable(executor, readAheadExecutor).stop();
+    }
 }
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl;
+
+import org.gradle.internal.UncheckedException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses its content in fixed size blocks, using multiple threads.
+ *
+ * <p>Each block is written as a separate GZIP member, in order. Concatenated members form a valid GZIP stream,
+ * which is read back by any GZIP implementation, including {@link java.util.zip.GZIPInputStream}.</p>
+ *
+ * <p>Blocks which do not compress, such as parts of jars or images, are stored without compression instead,
+ * so they are cheap to unpack. Whether a larger block compresses is estimated from a prefix of it first.</p>
+ *
+ * <p>Each block in flight takes a permit from a semaphore, which can be shared by several streams to bound the memory used by all of them.
+ * A stream which cannot get a permit first writes out its own oldest block, so it never waits while holding permits.</p>
+ */
+class ParallelGZipOutputStream extends OutputStream {
+    static final int BLOCK_SIZE = 128 * 1024;
+    // Store blocks which compress to more than 31/32 of their size
+    private static final int INCOMPRESSIBLE_SAVINGS_RATIO = 32;
+    private static final int SAMPLE_LENGTH = 8 * 1024;
+    private static final int MAX_STORED_BLOCK_LENGTH = 0xffff;
+    private static final int STORED_BLOCK_HEADER_LENGTH = 5;
+    // The same header as written by GZIPOutputStream
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+    private static final int GZIP_TRAILER_LENGTH = 8;
+
+    private final OutputStream output;
+    private final Executor executor;
+    private final int maxThreads;
+    private final int level;
+    private final int blockSize;
+    private final Semaphore blockPermits;
+    private final Deque<Future<byte[]>> inFlight = new ArrayDeque<Future<byte[]>>();
+    private byte[] block;
+    private int blockLength;
+    private int blockCount;
+    private boolean closed;
+
+    public ParallelGZipOutputStream(OutputStream output, Executor executor, int maxThreads, int level) {
+        this(output, executor, maxThreads, level, newBlockPermits(maxThreads));
+    }
+
+    public ParallelGZipOutputStream(OutputStream output, Executor executor, int maxThreads, int level, Semaphore blockPermits) {
+        this(output, executor, maxThreads, level, BLOCK_SIZE, blockPermits);
+    }
+
+    ParallelGZipOutputStream(OutputStream output, Executor executor, int maxThreads, int level, int blockSize) {
+        this(output, executor, maxThreads, level, blockSize, newBlockPermits(maxThreads));
+    }
+
+    ParallelGZipOutputStream(OutputStream output, Executor executor, int maxThreads, int level, int blockSize, Semaphore blockPermits) {
+        this.output = output;
+        this.executor = executor;
+        this.maxThreads = maxThreads;
+        this.level = level;
+        this.blockSize = blockSize;
+        this.blockPermits = blockPermits;
+        this.block = new byte[blockSize];
+    }
+
+    /**
+     * Creates permits for enough blocks in flight to keep the given number of threads busy, without buffering the whole content.
+     */
+    public static Semaphore newBlockPermits(int maxThreads) {
+        return new Semaphore(2 * maxThreads);
+    }
+
+    /**
+     * Returns the number of threads the content was compressed with.
+     */
+    public int getCompressionThreads() {
+        return Math.max(1, Math.min(maxThreads, blockCount));
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        block[blockLength++] = (byte) b;
+        if (blockLength == blockSize) {
+            submitBlock();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            int count = Math.min(len, blockSize - blockLength);
+            System.arraycopy(b, off, block, blockLength, count);
+            blockLength += count;
+            off += count;
+            len -= count;
+            if (blockLength == blockSize) {
+                submitBlock();
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            // An empty stream still needs a member, so it can be read back
+            if (blockLength > 0 || blockCount == 0) {
+                submitBlock();
+            }
+            while (!inFlight.isEmpty()) {
+                writeNextBlock();
+            }
+        } finally {
+            for (Future<byte[]> future : inFlight) {
+                future.cancel(false);
+                blockPermits.release();
+            }
+            inFlight.clear();
+            output.close();
+        }
+    }
+
+    private void submitBlock() throws IOException {
+        acquireBlockPermit();
+        final byte[] content = block;
+        final int length = blockLength;
+        FutureTask<byte[]> task = new FutureTask<byte[]>(() -> compress(content, length));
+        try {
+            executor.execute(task);
+        } catch (RuntimeException e) {
+            blockPermits.release();
+            throw e;
+        }
+        inFlight.add(task);
+        blockCount++;
+        block = new byte[blockSize];
+        blockLength = 0;
+    }
+
+    private void acquireBlockPermit() throws IOException {
+        try {
+            while (!blockPermits.tryAcquire()) {
+                if (inFlight.isEmpty()) {
+                    // Other streams hold all permits and release them as their blocks are written out
+                    blockPermits.acquire();
+                    return;
+                }
+                writeNextBlock();
+            }
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private void writeNextBlock() throws IOException {
+        Future<byte[]> future = inFlight.removeFirst();
+        try {
+            output.write(future.get());
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            throw UncheckedException.throwAsUncheckedException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        } finally {
+            blockPermits.release();
+        }
+    }
+
+    private byte[] compress(byte[] content, int length) throws IOException {
+        if (level != Deflater.NO_COMPRESSION) {
+            // Deflate a prefix of larger blocks first, so blocks which do not compress are not deflated as a whole
+            if (length <= SAMPLE_LENGTH || isCompressible(deflatedLength(content, SAMPLE_LENGTH, level), SAMPLE_LENGTH)) {
+                byte[] compressed = deflate(content, length, level);
+                if (isCompressible(compressed.length, length)) {
+                    return compressed;
+                }
+            }
+        }
+        return store(content, length);
+    }
+
+    private static boolean isCompressible(int compressedLength, int length) {
+        return compressedLength <= length - length / INCOMPRESSIBLE_SAVINGS_RATIO;
+    }
+
+    private static int deflatedLength(byte[] content, int length, int level) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            deflater.setInput(content, 0, length);
+            deflater.finish();
+            byte[] buffer = new byte[length];
+            int deflatedLength = 0;
+            while (!deflater.finished()) {
+                deflatedLength += deflater.deflate(buffer);
+            }
+            return deflatedLength;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] deflate(byte[] content, int length, int level) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 2 + 64);
+        try (GZIPOutputStream gzipOutput = new LevelGZIPOutputStream(compressed, level)) {
+            gzipOutput.write(content, 0, length);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * Writes a GZIP member containing the content as stored deflate blocks, which is what deflating without compression produces.
+     */
+    private static byte[] store(byte[] content, int length) {
+        int storedBlocks = Math.max(1, (length + MAX_STORED_BLOCK_LENGTH - 1) / MAX_STORED_BLOCK_LENGTH);
+        byte[] member = new byte[GZIP_HEADER.length + storedBlocks * STORED_BLOCK_HEADER_LENGTH + length + GZIP_TRAILER_LENGTH];
+        System.arraycopy(GZIP_HEADER, 0, member, 0, GZIP_HEADER.length);
+        int pos = GZIP_HEADER.length;
+        int offset = 0;
+        for (int i = 0; i < storedBlocks; i++) {
+            int blockLength = Math.min(MAX_STORED_BLOCK_LENGTH, length - offset);
+            // BFINAL is set on the last block, BTYPE 00 means stored
+            member[pos++] = (byte) (i == storedBlocks - 1 ? 1 : 0);
+            pos = writeShort(member, pos, blockLength);
+            pos = writeShort(member, pos, ~blockLength);
+            System.arraycopy(content, offset, member, pos, blockLength);
+            pos += blockLength;
+            offset += blockLength;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(content, 0, length);
+        pos = writeInt(member, pos, (int) crc.getValue());
+        writeInt(member, pos, length);
+        return member;
+    }
+
+    private static int writeShort(byte[] buffer, int pos, int value) {
+        buffer[pos] = (byte) value;
+        buffer[pos + 1] = (byte) (value >> 8);
+        return pos + 2;
+    }
+
+    private static int writeInt(byte[] buffer, int pos, int value) {
+        pos = writeShort(buffer, pos, value);
+        return writeShort(buffer, pos, value >> 16);
+    }
+
+    private static class LevelGZIPOutputStream extends GZIPOutputStream {
+        LevelGZIPOutputStream(OutputStream output, int level) throws IOException {
+            super(output);
+            def.setLevel(level);
+        }
+    }
+}
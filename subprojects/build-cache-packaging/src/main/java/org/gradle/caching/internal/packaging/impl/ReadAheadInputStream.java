@@ -0,0 +1,179 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl;
+
+import com.google.common.io.ByteStreams;
+import org.gradle.internal.UncheckedException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads ahead from a source stream on a separate thread, so that producing the content, for example by inflating it,
+ * happens concurrently with consuming it.
+ *
+ * <p>At most a fixed number of chunks is buffered. The source stream is not read anymore once this stream has been closed,
+ * but it is not closed by this stream.</p>
+ *
+ * <p>Reading fails instead of blocking forever when the reader stops without signalling the end of the stream,
+ * for example because it was interrupted when the executor was shut down.</p>
+ */
+class ReadAheadInputStream extends InputStream {
+    private static final byte[] END_OF_STREAM = new byte[0];
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final BlockingQueue<byte[]> chunks;
+    private final FutureTask<Void> reader;
+    private volatile boolean closed;
+    private volatile Throwable failure;
+    private byte[] current;
+    private int position;
+
+    public ReadAheadInputStream(InputStream source, Executor executor, int chunkSize, int maxChunks) {
+        this.chunks = new ArrayBlockingQueue<byte[]>(maxChunks);
+        this.reader = new FutureTask<Void>(() -> {
+            readAhead(source, chunkSize);
+            return null;
+        });
+        executor.execute(reader);
+    }
+
+    private void readAhead(InputStream source, int chunkSize) throws InterruptedException {
+        try {
+            while (!closed) {
+                byte[] buffer = new byte[chunkSize];
+                int length = ByteStreams.read(source, buffer, 0, chunkSize);
+                if (length > 0) {
+                    offer(length == chunkSize ? buffer : Arrays.copyOf(buffer, length));
+                }
+                if (length < chunkSize) {
+                    break;
+                }
+            }
+        } catch (Throwable t) {
+            failure = t;
+        } finally {
+            offer(END_OF_STREAM);
+        }
+    }
+
+    private void offer(byte[] chunk) throws InterruptedException {
+        // Check regularly whether the consumer has gone away, so the reader does not block forever
+        while (!closed) {
+            if (chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        }
+    }
+
+    private boolean nextChunk() throws IOException {
+        if (current == END_OF_STREAM) {
+            return false;
+        }
+        if (current != null && position < current.length) {
+            return true;
+        }
+        current = takeChunk();
+        position = 0;
+        if (current == END_OF_STREAM) {
+            Throwable readFailure = failure;
+            if (readFailure instanceof IOException) {
+                throw (IOException) readFailure;
+            }
+            if (readFailure != null) {
+                throw UncheckedException.throwAsUncheckedException(readFailure);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private byte[] takeChunk() throws IOException {
+        try {
+            while (true) {
+                byte[] chunk = chunks.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (chunk != null) {
+                    return chunk;
+                }
+                if (reader.isDone()) {
+                    // The reader may have queued its last chunk just before finishing
+                    chunk = chunks.poll();
+                    if (chunk != null) {
+                        return chunk;
+                    }
+                    throw new IOException("Reading ahead stopped before the end of the stream.", failure);
+                }
+            }
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!nextChunk()) {
+            return -1;
+        }
+        return current[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextChunk()) {
+            return -1;
+        }
+        int count = Math.min(len, current.length - position);
+        System.arraycopy(current, position, b, off, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return current == null || current == END_OF_STREAM ? 0 : current.length - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        chunks.clear();
+        // Wait for the reader to let go of the source, so the caller can close it
+        try {
+            reader.get();
+        } catch (CancellationException e) {
+            // The reader never ran
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } catch (ExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        }
+    }
+}
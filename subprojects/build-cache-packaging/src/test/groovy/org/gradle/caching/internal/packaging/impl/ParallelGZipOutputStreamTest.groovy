@@ -0,0 +1,188 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.concurrent.Executors
+import java.util.concurrent.Semaphore
+import java.util.zip.Deflater
+import java.util.zip.GZIPInputStream
+
+class ParallelGZipOutputStreamTest extends Specification {
+    def executor = Executors.newFixedThreadPool(4)
+
+    def cleanup() {
+        executor.shutdownNow()
+    }
+
+    def "compressed content can be read back with GZIPInputStream"() {
+        def content = new byte[10 * 1024 + 17]
+        new Random(1).nextBytes(content)
+        def compressed = new ByteArrayOutputStream()
+        def output = new ParallelGZipOutputStream(compressed, executor, 4, Deflater.DEFAULT_COMPRESSION, 1024)
+
+        when:
+        output.write(content, 0, 100)
+        output.write(content[100])
+        output.write(content, 101, content.length - 101)
+        output.close()
+
+        then:
+        decompress(compressed.toByteArray()) == content
+        output.compressionThreads == 4
+    }
+
+    @Unroll
+    def "can compress with #compression compression"() {
+        def content = ("some repetitive content " * 10000).bytes
+        def compressed = new ByteArrayOutputStream()
+        def output = new ParallelGZipOutputStream(compressed, executor, 4, compression.level)
+
+        when:
+        output.write(content)
+        output.close()
+
+        then:
+        decompress(compressed.toByteArray()) == content
+        (compressed.size() < content.length) == compresses
+
+        where:
+        compression                   | compresses
+        BuildCacheCompression.DEFAULT | true
+        BuildCacheCompression.FAST    | true
+        BuildCacheCompression.STORE   | false
+    }
+
+    def "stores content which does not compress"() {
+        def content = new byte[10 * 1024]
+        new Random(1).nextBytes(content)
+        def compressed = new ByteArrayOutputStream()
+        def output = new ParallelGZipOutputStream(compressed, executor, 4, Deflater.BEST_COMPRESSION, 1024)
+
+        when:
+        output.write(content)
+        output.close()
+
+        then:
+        decompress(compressed.toByteArray()) == content
+        // Each stored block is the content plus the GZIP header and trailer, and the stored block header
+        compressed.size() == 10 * (1024 + 18 + 5)
+    }
+
+    def "stores large blocks which do not compress as multiple stored blocks"() {
+        def content = new byte[300 * 1024]
+        new Random(1).nextBytes(content)
+        def compressed = new ByteArrayOutputStream()
+        def output = new ParallelGZipOutputStream(compressed, executor, 4, Deflater.BEST_COMPRESSION, 100 * 1024)
+
+        when:
+        output.write(content)
+        output.close()
+
+        then:
+        decompress(compressed.toByteArray()) == content
+        // A stored block holds at most 65535 bytes, so each member has two of them
+        compressed.size() == 3 * (100 * 1024 + 18 + 2 * 5)
+    }
+
+    def "compresses large blocks which start with compressible content"() {
+        def content = ("some repetitive content " * 20000).bytes
+        def compressed = new ByteArrayOutputStream()
+        def output = new ParallelGZipOutputStream(compressed, executor, 4, Deflater.BEST_COMPRESSION, 100 * 1024)
+
+        when:
+        output.write(content)
+        output.close()
+
+        then:
+        decompress(compressed.toByteArray()) == content
+        compressed.size() < content.length / 10
+    }
+
+    def "writes a readable stream when there is no content"() {
+        def compressed = new ByteArrayOutputStream()
+        def output = new ParallelGZipOutputStream(compressed, executor, 4, Deflater.DEFAULT_COMPRESSION)
+
+        when:
+        output.close()
+
+        then:
+        decompress(compressed.toByteArray()) == [] as byte[]
+        output.compressionThreads == 1
+    }
+
+    def "closes the underlying stream"() {
+        def underlying = Mock(OutputStream)
+        def output = new ParallelGZipOutputStream(underlying, executor, 4, Deflater.DEFAULT_COMPRESSION)
+
+        when:
+        output.close()
+
+        then:
+        1 * underlying.close()
+    }
+
+    def "streams sharing block permits write all content and give back all permits"() {
+        def first = new byte[10 * 1024]
+        def second = new byte[10 * 1024]
+        new Random(1).nextBytes(first)
+        new Random(2).nextBytes(second)
+        def blockPermits = new Semaphore(2)
+        def firstCompressed = new ByteArrayOutputStream()
+        def secondCompressed = new ByteArrayOutputStream()
+        def firstOutput = new ParallelGZipOutputStream(firstCompressed, executor, 4, Deflater.DEFAULT_COMPRESSION, 1024, blockPermits)
+        def secondOutput = new ParallelGZipOutputStream(secondCompressed, executor, 4, Deflater.DEFAULT_COMPRESSION, 1024, blockPermits)
+
+        when:
+        10.times { i ->
+            firstOutput.write(first, i * 1024, 1024)
+            secondOutput.write(second, i * 1024, 1024)
+        }
+        firstOutput.close()
+        secondOutput.close()
+
+        then:
+        decompress(firstCompressed.toByteArray()) == first
+        decompress(secondCompressed.toByteArray()) == second
+        blockPermits.availablePermits() == 2
+    }
+
+    def "releases block permits when the underlying stream fails"() {
+        def blockPermits = new Semaphore(2)
+        def underlying = Stub(OutputStream) {
+            write(_, _, _) >> { throw new IOException("broken") }
+        }
+        def output = new ParallelGZipOutputStream(underlying, executor, 4, Deflater.DEFAULT_COMPRESSION, 1024, blockPermits)
+
+        when:
+        try {
+            output.write(new byte[4 * 1024])
+        } finally {
+            output.close()
+        }
+
+        then:
+        thrown(IOException)
+        blockPermits.availablePermits() == 2
+    }
+
+    private static byte[] decompress(byte[] compressed) {
+        new GZIPInputStream(new ByteArrayInputStream(compressed)).bytes
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl
+
+import spock.lang.Specification
+
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+import java.util.concurrent.FutureTask
+
+class ReadAheadInputStreamTest extends Specification {
+    def executor = Executors.newFixedThreadPool(2)
+
+    def cleanup() {
+        executor.shutdownNow()
+    }
+
+    def "reads all content of the source"() {
+        def content = new byte[10 * 1024 + 17]
+        new Random(1).nextBytes(content)
+
+        when:
+        def input = new ReadAheadInputStream(new ByteArrayInputStream(content), executor, 1024, 2)
+
+        then:
+        input.read() == (content[0] & 0xff)
+        input.bytes == content[1..-1] as byte[]
+        input.read() == -1
+
+        cleanup:
+        input?.close()
+    }
+
+    def "rethrows failure to read the source"() {
+        def failure = new IOException("broken")
+        def source = Stub(InputStream) {
+            read(_, _, _) >> { throw failure }
+        }
+
+        when:
+        def input = new ReadAheadInputStream(source, executor, 1024, 2)
+        input.read()
+
+        then:
+        def e = thrown(IOException)
+        e.is(failure)
+    }
+
+    def "stops reading the source when closed early"() {
+        def content = new byte[100 * 1024]
+        def source = new ByteArrayInputStream(content)
+        def input = new ReadAheadInputStream(source, executor, 1024, 2)
+
+        when:
+        input.read()
+        input.close()
+
+        then:
+        source.available() > 0
+    }
+
+    def "fails instead of blocking when the reader stops without reaching the end of the stream"() {
+        def source = new ByteArrayInputStream(new byte[1024])
+        def discardingExecutor = { Runnable task -> (task as FutureTask).cancel(false) } as Executor
+
+        when:
+        def input = new ReadAheadInputStream(source, discardingExecutor, 1024, 2)
+        input.read()
+
+        then:
+        thrown(IOException)
+
+        cleanup:
+        input?.close()
+    }
+}
@@ -44,6 +44,11 @@ public interface BuildCacheStoreCommand {
          */
         long getArtifactEntryCount();
 
+        /**
+         * The number of threads the stored artifact was compressed with.
+         */
+        int getArtifactCompressionThreads();
+
     }
 
 }
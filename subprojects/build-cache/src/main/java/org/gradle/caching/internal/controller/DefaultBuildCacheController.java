@@ -242,7 +242,8 @@ public class DefaultBuildCacheController implements BuildCacheController {
                         BuildCacheStoreCommand.Result result = command.store(new FileOutputStream(file));
                         context.setResult(new PackOperationResult(
                             result.getArtifactEntryCount(),
-                            file.length()
+                            file.length(),
+                            result.getArtifactCompressionThreads()
                         ));
                     } catch (IOException e) {
                         throw UncheckedException.throwAsUncheckedException(e);
@@ -22,10 +22,12 @@ public class PackOperationResult implements BuildCacheArchivePackBuildOperationT
 
     private final long archiveEntryCount;
     private final long archiveSize;
+    private final int archiveCompressionThreads;
 
-    public PackOperationResult(long archiveEntryCount, long archiveSize) {
+    public PackOperationResult(long archiveEntryCount, long archiveSize, int archiveCompressionThreads) {
         this.archiveEntryCount = archiveEntryCount;
         this.archiveSize = archiveSize;
+        this.archiveCompressionThreads = archiveCompressionThreads;
     }
 
     @Override
@@ -37,4 +39,9 @@ public class PackOperationResult implements BuildCacheArchivePackBuildOperationT
     public long getArchiveEntryCount() {
         return archiveEntryCount;
     }
+
+    @Override
+    public int getArchiveCompressionThreads() {
+        return archiveCompressionThreads;
+    }
 }
@@ -38,6 +38,13 @@ public final class BuildCacheArchivePackBuildOperationType implements BuildOpera
 
         long getArchiveEntryCount();
 
+        /**
+         * The number of threads the archive was compressed with.
+         *
+         * Together with the duration of the operation, this shows the effect of compressing the archive in parallel.
+         */
+        int getArchiveCompressionThreads();
+
     }
 
 }
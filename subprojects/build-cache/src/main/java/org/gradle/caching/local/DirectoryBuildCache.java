@@ -16,6 +16,7 @@
 
 package org.gradle.caching.local;
 
+import org.gradle.api.Incubating;
 import org.gradle.caching.configuration.AbstractBuildCache;
 
 import javax.annotation.Nullable;
@@ -29,6 +30,7 @@ import javax.annotation.Nullable;
 public class DirectoryBuildCache extends AbstractBuildCache {
     private Object directory;
     private int removeUnusedEntriesAfterDays = 7;
+    private long maxSizeInMB;
 
     /**
      * Returns the directory to use to store the build cache.
@@ -69,4 +71,30 @@ public class DirectoryBuildCache extends AbstractBuildCache {
         }
         this.removeUnusedEntriesAfterDays = removeUnusedEntriesAfterDays;
     }
+
+    /**
+     * Returns the maximum size of the build cache in megabytes. When the cache grows beyond this size, the least recently used entries are removed.
+     * Defaults to 0, which means the size of the cache is not limited.
+     *
+     * @since 5.3
+     */
+    @Incubating
+    public long getMaxSizeInMB() {
+        return maxSizeInMB;
+    }
+
+    /**
+     * Sets the maximum size of the build cache in megabytes. When the cache grows beyond this size, the least recently used entries are removed.
+     *
+     * Must not be negative. Use 0 to not limit the size of the cache.
+     *
+     * @since 5.3
+     */
+    @Incubating
+    public void setMaxSizeInMB(long maxSizeInMB) {
+        if (maxSizeInMB < 0) {
+            throw new IllegalArgumentException("Directory build cache size limit must not be negative.");
+        }
+        this.maxSizeInMB = maxSizeInMB;
+    }
 }
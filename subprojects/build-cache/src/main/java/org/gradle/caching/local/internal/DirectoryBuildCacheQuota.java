@@ -0,0 +1,244 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.local.internal;
+
+import com.google.common.collect.ImmutableSet;
+import org.gradle.cache.PersistentCache;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.resource.local.FileAccessTimeJournal;
+import org.gradle.util.GUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Keeps the local directory build cache below a maximum size by evicting the least recently used entries.
+ *
+ * <p>The size of the cache is tracked as entries are stored, and is persisted in {@value #SIZE_FILE_NAME} in the cache directory,
+ * so that a build does not need to list the cache directory to find out whether the cache is over its quota.
+ * Only once the tracked size exceeds the quota are the entries listed and evicted in the order of their last access time,
+ * as recorded in the {@link FileAccessTimeJournal}, until the cache is below {@value #LOW_WATER_MARK_PERCENT}% of the quota.</p>
+ *
+ * <p>Eviction runs in the background and deletes one entry at a time while holding the cache lock, so that loads and stores can proceed in between.
+ * When the cache is closed, no further eviction is started and an eviction already under way is allowed to finish.</p>
+ */
+class DirectoryBuildCacheQuota implements Stoppable {
+    static final String SIZE_FILE_NAME = "size.properties";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DirectoryBuildCacheQuota.class);
+    private static final String SIZE_KEY = "size";
+    private static final int LOW_WATER_MARK_PERCENT = 90;
+    private static final long UNKNOWN_SIZE = -1;
+
+    private final PersistentCache persistentCache;
+    private final Lock entryLock;
+    private final FileAccessTimeJournal journal;
+    private final long maxSize;
+    private final File sizeFile;
+    private final ManagedExecutor executor;
+    private final AtomicLong storedSinceLastPersisted = new AtomicLong();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private volatile long persistedSize = UNKNOWN_SIZE;
+    private volatile boolean evictionIncomplete;
+    private volatile boolean stopped;
+
+    DirectoryBuildCacheQuota(PersistentCache persistentCache, Lock entryLock, FileAccessTimeJournal journal, long maxSize, ExecutorFactory executorFactory) {
+        this.persistentCache = persistentCache;
+        this.entryLock = entryLock;
+        this.journal = journal;
+        this.maxSize = maxSize;
+        this.sizeFile = new File(persistentCache.getBaseDir(), SIZE_FILE_NAME);
+        this.executor = executorFactory.create("Build cache eviction", 1);
+    }
+
+    /**
+     * Records that an entry of the given size has been stored. Must be called while holding the cache lock.
+     */
+    public void entryStored(long size) {
+        long stored = storedSinceLastPersisted.addAndGet(size);
+        if (persistedSize == UNKNOWN_SIZE) {
+            persistedSize = readPersistedSize();
+        }
+        if (persistedSize == UNKNOWN_SIZE || persistedSize + stored > maxSize) {
+            scheduleEviction();
+        }
+    }
+
+    private void scheduleEviction() {
+        if (stopped || evictionIncomplete || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    evict();
+                } catch (Exception e) {
+                    LOGGER.warn("Could not evict entries from {}: {}", persistentCache.getDisplayName(), e.getMessage());
+                } finally {
+                    evicting.set(false);
+                }
+            }
+        });
+    }
+
+    private void evict() {
+        // Entries stored from here on may be counted twice, which at worst makes the next eviction start early
+        storedSinceLastPersisted.set(0);
+        List<Entry> entries = listEntries();
+        long size = 0;
+        for (Entry entry : entries) {
+            size += entry.size;
+        }
+        if (size > maxSize) {
+            long lowWaterMark = maxSize / 100 * LOW_WATER_MARK_PERCENT;
+            LOGGER.info("{} is {} bytes, evicting least recently used entries to get below {} bytes.", persistentCache.getDisplayName(), size, lowWaterMark);
+            Collections.sort(entries, new Comparator<Entry>() {
+                @Override
+                public int compare(Entry o1, Entry o2) {
+                    return Long.compare(o1.lastAccessTime, o2.lastAccessTime);
+                }
+            });
+            int evicted = 0;
+            for (Entry entry : entries) {
+                if (size <= lowWaterMark) {
+                    break;
+                }
+                if (evict(entry)) {
+                    size -= entry.size;
+                    evicted++;
+                }
+            }
+            LOGGER.debug("{} eviction deleted {} entries.", persistentCache.getDisplayName(), evicted);
+            // Entries in use by this build cannot be evicted, so don't try again until the next build
+            evictionIncomplete = size > lowWaterMark;
+        }
+        writePersistedSize(size);
+    }
+
+    private List<Entry> listEntries() {
+        final Set<File> reservedFiles = ImmutableSet.<File>builder().addAll(persistentCache.getReservedCacheFiles()).add(sizeFile).build();
+        File[] files = persistentCache.getBaseDir().listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                return file.isFile()
+                    && !reservedFiles.contains(file)
+                    && !file.getName().endsWith(BuildCacheTempFileStore.PARTIAL_FILE_SUFFIX);
+            }
+        });
+        List<Entry> entries = new ArrayList<Entry>();
+        if (files != null) {
+            for (File file : files) {
+                entries.add(new Entry(file, file.length(), journal.getLastAccessTime(file)));
+            }
+        }
+        return entries;
+    }
+
+    private boolean evict(final Entry entry) {
+        final AtomicBoolean deleted = new AtomicBoolean();
+        persistentCache.withFileLock(new Runnable() {
+            @Override
+            public void run() {
+                entryLock.lock();
+                try {
+                    // Keep entries which have been used since they were listed
+                    if (journal.getLastAccessTime(entry.file) <= entry.lastAccessTime && entry.file.delete()) {
+                        journal.deleteLastAccessTime(entry.file);
+                        deleted.set(true);
+                    }
+                } finally {
+                    entryLock.unlock();
+                }
+            }
+        });
+        return deleted.get();
+    }
+
+    private long readPersistedSize() {
+        if (!sizeFile.isFile()) {
+            return UNKNOWN_SIZE;
+        }
+        try {
+            return Long.parseLong(GUtil.loadProperties(sizeFile).getProperty(SIZE_KEY));
+        } catch (RuntimeException e) {
+            return UNKNOWN_SIZE;
+        }
+    }
+
+    private void writePersistedSize(final long size) {
+        persistentCache.withFileLock(new Runnable() {
+            @Override
+            public void run() {
+                saveSize(size);
+            }
+        });
+        persistedSize = size;
+    }
+
+    private void saveSize(long size) {
+        Properties properties = new Properties();
+        properties.setProperty(SIZE_KEY, String.valueOf(size));
+        GUtil.saveProperties(properties, sizeFile);
+    }
+
+    @Override
+    public void stop() {
+        // Only prevents new evictions from being scheduled, a queued or running eviction is waited for
+        stopped = true;
+        executor.stop();
+        final long stored = storedSinceLastPersisted.getAndSet(0);
+        if (stored == 0) {
+            return;
+        }
+        persistentCache.withFileLock(new Runnable() {
+            @Override
+            public void run() {
+                // Add to the size persisted by now, as other processes may have stored entries as well
+                long size = readPersistedSize();
+                if (size != UNKNOWN_SIZE) {
+                    saveSize(size + stored);
+                }
+            }
+        });
+    }
+
+    private static class Entry {
+        private final File file;
+        private final long size;
+        private final long lastAccessTime;
+
+        private Entry(File file, long size, long lastAccessTime) {
+            this.file = file;
+            this.size = size;
+            this.lastAccessTime = lastAccessTime;
+        }
+    }
+}
@@ -55,6 +55,11 @@ class DefaultBuildCacheControllerTest extends Specification {
                 long getArtifactEntryCount() {
                     return 0
                 }
+
+                @Override
+                int getArtifactCompressionThreads() {
+                    return 1
+                }
             }
         }
     }
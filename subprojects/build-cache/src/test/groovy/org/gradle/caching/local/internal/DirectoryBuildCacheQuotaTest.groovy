@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.local.internal
+
+import org.gradle.cache.PersistentCache
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.resource.local.FileAccessTimeJournal
+import org.gradle.test.fixtures.file.CleanupTestDirectory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.GUtil
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.locks.ReentrantLock
+
+@CleanupTestDirectory
+class DirectoryBuildCacheQuotaTest extends Specification {
+    @Rule TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider()
+    def cacheDir = temporaryFolder.createDir("cache")
+    def lockFile = cacheDir.file("cache.lock").createFile()
+    def persistentCache = Mock(PersistentCache) {
+        getBaseDir() >> cacheDir
+        getReservedCacheFiles() >> [lockFile]
+        withFileLock(_) >> { Runnable r -> r.run() }
+    }
+    def accessTimes = [:]
+    def journal = Mock(FileAccessTimeJournal) {
+        getLastAccessTime(_) >> { File file -> accessTimes[file.name] }
+    }
+
+    DirectoryBuildCacheQuota quota(long maxSize) {
+        new DirectoryBuildCacheQuota(persistentCache, new ReentrantLock(), journal, maxSize, new DefaultExecutorFactory())
+    }
+
+    def "evicts least recently used entries until below low water mark"() {
+        (1..10).each { index ->
+            cacheDir.file("entry-$index").bytes = new byte[100]
+            accessTimes["entry-$index"] = index
+        }
+        cacheDir.file("entry-11.part").bytes = new byte[100]
+        def quota = quota(500)
+
+        when:
+        quota.entryStored(100)
+        quota.stop()
+
+        then:
+        cacheDir.list() as Set == ["cache.lock", "entry-7", "entry-8", "entry-9", "entry-10", "entry-11.part", DirectoryBuildCacheQuota.SIZE_FILE_NAME] as Set
+        persistedSize() == "400"
+    }
+
+    def "tracks size of stored entries without listing the cache while below quota"() {
+        cacheDir.file("entry-1").bytes = new byte[100]
+        writePersistedSize(100)
+        def quota = quota(1000)
+
+        when:
+        quota.entryStored(100)
+        quota.entryStored(200)
+        quota.stop()
+
+        then:
+        cacheDir.file("entry-1").exists()
+        persistedSize() == "400"
+        0 * journal._
+    }
+
+    def "lists the cache once when its size is not known yet"() {
+        cacheDir.file("entry-1").bytes = new byte[100]
+        accessTimes["entry-1"] = 1
+        def quota = quota(1000)
+
+        when:
+        quota.entryStored(100)
+        quota.stop()
+
+        then:
+        cacheDir.file("entry-1").exists()
+        persistedSize() == "100"
+    }
+
+    private String persistedSize() {
+        GUtil.loadProperties(cacheDir.file(DirectoryBuildCacheQuota.SIZE_FILE_NAME)).getProperty("size")
+    }
+
+    private void writePersistedSize(long size) {
+        def properties = new Properties()
+        properties.setProperty("size", String.valueOf(size))
+        GUtil.saveProperties(properties, cacheDir.file(DirectoryBuildCacheQuota.SIZE_FILE_NAME))
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+import org.gradle.util.Requires
+import org.gradle.util.TestPrecondition
+
+@Requires(TestPrecondition.LINUX)
+class FileSystemMirrorWatcherIntegrationTest extends AbstractIntegrationSpec {
+
+    def setup() {
+        executer.requireDaemon()
+        executer.requireIsolatedDaemons()
+
+        buildFile << """
+            task copy {
+                inputs.dir("inputs")
+                outputs.file("build/output.txt")
+                doLast {
+                    file("build/output.txt").text = fileTree("inputs").files.sort().collect { it.text }.join(",")
+                }
+            }
+        """
+        file("inputs/a.txt").text = "a"
+        file("inputs/nested/b.txt").text = "b"
+    }
+
+    def "notices changes to inputs made between builds in the same daemon"() {
+        when:
+        retainState()
+        run "copy"
+
+        then:
+        executedAndNotSkipped ":copy"
+        file("build/output.txt").text == "a,b"
+
+        when:
+        retainState()
+        run "copy"
+
+        then:
+        skipped ":copy"
+
+        when:
+        file("inputs/nested/b.txt").text = "changed"
+        retainState()
+        run "copy"
+
+        then:
+        executedAndNotSkipped ":copy"
+        file("build/output.txt").text == "a,changed"
+
+        when:
+        file("inputs/nested/c.txt").text = "c"
+        retainState()
+        run "copy"
+
+        then:
+        executedAndNotSkipped ":copy"
+        file("build/output.txt").text == "a,changed,c"
+
+        when:
+        retainState()
+        run "copy"
+
+        then:
+        skipped ":copy"
+    }
+
+    private void retainState() {
+        executer.withArgument("-D${FileSystemMirrorWatcher.RETAIN_STATE_PROPERTY}=true")
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+import spock.lang.Unroll
+
+class ParallelProjectConfigurationIntegrationTest extends AbstractIntegrationSpec {
+    private static final String SERIAL_FALLBACK = "Configuring projects serially, as project ':b' accessed project ':a'."
+
+    def setup() {
+        settingsFile << "include 'a', 'b', 'c', 'c:d'"
+        file("a/build.gradle") << ""
+        file("c/build.gradle") << ""
+        file("c/d/build.gradle") << ""
+        executer.withArguments("--parallel", "--info", "-D${TaskPathProjectEvaluator.PARALLEL_CONFIGURATION_PROPERTY}=true")
+    }
+
+    def "keeps configuring sibling projects in parallel when they do not access each other"() {
+        file("b/build.gradle") << """
+            version = '2.0'
+            println "b sees version " + project(':a').version
+        """
+
+        when:
+        run "help"
+
+        then:
+        outputContains("b sees version unspecified")
+        outputDoesNotContain("Configuring projects serially")
+    }
+
+    def "configures the remaining projects serially when a project uses the dynamic API of a sibling"() {
+        file("b/build.gradle") << """
+            project(':a').ext.fromB = 'value'
+        """
+
+        when:
+        run "help"
+
+        then:
+        outputContains(SERIAL_FALLBACK)
+    }
+
+    @Unroll
+    def "configures the remaining projects serially when a project calls #call on a sibling from statically compiled code"() {
+        file("b/build.gradle") << """
+            @groovy.transform.CompileStatic
+            class SiblingConfigurer {
+                static void configure(Project project) {
+                    project.${call}
+                }
+            }
+            SiblingConfigurer.configure(project(':a'))
+        """
+
+        when:
+        run "help"
+
+        then:
+        outputContains(SERIAL_FALLBACK)
+
+        where:
+        call << [
+            "setVersion('2.0')",
+            "setGroup('org.example')",
+            "setDescription('configured by b')",
+            "getRepositories().mavenCentral()",
+            "getPluginManager().apply('base')",
+            "getPlugins()",
+            "getAnt()",
+            "afterEvaluate({ Project p -> } as Action<Project>)"
+        ]
+    }
+}
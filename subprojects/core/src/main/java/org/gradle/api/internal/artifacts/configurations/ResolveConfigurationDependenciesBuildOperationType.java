@@ -69,6 +69,14 @@ public final class ResolveConfigurationDependenciesBuildOperationType implements
         @Nullable
         String getRepositoryId(ResolvedComponentResult resolvedComponentResult);
 
+        /**
+         * The time spent building the dependency graph, in milliseconds. This excludes the time spent running
+         * dependency actions and resolution listeners.
+         *
+         * @since 5.3
+         */
+        long getGraphResolutionTimeMillis();
+
     }
 
     /**
@@ -23,6 +23,7 @@ import org.gradle.cache.PersistentCache;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.cache.PersistentIndexedCacheParameters;
 import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
+import org.gradle.internal.hash.ContentHashFunction;
 
 import javax.annotation.Nullable;
 import java.io.Closeable;
@@ -35,9 +36,11 @@ public class CrossBuildFileHashCache implements Closeable {
 
     private final PersistentCache cache;
     private final InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory;
+    private final ContentHashFunction contentHashFunction;
 
-    public CrossBuildFileHashCache(@Nullable File cacheDir, CacheRepository repository, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory) {
+    public CrossBuildFileHashCache(@Nullable File cacheDir, CacheRepository repository, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory, ContentHashFunction contentHashFunction) {
         this.inMemoryCacheDecoratorFactory = inMemoryCacheDecoratorFactory;
+        this.contentHashFunction = contentHashFunction;
         CacheBuilder cacheBuilder = cacheDir != null ? repository.cache(cacheDir) : repository.cache(FILE_HASHES_CACHE_KEY);
         cache = cacheBuilder
             .withDisplayName("file hash cache")
@@ -46,7 +49,8 @@ public class CrossBuildFileHashCache implements Closeable {
     }
 
     public <K, V> PersistentIndexedCache<K, V> createCache(PersistentIndexedCacheParameters<K, V> parameters, int maxEntriesToKeepInMemory, boolean cacheInMemoryForShortLivedProcesses) {
-        return cache.createCache(parameters
+        String cacheName = contentHashFunction.qualifyCacheName(parameters.getCacheName());
+        return cache.createCache(PersistentIndexedCacheParameters.of(cacheName, parameters.getKeySerializer(), parameters.getValueSerializer())
                 .withCacheDecorator(inMemoryCacheDecoratorFactory.decorator(maxEntriesToKeepInMemory, cacheInMemoryForShortLivedProcesses))
         );
     }
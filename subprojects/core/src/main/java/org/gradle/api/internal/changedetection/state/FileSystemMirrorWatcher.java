@@ -0,0 +1,229 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Predicate;
+import com.google.common.io.Files;
+import org.gradle.api.Action;
+import org.gradle.api.internal.file.FileSystemSubset;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.file.DefaultFileHierarchySet;
+import org.gradle.internal.file.FileHierarchySet;
+import org.gradle.internal.filewatch.FileWatcher;
+import org.gradle.internal.filewatch.FileWatcherEvent;
+import org.gradle.internal.filewatch.FileWatcherFactory;
+import org.gradle.internal.filewatch.FileWatcherListener;
+import org.gradle.internal.os.OperatingSystem;
+import org.gradle.internal.snapshot.impl.DefaultFileSystemMirror;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the state of a {@link DefaultFileSystemMirror} alive between builds, when enabled via the {@value #RETAIN_STATE_PROPERTY} system property.
+ *
+ * <p>The locations in the mirror are watched for changes, and a change to a file only discards the state of the affected hierarchy.
+ * State is only retained for locations which were already watched when it was captured, as changes made before the watch was in place are not reported.
+ * Anything that goes wrong with watching discards all of the retained state.</p>
+ *
+ * <p>Changes are reported asynchronously, so at the start of a build the watcher writes a marker file to a watched location and waits
+ * for its change to be reported, as the changes made before the marker was written are reported before it. When that does not happen in time,
+ * the retained state is discarded. This relies on changes being reported in order, which is only the case for the inotify based watch service
+ * on Linux, so state is not retained on other operating systems. Even there, the watch service can queue a watched directory again behind
+ * the directory of the marker, when a change happens while the events of the directory are being handled. The marker is written twice,
+ * so such a directory has been handled by the time the second marker is reported.</p>
+ *
+ * <p>A change can still be reported while a location is being read during a build, so the mirror drops state that is
+ * invalidated while it is being read.</p>
+ */
+public class FileSystemMirrorWatcher implements FileWatcherListener, Stoppable {
+    public static final String RETAIN_STATE_PROPERTY = "org.gradle.unsafe.retain-file-system-state";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileSystemMirrorWatcher.class);
+    private static final long MARKER_TIMEOUT_MILLIS = 5000;
+    private static final int MARKER_ROUNDS = 2;
+
+    private final DefaultFileSystemMirror mirror;
+    private final FileWatcherFactory fileWatcherFactory;
+    private final File markerFile;
+    private final long markerTimeoutMillis;
+    private final Object lock = new Object();
+    private FileWatcher fileWatcher;
+    private volatile FileHierarchySet watchedLocations = DefaultFileHierarchySet.of();
+    private volatile PendingMarker pendingMarker;
+
+    /**
+     * @param markerDir the directory to write the marker file to. The marker file is unique to this watcher, so several watchers can share the directory.
+     */
+    public FileSystemMirrorWatcher(DefaultFileSystemMirror mirror, FileWatcherFactory fileWatcherFactory, File markerDir) {
+        this(mirror, fileWatcherFactory, markerDir, MARKER_TIMEOUT_MILLIS);
+    }
+
+    FileSystemMirrorWatcher(DefaultFileSystemMirror mirror, FileWatcherFactory fileWatcherFactory, File markerDir, long markerTimeoutMillis) {
+        this.mirror = mirror;
+        this.fileWatcherFactory = fileWatcherFactory;
+        this.markerFile = new File(markerDir, "marker-" + UUID.randomUUID()).getAbsoluteFile();
+        this.markerTimeoutMillis = markerTimeoutMillis;
+    }
+
+    public DefaultFileSystemMirror getMirror() {
+        return mirror;
+    }
+
+    /**
+     * Waits for all changes made before the start of the build to be reported, so that the retained state can be trusted.
+     */
+    public void beforeBuildStarted() {
+        synchronized (lock) {
+            if (fileWatcher == null) {
+                return;
+            }
+        }
+        try {
+            for (int round = 0; round < MARKER_ROUNDS; round++) {
+                PendingMarker marker = new PendingMarker(UUID.randomUUID().toString());
+                pendingMarker = marker;
+                Files.write(marker.content, markerFile, Charsets.UTF_8);
+                if (!marker.reported.await(markerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    LOGGER.debug("Changes to the file system have not been reported in time, discarding retained file system state.");
+                    stop();
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Could not write marker file, discarding retained file system state.", e);
+            stop();
+        } catch (InterruptedException e) {
+            stop();
+            Thread.currentThread().interrupt();
+        } finally {
+            pendingMarker = null;
+        }
+    }
+
+    public void beforeBuildFinished() {
+        if (!isEnabled()) {
+            stop();
+            mirror.beforeBuildFinished();
+            return;
+        }
+        final FileHierarchySet retainedLocations = watchedLocations;
+        Set<String> discarded = mirror.beforeBuildFinished(new Predicate<String>() {
+            @Override
+            public boolean apply(String absolutePath) {
+                return retainedLocations.contains(absolutePath);
+            }
+        });
+        if (!discarded.isEmpty()) {
+            watch(discarded);
+        }
+    }
+
+    protected boolean isEnabled() {
+        return Boolean.getBoolean(RETAIN_STATE_PROPERTY) && OperatingSystem.current().isLinux();
+    }
+
+    private void watch(Set<String> locations) {
+        FileSystemSubset.Builder subset = FileSystemSubset.builder();
+        FileHierarchySet newWatchedLocations = watchedLocations;
+        for (String location : locations) {
+            File file = new File(location);
+            subset.add(file);
+            newWatchedLocations = newWatchedLocations.plus(file);
+        }
+        synchronized (lock) {
+            try {
+                if (fileWatcher == null) {
+                    fileWatcher = fileWatcherFactory.watch(new Action<Throwable>() {
+                        @Override
+                        public void execute(Throwable throwable) {
+                            LOGGER.debug("Problem watching the file system, discarding retained file system state.", throwable);
+                            stop();
+                        }
+                    }, this);
+                    File markerDir = markerFile.getParentFile();
+                    if (!markerDir.mkdirs() && !markerDir.isDirectory()) {
+                        throw new IOException("Could not create directory " + markerDir);
+                    }
+                    subset.add(markerDir);
+                }
+                fileWatcher.watch(subset.build());
+                watchedLocations = newWatchedLocations;
+            } catch (IOException e) {
+                LOGGER.debug("Could not watch locations, discarding retained file system state.", e);
+                stop();
+            }
+        }
+    }
+
+    @Override
+    public void onChange(FileWatcher watcher, FileWatcherEvent event) {
+        File file = event.getFile();
+        if (markerFile.equals(file)) {
+            markerChanged();
+        } else if (file == null) {
+            // Something changed, but we don't know what
+            mirror.beforeOutputChange();
+        } else {
+            mirror.changed(file.getAbsolutePath());
+        }
+    }
+
+    private void markerChanged() {
+        PendingMarker marker = pendingMarker;
+        if (marker == null) {
+            return;
+        }
+        try {
+            // A change event can be reported for an earlier write of the marker
+            if (marker.content.equals(Files.toString(markerFile, Charsets.UTF_8))) {
+                marker.reported.countDown();
+            }
+        } catch (IOException e) {
+            // Not written completely yet, wait for the next event
+        }
+    }
+
+    @Override
+    public void stop() {
+        synchronized (lock) {
+            watchedLocations = DefaultFileHierarchySet.of();
+            mirror.beforeOutputChange();
+            if (fileWatcher != null) {
+                fileWatcher.stop();
+                fileWatcher = null;
+                markerFile.delete();
+            }
+        }
+    }
+
+    private static class PendingMarker {
+        private final String content;
+        private final CountDownLatch reported = new CountDownLatch(1);
+
+        PendingMarker(String content) {
+            this.content = content;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.project;
+
+import org.gradle.api.CircularReferenceException;
+import org.gradle.api.Project;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.resources.ProjectLeaseRegistry;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Records whether a project configured in parallel has accessed another project, which makes it unsafe to configure the remaining projects in parallel.
+ *
+ * Only access while projects are configured in parallel is tracked. A project accesses another project when it configures it, depends on its
+ * evaluation, or uses its mutable state, such as its extensions, tasks or properties. Referencing another project, for example to declare
+ * a project dependency, is not access.
+ *
+ * A thread which accesses a project other than the project it configures waits until no other project is being configured, and keeps
+ * exclusive access until its project is configured. A project accessed this way is either not configured yet, fully configured, or waiting
+ * for exclusive access itself. Access to the ancestors of a project is serialized the same way, but is not recorded, as the ancestors are
+ * configured before the project itself.
+ */
+public class CrossProjectAccessDetector {
+    private final ProjectLeaseRegistry projectLeaseRegistry;
+    private final AtomicReference<String> firstAccess = new AtomicReference<String>();
+    private final ThreadLocal<ProjectInternal> configuringProject = new ThreadLocal<ProjectInternal>();
+    private final Object lock = new Object();
+    // The following are guarded by lock
+    private final Map<ProjectInternal, ProjectInternal> inProgress = new HashMap<ProjectInternal, ProjectInternal>();
+    private int running;
+    private Thread exclusiveOwner;
+
+    public CrossProjectAccessDetector(ProjectLeaseRegistry projectLeaseRegistry) {
+        this.projectLeaseRegistry = projectLeaseRegistry;
+    }
+
+    /**
+     * Configures the given project in parallel with other projects configured by this method.
+     */
+    public void configureInParallel(ProjectInternal project, Runnable configuration) {
+        synchronized (lock) {
+            awaitNoExclusiveOwner();
+            running++;
+            inProgress.put(project, null);
+        }
+        configuringProject.set(project);
+        try {
+            configuration.run();
+        } finally {
+            configuringProject.remove();
+            synchronized (lock) {
+                running--;
+                inProgress.remove(project);
+                if (exclusiveOwner == Thread.currentThread()) {
+                    exclusiveOwner = null;
+                }
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Called when the current thread configures the given project, depends on its evaluation, or uses its mutable state.
+     */
+    public void projectAccessed(Project accessedProject) {
+        ProjectInternal project = configuringProject.get();
+        if (project == null || accessedProject == project) {
+            return;
+        }
+        if (!isAncestor(accessedProject, project)) {
+            firstAccess.compareAndSet(null, project.getDisplayName() + " accessed " + accessedProject.getDisplayName());
+        }
+        acquireExclusiveAccess();
+    }
+
+    /**
+     * Called when the current thread configures the subprojects of the given project.
+     */
+    public void subprojectsAccessed(ProjectInternal parent) {
+        ProjectInternal project = configuringProject.get();
+        if (project == null) {
+            return;
+        }
+        firstAccess.compareAndSet(null, project.getDisplayName() + " accessed the subprojects of " + parent.getDisplayName());
+        acquireExclusiveAccess();
+    }
+
+    /**
+     * Waits for the given project to be configured, when it is being configured in parallel by another thread.
+     *
+     * @throws CircularReferenceException when the other thread waits for the project configured by this thread.
+     */
+    public void awaitConfigured(final ProjectInternal project) {
+        final ProjectInternal current = configuringProject.get();
+        if (current == null || current == project) {
+            return;
+        }
+        synchronized (lock) {
+            if (!inProgress.containsKey(project)) {
+                return;
+            }
+            for (ProjectInternal waitingFor = project; waitingFor != null; waitingFor = inProgress.get(waitingFor)) {
+                if (waitingFor == current) {
+                    throw new CircularReferenceException(String.format("Circular referencing during evaluation for %s.", project));
+                }
+            }
+        }
+        // Do not block while holding the project lock, as the other thread may need it to complete
+        projectLeaseRegistry.withoutProjectLock(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (lock) {
+                    boolean wasExclusiveOwner = exclusiveOwner == Thread.currentThread();
+                    if (wasExclusiveOwner) {
+                        exclusiveOwner = null;
+                    }
+                    running--;
+                    inProgress.put(current, project);
+                    lock.notifyAll();
+                    try {
+                        while (inProgress.containsKey(project)) {
+                            await();
+                        }
+                    } finally {
+                        inProgress.put(current, null);
+                        if (wasExclusiveOwner) {
+                            awaitExclusiveAccess();
+                        } else {
+                            awaitNoExclusiveOwner();
+                        }
+                        running++;
+                    }
+                }
+            }
+        });
+    }
+
+    public boolean hasDetectedAccess() {
+        return firstAccess.get() != null;
+    }
+
+    /**
+     * Returns a description of the first cross-project access, or {@code null} if none has been detected.
+     */
+    @Nullable
+    public String getFirstAccess() {
+        return firstAccess.get();
+    }
+
+    private void acquireExclusiveAccess() {
+        synchronized (lock) {
+            if (exclusiveOwner == Thread.currentThread()) {
+                return;
+            }
+        }
+        // Do not block while holding the project lock, as another thread may need it to complete
+        projectLeaseRegistry.withoutProjectLock(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (lock) {
+                    running--;
+                    lock.notifyAll();
+                    try {
+                        awaitExclusiveAccess();
+                    } finally {
+                        running++;
+                    }
+                }
+            }
+        });
+    }
+
+    private void awaitExclusiveAccess() {
+        awaitNoExclusiveOwner();
+        exclusiveOwner = Thread.currentThread();
+        while (running > 0) {
+            await();
+        }
+    }
+
+    private void awaitNoExclusiveOwner() {
+        while (exclusiveOwner != null) {
+            await();
+        }
+    }
+
+    private void await() {
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private static boolean isAncestor(Project candidate, ProjectInternal project) {
+        for (Project parent = project.getParent(); parent != null; parent = parent.getParent()) {
+            if (parent == candidate) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.project;
+
+import groovy.lang.MissingMethodException;
+import groovy.lang.MissingPropertyException;
+import org.gradle.api.Project;
+import org.gradle.internal.metaobject.DynamicInvokeResult;
+import org.gradle.internal.metaobject.DynamicObject;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.Map;
+
+/**
+ * The dynamic view of a project, which notifies the project when its mutable state is used.
+ *
+ * Setting a property, invoking a method, or reading a property whose value is not a simple value, such as the extra properties
+ * or the tasks of the project, uses the mutable state of the project. Reading a simple value, such as the version, or a reference
+ * to another project does not.
+ */
+class CrossProjectAccessDynamicObject implements DynamicObject {
+    private final DynamicObject delegate;
+    private final DefaultProject project;
+
+    CrossProjectAccessDynamicObject(DynamicObject delegate, DefaultProject project) {
+        this.delegate = delegate;
+        this.project = project;
+    }
+
+    @Override
+    public MissingPropertyException getMissingProperty(String name) {
+        return delegate.getMissingProperty(name);
+    }
+
+    @Override
+    public MissingPropertyException setMissingProperty(String name) {
+        return delegate.setMissingProperty(name);
+    }
+
+    @Override
+    public MissingMethodException methodMissingException(String name, Object... params) {
+        return delegate.methodMissingException(name, params);
+    }
+
+    @Override
+    public Object getProperty(String name) throws MissingPropertyException {
+        Object value = delegate.getProperty(name);
+        if (!isSimpleValue(value)) {
+            project.stateAccessed();
+        }
+        return value;
+    }
+
+    @Override
+    public void setProperty(String name, Object value) throws MissingPropertyException {
+        project.stateAccessed();
+        delegate.setProperty(name, value);
+    }
+
+    @Override
+    public Object invokeMethod(String name, Object... arguments) throws MissingMethodException {
+        project.stateAccessed();
+        return delegate.invokeMethod(name, arguments);
+    }
+
+    @Override
+    public boolean hasMethod(String name, Object... arguments) {
+        return delegate.hasMethod(name, arguments);
+    }
+
+    @Override
+    public DynamicInvokeResult tryInvokeMethod(String name, Object... arguments) {
+        project.stateAccessed();
+        return delegate.tryInvokeMethod(name, arguments);
+    }
+
+    @Override
+    public boolean hasProperty(String name) {
+        return delegate.hasProperty(name);
+    }
+
+    @Override
+    public DynamicInvokeResult tryGetProperty(String name) {
+        DynamicInvokeResult result = delegate.tryGetProperty(name);
+        if (result.isFound() && !isSimpleValue(result.getValue())) {
+            project.stateAccessed();
+        }
+        return result;
+    }
+
+    @Override
+    public DynamicInvokeResult trySetProperty(String name, Object value) {
+        project.stateAccessed();
+        return delegate.trySetProperty(name, value);
+    }
+
+    @Override
+    public Map<String, ?> getProperties() {
+        return delegate.getProperties();
+    }
+
+    private static boolean isSimpleValue(@Nullable Object value) {
+        return value == null
+            || value instanceof CharSequence
+            || value instanceof Number
+            || value instanceof Boolean
+            || value instanceof File
+            || value instanceof Project;
+    }
+}
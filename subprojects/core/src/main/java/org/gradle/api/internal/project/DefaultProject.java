@@ -205,6 +205,8 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     private ExtensibleDynamicObject extensibleDynamicObject;
 
+    private DynamicObject dynamicObject;
+
     private String description;
 
     private final Path path;
@@ -248,6 +250,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
             extensibleDynamicObject.setParent(parent.getInheritedScope());
         }
         extensibleDynamicObject.addObject(taskContainer.getTasksAsDynamicObject(), ExtensibleDynamicObject.Location.AfterConvention);
+        dynamicObject = new CrossProjectAccessDynamicObject(extensibleDynamicObject, this);
 
         evaluationListener.add(gradle.getProjectEvaluationBroadcaster());
 
@@ -414,7 +417,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public DynamicObject getAsDynamicObject() {
-        return extensibleDynamicObject;
+        return dynamicObject;
     }
 
     @Override
@@ -434,6 +437,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public void setDescription(String description) {
+        stateAccessed();
         this.description = description;
     }
 
@@ -450,6 +454,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public void setGroup(Object group) {
+        stateAccessed();
         this.group = group;
     }
 
@@ -460,6 +465,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public void setVersion(Object version) {
+        stateAccessed();
         this.version = version;
     }
 
@@ -470,6 +476,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public void setStatus(Object status) {
+        stateAccessed();
         this.status = status;
     }
 
@@ -485,6 +492,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public void setDefaultTasks(List<String> defaultTasks) {
+        stateAccessed();
         this.defaultTasks = defaultTasks;
     }
 
@@ -511,6 +519,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public ArtifactHandler getArtifacts() {
+        stateAccessed();
         if (artifactHandler == null) {
             artifactHandler = services.get(ArtifactHandler.class);
         }
@@ -521,15 +530,21 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
         this.artifactHandler = artifactHandler;
     }
 
-    @Inject
     @Override
     public RepositoryHandler getRepositories() {
+        stateAccessed();
+        return getInjectedRepositories();
+    }
+
+    @Inject
+    protected RepositoryHandler getInjectedRepositories() {
         // Decoration takes care of the implementation
         throw new UnsupportedOperationException();
     }
 
     @Override
     public ConfigurationContainer getConfigurations() {
+        stateAccessed();
         if (configurationContainer == null) {
             configurationContainer = services.get(ConfigurationContainer.class);
         }
@@ -542,6 +557,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public Convention getConvention() {
+        stateAccessed();
         return extensibleDynamicObject.getConvention();
     }
 
@@ -651,13 +667,29 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
         return new TreeSet<Project>(getProjectRegistry().getSubProjects(getPath()));
     }
 
+    private void subprojectsAccessed() {
+        if (!childProjects.isEmpty()) {
+            getCrossProjectAccessDetector().subprojectsAccessed(this);
+        }
+    }
+
+    /**
+     * Called when the mutable state of this project is used.
+     */
+    void stateAccessed() {
+        getCrossProjectAccessDetector().projectAccessed(this);
+    }
+
     @Override
     public void subprojects(Action<? super Project> action) {
+        subprojectsAccessed();
         getProjectConfigurator().subprojects(getSubprojects(), action);
     }
 
     @Override
     public void allprojects(Action<? super Project> action) {
+        stateAccessed();
+        subprojectsAccessed();
         getProjectConfigurator().allprojects(getAllprojects(), action);
     }
 
@@ -671,6 +703,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public AntBuilder getAnt() {
+        stateAccessed();
         if (ant == null) {
             ant = createAntBuilder();
         }
@@ -708,11 +741,13 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public TaskContainerInternal getTasks() {
+        stateAccessed();
         return taskContainer;
     }
 
     @Override
     public void defaultTasks(String... defaultTasks) {
+        stateAccessed();
         if (defaultTasks == null) {
             throw new InvalidUserDataException("Default tasks must not be null!");
         }
@@ -747,11 +782,13 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public void setBuildDir(Object path) {
+        stateAccessed();
         getLayout().setBuildDirectory(path);
     }
 
     @Override
     public void evaluationDependsOnChildren() {
+        subprojectsAccessed();
         for (Project project : childProjects.values()) {
             DefaultProject defaultProjectToEvaluate = (DefaultProject) project;
             evaluationDependsOn(defaultProjectToEvaluate);
@@ -768,6 +805,8 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
     }
 
     private Project evaluationDependsOn(DefaultProject projectToEvaluate) {
+        getCrossProjectAccessDetector().projectAccessed(projectToEvaluate);
+        getCrossProjectAccessDetector().awaitConfigured(projectToEvaluate);
         if (projectToEvaluate.getState().isConfiguring()) {
             throw new CircularReferenceException(String.format("Circular referencing during evaluation for %s.",
                 projectToEvaluate));
@@ -967,6 +1006,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public DependencyHandler getDependencies() {
+        stateAccessed();
         if (dependencyHandler == null) {
             dependencyHandler = services.get(DependencyHandler.class);
         }
@@ -984,24 +1024,28 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public void beforeEvaluate(Action<? super Project> action) {
+        stateAccessed();
         assertMutatingMethodAllowed("beforeEvaluate(Action)");
         evaluationListener.add("beforeEvaluate", getListenerBuildOperationDecorator().decorate("Project.beforeEvaluate", action));
     }
 
     @Override
     public void afterEvaluate(Action<? super Project> action) {
+        stateAccessed();
         assertMutatingMethodAllowed("afterEvaluate(Action)");
         evaluationListener.add("afterEvaluate", getListenerBuildOperationDecorator().decorate("Project.afterEvaluate", action));
     }
 
     @Override
     public void beforeEvaluate(Closure closure) {
+        stateAccessed();
         assertMutatingMethodAllowed("beforeEvaluate(Closure)");
         evaluationListener.add(new ClosureBackedMethodInvocationDispatch("beforeEvaluate", getListenerBuildOperationDecorator().decorate("Project.beforeEvaluate", closure)));
     }
 
     @Override
     public void afterEvaluate(Closure closure) {
+        stateAccessed();
         assertMutatingMethodAllowed("afterEvaluate(Closure)");
         evaluationListener.add(new ClosureBackedMethodInvocationDispatch("afterEvaluate", getListenerBuildOperationDecorator().decorate("Project.afterEvaluate", closure)));
     }
@@ -1016,16 +1060,26 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
         return getLogging();
     }
 
-    @Inject
     @Override
     public LoggingManagerInternal getLogging() {
+        stateAccessed();
+        return getInjectedLogging();
+    }
+
+    @Inject
+    protected LoggingManagerInternal getInjectedLogging() {
         // Decoration takes care of the implementation
         throw new UnsupportedOperationException();
     }
 
-    @Inject
     @Override
     public SoftwareComponentContainer getComponents() {
+        stateAccessed();
+        return getInjectedComponents();
+    }
+
+    @Inject
+    protected SoftwareComponentContainer getInjectedComponents() {
         // Decoration takes care of the implementation
         throw new UnsupportedOperationException();
     }
@@ -1042,6 +1096,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public void setProperty(String name, Object value) {
+        stateAccessed();
         extensibleDynamicObject.setProperty(name, value);
     }
 
@@ -1144,22 +1199,27 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public void subprojects(Closure configureClosure) {
+        subprojectsAccessed();
         getProjectConfigurator().subprojects(getSubprojects(), ConfigureUtil.<Project>configureUsing(configureClosure));
     }
 
     @Override
     public void allprojects(Closure configureClosure) {
+        stateAccessed();
+        subprojectsAccessed();
         getProjectConfigurator().allprojects(getAllprojects(), ConfigureUtil.<Project>configureUsing(configureClosure));
     }
 
     @Override
     public Project project(String path, Closure configureClosure) {
-        return getProjectConfigurator().project(project(path), ConfigureUtil.<Project>configureUsing(configureClosure));
+        return project(path, ConfigureUtil.<Project>configureUsing(configureClosure));
     }
 
     @Override
     public Project project(String path, Action<? super Project> configureAction) {
-        return getProjectConfigurator().project(project(path), configureAction);
+        ProjectInternal project = project(path);
+        getCrossProjectAccessDetector().projectAccessed(project);
+        return getProjectConfigurator().project(project, configureAction);
     }
 
     @Override
@@ -1182,6 +1242,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public void repositories(Closure configureClosure) {
+        stateAccessed();
         ConfigureUtil.configure(configureClosure, getRepositories());
     }
 
@@ -1207,21 +1268,21 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public Task task(String task) {
-        return taskContainer.create(task);
+        return getTasks().create(task);
     }
 
     public Task task(Object task) {
-        return taskContainer.create(task.toString());
+        return getTasks().create(task.toString());
     }
 
     @Override
     public Task task(String task, Action<? super Task> configureAction) {
-        return taskContainer.create(task, configureAction);
+        return getTasks().create(task, configureAction);
     }
 
     @Override
     public Task task(String task, Closure configureClosure) {
-        return taskContainer.create(task).configure(configureClosure);
+        return getTasks().create(task).configure(configureClosure);
     }
 
     public Task task(Object task, Closure configureClosure) {
@@ -1230,7 +1291,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public Task task(Map options, String task) {
-        return taskContainer.create(addMaps(options, singletonMap(Task.TASK_NAME, task)));
+        return getTasks().create(addMaps(options, singletonMap(Task.TASK_NAME, task)));
     }
 
     public Task task(Map options, Object task) {
@@ -1239,7 +1300,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public Task task(Map options, String task, Closure configureClosure) {
-        return taskContainer.create(addMaps(options, singletonMap(Task.TASK_NAME, task))).configure(configureClosure);
+        return getTasks().create(addMaps(options, singletonMap(Task.TASK_NAME, task))).configure(configureClosure);
     }
 
     public Task task(Map options, Object task, Closure configureClosure) {
@@ -1268,6 +1329,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     protected DefaultObjectConfigurationAction createObjectConfigurationAction() {
+        stateAccessed();
         return new DefaultObjectConfigurationAction(getFileResolver(), getScriptPluginFactory(), getScriptHandlerFactory(), getBaseClassLoaderScope(), getResourceLoader(), this);
     }
 
@@ -1276,9 +1338,14 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
         throw new UnsupportedOperationException();
     }
 
-    @Inject
     @Override
     public PluginManagerInternal getPluginManager() {
+        stateAccessed();
+        return getInjectedPluginManager();
+    }
+
+    @Inject
+    protected PluginManagerInternal getInjectedPluginManager() {
         // Decoration takes care of the implementation
         throw new UnsupportedOperationException();
     }
@@ -1360,6 +1427,11 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
         throw new UnsupportedOperationException();
     }
 
+    @Inject
+    protected CrossProjectAccessDetector getCrossProjectAccessDetector() {
+        throw new UnsupportedOperationException();
+    }
+
     @Inject
     protected ListenerBuildOperationDecorator getListenerBuildOperationDecorator() {
         throw new UnsupportedOperationException();
@@ -1393,9 +1465,15 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
         }
     }
 
-    @Inject
     @Override
     public InputNormalizationHandler getNormalization() {
+        stateAccessed();
+        return getInjectedNormalization();
+    }
+
+    @Inject
+    protected InputNormalizationHandler getInjectedNormalization() {
+        // Decoration takes care of the implementation
         throw new UnsupportedOperationException();
     }
 
@@ -1404,9 +1482,15 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
         configuration.execute(getNormalization());
     }
 
-    @Inject
     @Override
     public DependencyLockingHandler getDependencyLocking() {
+        stateAccessed();
+        return getInjectedDependencyLocking();
+    }
+
+    @Inject
+    protected DependencyLockingHandler getInjectedDependencyLocking() {
+        // Decoration takes care of the implementation
         throw new UnsupportedOperationException();
     }
 
@@ -16,16 +16,56 @@
 
 package org.gradle.execution;
 
+import org.gradle.api.Action;
 import org.gradle.api.BuildCancelledException;
 import org.gradle.api.Project;
+import org.gradle.api.internal.project.CrossProjectAccessDetector;
 import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 import org.gradle.initialization.BuildCancellationToken;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.MultipleBuildOperationFailures;
+import org.gradle.internal.operations.RunnableBuildOperation;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 public class TaskPathProjectEvaluator implements ProjectConfigurer {
+    /**
+     * Enables configuring the projects of a hierarchy in parallel when running with --parallel.
+     *
+     * The projects are configured level by level, so that a project is configured after its parent.
+     * When a project accesses a project other than its ancestors, it waits until no other project is being configured and the remaining levels are configured serially.
+     * A project which uses the mutable state of an ancestor also waits until no other project is being configured.
+     * Project evaluation listeners may be notified from multiple threads at the same time.
+     */
+    public static final String PARALLEL_CONFIGURATION_PROPERTY = "org.gradle.internal.parallel-configuration";
+
+    private static final Logger LOGGER = Logging.getLogger(TaskPathProjectEvaluator.class);
+
     private final BuildCancellationToken cancellationToken;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final CrossProjectAccessDetector crossProjectAccessDetector;
+    private final boolean parallelConfiguration;
 
     public TaskPathProjectEvaluator(BuildCancellationToken cancellationToken) {
+        this(cancellationToken, null, null, false);
+    }
+
+    public TaskPathProjectEvaluator(BuildCancellationToken cancellationToken, @Nullable BuildOperationExecutor buildOperationExecutor, @Nullable CrossProjectAccessDetector crossProjectAccessDetector, boolean parallelConfiguration) {
         this.cancellationToken = cancellationToken;
+        this.buildOperationExecutor = buildOperationExecutor;
+        this.crossProjectAccessDetector = crossProjectAccessDetector;
+        this.parallelConfiguration = parallelConfiguration;
     }
 
     public void configure(ProjectInternal project) {
@@ -58,11 +98,61 @@ public class TaskPathProjectEvaluator implements ProjectConfigurer {
 
     public void configureHierarchy(ProjectInternal project) {
         configure(project);
+        if (parallelConfiguration) {
+            configureSubprojectsInParallel(project);
+            return;
+        }
         for (Project sub : project.getSubprojects()) {
             configure((ProjectInternal) sub);
         }
     }
 
+    private void configureSubprojectsInParallel(ProjectInternal project) {
+        Map<Integer, List<ProjectInternal>> subprojectsByDepth = new TreeMap<Integer, List<ProjectInternal>>();
+        for (ProjectInternal subproject : project.getProjectRegistry().getSubProjects(project.getPath())) {
+            List<ProjectInternal> subprojects = subprojectsByDepth.get(subproject.getDepth());
+            if (subprojects == null) {
+                subprojects = new ArrayList<ProjectInternal>();
+                subprojectsByDepth.put(subproject.getDepth(), subprojects);
+            }
+            subprojects.add(subproject);
+        }
+        boolean loggedFallback = false;
+        for (List<ProjectInternal> subprojects : subprojectsByDepth.values()) {
+            Collections.sort(subprojects);
+            if (crossProjectAccessDetector.hasDetectedAccess()) {
+                if (!loggedFallback) {
+                    LOGGER.info("Configuring projects serially, as {}.", crossProjectAccessDetector.getFirstAccess());
+                    loggedFallback = true;
+                }
+                for (ProjectInternal subproject : subprojects) {
+                    configure(subproject);
+                }
+            } else {
+                configureInParallel(subprojects);
+            }
+        }
+    }
+
+    private void configureInParallel(final List<ProjectInternal> projects) {
+        try {
+            buildOperationExecutor.runAll(new Action<BuildOperationQueue<RunnableBuildOperation>>() {
+                @Override
+                public void execute(BuildOperationQueue<RunnableBuildOperation> queue) {
+                    for (ProjectInternal project : projects) {
+                        queue.add(new ConfigureProjectInParallel(project));
+                    }
+                }
+            });
+        } catch (MultipleBuildOperationFailures e) {
+            // Report the failure the same way as when configuring serially, if there is only one
+            if (e.getCauses().size() == 1) {
+                throw UncheckedException.throwAsUncheckedException(e.getCauses().get(0));
+            }
+            throw e;
+        }
+    }
+
     @Override
     public void configureHierarchyFully(ProjectInternal project) {
         configureFully(project);
@@ -70,4 +160,27 @@ public class TaskPathProjectEvaluator implements ProjectConfigurer {
             configureFully((ProjectInternal) sub);
         }
     }
+
+    private class ConfigureProjectInParallel implements RunnableBuildOperation {
+        private final ProjectInternal project;
+
+        private ConfigureProjectInParallel(ProjectInternal project) {
+            this.project = project;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            crossProjectAccessDetector.configureInParallel(project, new Runnable() {
+                @Override
+                public void run() {
+                    configure(project);
+                }
+            });
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Configure " + project.getDisplayName() + " in parallel");
+        }
+    }
 }
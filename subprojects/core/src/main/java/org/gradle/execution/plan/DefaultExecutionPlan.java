@@ -38,6 +38,7 @@ import org.gradle.api.internal.TaskInternal;
 import org.gradle.api.internal.file.FileCollectionFactory;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.internal.tasks.TaskExecutionOutcome;
 import org.gradle.api.internal.tasks.TaskPropertyUtils;
 import org.gradle.api.internal.tasks.properties.FileParameterUtils;
 import org.gradle.api.internal.tasks.properties.InputFilePropertyType;
@@ -60,6 +61,8 @@ import org.gradle.internal.resources.ResourceDeadlockException;
 import org.gradle.internal.resources.ResourceLock;
 import org.gradle.internal.resources.ResourceLockState;
 import org.gradle.internal.service.ServiceRegistry;
+import org.gradle.internal.time.Time;
+import org.gradle.internal.time.Timer;
 import org.gradle.internal.work.WorkerLeaseRegistry;
 import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.util.CollectionUtils;
@@ -74,6 +77,7 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -101,19 +105,27 @@ public class DefaultExecutionPlan implements ExecutionPlan {
     private final Set<Node> runningNodes = Sets.newIdentityHashSet();
     private final Set<Node> filteredNodes = Sets.newIdentityHashSet();
     private final Map<Node, MutationInfo> mutations = Maps.newIdentityHashMap();
+    // Output and destroyable paths of the running nodes
+    private final PathOverlapIndex<Node> runningMutationPaths = new PathOverlapIndex<Node>();
+    // Output paths of the nodes whose mutations have been resolved, for as long as their mutations are tracked
+    private final PathOverlapIndex<MutationInfo> resolvedOutputPaths = new PathOverlapIndex<MutationInfo>();
     private final Map<File, String> canonicalizedFileCache = Maps.newIdentityHashMap();
     private final Map<Pair<Node, Node>, Boolean> reachableCache = Maps.newHashMap();
     private final Set<Node> dependenciesCompleteCache = Sets.newHashSet();
+    private final Map<Node, Node> blockingDependencies = Maps.newIdentityHashMap();
+    private final Map<Node, Timer> executionTimers = Maps.newIdentityHashMap();
     private final WorkerLeaseService workerLeaseService;
     private final GradleInternal gradle;
+    private final TaskDurationHistory taskDurationHistory;
 
     private boolean buildCancelled;
 
-    public DefaultExecutionPlan(WorkerLeaseService workerLeaseService, GradleInternal gradle, TaskNodeFactory taskNodeFactory, TaskDependencyResolver dependencyResolver) {
+    public DefaultExecutionPlan(WorkerLeaseService workerLeaseService, GradleInternal gradle, TaskNodeFactory taskNodeFactory, TaskDependencyResolver dependencyResolver, TaskDurationHistory taskDurationHistory) {
         this.workerLeaseService = workerLeaseService;
         this.gradle = gradle;
         this.taskNodeFactory = taskNodeFactory;
         this.dependencyResolver = dependencyResolver;
+        this.taskDurationHistory = taskDurationHistory;
     }
 
     @Override
@@ -263,6 +275,7 @@ public class DefaultExecutionPlan implements ExecutionPlan {
         Deque<GraphEdge> walkedShouldRunAfterEdges = new ArrayDeque<GraphEdge>();
         Deque<Node> path = new ArrayDeque<Node>();
         Map<Node, Integer> planBeforeVisiting = Maps.newHashMap();
+        Map<Node, Integer> planSegments = Maps.newIdentityHashMap();
 
         while (!nodeQueue.isEmpty()) {
             NodeInVisitingSegment nodeInVisitingSegment = nodeQueue.get(0);
@@ -313,6 +326,7 @@ public class DefaultExecutionPlan implements ExecutionPlan {
                 visitingNodes.remove(node, currentSegment);
                 path.pop();
                 nodeMapping.add(node);
+                planSegments.put(node, currentSegment);
 
                 MutationInfo mutations = getOrCreateMutationsOf(node);
                 for (Node dependency : node.getDependencySuccessors()) {
@@ -335,6 +349,115 @@ public class DefaultExecutionPlan implements ExecutionPlan {
         }
         executionQueue.clear();
         Iterables.addAll(executionQueue, nodeMapping);
+        if (taskDurationHistory.isEnabled()) {
+            prioritizeLongestRemainingPaths(planSegments);
+        }
+    }
+
+    /**
+     * Orders the execution queue so that the nodes with the longest remaining path through the graph are selected first, based on the durations of the tasks in previous builds.
+     * Tasks without a known duration are assumed to take the average duration of the tasks with a known duration.
+     *
+     * This only changes which of the ready nodes is preferred, as a node is still only selected once its dependencies are complete. Nodes with the same remaining path keep their order in the plan.
+     *
+     * Nodes are only reordered within a group of consecutive nodes visited for the same entry task or finalizer, so that the entry tasks are still started in the requested order.
+     * Tasks which destroy files form a group of their own, so that they are never moved relative to the tasks which produce or consume those files, such as when running clean together with build.
+     */
+    private void prioritizeLongestRemainingPaths(Map<Node, Integer> planSegments) {
+        Map<Node, Long> durations = Maps.newIdentityHashMap();
+        long totalKnownDuration = 0;
+        for (Node node : executionQueue) {
+            if (node instanceof LocalTaskNode) {
+                Long duration = taskDurationHistory.getDuration(((LocalTaskNode) node).getTask().getPath());
+                if (duration != null) {
+                    durations.put(node, duration);
+                    totalKnownDuration += duration;
+                }
+            }
+        }
+        if (durations.isEmpty()) {
+            return;
+        }
+        long defaultDuration = totalKnownDuration / durations.size();
+
+        // Nodes come after their successors in the plan, so walking the plan backwards visits each node after the nodes waiting for it
+        final Map<Node, Long> remainingPaths = Maps.newIdentityHashMap();
+        Map<Node, Long> longestPathsAfter = Maps.newIdentityHashMap();
+        for (Node node : Lists.reverse(executionQueue)) {
+            Long duration = durations.get(node);
+            if (duration == null) {
+                duration = node instanceof LocalTaskNode ? defaultDuration : 0L;
+            }
+            Long longestPathAfter = longestPathsAfter.get(node);
+            long remainingPath = duration + (longestPathAfter == null ? 0L : longestPathAfter);
+            remainingPaths.put(node, remainingPath);
+            // Should run after ordering is kept by giving the successor a longer remaining path
+            Iterable<Node> successors = node instanceof TaskNode
+                ? Iterables.concat(node.getAllSuccessors(), ((TaskNode) node).getShouldSuccessors())
+                : node.getAllSuccessors();
+            for (Node successor : successors) {
+                Long current = longestPathsAfter.get(successor);
+                if (current == null || current < remainingPath) {
+                    longestPathsAfter.put(successor, remainingPath);
+                }
+            }
+        }
+
+        Comparator<Node> longestRemainingPathFirst = new Comparator<Node>() {
+            @Override
+            public int compare(Node o1, Node o2) {
+                return remainingPaths.get(o2).compareTo(remainingPaths.get(o1));
+            }
+        };
+        List<Node> prioritizedQueue = Lists.newArrayListWithCapacity(executionQueue.size());
+        List<Node> group = Lists.newArrayList();
+        Integer groupSegment = null;
+        for (Node node : executionQueue) {
+            Integer segment = planSegments.get(node);
+            boolean destroyer = mayDestroyFiles(node);
+            if (destroyer || segment == null || !segment.equals(groupSegment)) {
+                addSortedGroup(group, longestRemainingPathFirst, prioritizedQueue);
+                groupSegment = segment;
+            }
+            group.add(node);
+            if (destroyer) {
+                addSortedGroup(group, longestRemainingPathFirst, prioritizedQueue);
+                groupSegment = null;
+            }
+        }
+        addSortedGroup(group, longestRemainingPathFirst, prioritizedQueue);
+        executionQueue.clear();
+        executionQueue.addAll(prioritizedQueue);
+    }
+
+    private static void addSortedGroup(List<Node> group, Comparator<Node> comparator, List<Node> prioritizedQueue) {
+        Collections.sort(group, comparator);
+        prioritizedQueue.addAll(group);
+        group.clear();
+    }
+
+    /**
+     * Checks whether the given node declares destroyables, without resolving any files. A node whose properties cannot be visited is treated as a destroyer,
+     * the failure is reported when its mutations are resolved.
+     */
+    private static boolean mayDestroyFiles(Node node) {
+        if (!(node instanceof LocalTaskNode)) {
+            return false;
+        }
+        TaskInternal task = ((LocalTaskNode) node).getTask();
+        PropertyWalker propertyWalker = ((ProjectInternal) task.getProject()).getServices().get(PropertyWalker.class);
+        final boolean[] destroyer = new boolean[1];
+        try {
+            TaskPropertyUtils.visitProperties(propertyWalker, task, new PropertyVisitor.Adapter() {
+                @Override
+                public void visitDestroyableProperty(Object value) {
+                    destroyer[0] = true;
+                }
+            });
+        } catch (Exception e) {
+            return true;
+        }
+        return destroyer[0];
     }
 
     private MutationInfo getOrCreateMutationsOf(Node node) {
@@ -503,9 +626,13 @@ public class DefaultExecutionPlan implements ExecutionPlan {
         projectLocks.clear();
         failureCollector.clearFailures();
         mutations.clear();
+        runningMutationPaths.clear();
+        resolvedOutputPaths.clear();
         canonicalizedFileCache.clear();
         reachableCache.clear();
         dependenciesCompleteCache.clear();
+        blockingDependencies.clear();
+        executionTimers.clear();
         runningNodes.clear();
     }
 
@@ -540,16 +667,36 @@ public class DefaultExecutionPlan implements ExecutionPlan {
             return null;
         }
 
+        // Projects whose lock could not be acquired by this selection, so that the remaining nodes of these projects are skipped without trying again
+        Set<Project> unavailableProjects = null;
         Iterator<Node> iterator = executionQueue.iterator();
         while (iterator.hasNext()) {
             Node node = iterator.next();
             if (node.isReady() && allDependenciesComplete(node)) {
+                Project project = node.getProject();
+                if (unavailableProjects != null && unavailableProjects.contains(project)) {
+                    continue;
+                }
+
                 MutationInfo mutations = getResolvedMutationInfo(node);
 
+                if (!tryLockProjectFor(node)) {
+                    resourceLockState.releaseLocks();
+                    if (unavailableProjects == null) {
+                        unavailableProjects = Sets.newIdentityHashSet();
+                    }
+                    unavailableProjects.add(project);
+                    continue;
+                }
+
+                if (!workerLease.tryLock()) {
+                    // No other node can be started without the worker lease either
+                    resourceLockState.releaseLocks();
+                    return null;
+                }
+
                 // TODO: convert output file checks to a resource lock
-                if (!tryLockProjectFor(node)
-                    || !workerLease.tryLock()
-                    || !canRunWithCurrentlyExecutedNodes(node, mutations)) {
+                if (!canRunWithCurrentlyExecutedNodes(node, mutations)) {
                     resourceLockState.releaseLocks();
                     continue;
                 }
@@ -657,6 +804,7 @@ public class DefaultExecutionPlan implements ExecutionPlan {
             }
 
             mutations.resolved = true;
+            resolvedOutputPaths.add(mutations.outputPaths, mutations);
 
             if (!mutations.destroyablePaths.isEmpty()) {
                 if (mutations.hasOutputs) {
@@ -685,12 +833,33 @@ public class DefaultExecutionPlan implements ExecutionPlan {
             return true;
         }
 
-        boolean dependenciesComplete = node.allDependenciesComplete();
-        if (dependenciesComplete) {
+        // Most nodes are waiting for the same dependency as on the previous selection, so check that one first
+        Node blockingDependency = blockingDependencies.get(node);
+        if (blockingDependency != null && !blockingDependency.isComplete()) {
+            return false;
+        }
+
+        blockingDependency = firstIncompleteDependency(node);
+        if (blockingDependency == null) {
+            blockingDependencies.remove(node);
             dependenciesCompleteCache.add(node);
+            return true;
         }
+        blockingDependencies.put(node, blockingDependency);
+        return false;
+    }
 
-        return dependenciesComplete;
+    /**
+     * Returns the first of the dependencies checked by {@link Node#allDependenciesComplete()} which is not complete.
+     */
+    @Nullable
+    private static Node firstIncompleteDependency(Node node) {
+        for (Node dependency : node.getAllSuccessors()) {
+            if (!dependency.isComplete()) {
+                return dependency;
+            }
+        }
+        return null;
     }
 
     private boolean allProjectsLocked() {
@@ -744,13 +913,9 @@ public class DefaultExecutionPlan implements ExecutionPlan {
     }
 
     private boolean hasNodeWithOverlappingMutations(Set<String> candidateMutationPaths) {
-        if (!candidateMutationPaths.isEmpty()) {
-            for (Node runningNode : runningNodes) {
-                MutationInfo runningMutations = mutations.get(runningNode);
-                Iterable<String> runningMutationPaths = Iterables.concat(runningMutations.outputPaths, runningMutations.destroyablePaths);
-                if (hasOverlap(candidateMutationPaths, runningMutationPaths)) {
-                    return true;
-                }
+        for (String candidateMutationPath : candidateMutationPaths) {
+            if (runningMutationPaths.hasOverlap(candidateMutationPath)) {
+                return true;
             }
         }
         return false;
@@ -758,7 +923,11 @@ public class DefaultExecutionPlan implements ExecutionPlan {
 
     private boolean doesDestroyNotYetConsumedOutputOfAnotherNode(Node destroyer, Set<String> destroyablePaths) {
         if (!destroyablePaths.isEmpty()) {
-            for (MutationInfo producingNode : mutations.values()) {
+            Set<MutationInfo> overlappingProducers = Sets.newIdentityHashSet();
+            for (String destroyablePath : destroyablePaths) {
+                resolvedOutputPaths.collectOverlapping(destroyablePath, overlappingProducers);
+            }
+            for (MutationInfo producingNode : overlappingProducers) {
                 if (!producingNode.node.isComplete()) {
                     // We don't care about producing nodes that haven't finished yet
                     continue;
@@ -767,10 +936,6 @@ public class DefaultExecutionPlan implements ExecutionPlan {
                     // We don't care about nodes whose output is not consumed by anyone anymore
                     continue;
                 }
-                if (!hasOverlap(destroyablePaths, producingNode.outputPaths)) {
-                    // No overlap no cry
-                    continue;
-                }
                 for (Node consumer : producingNode.consumingNodes) {
                     if (doesConsumerDependOnDestroyer(consumer, destroyer)) {
                         // If there's an explicit dependency from consuming node to destroyer,
@@ -806,65 +971,47 @@ public class DefaultExecutionPlan implements ExecutionPlan {
         return reachable;
     }
 
-    private static boolean hasOverlap(Iterable<String> paths1, Iterable<String> paths2) {
-        for (String path1 : paths1) {
-            for (String path2 : paths2) {
-                String overLappedPath = getOverLappedPath(path1, path2);
-                if (overLappedPath != null) {
-                    return true;
-                }
-            }
-        }
-
-        return false;
-    }
-
-    @Nullable
-    private static String getOverLappedPath(String firstPath, String secondPath) {
-        if (firstPath.equals(secondPath)) {
-            return firstPath;
-        }
-        if (firstPath.length() == secondPath.length()) {
-            return null;
-        }
-
-        String shorter;
-        String longer;
-        if (firstPath.length() > secondPath.length()) {
-            shorter = secondPath;
-            longer = firstPath;
-        } else {
-            shorter = firstPath;
-            longer = secondPath;
-        }
-
-        boolean isOverlapping = longer.startsWith(shorter) && longer.charAt(shorter.length()) == File.separatorChar;
-        if (isOverlapping) {
-            return shorter;
-        } else {
-            return null;
-        }
-    }
-
     private void recordNodeStarted(Node node) {
         runningNodes.add(node);
+        MutationInfo mutations = this.mutations.get(node);
+        runningMutationPaths.add(mutations.outputPaths, node);
+        runningMutationPaths.add(mutations.destroyablePaths, node);
+        if (taskDurationHistory.isEnabled() && node instanceof LocalTaskNode) {
+            executionTimers.put(node, Time.startTimer());
+        }
     }
 
     private void recordNodeCompleted(Node node) {
-        runningNodes.remove(node);
         MutationInfo mutations = this.mutations.get(node);
+        if (runningNodes.remove(node)) {
+            runningMutationPaths.remove(mutations.outputPaths, node);
+            runningMutationPaths.remove(mutations.destroyablePaths, node);
+        }
+        Timer executionTimer = executionTimers.remove(node);
+        if (executionTimer != null) {
+            TaskInternal task = ((LocalTaskNode) node).getTask();
+            // Only tasks which executed their actions tell how long the task takes when it needs to run
+            if (task.getState().getOutcome() == TaskExecutionOutcome.EXECUTED) {
+                taskDurationHistory.recordDuration(task.getPath(), executionTimer.getElapsedMillis());
+            }
+        }
         for (Node producer : mutations.producingNodes) {
             MutationInfo producerMutations = this.mutations.get(producer);
             if (producerMutations.consumingNodes.remove(node) && canRemoveMutation(producerMutations)) {
-                this.mutations.remove(producer);
+                removeMutation(producerMutations);
             }
         }
 
         if (canRemoveMutation(mutations)) {
-            this.mutations.remove(node);
+            removeMutation(mutations);
         }
     }
 
+    private void removeMutation(MutationInfo mutations) {
+        this.mutations.remove(mutations.node);
+        resolvedOutputPaths.remove(mutations.outputPaths, mutations);
+    }
+
     private static boolean canRemoveMutation(@Nullable MutationInfo mutations) {
         return mutations != null && mutations.node.isComplete() && mutations.consumingNodes.isEmpty();
     }
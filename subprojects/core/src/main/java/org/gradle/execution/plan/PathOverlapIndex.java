@@ -0,0 +1,183 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.plan;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Associates values with canonical file paths, and finds the values of the paths that overlap a given path.
+ *
+ * Two paths overlap when they are the same, or when one is an ancestor of the other.
+ * The paths are stored in a tree of path segments, so looking up overlapping paths takes time proportional
+ * to the depth of the path plus the number of overlapping paths, independent of how many paths are stored.
+ *
+ * The same path can be added multiple times for the same value, in which case it needs to be removed as many times.
+ */
+class PathOverlapIndex<T> {
+    private final Segment<T> root = new Segment<T>(null);
+
+    public void add(Iterable<String> paths, T value) {
+        for (String path : paths) {
+            add(path, value);
+        }
+    }
+
+    public void add(String path, T value) {
+        Segment<T> current = root;
+        current.count++;
+        int start = 0;
+        while (start >= 0) {
+            int end = path.indexOf(File.separatorChar, start);
+            current = current.getOrCreateChild(end < 0 ? path.substring(start) : path.substring(start, end));
+            current.count++;
+            start = end < 0 ? -1 : end + 1;
+        }
+        current.values.add(value);
+    }
+
+    public void remove(Iterable<String> paths, T value) {
+        for (String path : paths) {
+            remove(path, value);
+        }
+    }
+
+    public void remove(String path, T value) {
+        List<Segment<T>> visited = Lists.newArrayList();
+        Segment<T> current = root;
+        int start = 0;
+        while (start >= 0) {
+            int end = path.indexOf(File.separatorChar, start);
+            current = current.getChild(end < 0 ? path.substring(start) : path.substring(start, end));
+            if (current == null) {
+                return;
+            }
+            visited.add(current);
+            start = end < 0 ? -1 : end + 1;
+        }
+        if (!removeByIdentity(current.values, value)) {
+            return;
+        }
+        root.count--;
+        Segment<T> parent = root;
+        for (Segment<T> segment : visited) {
+            segment.count--;
+            if (segment.count == 0) {
+                parent.children.remove(segment.name);
+                return;
+            }
+            parent = segment;
+        }
+    }
+
+    /**
+     * Returns whether any stored path overlaps the given path.
+     */
+    public boolean hasOverlap(String path) {
+        Segment<T> current = root;
+        int start = 0;
+        while (start >= 0) {
+            if (!current.values.isEmpty()) {
+                return true;
+            }
+            int end = path.indexOf(File.separatorChar, start);
+            current = current.getChild(end < 0 ? path.substring(start) : path.substring(start, end));
+            if (current == null) {
+                return false;
+            }
+            start = end < 0 ? -1 : end + 1;
+        }
+        return current.count > 0;
+    }
+
+    /**
+     * Adds the values of all stored paths that overlap the given path to the given collection.
+     */
+    public void collectOverlapping(String path, Collection<? super T> result) {
+        Segment<T> current = root;
+        int start = 0;
+        while (start >= 0) {
+            result.addAll(current.values);
+            int end = path.indexOf(File.separatorChar, start);
+            current = current.getChild(end < 0 ? path.substring(start) : path.substring(start, end));
+            if (current == null) {
+                return;
+            }
+            start = end < 0 ? -1 : end + 1;
+        }
+        current.collectAll(result);
+    }
+
+    public boolean isEmpty() {
+        return root.count == 0;
+    }
+
+    public void clear() {
+        root.children.clear();
+        root.values.clear();
+        root.count = 0;
+    }
+
+    private static <T> boolean removeByIdentity(List<T> values, T value) {
+        for (int i = 0; i < values.size(); i++) {
+            if (values.get(i) == value) {
+                values.remove(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class Segment<T> {
+        private final String name;
+        private final Map<String, Segment<T>> children = Maps.newHashMap();
+        private final List<T> values = Lists.newArrayListWithCapacity(1);
+        // Number of values stored in this segment and all of its descendants
+        private int count;
+
+        Segment(@Nullable String name) {
+            this.name = name;
+        }
+
+        @Nullable
+        Segment<T> getChild(String name) {
+            return children.get(name);
+        }
+
+        Segment<T> getOrCreateChild(String name) {
+            Segment<T> child = children.get(name);
+            if (child == null) {
+                child = new Segment<T>(name);
+                children.put(name, child);
+            }
+            return child;
+        }
+
+        void collectAll(Collection<? super T> result) {
+            result.addAll(values);
+            for (Segment<T> child : children.values()) {
+                child.collectAll(result);
+            }
+        }
+    }
+}
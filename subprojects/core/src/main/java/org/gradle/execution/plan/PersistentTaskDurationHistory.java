@@ -0,0 +1,75 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.plan;
+
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.execution.history.ExecutionHistoryCacheAccess;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the task durations in the execution history cache.
+ *
+ * Recorded durations are buffered and written to the cache when the build finishes, so that recording does not access the cache while the execution plan is locked.
+ */
+public class PersistentTaskDurationHistory implements TaskDurationHistory, Stoppable {
+    /**
+     * Enables recording the task durations and prioritizing the tasks on the longest path through the graph.
+     */
+    public static final String ENABLED_PROPERTY = "org.gradle.internal.critical-path-scheduling";
+
+    private final PersistentIndexedCache<String, Long> store;
+    private final Map<String, Long> recordedDurations = new ConcurrentHashMap<String, Long>();
+
+    public PersistentTaskDurationHistory(ExecutionHistoryCacheAccess executionHistoryCacheAccess) {
+        this.store = executionHistoryCacheAccess.createCache(
+            PersistentIndexedCacheParameters.of("taskDurations", String.class, BaseSerializerFactory.LONG_SERIALIZER),
+            10000,
+            false
+        );
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Nullable
+    @Override
+    public Long getDuration(String taskPath) {
+        Long duration = recordedDurations.get(taskPath);
+        return duration != null ? duration : store.get(taskPath);
+    }
+
+    @Override
+    public void recordDuration(String taskPath, long durationMillis) {
+        recordedDurations.put(taskPath, durationMillis);
+    }
+
+    @Override
+    public void stop() {
+        for (Map.Entry<String, Long> entry : recordedDurations.entrySet()) {
+            store.put(entry.getKey(), entry.getValue());
+        }
+        recordedDurations.clear();
+    }
+}
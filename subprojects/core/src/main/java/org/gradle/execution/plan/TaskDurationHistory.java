@@ -0,0 +1,57 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.plan;
+
+import javax.annotation.Nullable;
+
+/**
+ * Remembers how long tasks took to execute in previous builds, so that the execution plan can start the tasks on the longest path through the graph first.
+ */
+public interface TaskDurationHistory {
+    /**
+     * Does not remember anything.
+     */
+    TaskDurationHistory NONE = new TaskDurationHistory() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Nullable
+        @Override
+        public Long getDuration(String taskPath) {
+            return null;
+        }
+
+        @Override
+        public void recordDuration(String taskPath, long durationMillis) {
+        }
+    };
+
+    boolean isEnabled();
+
+    /**
+     * Returns the duration in milliseconds of the last time the task with the given path executed its actions, or {@code null} if not known.
+     */
+    @Nullable
+    Long getDuration(String taskPath);
+
+    /**
+     * Records the duration of a task that executed its actions. The duration may be persisted only at the end of the build.
+     */
+    void recordDuration(String taskPath, long durationMillis);
+}
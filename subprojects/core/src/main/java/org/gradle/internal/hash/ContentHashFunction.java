@@ -0,0 +1,65 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.hash;
+
+import java.util.Locale;
+
+/**
+ * The hash function used to fingerprint file content.
+ *
+ * <p>The function is selected via the {@value #SYSTEM_PROPERTY} system property of the daemon, for example by adding
+ * {@code -Dorg.gradle.internal.content-hash-function=murmur3} to {@code org.gradle.jvmargs}.
+ * The property is only read once, when the global services of the process are created, so the function applies to every build
+ * the process runs. The property is part of the daemon's immutable JVM arguments, so a build that asks for a different function
+ * starts a new daemon instead of reusing one that hashes with another function.</p>
+ */
+public enum ContentHashFunction {
+    MD5(Hashing.md5()),
+    MURMUR3(Hashing.murmur3());
+
+    public static final String SYSTEM_PROPERTY = "org.gradle.internal.content-hash-function";
+
+    private final HashFunction hashFunction;
+
+    ContentHashFunction(HashFunction hashFunction) {
+        this.hashFunction = hashFunction;
+    }
+
+    public HashFunction getHashFunction() {
+        return hashFunction;
+    }
+
+    /**
+     * Returns the name to qualify caches of content hashes with, so hashes produced by different functions are never mixed.
+     * The default function uses the unqualified names, for compatibility with existing caches.
+     */
+    public String qualifyCacheName(String cacheName) {
+        return this == MD5 ? cacheName : cacheName + "-" + name().toLowerCase(Locale.ROOT);
+    }
+
+    public static ContentHashFunction current() {
+        String value = System.getProperty(SYSTEM_PROPERTY);
+        if (value == null) {
+            return MD5;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("Unknown content hash function '%s' specified via the '%s' system property.", value, SYSTEM_PROPERTY), e);
+        }
+    }
+}
@@ -19,6 +19,7 @@ import org.gradle.api.Action;
 import org.gradle.api.Namer;
 import org.gradle.api.internal.file.TemporaryFileProvider;
 import org.gradle.internal.hash.HashUtil;
+import org.gradle.internal.hash.HashValue;
 
 import java.io.File;
 import java.util.Set;
@@ -26,7 +27,7 @@ import java.util.Set;
 /**
  * A file store that stores items grouped by some provided function over the key and an SHA1 hash of the value. This means that files are only ever added and never modified once added, so a resource from this store can be used without locking. Locking is required to add entries.
  */
-public class GroupedAndNamedUniqueFileStore<K> implements FileStore<K>, FileStoreSearcher<K> {
+public class GroupedAndNamedUniqueFileStore<K> implements ChecksumAwareFileStore<K>, FileStoreSearcher<K> {
 
     protected static final int NUMBER_OF_CHECKSUM_DIRS = 1;
 
@@ -48,6 +49,11 @@ public class GroupedAndNamedUniqueFileStore<K> implements FileStore<K>, FileStor
         return markAccessed(delegate.move(toPath(key, getChecksum(source)), source));
     }
 
+    @Override
+    public LocallyAvailableResource move(K key, File source, HashValue sha1) {
+        return markAccessed(delegate.move(toPath(key, sha1.asHexString()), source));
+    }
+
     public Set<? extends LocallyAvailableResource> search(K key) {
         return delegate.search(toPath(key, "*"));
     }
@@ -26,7 +26,9 @@ import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
 import org.gradle.caching.internal.command.BuildCacheCommandFactory;
 import org.gradle.caching.internal.controller.BuildCacheController;
 import org.gradle.execution.plan.DefaultPlanExecutor;
+import org.gradle.execution.plan.PersistentTaskDurationHistory;
 import org.gradle.execution.plan.PlanExecutor;
+import org.gradle.execution.plan.TaskDurationHistory;
 import org.gradle.initialization.BuildCancellationToken;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.concurrent.ParallelismConfigurationManager;
@@ -73,6 +75,13 @@ public class ExecutionGradleServices {
         return new DefaultExecutionHistoryStore(executionHistoryCacheAccess, stringInterner);
     }
 
+    TaskDurationHistory createTaskDurationHistory(ExecutionHistoryCacheAccess executionHistoryCacheAccess) {
+        if (!Boolean.getBoolean(PersistentTaskDurationHistory.ENABLED_PROPERTY)) {
+            return TaskDurationHistory.NONE;
+        }
+        return new PersistentTaskDurationHistory(executionHistoryCacheAccess);
+    }
+
     OutputFilesRepository createOutputFilesRepository(CacheRepository cacheRepository, Gradle gradle, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory) {
         PersistentCache cacheAccess = cacheRepository
             .cache(gradle, "buildOutputCleanup")
@@ -72,6 +72,7 @@ import org.gradle.internal.environment.GradleBuildEnvironment;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.filewatch.DefaultFileWatcherFactory;
 import org.gradle.internal.filewatch.FileWatcherFactory;
+import org.gradle.internal.hash.ContentHashFunction;
 import org.gradle.internal.hash.DefaultStreamHasher;
 import org.gradle.internal.hash.StreamHasher;
 import org.gradle.internal.installation.CurrentGradleInstallation;
@@ -348,8 +349,12 @@ public class GlobalScopeServices extends BasicGlobalScopeServices {
         return new DefaultProgressLoggerFactory(new ProgressLoggingBridge(outputEventListener), clock, buildOperationIdFactory);
     }
 
-    StreamHasher createStreamHasher() {
-        return new DefaultStreamHasher();
+    ContentHashFunction createContentHashFunction() {
+        return ContentHashFunction.current();
+    }
+
+    StreamHasher createStreamHasher(ContentHashFunction contentHashFunction) {
+        return new DefaultStreamHasher(contentHashFunction.getHashFunction());
     }
 
     Clock createClock() {
@@ -26,6 +26,7 @@ import org.gradle.api.internal.changedetection.state.CrossBuildFileHashCache;
 import org.gradle.api.internal.changedetection.state.DefaultFileAccessTimeJournal;
 import org.gradle.api.internal.changedetection.state.DefaultResourceSnapshotterCacheService;
 import org.gradle.api.internal.changedetection.state.DefaultWellKnownFileLocations;
+import org.gradle.api.internal.changedetection.state.FileSystemMirrorWatcher;
 import org.gradle.api.internal.changedetection.state.GlobalScopeFileTimeStampInspector;
 import org.gradle.api.internal.changedetection.state.ResourceFilter;
 import org.gradle.api.internal.changedetection.state.ResourceSnapshotterCacheService;
@@ -69,8 +70,10 @@ import org.gradle.internal.execution.OutputChangeListener;
 import org.gradle.internal.execution.timeout.TimeoutHandler;
 import org.gradle.internal.execution.timeout.impl.DefaultTimeoutHandler;
 import org.gradle.internal.file.JarCache;
+import org.gradle.internal.filewatch.FileWatcherFactory;
 import org.gradle.internal.fingerprint.classpath.ClasspathFingerprinter;
 import org.gradle.internal.fingerprint.classpath.impl.DefaultClasspathFingerprinter;
+import org.gradle.internal.hash.ContentHashFunction;
 import org.gradle.internal.hash.DefaultFileHasher;
 import org.gradle.internal.hash.FileHasher;
 import org.gradle.internal.hash.HashCode;
@@ -124,8 +127,8 @@ public class GradleUserHomeScopeServices {
         return parent.createChild();
     }
 
-    CrossBuildFileHashCache createCrossBuildFileHashCache(CacheRepository cacheRepository, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory) {
-        return new CrossBuildFileHashCache(null, cacheRepository, inMemoryCacheDecoratorFactory);
+    CrossBuildFileHashCache createCrossBuildFileHashCache(CacheRepository cacheRepository, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory, ContentHashFunction contentHashFunction) {
+        return new CrossBuildFileHashCache(null, cacheRepository, inMemoryCacheDecoratorFactory, contentHashFunction);
     }
 
     GlobalScopeFileTimeStampInspector createFileTimestampInspector(CacheScopeMapping cacheScopeMapping, ListenerManager listenerManager) {
@@ -160,27 +163,34 @@ public class GradleUserHomeScopeServices {
         return new DefaultWellKnownFileLocations(fileStores);
     }
 
-    FileSystemMirror createFileSystemMirror(ListenerManager listenerManager, WellKnownFileLocations wellKnownFileLocations) {
-        final DefaultFileSystemMirror fileSystemMirror = new DefaultFileSystemMirror(wellKnownFileLocations);
-        listenerManager.addListener(new OutputChangeListener() {
+    FileSystemMirrorWatcher createFileSystemMirrorWatcher(ListenerManager listenerManager, WellKnownFileLocations wellKnownFileLocations, FileWatcherFactory fileWatcherFactory, GradleUserHomeDirProvider userHomeDirProvider) {
+        File markerDir = new File(userHomeDirProvider.getGradleUserHomeDirectory(), "file-system-watch");
+        final FileSystemMirrorWatcher fileSystemMirrorWatcher = new FileSystemMirrorWatcher(new DefaultFileSystemMirror(wellKnownFileLocations), fileWatcherFactory, markerDir);
+        listenerManager.addListener(new RootBuildLifecycleListener() {
             @Override
-            public void beforeOutputChange() {
-                fileSystemMirror.beforeOutputChange();
+            public void afterStart() {
+                fileSystemMirrorWatcher.beforeBuildStarted();
             }
 
             @Override
-            public void beforeOutputChange(Iterable<String> affectedOutputPaths) {
-                fileSystemMirror.beforeOutputChange(affectedOutputPaths);
+            public void beforeComplete() {
+                fileSystemMirrorWatcher.beforeBuildFinished();
             }
         });
-        listenerManager.addListener(new RootBuildLifecycleListener() {
+        return fileSystemMirrorWatcher;
+    }
+
+    FileSystemMirror createFileSystemMirror(ListenerManager listenerManager, FileSystemMirrorWatcher fileSystemMirrorWatcher) {
+        final DefaultFileSystemMirror fileSystemMirror = fileSystemMirrorWatcher.getMirror();
+        listenerManager.addListener(new OutputChangeListener() {
             @Override
-            public void afterStart() {
+            public void beforeOutputChange() {
+                fileSystemMirror.beforeOutputChange();
             }
 
             @Override
-            public void beforeComplete() {
-                fileSystemMirror.beforeBuildFinished();
+            public void beforeOutputChange(Iterable<String> affectedOutputPaths) {
+                fileSystemMirror.beforeOutputChange(affectedOutputPaths);
             }
         });
         return fileSystemMirror;
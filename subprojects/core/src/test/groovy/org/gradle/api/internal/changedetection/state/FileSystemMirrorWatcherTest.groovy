@@ -0,0 +1,196 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state
+
+import org.gradle.internal.filewatch.FileWatcher
+import org.gradle.internal.filewatch.FileWatcherEvent
+import org.gradle.internal.filewatch.FileWatcherFactory
+import org.gradle.internal.snapshot.impl.DefaultFileSystemMirror
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.Requires
+import org.gradle.util.SetSystemProperties
+import org.gradle.util.TestPrecondition
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.atomic.AtomicBoolean
+
+class FileSystemMirrorWatcherTest extends Specification {
+    @Rule
+    SetSystemProperties systemProperties = new SetSystemProperties()
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def mirror = Mock(DefaultFileSystemMirror)
+    def fileWatcher = Mock(FileWatcher)
+    def fileWatcherFactory = Mock(FileWatcherFactory)
+    def markerDir = tmpDir.file("markers")
+    def watcher = new FileSystemMirrorWatcher(mirror, fileWatcherFactory, markerDir, 1000)
+
+    def "throws away all state at end of build when not enabled"() {
+        when:
+        watcher.beforeBuildFinished()
+
+        then:
+        1 * mirror.beforeBuildFinished()
+        0 * fileWatcherFactory._
+    }
+
+    @Requires(TestPrecondition.NOT_LINUX)
+    def "throws away all state at end of build when changes are not reported in order"() {
+        System.setProperty(FileSystemMirrorWatcher.RETAIN_STATE_PROPERTY, "true")
+
+        when:
+        watcher.beforeBuildFinished()
+
+        then:
+        1 * mirror.beforeBuildFinished()
+        0 * fileWatcherFactory._
+    }
+
+    @Requires(TestPrecondition.LINUX)
+    def "watches discarded locations and retains them in later builds"() {
+        def location = new File("some/location").absolutePath
+        System.setProperty(FileSystemMirrorWatcher.RETAIN_STATE_PROPERTY, "true")
+
+        when:
+        watcher.beforeBuildFinished()
+
+        then:
+        1 * mirror.beforeBuildFinished(_) >> { args ->
+            assert !args[0].apply(location)
+            [location] as Set
+        }
+        1 * fileWatcherFactory.watch(_, watcher) >> fileWatcher
+        1 * fileWatcher.watch({ it.contains(new File(location)) && it.contains(markerDir) })
+
+        when:
+        watcher.beforeBuildFinished()
+
+        then:
+        1 * mirror.beforeBuildFinished(_) >> { args ->
+            assert args[0].apply(location)
+            assert args[0].apply(new File(location, "child").absolutePath)
+            [] as Set
+        }
+        0 * fileWatcherFactory._
+        0 * fileWatcher._
+    }
+
+    def "discards state of changed locations"() {
+        def file = new File("some/file")
+
+        when:
+        watcher.onChange(fileWatcher, FileWatcherEvent.modify(file))
+
+        then:
+        1 * mirror.changed(file.absolutePath)
+
+        when:
+        watcher.onChange(fileWatcher, FileWatcherEvent.undefined())
+
+        then:
+        1 * mirror.beforeOutputChange()
+    }
+
+    @Requires(TestPrecondition.LINUX)
+    def "stops watching and discards retained state when watching fails"() {
+        def location = new File("some/location").absolutePath
+        System.setProperty(FileSystemMirrorWatcher.RETAIN_STATE_PROPERTY, "true")
+
+        when:
+        watcher.beforeBuildFinished()
+
+        then:
+        1 * mirror.beforeBuildFinished(_) >> ([location] as Set)
+        1 * fileWatcherFactory.watch(_, watcher) >> fileWatcher
+        1 * fileWatcher.watch(_) >> { throw new IOException() }
+        1 * mirror.beforeOutputChange()
+        1 * fileWatcher.stop()
+
+        when:
+        watcher.beforeBuildFinished()
+
+        then:
+        1 * mirror.beforeBuildFinished(_) >> { args ->
+            assert !args[0].apply(location)
+            [] as Set
+        }
+    }
+
+    def "does nothing at start of build when nothing is watched"() {
+        when:
+        watcher.beforeBuildStarted()
+
+        then:
+        0 * _
+        !markerDir.exists()
+    }
+
+    @Requires(TestPrecondition.LINUX)
+    def "keeps retained state when the marker written at start of build is reported"() {
+        given:
+        System.setProperty(FileSystemMirrorWatcher.RETAIN_STATE_PROPERTY, "true")
+        mirror.beforeBuildFinished(_) >> ([new File("some/location").absolutePath] as Set)
+        fileWatcherFactory.watch(_, watcher) >> fileWatcher
+        watcher.beforeBuildFinished()
+
+        when:
+        def started = new AtomicBoolean()
+        def reporter = Thread.start {
+            // Report the marker until both markers written at the start of the build have been seen
+            while (!started.get()) {
+                watcher.onChange(fileWatcher, FileWatcherEvent.modify(waitForMarker()))
+                Thread.sleep(10)
+            }
+        }
+        watcher.beforeBuildStarted()
+        started.set(true)
+        reporter.join()
+
+        then:
+        0 * mirror._
+        0 * fileWatcher._
+    }
+
+    @Requires(TestPrecondition.LINUX)
+    def "discards retained state when the marker written at start of build is not reported in time"() {
+        given:
+        System.setProperty(FileSystemMirrorWatcher.RETAIN_STATE_PROPERTY, "true")
+        mirror.beforeBuildFinished(_) >> ([new File("some/location").absolutePath] as Set)
+        fileWatcherFactory.watch(_, watcher) >> fileWatcher
+        watcher.beforeBuildFinished()
+
+        when:
+        watcher.beforeBuildStarted()
+
+        then:
+        1 * mirror.beforeOutputChange()
+        1 * fileWatcher.stop()
+        markerDir.list().length == 0
+    }
+
+    private File waitForMarker() {
+        while (true) {
+            def markers = markerDir.listFiles()
+            if (markers && markers[0].length() > 0) {
+                return markers[0]
+            }
+            Thread.sleep(10)
+        }
+    }
+}
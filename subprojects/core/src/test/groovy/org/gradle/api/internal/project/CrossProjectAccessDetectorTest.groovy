@@ -0,0 +1,223 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.project
+
+import org.gradle.api.CircularReferenceException
+import org.gradle.internal.resources.ProjectLeaseRegistry
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+
+class CrossProjectAccessDetectorTest extends ConcurrentSpec {
+    def projectLeaseRegistry = Stub(ProjectLeaseRegistry) {
+        withoutProjectLock(_ as Runnable) >> { Runnable action -> action.run() }
+    }
+    def detector = new CrossProjectAccessDetector(projectLeaseRegistry)
+    def root = project(null)
+    def a = project(root)
+    def b = project(root)
+    def c = project(root)
+
+    def "project which accesses another project waits until no other project is being configured"() {
+        when:
+        async {
+            start {
+                detector.configureInParallel(a) {
+                    thread.blockUntil.bStarted
+                    detector.projectAccessed(b)
+                    instant.aAccessed
+                }
+            }
+            start {
+                detector.configureInParallel(b) {
+                    instant.bStarted
+                    thread.block()
+                    instant.bConfigured
+                }
+            }
+        }
+
+        then:
+        instant.aAccessed > instant.bConfigured
+        detector.hasDetectedAccess()
+    }
+
+    def "projects do not start configuration while another project has exclusive access"() {
+        when:
+        async {
+            start {
+                detector.configureInParallel(a) {
+                    detector.projectAccessed(b)
+                    instant.exclusive
+                    thread.block()
+                    instant.aConfigured
+                }
+            }
+            start {
+                thread.blockUntil.exclusive
+                detector.configureInParallel(c) {
+                    instant.cStarted
+                }
+            }
+        }
+
+        then:
+        instant.cStarted > instant.aConfigured
+    }
+
+    def "access to ancestors waits until no other project is being configured but is not recorded"() {
+        when:
+        async {
+            start {
+                detector.configureInParallel(b) {
+                    instant.bStarted
+                    thread.block()
+                    instant.bConfigured
+                }
+            }
+            start {
+                thread.blockUntil.bStarted
+                detector.configureInParallel(a) {
+                    detector.projectAccessed(root)
+                    instant.aAccessed
+                }
+            }
+        }
+
+        then:
+        instant.aAccessed > instant.bConfigured
+        !detector.hasDetectedAccess()
+    }
+
+    def "access to its own project does not wait for other projects"() {
+        when:
+        async {
+            start {
+                detector.configureInParallel(b) {
+                    instant.bStarted
+                    thread.blockUntil.aAccessed
+                }
+            }
+            start {
+                thread.blockUntil.bStarted
+                detector.configureInParallel(a) {
+                    detector.projectAccessed(a)
+                    instant.aAccessed
+                }
+            }
+        }
+
+        then:
+        !detector.hasDetectedAccess()
+    }
+
+    def "configuring subprojects waits until no other project is being configured"() {
+        when:
+        async {
+            start {
+                detector.configureInParallel(a) {
+                    thread.blockUntil.bStarted
+                    detector.subprojectsAccessed(a)
+                    instant.aAccessed
+                }
+            }
+            start {
+                detector.configureInParallel(b) {
+                    instant.bStarted
+                    thread.block()
+                    instant.bConfigured
+                }
+            }
+        }
+
+        then:
+        instant.aAccessed > instant.bConfigured
+        detector.hasDetectedAccess()
+    }
+
+    def "waits for a project which is configured by another thread"() {
+        when:
+        async {
+            start {
+                detector.configureInParallel(b) {
+                    instant.bStarted
+                    thread.block()
+                    instant.bConfigured
+                }
+            }
+            start {
+                thread.blockUntil.bStarted
+                detector.configureInParallel(a) {
+                    detector.awaitConfigured(b)
+                    instant.aContinued
+                }
+            }
+        }
+
+        then:
+        instant.aContinued > instant.bConfigured
+    }
+
+    def "fails when projects configured by different threads wait for each other"() {
+        def failures = Collections.synchronizedList([])
+
+        when:
+        async {
+            start {
+                detector.configureInParallel(a) {
+                    instant.aStarted
+                    thread.blockUntil.bStarted
+                    try {
+                        detector.awaitConfigured(b)
+                    } catch (CircularReferenceException e) {
+                        failures << e
+                    }
+                }
+            }
+            start {
+                detector.configureInParallel(b) {
+                    instant.bStarted
+                    thread.blockUntil.aStarted
+                    thread.block()
+                    try {
+                        detector.awaitConfigured(a)
+                    } catch (CircularReferenceException e) {
+                        failures << e
+                    }
+                }
+            }
+        }
+
+        then:
+        failures.size() == 1
+    }
+
+    def "ignores access when not configuring projects in parallel"() {
+        when:
+        detector.projectAccessed(b)
+        detector.subprojectsAccessed(root)
+        detector.awaitConfigured(b)
+
+        then:
+        !detector.hasDetectedAccess()
+    }
+
+    private ProjectInternal project(ProjectInternal parent) {
+        return Stub(ProjectInternal) {
+            getParent() >> parent
+            getDisplayName() >> "project"
+        }
+    }
+}
@@ -69,6 +69,7 @@ import org.gradle.configuration.project.ProjectEvaluator
 import org.gradle.groovy.scripts.EmptyScript
 import org.gradle.groovy.scripts.ScriptSource
 import org.gradle.initialization.ProjectAccessListener
+import org.gradle.internal.Actions
 import org.gradle.internal.Factory
 import org.gradle.internal.instantiation.InstantiatorFactory
 import org.gradle.internal.logging.LoggingManagerInternal
@@ -78,6 +79,7 @@ import org.gradle.internal.operations.TestBuildOperationExecutor
 import org.gradle.internal.reflect.Instantiator
 import org.gradle.internal.resource.StringTextResource
 import org.gradle.internal.resource.TextResourceLoader
+import org.gradle.internal.resources.ProjectLeaseRegistry
 import org.gradle.internal.service.ServiceRegistry
 import org.gradle.internal.service.scopes.ServiceRegistryFactory
 import org.gradle.model.internal.manage.instance.ManagedProxyFactory
@@ -90,6 +92,7 @@ import org.gradle.util.Path
 import org.gradle.util.TestClosure
 import org.gradle.util.TestUtil
 import org.junit.Rule
+import spock.lang.Unroll
 
 import java.awt.Point
 import java.lang.reflect.Type
@@ -148,6 +151,9 @@ class DefaultProjectTest extends Specification {
     BuildOperationExecutor buildOperationExecutor = new TestBuildOperationExecutor()
     ListenerBuildOperationDecorator listenerBuildOperationDecorator = new TestListenerBuildOperationDecorator()
     CrossProjectConfigurator crossProjectConfigurator = new BuildOperationCrossProjectConfigurator(buildOperationExecutor)
+    CrossProjectAccessDetector crossProjectAccessDetector = new CrossProjectAccessDetector(Stub(ProjectLeaseRegistry) {
+        withoutProjectLock(_ as Runnable) >> { Runnable action -> action.run() }
+    })
     ClassLoaderScope baseClassLoaderScope = new RootClassLoaderScope(getClass().classLoader, getClass().classLoader, new DummyClassLoaderCache())
     ClassLoaderScope rootProjectClassLoaderScope = baseClassLoaderScope.createChild("root-project")
     ProjectStateRegistry projectStateRegistryMock = Stub(ProjectStateRegistry)
@@ -208,6 +214,7 @@ class DefaultProjectTest extends Specification {
         serviceRegistryMock.get(BuildOperationExecutor)  >> buildOperationExecutor
         serviceRegistryMock.get((Type) ListenerBuildOperationDecorator)  >> listenerBuildOperationDecorator
         serviceRegistryMock.get((Type) CrossProjectConfigurator)  >> crossProjectConfigurator
+        serviceRegistryMock.get((Type) CrossProjectAccessDetector)  >> crossProjectAccessDetector
         pluginManager.getPluginContainer() >> pluginContainer
 
         serviceRegistryMock.get((Type) DeferredProjectConfiguration) >> Stub(DeferredProjectConfiguration)
@@ -444,6 +451,149 @@ class DefaultProjectTest extends Specification {
         mockReader1Called
     }
 
+    def "records configuration of projects other than the ancestors of a project while configuring in parallel"() {
+        when:
+        crossProjectAccessDetector.configureInParallel(childchild) {
+            childchild.project(project.path) {}
+        }
+        crossProjectAccessDetector.configureInParallel(child2) {
+            child2.project(child2.path) {}
+        }
+
+        then:
+        !crossProjectAccessDetector.hasDetectedAccess()
+
+        when:
+        crossProjectAccessDetector.configureInParallel(child2) {
+            child2.project(child1.path) {}
+        }
+
+        then:
+        crossProjectAccessDetector.hasDetectedAccess()
+    }
+
+    def "does not record references to other projects"() {
+        when:
+        crossProjectAccessDetector.configureInParallel(child2) {
+            child2.project(child1.path)
+            child2.findProject(child1.path)
+            child2.rootProject.childProjects
+            child2.rootProject.subprojects
+            child2.rootProject.allprojects
+        }
+
+        then:
+        !crossProjectAccessDetector.hasDetectedAccess()
+    }
+
+    def "records use of the mutable state of another project"() {
+        when:
+        crossProjectAccessDetector.configureInParallel(child2) {
+            child2.ext.prop = "value"
+            child2.tasks
+            child1.asDynamicObject.getProperty("version")
+        }
+
+        then:
+        !crossProjectAccessDetector.hasDetectedAccess()
+
+        when:
+        crossProjectAccessDetector.configureInParallel(child2) {
+            child1.asDynamicObject.setProperty("version", "1.2")
+        }
+
+        then:
+        crossProjectAccessDetector.hasDetectedAccess()
+    }
+
+    def "records use of the tasks of another project"() {
+        when:
+        crossProjectAccessDetector.configureInParallel(child2) {
+            child1.tasks
+        }
+
+        then:
+        crossProjectAccessDetector.hasDetectedAccess()
+    }
+
+    @Unroll
+    def "records use of the #api of another project"() {
+        when:
+        crossProjectAccessDetector.configureInParallel(child2) {
+            action.call(child2)
+        }
+
+        then:
+        !crossProjectAccessDetector.hasDetectedAccess()
+
+        when:
+        crossProjectAccessDetector.configureInParallel(child2) {
+            action.call(child1)
+        }
+
+        then:
+        crossProjectAccessDetector.hasDetectedAccess()
+
+        where:
+        api                 | action
+        "repositories"      | { DefaultProject p -> p.getRepositories() }
+        "plugin manager"    | { DefaultProject p -> p.getPluginManager() }
+        "plugins"           | { DefaultProject p -> p.getPlugins() }
+        "components"        | { DefaultProject p -> p.getComponents() }
+        "logging"           | { DefaultProject p -> p.getLogging() }
+        "normalization"     | { DefaultProject p -> p.getNormalization() }
+        "dependency locking"| { DefaultProject p -> p.getDependencyLocking() }
+        "version"           | { DefaultProject p -> p.setVersion("1.2") }
+        "group"             | { DefaultProject p -> p.setGroup("group") }
+        "description"       | { DefaultProject p -> p.setDescription("description") }
+        "status"            | { DefaultProject p -> p.setStatus("release") }
+        "build dir"         | { DefaultProject p -> p.setBuildDir("out") }
+        "default tasks"     | { DefaultProject p -> p.defaultTasks("build") }
+        "evaluation hooks"  | { DefaultProject p -> p.afterEvaluate(Actions.doNothing()) }
+    }
+
+    def "records configuration of the subprojects of a project while configuring in parallel"() {
+        when:
+        crossProjectAccessDetector.configureInParallel(childchild) {
+            childchild.allprojects {}
+            childchild.subprojects {}
+        }
+
+        then:
+        !crossProjectAccessDetector.hasDetectedAccess()
+
+        when:
+        crossProjectAccessDetector.configureInParallel(child1) {
+            child1.subprojects {}
+        }
+
+        then:
+        crossProjectAccessDetector.hasDetectedAccess()
+    }
+
+    def "does not record access when not configuring in parallel"() {
+        when:
+        project.allprojects {}
+        child2.project(child1.path) {}
+        child1.tasks
+
+        then:
+        !crossProjectAccessDetector.hasDetectedAccess()
+    }
+
+    def "records evaluation dependency on another project"() {
+        given:
+        child1.projectEvaluator = Stub(ProjectEvaluator)
+
+        when:
+        crossProjectAccessDetector.configureInParallel(child2) {
+            child2.evaluationDependsOn(child1.path)
+        }
+
+        then:
+        crossProjectAccessDetector.hasDetectedAccess()
+    }
+
     def evaluationDependsOnWithNullArgument() {
         when:
         project.evaluationDependsOn(null)
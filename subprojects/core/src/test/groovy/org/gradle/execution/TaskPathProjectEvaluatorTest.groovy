@@ -17,8 +17,13 @@
 package org.gradle.execution
 
 import org.gradle.api.BuildCancelledException
+import org.gradle.api.internal.project.CrossProjectAccessDetector
 import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.project.ProjectRegistry
 import org.gradle.initialization.BuildCancellationToken
+import org.gradle.internal.operations.BuildOperationExecutor
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.internal.resources.ProjectLeaseRegistry
 import spock.lang.Specification
 
 class TaskPathProjectEvaluatorTest extends Specification {
@@ -60,4 +65,68 @@ class TaskPathProjectEvaluatorTest extends Specification {
         1 * child1.evaluate()
         0 * child2._
     }
+
+    def "configures subprojects in parallel level by level"() {
+        def registry = Mock(ProjectRegistry)
+        def child1 = project(":child1", 1)
+        def child2 = project(":child2", 1)
+        def grandchild = project(":child1:grandchild", 2)
+        def buildOperationExecutor = new TestBuildOperationExecutor()
+        def parallelEvaluator = new TaskPathProjectEvaluator(cancellationToken, buildOperationExecutor, new CrossProjectAccessDetector(Stub(ProjectLeaseRegistry)), true)
+
+        given:
+        project.path >> ":"
+        project.projectRegistry >> registry
+        registry.getSubProjects(":") >> ([grandchild, child2, child1] as Set)
+
+        when:
+        parallelEvaluator.configureHierarchy(project)
+
+        then:
+        1 * project.evaluate()
+
+        then:
+        1 * child1.evaluate()
+        1 * child2.evaluate()
+
+        then:
+        1 * grandchild.evaluate()
+        0 * project.subprojects
+        buildOperationExecutor.log.records.size() == 3
+    }
+
+    def "configures subprojects serially once cross-project access has been detected"() {
+        def registry = Mock(ProjectRegistry)
+        def child1 = project(":child1", 1)
+        def child2 = project(":child2", 1)
+        def buildOperationExecutor = Mock(BuildOperationExecutor)
+        def crossProjectAccessDetector = new CrossProjectAccessDetector(Stub(ProjectLeaseRegistry))
+        def parallelEvaluator = new TaskPathProjectEvaluator(cancellationToken, buildOperationExecutor, crossProjectAccessDetector, true)
+
+        given:
+        project.path >> ":"
+        project.projectRegistry >> registry
+        registry.getSubProjects(":") >> ([child2, child1] as Set)
+
+        when:
+        parallelEvaluator.configureHierarchy(project)
+
+        then:
+        1 * project.evaluate() >> { crossProjectAccessDetector.subprojectsAccessed(project) }
+
+        then:
+        1 * child1.evaluate()
+
+        then:
+        1 * child2.evaluate()
+        0 * buildOperationExecutor._
+    }
+
+    private ProjectInternal project(String path, int depth) {
+        def project = Mock(ProjectInternal)
+        project.path >> path
+        project.depth >> depth
+        project.compareTo(_) >> { ProjectInternal other -> path <=> other.path }
+        return project
+    }
 }
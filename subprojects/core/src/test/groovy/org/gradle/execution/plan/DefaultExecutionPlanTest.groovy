@@ -26,6 +26,7 @@ import org.gradle.api.internal.TaskOutputsInternal
 import org.gradle.api.internal.project.ProjectInternal
 import org.gradle.api.internal.project.taskfactory.TaskIdentity
 import org.gradle.api.internal.tasks.TaskDestroyablesInternal
+import org.gradle.api.internal.tasks.TaskExecutionOutcome
 import org.gradle.api.internal.tasks.TaskLocalStateInternal
 import org.gradle.api.internal.tasks.TaskStateInternal
 import org.gradle.api.specs.Spec
@@ -57,7 +58,7 @@ class DefaultExecutionPlanTest extends AbstractProjectBuilderSpec {
         root = createRootProject(temporaryFolder.testDirectory)
         def taskNodeFactory = new TaskNodeFactory(root.gradle, Stub(IncludedBuildTaskGraph))
         def dependencyResolver = new TaskDependencyResolver([new TaskNodeDependencyResolver(taskNodeFactory)])
-        executionPlan = new DefaultExecutionPlan(workerLeaseService, root.gradle, taskNodeFactory, dependencyResolver)
+        executionPlan = new DefaultExecutionPlan(workerLeaseService, root.gradle, taskNodeFactory, dependencyResolver, TaskDurationHistory.NONE)
         _ * workerLeaseService.getProjectLock(_, _) >> Mock(ResourceLock) {
             _ * isLocked() >> false
             _ * tryLock() >> true
@@ -850,6 +851,116 @@ class DefaultExecutionPlanTest extends AbstractProjectBuilderSpec {
         filtered(b)
     }
 
+    def "prefers tasks on the longest remaining path when task durations are known"() {
+        given:
+        def taskDurationHistory = Mock(TaskDurationHistory)
+        useTaskDurationHistory(taskDurationHistory)
+        Task a = task("a")
+        Task b = task("b")
+        Task c = task("c", dependsOn: [b])
+        Task d = task("d", dependsOn: [a, c])
+
+        and:
+        _ * taskDurationHistory.enabled >> true
+        _ * taskDurationHistory.getDuration(":a") >> 10
+        _ * taskDurationHistory.getDuration(":b") >> 100
+        _ * taskDurationHistory.getDuration(":c") >> 100
+        _ * taskDurationHistory.getDuration(":d") >> 1
+
+        when:
+        addToGraphAndPopulate([d])
+
+        then:
+        executionPlan.tasks as List == [a, b, c, d]
+        executedTasks == [b, c, a, d]
+    }
+
+    def "keeps entry tasks in order when prioritizing by task durations"() {
+        given:
+        def taskDurationHistory = Mock(TaskDurationHistory)
+        useTaskDurationHistory(taskDurationHistory)
+        Task a = task("a")
+        Task b = task("b")
+
+        and:
+        _ * taskDurationHistory.enabled >> true
+        _ * taskDurationHistory.getDuration(":a") >> 1
+        _ * taskDurationHistory.getDuration(":b") >> 100
+
+        when:
+        addToGraphAndPopulate([a, b])
+
+        then:
+        executes(a, b)
+    }
+
+    def "does not reorder producers before destroyers when prioritizing by task durations"() {
+        given:
+        def taskDurationHistory = Mock(TaskDurationHistory)
+        useTaskDurationHistory(taskDurationHistory)
+        Task compile = task("compile")
+        Task clean = task("clean", destroys: [root.buildDir])
+        Task build = task("build", dependsOn: [clean, compile])
+
+        and:
+        _ * taskDurationHistory.enabled >> true
+        _ * taskDurationHistory.getDuration(":clean") >> 1
+        _ * taskDurationHistory.getDuration(":compile") >> 100
+        _ * taskDurationHistory.getDuration(":build") >> 1
+
+        when:
+        addToGraphAndPopulate([build])
+
+        then:
+        executes(clean, compile, build)
+    }
+
+    def "keeps should run after ordering when prioritizing by task durations"() {
+        given:
+        def taskDurationHistory = Mock(TaskDurationHistory)
+        useTaskDurationHistory(taskDurationHistory)
+        Task a = task("a")
+        Task b = task("b", shouldRunAfter: [a])
+
+        and:
+        _ * taskDurationHistory.enabled >> true
+        _ * taskDurationHistory.getDuration(":a") >> 1
+        _ * taskDurationHistory.getDuration(":b") >> 100
+
+        when:
+        addToGraphAndPopulate([b, a])
+
+        then:
+        executes(a, b)
+    }
+
+    def "records durations of tasks which executed their actions"() {
+        given:
+        def taskDurationHistory = Mock(TaskDurationHistory)
+        useTaskDurationHistory(taskDurationHistory)
+        Task a = task("a")
+        Task b = task("b")
+
+        and:
+        _ * taskDurationHistory.enabled >> true
+        _ * a.state.getOutcome() >> TaskExecutionOutcome.EXECUTED
+        _ * b.state.getOutcome() >> TaskExecutionOutcome.UP_TO_DATE
+
+        when:
+        addToGraphAndPopulate([a, b])
+        executes(a, b)
+
+        then:
+        1 * taskDurationHistory.recordDuration(":a", _)
+        0 * taskDurationHistory.recordDuration(":b", _)
+    }
+
+    private void useTaskDurationHistory(TaskDurationHistory taskDurationHistory) {
+        def taskNodeFactory = new TaskNodeFactory(root.gradle, Stub(IncludedBuildTaskGraph))
+        def dependencyResolver = new TaskDependencyResolver([new TaskNodeDependencyResolver(taskNodeFactory)])
+        executionPlan = new DefaultExecutionPlan(workerLeaseService, root.gradle, taskNodeFactory, dependencyResolver, taskDurationHistory)
+    }
+
     private void addToGraphAndPopulate(List tasks) {
         executionPlan.addEntryTasks(tasks)
         executionPlan.determineExecutionPlan()
@@ -932,7 +1043,7 @@ class DefaultExecutionPlanTest extends AbstractProjectBuilderSpec {
     }
 
     private TaskInternal task(Map options, final String name) {
-        def task = createTask(name)
+        def task = createTask(name, options.destroys ?: [])
         relationships(options, task)
         if (options.failure) {
             failure(task, options.failure)
@@ -961,7 +1072,7 @@ class DefaultExecutionPlanTest extends AbstractProjectBuilderSpec {
         return task
     }
 
-    private TaskInternal createTask(final String name) {
+    private TaskInternal createTask(final String name, List destroys = []) {
         TaskInternal task = Mock()
         TaskStateInternal state = Mock()
         task.getProject() >> root
@@ -974,7 +1085,9 @@ class DefaultExecutionPlanTest extends AbstractProjectBuilderSpec {
             return name.compareTo(taskInternal.getName())
         }
         task.getOutputs() >> emptyTaskOutputs()
-        task.getDestroyables() >> emptyTaskDestroys()
+        task.getDestroyables() >> Stub(TaskDestroyablesInternal) {
+            getRegisteredPaths() >> destroys
+        }
         task.getLocalState() >> emptyTaskLocalState()
         task.getInputs() >> emptyTaskInputs()
         task.getTaskIdentity() >> TaskIdentity.create(name, DefaultTask, root)
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.plan
+
+import spock.lang.Specification
+
+class PathOverlapIndexTest extends Specification {
+    def index = new PathOverlapIndex<String>()
+
+    def "finds paths which are the same, ancestors or descendants of the given path"() {
+        index.add(path("root", "a", "b"), "ab")
+        index.add(path("root", "a", "c", "d"), "acd")
+        index.add(path("root", "e"), "e")
+
+        expect:
+        overlapping(path("root", "a")) == ["ab", "acd"] as Set
+        overlapping(path("root", "a", "b")) == ["ab"] as Set
+        overlapping(path("root", "a", "b", "f")) == ["ab"] as Set
+        overlapping(path("root")) == ["ab", "acd", "e"] as Set
+        overlapping(path("root", "a", "bb")).empty
+        overlapping(path("other")).empty
+        index.hasOverlap(path("root", "a", "c"))
+        index.hasOverlap(path("root", "e", "f"))
+        !index.hasOverlap(path("root", "a", "c", "dd"))
+        !index.hasOverlap(path("root", "ee"))
+    }
+
+    def "path is removed once it has been removed as many times as it has been added for a value"() {
+        def pathA = path("root", "a")
+        index.add(pathA, "a")
+        index.add(pathA, "a")
+        index.add(pathA, "b")
+
+        when:
+        index.remove(pathA, "a")
+        index.remove(pathA, "b")
+
+        then:
+        overlapping(path("root")) == ["a"] as Set
+
+        when:
+        index.remove(pathA, "a")
+
+        then:
+        !index.hasOverlap(path("root"))
+        index.empty
+    }
+
+    def "removing a path which has not been added is ignored"() {
+        index.add(path("root", "a"), "a")
+
+        when:
+        index.remove(path("root", "b"), "a")
+        index.remove(path("root", "a"), "b")
+
+        then:
+        overlapping(path("root")) == ["a"] as Set
+    }
+
+    private Set<String> overlapping(String path) {
+        def result = [] as Set
+        index.collectOverlapping(path, result)
+        return result
+    }
+
+    private static String path(String... segments) {
+        return File.separator + segments.join(File.separator)
+    }
+}
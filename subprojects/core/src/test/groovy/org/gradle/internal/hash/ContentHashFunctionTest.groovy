@@ -0,0 +1,65 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.hash
+
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
+import spock.lang.Specification
+
+class ContentHashFunctionTest extends Specification {
+    @Rule
+    SetSystemProperties systemProperties = new SetSystemProperties()
+
+    def "uses MD5 by default"() {
+        expect:
+        ContentHashFunction.current() == ContentHashFunction.MD5
+        ContentHashFunction.MD5.hashFunction == Hashing.md5()
+    }
+
+    def "can select function via system property"() {
+        System.setProperty(ContentHashFunction.SYSTEM_PROPERTY, "Murmur3")
+
+        expect:
+        ContentHashFunction.current() == ContentHashFunction.MURMUR3
+        ContentHashFunction.MURMUR3.hashFunction == Hashing.murmur3()
+    }
+
+    def "fails for unknown function"() {
+        System.setProperty(ContentHashFunction.SYSTEM_PROPERTY, "crc32")
+
+        when:
+        ContentHashFunction.current()
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message == "Unknown content hash function 'crc32' specified via the 'org.gradle.internal.content-hash-function' system property."
+    }
+
+    def "qualifies cache names for non-default functions only"() {
+        expect:
+        ContentHashFunction.MD5.qualifyCacheName("fileHashes") == "fileHashes"
+        ContentHashFunction.MURMUR3.qualifyCacheName("fileHashes") == "fileHashes-murmur3"
+    }
+
+    def "stream hasher uses the selected function"() {
+        def content = "some content".bytes
+
+        expect:
+        new DefaultStreamHasher(Hashing.murmur3()).hash(new ByteArrayInputStream(content)) != new DefaultStreamHasher(Hashing.md5()).hash(new ByteArrayInputStream(content))
+        new DefaultStreamHasher().hash(new ByteArrayInputStream(content)) == new DefaultStreamHasher(Hashing.md5()).hash(new ByteArrayInputStream(content))
+    }
+}
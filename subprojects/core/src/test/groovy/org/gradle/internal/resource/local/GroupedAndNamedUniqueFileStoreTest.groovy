@@ -18,6 +18,7 @@ package org.gradle.internal.resource.local
 
 import org.gradle.api.internal.file.DefaultTemporaryFileProvider
 import org.gradle.api.internal.file.TemporaryFileProvider
+import org.gradle.internal.hash.HashValue
 import org.gradle.test.fixtures.file.TestFile
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
@@ -63,6 +64,19 @@ class GroupedAndNamedUniqueFileStoreTest extends Specification {
         1 * fileAccessTimeJournal.setLastAccessTime(baseDir.file('group'), _)
     }
 
+    def "uses given checksum instead of hashing the file when it is moved into the store"() {
+        given:
+        def file = tmpDir.createFile("1.txt")
+        def sha1 = HashValue.parse("1234")
+
+        when:
+        def resource = fileStore.move('1', file, sha1)
+
+        then:
+        resource.file == baseDir.file("group/${sha1.asHexString()}/1")
+        1 * fileAccessTimeJournal.setLastAccessTime(baseDir.file('group'), _)
+    }
+
     def "allows to mark files accessed externally"() {
         when:
         fileStore.getFileAccessTracker().markAccessed(baseDir.file('group/1.txt'))
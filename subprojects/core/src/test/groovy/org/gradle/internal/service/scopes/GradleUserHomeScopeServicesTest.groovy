@@ -42,6 +42,8 @@ import org.gradle.internal.classpath.CachedClasspathTransformer
 import org.gradle.internal.concurrent.ExecutorFactory
 import org.gradle.internal.concurrent.ParallelismConfigurationManager
 import org.gradle.internal.event.ListenerManager
+import org.gradle.internal.filewatch.FileWatcherFactory
+import org.gradle.internal.hash.ContentHashFunction
 import org.gradle.internal.hash.FileHasher
 import org.gradle.internal.hash.StreamHasher
 import org.gradle.internal.jvm.inspection.JvmVersionDetector
@@ -126,7 +128,9 @@ class GradleUserHomeScopeServicesTest extends WorkspaceTest {
         expectParentServiceLocated(ClassLoaderRegistry)
         expectParentServiceLocated(DirectoryFileTreeFactory)
         expectParentServiceLocated(StreamHasher)
+        parent.get(ContentHashFunction) >> ContentHashFunction.MD5
         expectParentServiceLocated(FileCollectionFactory)
+        expectParentServiceLocated(FileWatcherFactory)
 
         expect:
         findsAndCachesService(serviceType)
@@ -80,6 +80,7 @@ class ResolveConfigurationDependenciesBuildOperationIntegrationTest extends Abst
         op.details.configurationTransitive == true
 
         op.result.resolvedDependenciesCount == 4
+        op.result.graphResolutionTimeMillis >= 0
     }
 
     def "resolved detached configurations are exposed"() {
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Resources;
+import org.gradle.api.internal.cache.StringInterner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.w3c.dom.Document;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares reading POM files into a DOM, as {@link PomReader} used to do, with the streaming parser.
+ *
+ * The POMs are a fixed corpus of real POMs checked in next to this benchmark, listed in {@code poms/index.txt}, so that results
+ * can be compared between machines and runs. A single {@link StringInterner} is shared by all parses of a trial, like the
+ * build scoped interner used when resolving.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class PomParsingBenchmark {
+    private static final String SYSTEM_ID = "file:/pom.xml";
+
+    @Param({"dom", "stream"})
+    String parser;
+
+    List<byte[]> poms;
+    DocumentBuilderFactory documentBuilderFactory;
+    byte[] m2Entities;
+    StringInterner stringInterner;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        poms = new ArrayList<byte[]>();
+        for (String name : Resources.readLines(Resources.getResource(PomParsingBenchmark.class, "poms/index.txt"), Charsets.UTF_8)) {
+            if (!name.isEmpty()) {
+                poms.add(Resources.toByteArray(Resources.getResource(PomParsingBenchmark.class, "poms/" + name)));
+            }
+        }
+        documentBuilderFactory = DocumentBuilderFactory.newInstance();
+        documentBuilderFactory.setValidating(false);
+        m2Entities = ByteStreams.toByteArray(org.apache.ivy.plugins.parser.m2.PomReader.class.getResourceAsStream("m2-entities.ent"));
+        stringInterner = new StringInterner();
+    }
+
+    @Benchmark
+    public void parsePoms(Blackhole blackhole) throws Exception {
+        boolean dom = parser.equals("dom");
+        for (byte[] pom : poms) {
+            if (dom) {
+                blackhole.consume(parseToDom(pom));
+            } else {
+                blackhole.consume(PomDomParser.parse(new ByteArrayInputStream(pom), SYSTEM_ID, stringInterner));
+            }
+        }
+    }
+
+    private Document parseToDom(byte[] pom) throws Exception {
+        DocumentBuilder documentBuilder = documentBuilderFactory.newDocumentBuilder();
+        documentBuilder.setEntityResolver(new EntityResolver() {
+            @Override
+            public InputSource resolveEntity(String publicId, String systemId) {
+                if (systemId != null && systemId.endsWith("m2-entities.ent")) {
+                    return new InputSource(new ByteArrayInputStream(m2Entities));
+                }
+                return null;
+            }
+        });
+        return documentBuilder.parse(new PomDomParser.AddDTDFilterInputStream(new ByteArrayInputStream(pom)), SYSTEM_ID);
+    }
+}
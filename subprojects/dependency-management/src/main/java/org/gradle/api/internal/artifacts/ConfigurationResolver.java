@@ -29,12 +29,15 @@ public interface ConfigurationResolver {
 
     /**
      * Traverses the full dependency graph of the given configuration. All failures are packaged in the result.
+     *
+     * @param graphOnly whether the caller only queries the resolution result. The resolver may then use a previously stored resolution result,
+     * and only traverse the graph when the artifacts are requested later.
      */
-    void resolveGraph(ConfigurationInternal configuration, ResolverResults results) throws ResolveException;
+    void resolveGraph(ConfigurationInternal configuration, ResolverResults results, boolean graphOnly) throws ResolveException;
 
     /**
      * Calculates the artifacts to include in the result for the given configuration. All failures are packaged in the result.
-     * Must be called using the same result instance as was passed to {@link #resolveGraph(ConfigurationInternal, ResolverResults)}.
+     * Must be called using the same result instance as was passed to {@link #resolveGraph(ConfigurationInternal, ResolverResults, boolean)}.
      */
     void resolveArtifacts(ConfigurationInternal configuration, ResolverResults results) throws ResolveException;
 
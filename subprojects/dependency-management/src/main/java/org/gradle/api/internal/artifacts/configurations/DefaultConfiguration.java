@@ -111,6 +111,8 @@ import org.gradle.internal.operations.BuildOperationDescriptor;
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.operations.RunnableBuildOperation;
 import org.gradle.internal.reflect.Instantiator;
+import org.gradle.internal.time.Time;
+import org.gradle.internal.time.Timer;
 import org.gradle.internal.typeconversion.NotationParser;
 import org.gradle.util.CollectionUtils;
 import org.gradle.util.ConfigureUtil;
@@ -525,7 +527,14 @@ public class DefaultConfiguration extends AbstractFileCollection implements Conf
         return cachedResolverResults.getResolvedConfiguration();
     }
 
-    private void resolveToStateOrLater(final InternalState requestedState) {
+    private void resolveToStateOrLater(InternalState requestedState) {
+        resolveToStateOrLater(requestedState, false);
+    }
+
+    /**
+     * @param graphOnly whether the caller only queries the resolution result, and not the files or artifacts of this configuration.
+     */
+    private void resolveToStateOrLater(final InternalState requestedState, final boolean graphOnly) {
         assertIsResolvable();
 
         if (!projectStateHandler.hasMutableProjectState()) {
@@ -535,20 +544,24 @@ public class DefaultConfiguration extends AbstractFileCollection implements Conf
             projectStateHandler.withLenientState(new Runnable() {
                 @Override
                 public void run() {
-                    resolveExclusively(requestedState);
+                    resolveExclusively(requestedState, graphOnly);
                 }
             });
         } else {
-            resolveExclusively(requestedState);
+            resolveExclusively(requestedState, graphOnly);
         }
     }
 
     private void resolveExclusively(InternalState requestedState) {
+        resolveExclusively(requestedState, false);
+    }
+
+    private void resolveExclusively(final InternalState requestedState, final boolean graphOnly) {
         resolutionLock.withLock(new Runnable() {
             @Override
             public void run() {
                 if (requestedState == GRAPH_RESOLVED || requestedState == ARTIFACTS_RESOLVED) {
-                    resolveGraphIfRequired(requestedState);
+                    resolveGraphIfRequired(requestedState, graphOnly);
                 }
                 if (requestedState == ARTIFACTS_RESOLVED) {
                     resolveArtifactsIfRequired();
@@ -558,9 +571,9 @@ public class DefaultConfiguration extends AbstractFileCollection implements Conf
     }
 
     /**
-     * Must be called from {@link #resolveExclusively(InternalState)} only.
+     * Must be called from {@link #resolveExclusively(InternalState, boolean)} only.
      */
-    private void resolveGraphIfRequired(final InternalState requestedState) {
+    private void resolveGraphIfRequired(final InternalState requestedState, final boolean graphOnly) {
         if (resolvedState == ARTIFACTS_RESOLVED || resolvedState == GRAPH_RESOLVED) {
             if (dependenciesModified) {
                 throw new InvalidUserDataException(String.format("Attempted to resolve %s that has been resolved previously.", getDisplayName()));
@@ -577,7 +590,9 @@ public class DefaultConfiguration extends AbstractFileCollection implements Conf
                 ResolvableDependenciesInternal incoming = (ResolvableDependenciesInternal) getIncoming();
                 performPreResolveActions(incoming);
                 cachedResolverResults = new DefaultResolverResults();
-                resolver.resolveGraph(DefaultConfiguration.this, cachedResolverResults);
+                Timer graphResolutionTimer = Time.startTimer();
+                resolver.resolveGraph(DefaultConfiguration.this, cachedResolverResults, graphOnly);
+                long graphResolutionTime = graphResolutionTimer.getElapsedMillis();
                 dependenciesModified = false;
                 resolvedState = GRAPH_RESOLVED;
 
@@ -590,10 +605,10 @@ public class DefaultConfiguration extends AbstractFileCollection implements Conf
                     // Discard listeners
                     dependencyResolutionListeners.removeAll();
                 }
-                captureBuildOperationResult(context);
+                captureBuildOperationResult(context, graphResolutionTime);
             }
 
-            private void captureBuildOperationResult(BuildOperationContext context) {
+            private void captureBuildOperationResult(BuildOperationContext context, long graphResolutionTime) {
                 Throwable failure = cachedResolverResults.getFailure();
                 if (failure != null) {
                     context.failed(failure);
@@ -602,7 +617,7 @@ public class DefaultConfiguration extends AbstractFileCollection implements Conf
                 // because:
                 // 1. the `failed` method will have been called with the user facing error
                 // 2. such an error may still lead to a valid dependency graph
-                context.setResult(new ResolveConfigurationResolutionBuildOperationResult(cachedResolverResults.getResolutionResult()));
+                context.setResult(new ResolveConfigurationResolutionBuildOperationResult(cachedResolverResults.getResolutionResult(), graphResolutionTime));
             }
 
             @Override
@@ -645,7 +660,7 @@ public class DefaultConfiguration extends AbstractFileCollection implements Conf
     }
 
     /**
-     * Must be called from {@link #resolveExclusively(InternalState)} only.
+     * Must be called from {@link #resolveExclusively(InternalState, boolean)} only.
      */
     private void resolveArtifactsIfRequired() {
         if (resolvedState == ARTIFACTS_RESOLVED) {
@@ -1393,7 +1408,7 @@ public class DefaultConfiguration extends AbstractFileCollection implements Conf
         }
 
         private void assertArtifactsResolved() {
-            DefaultConfiguration.this.resolveToStateOrLater(ARTIFACTS_RESOLVED);
+            DefaultConfiguration.this.resolveToStateOrLater(ARTIFACTS_RESOLVED, true);
         }
 
         private class LenientResolutionResult implements ResolutionResult {
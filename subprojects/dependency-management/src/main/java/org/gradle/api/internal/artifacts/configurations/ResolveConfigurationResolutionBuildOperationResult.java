@@ -29,9 +29,11 @@ import java.util.Map;
 
 class ResolveConfigurationResolutionBuildOperationResult implements ResolveConfigurationDependenciesBuildOperationType.Result, CustomOperationTraceSerialization {
     private final ResolutionResult resolutionResult;
+    private final long graphResolutionTime;
 
-    ResolveConfigurationResolutionBuildOperationResult(ResolutionResult resolutionResult) {
+    ResolveConfigurationResolutionBuildOperationResult(ResolutionResult resolutionResult, long graphResolutionTime) {
         this.resolutionResult = resolutionResult;
+        this.graphResolutionTime = graphResolutionTime;
     }
 
     @Override
@@ -44,10 +46,16 @@ class ResolveConfigurationResolutionBuildOperationResult implements ResolveConfi
         return ((ResolvedComponentResultInternal) resolvedComponentResult).getRepositoryName();
     }
 
+    @Override
+    public long getGraphResolutionTimeMillis() {
+        return graphResolutionTime;
+    }
+
     @Override
     public Object getCustomOperationTraceSerializableModel() {
         Map<String, Object> model = new HashMap<String, Object>();
         model.put("resolvedDependenciesCount", getRootComponent().getDependencies().size());
+        model.put("graphResolutionTimeMillis", graphResolutionTime);
         final Map<String, Map<String, String>> components = Maps.newHashMap();
         resolutionResult.allComponents(new Action<ResolvedComponentResult>() {
             @Override
@@ -17,23 +17,36 @@
 package org.gradle.api.internal.artifacts.ivyservice;
 
 import com.google.common.collect.ImmutableList;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.LenientConfiguration;
 import org.gradle.api.artifacts.ProjectDependency;
+import org.gradle.api.artifacts.ResolveException;
+import org.gradle.api.artifacts.ResolvedArtifact;
+import org.gradle.api.artifacts.ResolvedConfiguration;
+import org.gradle.api.artifacts.ResolvedDependency;
 import org.gradle.api.artifacts.UnresolvedDependency;
 import org.gradle.api.artifacts.component.BuildIdentifier;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
 import org.gradle.api.artifacts.dsl.RepositoryHandler;
+import org.gradle.api.artifacts.result.ResolutionResult;
 import org.gradle.api.artifacts.result.ResolvedComponentResult;
 import org.gradle.api.internal.artifacts.ArtifactDependencyResolver;
 import org.gradle.api.internal.artifacts.ComponentSelectorConverter;
 import org.gradle.api.internal.artifacts.ConfigurationResolver;
+import org.gradle.api.internal.artifacts.DefaultResolverResults;
 import org.gradle.api.internal.artifacts.GlobalDependencyResolutionRules;
 import org.gradle.api.internal.artifacts.ImmutableModuleIdentifierFactory;
 import org.gradle.api.internal.artifacts.ResolverResults;
 import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
 import org.gradle.api.internal.artifacts.configurations.ConflictResolution;
 import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ArtifactVisitor;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.BuildDependenciesOnlyVisitedArtifactSet;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DefaultResolvedArtifactsBuilder;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DependencyArtifactsVisitor;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.SelectedArtifactSet;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.VisitedArtifactSet;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.VisitedArtifactsResults;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.VisitedFileDependencyResults;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.CompositeDependencyArtifactsVisitor;
@@ -51,28 +64,39 @@ import org.gradle.api.internal.artifacts.ivyservice.resolveengine.projectresult.
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.AttributeContainerSerializer;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.FileDependencyCollectingGraphVisitor;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.StreamingResolutionResultBuilder;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.InMemoryBinaryStore;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.ResolutionResultsCache;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.ResolutionResultsStoreFactory;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.StoreSet;
 import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository;
 import org.gradle.api.internal.artifacts.transform.ArtifactTransforms;
 import org.gradle.api.internal.artifacts.type.ArtifactTypeRegistry;
+import org.gradle.api.internal.attributes.AttributeContainerInternal;
 import org.gradle.api.internal.attributes.AttributesSchemaInternal;
+import org.gradle.api.internal.tasks.TaskDependencyResolveContext;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.specs.Specs;
 import org.gradle.cache.internal.BinaryStore;
 import org.gradle.cache.internal.Store;
 import org.gradle.internal.Transformers;
+import org.gradle.internal.classloader.ClassLoaderHierarchyHasher;
 import org.gradle.internal.component.local.model.DslOriginDependencyMetadata;
 import org.gradle.internal.component.model.DependencyMetadata;
+import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.locking.DependencyLockingArtifactVisitor;
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.util.CollectionUtils;
 
+import javax.annotation.Nullable;
+import java.io.File;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
 public class DefaultConfigurationResolver implements ConfigurationResolver {
+    private static final Logger LOGGER = Logging.getLogger(DefaultConfigurationResolver.class);
     private static final Spec<DependencyMetadata> IS_LOCAL_EDGE = new Spec<DependencyMetadata>() {
         @Override
         public boolean isSatisfiedBy(DependencyMetadata element) {
@@ -92,6 +116,8 @@ public class DefaultConfigurationResolver implements ConfigurationResolver {
     private final ComponentSelectorConverter componentSelectorConverter;
     private final AttributeContainerSerializer attributeContainerSerializer;
     private final BuildIdentifier currentBuild;
+    private final ResolutionResultsCache resolutionResultsCache;
+    private final ResolutionResultsCacheKeyFactory cacheKeyFactory;
 
     public DefaultConfigurationResolver(ArtifactDependencyResolver resolver, RepositoryHandler repositories,
                                         GlobalDependencyResolutionRules metadataHandler,
@@ -104,7 +130,10 @@ public class DefaultConfigurationResolver implements ConfigurationResolver {
                                         ArtifactTypeRegistry artifactTypeRegistry,
                                         ComponentSelectorConverter componentSelectorConverter,
                                         AttributeContainerSerializer attributeContainerSerializer,
-                                        BuildIdentifier currentBuild) {
+                                        BuildIdentifier currentBuild,
+                                        ResolutionResultsCache resolutionResultsCache,
+                                        VersionSelectorScheme versionSelectorScheme,
+                                        ClassLoaderHierarchyHasher classLoaderHierarchyHasher) {
         this.resolver = resolver;
         this.repositories = repositories;
         this.metadataHandler = metadataHandler;
@@ -118,6 +147,8 @@ public class DefaultConfigurationResolver implements ConfigurationResolver {
         this.componentSelectorConverter = componentSelectorConverter;
         this.attributeContainerSerializer = attributeContainerSerializer;
         this.currentBuild = currentBuild;
+        this.resolutionResultsCache = resolutionResultsCache;
+        this.cacheKeyFactory = new ResolutionResultsCacheKeyFactory(metadataHandler, versionSelectorScheme, currentBuild, attributesSchema, classLoaderHierarchyHasher);
     }
 
     @Override
@@ -131,8 +162,43 @@ public class DefaultConfigurationResolver implements ConfigurationResolver {
         result.graphResolved(resolutionResultBuilder.getResolutionResult(), new ResolvedLocalComponentsResultGraphVisitor(currentBuild), new BuildDependenciesOnlyVisitedArtifactSet(failureCollector.complete(Collections.<UnresolvedDependency>emptySet()), artifactsVisitor.complete(), artifactTransforms, configuration.getIncoming(), configuration.getDependenciesResolver()));
     }
 
-    public void resolveGraph(ConfigurationInternal configuration, ResolverResults results) {
+    public void resolveGraph(ConfigurationInternal configuration, ResolverResults results, boolean graphOnly) {
         List<ResolutionAwareRepository> resolutionAwareRepositories = getRepositories();
+        // The artifacts of a configuration can only be selected from the graph, so a cached result is only used by consumers of the resolution result.
+        // Every resolution stores its result, so that these consumers can use the result of an earlier resolution of the files
+        HashCode cacheKey = resolutionResultsCache.isEnabled() ? cacheKeyFactory.createKey(configuration, resolutionAwareRepositories) : null;
+        if (graphOnly && cacheKey != null && loadCachedGraph(configuration, results, cacheKey)) {
+            return;
+        }
+        resolveGraph(configuration, results, resolutionAwareRepositories, cacheKey);
+    }
+
+    /**
+     * Uses the cached resolution result for the given configuration, if there is one. The graph is only built again
+     * when the artifacts of the configuration are required.
+     */
+    private boolean loadCachedGraph(ConfigurationInternal configuration, ResolverResults results, HashCode cacheKey) {
+        byte[] cachedResult = resolutionResultsCache.get(cacheKey);
+        if (cachedResult == null) {
+            return false;
+        }
+        ResolutionResult resolutionResult = new StreamingResolutionResultBuilder(new InMemoryBinaryStore(cachedResult), storeFactory.createStoreSet().newModelCache(), moduleIdentifierFactory, attributeContainerSerializer)
+            .complete(Collections.<UnresolvedDependency>emptySet());
+        try {
+            if (!cacheKeyFactory.isReusable(resolutionResult)) {
+                return false;
+            }
+        } catch (RuntimeException e) {
+            LOGGER.debug("Could not load the cached resolution result of {}", configuration, e);
+            return false;
+        }
+        DeferredGraphResolution deferredResolution = new DeferredGraphResolution(configuration);
+        results.graphResolved(resolutionResult, new ResolvedLocalComponentsResultGraphVisitor(currentBuild), deferredResolution);
+        results.retainState(deferredResolution);
+        return true;
+    }
+
+    private void resolveGraph(ConfigurationInternal configuration, ResolverResults results, List<ResolutionAwareRepository> resolutionAwareRepositories, @Nullable HashCode cacheKey) {
         StoreSet stores = storeFactory.createStoreSet();
 
         BinaryStore oldModelStore = stores.nextBinaryStore();
@@ -141,7 +207,7 @@ public class DefaultConfigurationResolver implements ConfigurationResolver {
         DefaultResolvedConfigurationBuilder oldModelBuilder = new DefaultResolvedConfigurationBuilder(oldTransientModelBuilder);
         ResolvedConfigurationDependencyGraphVisitor oldModelVisitor = new ResolvedConfigurationDependencyGraphVisitor(oldModelBuilder);
 
-        BinaryStore newModelStore = stores.nextBinaryStore();
+        BinaryStore newModelStore = cacheKey != null ? new InMemoryBinaryStore() : stores.nextBinaryStore();
         Store<ResolvedComponentResult> newModelCache = stores.newModelCache();
         StreamingResolutionResultBuilder newModelBuilder = new StreamingResolutionResultBuilder(newModelStore, newModelCache, moduleIdentifierFactory, attributeContainerSerializer);
 
@@ -184,6 +250,9 @@ public class DefaultConfigurationResolver implements ConfigurationResolver {
         results.retainState(new ArtifactResolveState(graphResults, artifactsResults, fileDependencyResults, failures, oldTransientModelBuilder));
         if (!results.hasError() && failures.isEmpty()) {
             artifactsVisitor.complete();
+            if (cacheKey != null && cacheKeyFactory.isReusable(results.getResolutionResult())) {
+                resolutionResultsCache.put(cacheKey, ((InMemoryBinaryStore) newModelStore).getData());
+            }
         }
     }
 
@@ -192,15 +261,126 @@ public class DefaultConfigurationResolver implements ConfigurationResolver {
     }
 
     public void resolveArtifacts(ConfigurationInternal configuration, ResolverResults results) {
-        ArtifactResolveState resolveState = (ArtifactResolveState) results.getArtifactResolveState();
+        Object state = results.getArtifactResolveState();
+        if (state instanceof DeferredGraphResolution) {
+            DeferredGraphResolution deferredResolution = (DeferredGraphResolution) state;
+            results.artifactsResolved(new DeferredResolvedConfiguration(deferredResolution), deferredResolution);
+            return;
+        }
+        DefaultLenientConfiguration result = createLenientConfiguration(configuration, (ArtifactResolveState) state);
+        results.artifactsResolved(new DefaultResolvedConfiguration(result), result);
+    }
+
+    private DefaultLenientConfiguration createLenientConfiguration(ConfigurationInternal configuration, ArtifactResolveState resolveState) {
         ResolvedGraphResults graphResults = resolveState.graphResults;
         VisitedArtifactsResults artifactResults = resolveState.artifactsResults;
         TransientConfigurationResultsBuilder transientConfigurationResultsBuilder = resolveState.transientConfigurationResultsBuilder;
 
         TransientConfigurationResultsLoader transientConfigurationResultsFactory = new TransientConfigurationResultsLoader(transientConfigurationResultsBuilder, graphResults);
 
-        DefaultLenientConfiguration result = new DefaultLenientConfiguration(configuration, resolveState.failures, artifactResults, resolveState.fileDependencyResults, transientConfigurationResultsFactory, artifactTransforms, buildOperationExecutor);
-        results.artifactsResolved(new DefaultResolvedConfiguration(result), result);
+        return new DefaultLenientConfiguration(configuration, resolveState.failures, artifactResults, resolveState.fileDependencyResults, transientConfigurationResultsFactory, artifactTransforms, buildOperationExecutor);
+    }
+
+    /**
+     * Builds the graph of a configuration whose resolution result was loaded from the cache, once its files or artifacts are queried.
+     */
+    private class DeferredGraphResolution implements VisitedArtifactSet {
+        private final ConfigurationInternal configuration;
+        private DefaultLenientConfiguration lenientConfiguration;
+
+        DeferredGraphResolution(ConfigurationInternal configuration) {
+            this.configuration = configuration;
+        }
+
+        synchronized DefaultLenientConfiguration resolve() {
+            if (lenientConfiguration == null) {
+                DefaultResolverResults results = new DefaultResolverResults();
+                resolveGraph(configuration, results, getRepositories(), null);
+                lenientConfiguration = createLenientConfiguration(configuration, (ArtifactResolveState) results.getArtifactResolveState());
+            }
+            return lenientConfiguration;
+        }
+
+        synchronized boolean isResolved() {
+            return lenientConfiguration != null;
+        }
+
+        @Override
+        public SelectedArtifactSet select(final Spec<? super Dependency> dependencySpec, final AttributeContainerInternal requestedAttributes, final Spec<? super ComponentIdentifier> componentSpec, final boolean allowNoMatchingVariant) {
+            return new SelectedArtifactSet() {
+                @Override
+                public void visitDependencies(TaskDependencyResolveContext context) {
+                    select().visitDependencies(context);
+                }
+
+                @Override
+                public void visitArtifacts(ArtifactVisitor visitor, boolean continueOnSelectionFailure) {
+                    select().visitArtifacts(visitor, continueOnSelectionFailure);
+                }
+
+                private SelectedArtifactSet select() {
+                    return resolve().select(dependencySpec, requestedAttributes, componentSpec, allowNoMatchingVariant);
+                }
+            };
+        }
+    }
+
+    /**
+     * The resolved configuration of a configuration whose resolution result was loaded from the cache. Only results without failures
+     * are cached, so the graph is only built when the files, artifacts or dependencies are queried.
+     */
+    private static class DeferredResolvedConfiguration implements ResolvedConfiguration {
+        private final DeferredGraphResolution deferredResolution;
+
+        DeferredResolvedConfiguration(DeferredGraphResolution deferredResolution) {
+            this.deferredResolution = deferredResolution;
+        }
+
+        private ResolvedConfiguration getDelegate() {
+            return new DefaultResolvedConfiguration(deferredResolution.resolve());
+        }
+
+        @Override
+        public boolean hasError() {
+            return deferredResolution.isResolved() && getDelegate().hasError();
+        }
+
+        @Override
+        public LenientConfiguration getLenientConfiguration() {
+            return deferredResolution.resolve();
+        }
+
+        @Override
+        public void rethrowFailure() throws ResolveException {
+            if (deferredResolution.isResolved()) {
+                getDelegate().rethrowFailure();
+            }
+        }
+
+        @Override
+        public Set<File> getFiles() throws ResolveException {
+            return getDelegate().getFiles();
+        }
+
+        @Override
+        public Set<File> getFiles(Spec<? super Dependency> dependencySpec) throws ResolveException {
+            return getDelegate().getFiles(dependencySpec);
+        }
+
+        @Override
+        public Set<ResolvedDependency> getFirstLevelModuleDependencies() throws ResolveException {
+            return getDelegate().getFirstLevelModuleDependencies();
+        }
+
+        @Override
+        public Set<ResolvedDependency> getFirstLevelModuleDependencies(Spec<? super Dependency> dependencySpec) throws ResolveException {
+            return getDelegate().getFirstLevelModuleDependencies(dependencySpec);
+        }
+
+        @Override
+        public Set<ResolvedArtifact> getResolvedArtifacts() throws ResolveException {
+            return getDelegate().getResolvedArtifacts();
+        }
     }
 
     private static class ArtifactResolveState {
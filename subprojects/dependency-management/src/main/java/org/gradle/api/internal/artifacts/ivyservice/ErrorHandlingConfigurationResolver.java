@@ -68,9 +68,9 @@ public class ErrorHandlingConfigurationResolver implements ConfigurationResolver
     }
 
     @Override
-    public void resolveGraph(ConfigurationInternal configuration, ResolverResults results) throws ResolveException {
+    public void resolveGraph(ConfigurationInternal configuration, ResolverResults results, boolean graphOnly) throws ResolveException {
         try {
-            delegate.resolveGraph(configuration, results);
+            delegate.resolveGraph(configuration, results, graphOnly);
         } catch (Exception e) {
             results.failed(wrapException(e, configuration));
             BrokenResolvedConfiguration broken = new BrokenResolvedConfiguration(e, configuration);
@@ -0,0 +1,322 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice;
+
+import org.gradle.api.artifacts.ClientModule;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.DependencyArtifact;
+import org.gradle.api.artifacts.DependencyConstraint;
+import org.gradle.api.artifacts.ExcludeRule;
+import org.gradle.api.artifacts.ExternalModuleDependency;
+import org.gradle.api.artifacts.ModuleVersionSelector;
+import org.gradle.api.artifacts.VersionConstraint;
+import org.gradle.api.artifacts.component.BuildIdentifier;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.artifacts.result.DependencyResult;
+import org.gradle.api.artifacts.result.ResolutionResult;
+import org.gradle.api.artifacts.result.ResolvedComponentResult;
+import org.gradle.api.artifacts.result.ResolvedDependencyResult;
+import org.gradle.api.attributes.Attribute;
+import org.gradle.api.attributes.AttributeContainer;
+import org.gradle.api.capabilities.Capability;
+import org.gradle.api.internal.artifacts.GlobalDependencyResolutionRules;
+import org.gradle.api.internal.artifacts.Module;
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
+import org.gradle.api.internal.artifacts.dsl.ModuleReplacementsData;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
+import org.gradle.api.internal.artifacts.repositories.AbstractArtifactRepository;
+import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository;
+import org.gradle.api.internal.artifacts.repositories.descriptor.RepositoryDescriptor;
+import org.gradle.api.internal.attributes.AttributesSchemaInternal;
+import org.gradle.api.internal.attributes.CompatibilityRule;
+import org.gradle.api.internal.attributes.DefaultCompatibilityRuleChain;
+import org.gradle.api.internal.attributes.DefaultDisambiguationRuleChain;
+import org.gradle.api.internal.attributes.DisambiguationRule;
+import org.gradle.internal.classloader.ClassLoaderHierarchyHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.util.GradleVersion;
+
+import javax.annotation.Nullable;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Calculates the key under which the resolution result of a configuration is cached across builds.
+ *
+ * Only configurations whose graph is fully determined by the declared inputs have a key: configurations with project, file or
+ * client module dependencies, with dynamic or changing versions, using local repositories, or with resolution or attribute matching rules
+ * that cannot be fingerprinted are never cached.
+ */
+class ResolutionResultsCacheKeyFactory {
+    private final GlobalDependencyResolutionRules metadataHandler;
+    private final VersionSelectorScheme versionSelectorScheme;
+    private final BuildIdentifier currentBuild;
+    private final AttributesSchemaInternal attributesSchema;
+    private final ClassLoaderHierarchyHasher classLoaderHierarchyHasher;
+
+    ResolutionResultsCacheKeyFactory(GlobalDependencyResolutionRules metadataHandler, VersionSelectorScheme versionSelectorScheme, BuildIdentifier currentBuild,
+                                     AttributesSchemaInternal attributesSchema, ClassLoaderHierarchyHasher classLoaderHierarchyHasher) {
+        this.metadataHandler = metadataHandler;
+        this.versionSelectorScheme = versionSelectorScheme;
+        this.currentBuild = currentBuild;
+        this.attributesSchema = attributesSchema;
+        this.classLoaderHierarchyHasher = classLoaderHierarchyHasher;
+    }
+
+    /**
+     * Returns the cache key for the given configuration, or {@code null} when its resolution result cannot be cached.
+     */
+    @Nullable
+    HashCode createKey(ConfigurationInternal configuration, List<ResolutionAwareRepository> repositories) {
+        ResolutionStrategyInternal resolutionStrategy = configuration.getResolutionStrategy();
+        if (resolutionStrategy.resolveGraphToDetermineTaskDependencies()
+            || resolutionStrategy.isDependencyLockingEnabled()
+            || !resolutionStrategy.getComponentSelection().getRules().isEmpty()
+            || hasComponentMetadataRules()) {
+            return null;
+        }
+
+        Hasher hasher = Hashing.newHasher();
+        hasher.putString(GradleVersion.current().getVersion());
+        hasher.putString(currentBuild.getName());
+        Module module = configuration.getModule();
+        putNullableString(hasher, module.getProjectPath());
+        putNullableString(hasher, module.getGroup());
+        hasher.putString(module.getName());
+        putNullableString(hasher, module.getVersion());
+        putNullableString(hasher, module.getStatus());
+        hasher.putString(configuration.getName());
+        hasher.putBoolean(configuration.isTransitive());
+        putAttributes(hasher, configuration.getAttributes());
+        putExcludeRules(hasher, configuration.getAllExcludeRules());
+        if (!putAttributesSchema(hasher)) {
+            return null;
+        }
+
+        hasher.putString(resolutionStrategy.getConflictResolution().name());
+        hasher.putInt(resolutionStrategy.getForcedModules().size());
+        for (ModuleVersionSelector forcedModule : resolutionStrategy.getForcedModules()) {
+            hasher.putString(forcedModule.getGroup());
+            hasher.putString(forcedModule.getName());
+            putNullableString(hasher, forcedModule.getVersion());
+        }
+
+        hasher.putInt(configuration.getAllDependencies().size());
+        for (Dependency dependency : configuration.getAllDependencies()) {
+            if (!(dependency instanceof ExternalModuleDependency) || dependency instanceof ClientModule) {
+                return null;
+            }
+            ExternalModuleDependency moduleDependency = (ExternalModuleDependency) dependency;
+            if (moduleDependency.isChanging() || !putVersionConstraint(hasher, moduleDependency.getVersionConstraint())) {
+                return null;
+            }
+            putNullableString(hasher, moduleDependency.getGroup());
+            hasher.putString(moduleDependency.getName());
+            putNullableString(hasher, moduleDependency.getTargetConfiguration());
+            putNullableString(hasher, moduleDependency.getReason());
+            hasher.putBoolean(moduleDependency.isTransitive());
+            hasher.putBoolean(moduleDependency.isForce());
+            putAttributes(hasher, moduleDependency.getAttributes());
+            putExcludeRules(hasher, moduleDependency.getExcludeRules());
+            hasher.putInt(moduleDependency.getArtifacts().size());
+            for (DependencyArtifact artifact : moduleDependency.getArtifacts()) {
+                hasher.putString(artifact.getName());
+                putNullableString(hasher, artifact.getType());
+                putNullableString(hasher, artifact.getExtension());
+                putNullableString(hasher, artifact.getClassifier());
+                putNullableString(hasher, artifact.getUrl());
+            }
+            hasher.putInt(moduleDependency.getRequestedCapabilities().size());
+            for (Capability capability : moduleDependency.getRequestedCapabilities()) {
+                hasher.putString(capability.getGroup());
+                hasher.putString(capability.getName());
+                putNullableString(hasher, capability.getVersion());
+            }
+        }
+
+        hasher.putInt(configuration.getAllDependencyConstraints().size());
+        for (DependencyConstraint constraint : configuration.getAllDependencyConstraints()) {
+            if (!putVersionConstraint(hasher, constraint.getVersionConstraint())) {
+                return null;
+            }
+            hasher.putString(constraint.getGroup());
+            hasher.putString(constraint.getName());
+            putNullableString(hasher, constraint.getReason());
+            putAttributes(hasher, constraint.getAttributes());
+        }
+
+        hasher.putInt(repositories.size());
+        for (ResolutionAwareRepository repository : repositories) {
+            RepositoryDescriptor descriptor = repository.getDescriptor();
+            if (isLocal(descriptor)) {
+                // Metadata in local repositories is not cached, and can change without the version changing
+                return null;
+            }
+            hasher.putString(descriptor.getType().name());
+            hasher.putString(descriptor.name);
+            for (Map.Entry<String, ?> property : descriptor.getProperties().entrySet()) {
+                hasher.putString(property.getKey());
+                hasher.putString(String.valueOf(property.getValue()));
+            }
+            if (repository instanceof AbstractArtifactRepository) {
+                ((AbstractArtifactRepository) repository).appendContentFilterToHasher(hasher);
+            }
+        }
+        return hasher.hash();
+    }
+
+    /**
+     * Returns whether the given resolution result only depends on inputs that are part of the cache key. This is not the case when
+     * the graph contains local components, or when transitive dependencies use dynamic or changing versions or module replacements.
+     */
+    boolean isReusable(ResolutionResult resolutionResult) {
+        ModuleReplacementsData moduleReplacements = metadataHandler.getModuleMetadataProcessor().getModuleReplacements();
+        ResolvedComponentResult root = resolutionResult.getRoot();
+        for (ResolvedComponentResult component : resolutionResult.getAllComponents()) {
+            if (component == root) {
+                continue;
+            }
+            ComponentIdentifier id = component.getId();
+            if (!(id instanceof ModuleComponentIdentifier) || component.getModuleVersion() == null) {
+                return false;
+            }
+            if (isChangingVersion(((ModuleComponentIdentifier) id).getVersion())
+                || moduleReplacements.participatesInReplacements(component.getModuleVersion().getModule())) {
+                return false;
+            }
+        }
+        for (DependencyResult dependency : resolutionResult.getAllDependencies()) {
+            if (!(dependency instanceof ResolvedDependencyResult)) {
+                return false;
+            }
+            ComponentSelector requested = dependency.getRequested();
+            if (requested instanceof ModuleComponentSelector && !isStatic(((ModuleComponentSelector) requested).getVersionConstraint())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLocal(RepositoryDescriptor descriptor) {
+        if (descriptor.getType() == RepositoryDescriptor.Type.FLAT_DIR) {
+            return true;
+        }
+        Object url = descriptor.getProperties().get("URL");
+        return url instanceof URI && "file".equals(((URI) url).getScheme());
+    }
+
+    /**
+     * Appends the attributes of the consumer schema, and their compatibility and disambiguation rules, which decide the variants that are selected.
+     */
+    private boolean putAttributesSchema(Hasher hasher) {
+        List<Attribute<?>> attributes = new ArrayList<>(attributesSchema.getAttributes());
+        attributes.sort(Comparator.comparing(Attribute::getName));
+        hasher.putInt(attributes.size());
+        for (Attribute<?> attribute : attributes) {
+            hasher.putString(attribute.getName());
+            hasher.putString(attribute.getType().getName());
+            CompatibilityRule<Object> compatibilityRules = attributesSchema.compatibilityRules(attribute);
+            if (compatibilityRules instanceof DefaultCompatibilityRuleChain) {
+                if (!((DefaultCompatibilityRuleChain<Object>) compatibilityRules).appendToHasher(hasher, classLoaderHierarchyHasher)) {
+                    return false;
+                }
+            } else if (compatibilityRules.doesSomething()) {
+                return false;
+            }
+            DisambiguationRule<Object> disambiguationRules = attributesSchema.disambiguationRules(attribute);
+            if (disambiguationRules instanceof DefaultDisambiguationRuleChain) {
+                if (!((DefaultDisambiguationRuleChain<Object>) disambiguationRules).appendToHasher(hasher, classLoaderHierarchyHasher)) {
+                    return false;
+                }
+            } else if (disambiguationRules.doesSomething()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean hasComponentMetadataRules() {
+        // The resolution context is only used when rules are executed, which doesn't happen here
+        return metadataHandler.getComponentMetadataProcessorFactory().createComponentMetadataProcessor(null).getRulesHash() != 0;
+    }
+
+    private boolean putVersionConstraint(Hasher hasher, VersionConstraint versionConstraint) {
+        if (!isStatic(versionConstraint)) {
+            return false;
+        }
+        putNullableString(hasher, versionConstraint.getRequiredVersion());
+        putNullableString(hasher, versionConstraint.getPreferredVersion());
+        putNullableString(hasher, versionConstraint.getStrictVersion());
+        hasher.putInt(versionConstraint.getRejectedVersions().size());
+        for (String rejectedVersion : versionConstraint.getRejectedVersions()) {
+            hasher.putString(rejectedVersion);
+        }
+        return true;
+    }
+
+    private boolean isStatic(VersionConstraint versionConstraint) {
+        return versionConstraint.getBranch() == null
+            && isStatic(versionConstraint.getRequiredVersion())
+            && isStatic(versionConstraint.getPreferredVersion())
+            && isStatic(versionConstraint.getStrictVersion());
+    }
+
+    private boolean isStatic(@Nullable String version) {
+        if (version == null || version.isEmpty()) {
+            return true;
+        }
+        return !isChangingVersion(version) && !versionSelectorScheme.parseSelector(version).isDynamic();
+    }
+
+    private static boolean isChangingVersion(String version) {
+        return version.endsWith("-SNAPSHOT");
+    }
+
+    private static void putExcludeRules(Hasher hasher, Collection<ExcludeRule> excludeRules) {
+        hasher.putInt(excludeRules.size());
+        for (ExcludeRule excludeRule : excludeRules) {
+            putNullableString(hasher, excludeRule.getGroup());
+            putNullableString(hasher, excludeRule.getModule());
+        }
+    }
+
+    private static void putAttributes(Hasher hasher, AttributeContainer attributes) {
+        hasher.putInt(attributes.keySet().size());
+        for (Attribute<?> attribute : attributes.keySet()) {
+            hasher.putString(attribute.getName());
+            hasher.putString(String.valueOf(attributes.getAttribute(attribute)));
+        }
+    }
+
+    private static void putNullableString(Hasher hasher, @Nullable String value) {
+        if (value == null) {
+            hasher.putNull();
+        } else {
+            hasher.putString(value);
+        }
+    }
+}
@@ -79,11 +79,11 @@ public class ShortCircuitEmptyConfigurationResolver implements ConfigurationReso
     }
 
     @Override
-    public void resolveGraph(ConfigurationInternal configuration, ResolverResults results) throws ResolveException {
+    public void resolveGraph(ConfigurationInternal configuration, ResolverResults results, boolean graphOnly) throws ResolveException {
         if (configuration.getAllDependencies().isEmpty()) {
             emptyGraph(configuration, results, true);
         } else {
-            delegate.resolveGraph(configuration, results);
+            delegate.resolveGraph(configuration, results, graphOnly);
         }
     }
 
@@ -93,7 +93,7 @@ public class ShortCircuitEmptyConfigurationResolver implements ConfigurationReso
             DependencyLockingState lockingState = dependencyLockingProvider.loadLockState(configuration.getName());
             if (lockingState.mustValidateLockState() && !lockingState.getLockedDependencies().isEmpty()) {
                 // Invalid lock state, need to do a real resolution to gather locking failures
-                delegate.resolveGraph(configuration, results);
+                delegate.resolveGraph(configuration, results, false);
                 return;
             }
             dependencyLockingProvider.persistResolvedDependencies(configuration.getName(), Collections.<ModuleComponentIdentifier>emptySet(), Collections.<ModuleComponentIdentifier>emptySet());
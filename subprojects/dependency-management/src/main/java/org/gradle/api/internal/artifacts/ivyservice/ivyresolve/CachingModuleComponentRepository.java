@@ -302,7 +302,11 @@ public class CachingModuleComponentRepository implements ModuleComponentReposito
                 }
                 return MetadataFetchingCost.CHEAP;
             }
-            ModuleComponentResolveMetadata metaData = getProcessedMetadata(metadataProcessor.getRulesHash(), cachedMetadata);
+            ModuleComponentResolveMetadata metaData = cachedMetadata.getProcessedMetadata(metadataProcessor.getRulesHash());
+            if (metaData == null) {
+                // Not processed yet during this build: applying the rules is done when the metadata is resolved, possibly concurrently
+                return MetadataFetchingCost.EXPENSIVE;
+            }
             if (metaData.isChanging()) {
                 if (cachePolicy.mustRefreshChangingModule(moduleComponentIdentifier, cachedMetadata.getModuleVersion(), cachedMetadata.getAgeMillis())) {
                     return estimateCostViaRemoteAccess(moduleComponentIdentifier);
@@ -16,39 +16,163 @@
 
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
 
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Interner;
+import org.apache.commons.io.IOUtils;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.classloader.ClassLoaderUtils;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLResolver;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.*;
-import java.util.LinkedList;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
+import java.util.Set;
 
+/**
+ * Reads POM files into a tree of {@link PomElement}s with a streaming parser.
+ *
+ * Only the elements that are used to build the metadata of a module are kept. Other elements, like the build and reporting
+ * sections which make up most of many POMs, are skipped while reading. Element names and text are interned, as the same
+ * group ids, versions and property values show up in many POMs of a dependency graph.
+ */
 public final class PomDomParser {
-    private PomDomParser() {}
+    private static final Set<String> PROJECT_CHILDREN = ImmutableSet.of(
+        "groupId", "artifactId", "version", "packaging", "parent", "dependencies", "dependencyManagement", "distributionManagement", "properties", "profiles");
+    private static final Set<String> PROFILE_CHILDREN = ImmutableSet.of("id", "activation", "properties", "dependencies", "dependencyManagement");
+    private static final String DISTRIBUTION_MGT = "distributionManagement";
+    private static final String RELOCATION = "relocation";
+    private static final String PROFILE = "profile";
+
+    private static final byte[] M2_ENTITIES_RESOURCE;
+    private static final XMLInputFactory XML_INPUT_FACTORY;
+
+    static {
+        byte[] bytes;
+        try {
+            bytes = IOUtils.toByteArray(org.apache.ivy.plugins.parser.m2.PomReader.class.getResourceAsStream("m2-entities.ent"));
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        M2_ENTITIES_RESOURCE = bytes;
 
-    public static String getTextContent(Element element) {
-        StringBuilder result = new StringBuilder();
+        // Set the context classloader the bootstrap classloader, to work around the way that JAXP locates implementation classes
+        // This should ensure that the JAXP classes provided by the JVM are used, rather than some other implementation
+        ClassLoader original = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(ClassLoaderUtils.getPlatformClassLoader());
+        try {
+            XML_INPUT_FACTORY = XMLInputFactory.newFactory();
+            XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_VALIDATING, false);
+            XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_COALESCING, false);
+            // The HTML entities that some POMs use are declared by the DTD added by AddDTDFilterInputStream
+            XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, true);
+            XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, true);
+            XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, true);
+            XML_INPUT_FACTORY.setXMLResolver(new XMLResolver() {
+                @Override
+                public Object resolveEntity(String publicId, String systemId, String baseUri, String namespace) {
+                    if ((systemId != null) && systemId.endsWith("m2-entities.ent")) {
+                        return new ByteArrayInputStream(M2_ENTITIES_RESOURCE);
+                    }
+                    return null;
+                }
+            });
+        } finally {
+            Thread.currentThread().setContextClassLoader(original);
+        }
+    }
 
-        NodeList childNodes = element.getChildNodes();
-        for (int i = 0; i < childNodes.getLength(); i++) {
-            Node child = childNodes.item(i);
+    private PomDomParser() {}
 
-            switch (child.getNodeType()) {
-                case Node.CDATA_SECTION_NODE:
-                case Node.TEXT_NODE:
-                    result.append(child.getNodeValue());
-                    break;
-                default:
-                    break;
+    /**
+     * Parses the given POM content, and returns its root element. Element names and text are interned using the given interner.
+     */
+    public static PomElement parse(InputStream stream, String systemId, Interner<String> stringInterner) throws IOException, XMLStreamException {
+        XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(systemId, new AddDTDFilterInputStream(stream));
+        try {
+            PomElement root = null;
+            Deque<PomElement> elements = new ArrayDeque<PomElement>();
+            // The depth of the current element within a skipped element, or 0 when not in a skipped element
+            int skippedDepth = 0;
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        if (skippedDepth > 0) {
+                            skippedDepth++;
+                            break;
+                        }
+                        String name = stringInterner.intern(reader.getLocalName());
+                        PomElement parent = elements.peek();
+                        if (parent == null) {
+                            root = new PomElement(name);
+                            elements.push(root);
+                        } else if (isRelevant(parent, elements.size(), name)) {
+                            PomElement element = new PomElement(name);
+                            parent.addChild(element);
+                            elements.push(element);
+                        } else {
+                            skippedDepth = 1;
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        if (skippedDepth > 0) {
+                            skippedDepth--;
+                        } else {
+                            elements.pop().internText(stringInterner);
+                        }
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        if (skippedDepth == 0 && !elements.isEmpty()) {
+                            elements.peek().appendText(reader.getText());
+                        }
+                        break;
+                    case XMLStreamConstants.COMMENT:
+                        if (skippedDepth == 0 && elements.size() == 1 && reader.getText().contains(MetaDataParser.GRADLE_METADATA_MARKER)) {
+                            root.markGradleMetadata();
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+            if (root == null) {
+                throw new XMLStreamException("Premature end of file.", reader.getLocation());
             }
+            return root;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Returns whether the child with the given name of an element at the given depth is used to build the metadata of a module.
+     */
+    private static boolean isRelevant(PomElement parent, int parentDepth, String name) {
+        if (parentDepth == 1) {
+            return PROJECT_CHILDREN.contains(name);
         }
+        if (parentDepth == 2 && DISTRIBUTION_MGT.equals(parent.getName())) {
+            return RELOCATION.equals(name);
+        }
+        if (parentDepth == 3 && PROFILE.equals(parent.getName())) {
+            return PROFILE_CHILDREN.contains(name);
+        }
+        return true;
+    }
 
-        return result.toString();
+    public static String getTextContent(PomElement element) {
+        return element.getTextContent();
     }
 
-    public static String getFirstChildText(Element parentElem, String name) {
-        Element node = getFirstChildElement(parentElem, name);
+    public static String getFirstChildText(PomElement parentElem, String name) {
+        PomElement node = getFirstChildElement(parentElem, name);
         if (node != null) {
             return getTextContent(node);
         } else {
@@ -56,32 +180,23 @@ public final class PomDomParser {
         }
     }
 
-    public static Element getFirstChildElement(Element parentElem, String name) {
+    public static PomElement getFirstChildElement(PomElement parentElem, String name) {
         if (parentElem == null) {
             return null;
         }
-        NodeList childs = parentElem.getChildNodes();
-        for (int i = 0; i < childs.getLength(); i++) {
-            Node node = childs.item(i);
-            if (node instanceof Element && name.equals(node.getNodeName())) {
-                return (Element) node;
+        for (PomElement child : parentElem.getChildElements()) {
+            if (name.equals(child.getName())) {
+                return child;
             }
         }
         return null;
     }
 
-    public static List<Element> getAllChilds(Element parent) {
-        List<Element> r = new LinkedList<Element>();
-        if (parent != null) {
-            NodeList childs = parent.getChildNodes();
-            for (int i = 0; i < childs.getLength(); i++) {
-                Node node = childs.item(i);
-                if (node instanceof Element) {
-                    r.add((Element) node);
-                }
-            }
+    public static List<PomElement> getAllChilds(PomElement parent) {
+        if (parent == null) {
+            return Collections.emptyList();
         }
-        return r;
+        return parent.getChildElements();
     }
 
     public static final class AddDTDFilterInputStream extends FilterInputStream {
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Lists;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An element of a parsed POM file. Only holds the elements and text that are used to build the metadata of a module.
+ *
+ * @see PomDomParser#parse(java.io.InputStream, String, com.google.common.collect.Interner)
+ */
+public final class PomElement {
+    private final String name;
+    private String text;
+    private List<PomElement> children;
+    private boolean gradleMetadataMarker;
+
+    PomElement(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the text directly contained by this element, or an empty string when there is none.
+     */
+    public String getTextContent() {
+        return text == null ? "" : text;
+    }
+
+    public List<PomElement> getChildElements() {
+        return children == null ? Collections.<PomElement>emptyList() : children;
+    }
+
+    /**
+     * Returns whether a comment directly contained by this element holds the marker for published Gradle metadata.
+     */
+    public boolean hasGradleMetadataMarker() {
+        return gradleMetadataMarker;
+    }
+
+    void addChild(PomElement child) {
+        if (children == null) {
+            children = Lists.newArrayListWithCapacity(4);
+        }
+        children.add(child);
+    }
+
+    void appendText(String value) {
+        text = text == null ? value : text + value;
+    }
+
+    void internText(Interner<String> interner) {
+        if (text != null) {
+            text = interner.intern(text);
+        }
+    }
+
+    void markGradleMetadata() {
+        gradleMetadataMarker = true;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.modulecache;
+
+import org.gradle.util.BuildCommencedTimeProvider;
+
+/**
+ * A module metadata cache that looks up entries in a {@link CrossBuildModuleMetadataCache} before delegating to the persistent cache.
+ *
+ * The cross build cache only holds the serialized form of the metadata, as read from or written to the descriptor file by the persistent cache,
+ * so that no metadata is serialized again to be cached. Every build deserializes it with its own serializer, so that
+ * the metadata only ever references the factories of the current build, and metadata processed by the rules of one build is not visible to other builds.
+ * A new {@link ModuleMetadataCache.CachedMetadata} is created for every build, so that the age of the entry is calculated relative to the start of the build.
+ * The entry of the persistent cache is always looked up, so that metadata written again by another process is read again.
+ */
+public class CrossBuildCachingModuleMetadataCache extends AbstractModuleMetadataCache {
+    private final CrossBuildModuleMetadataCache crossBuildCache;
+    private final PersistentModuleMetadataCache delegate;
+
+    public CrossBuildCachingModuleMetadataCache(BuildCommencedTimeProvider timeProvider, CrossBuildModuleMetadataCache crossBuildCache, PersistentModuleMetadataCache delegate) {
+        super(timeProvider);
+        this.crossBuildCache = crossBuildCache;
+        this.delegate = delegate;
+    }
+
+    @Override
+    protected CachedMetadata get(ModuleComponentAtRepositoryKey key) {
+        ModuleMetadataCacheEntry entry = delegate.getEntry(key);
+        if (entry == null) {
+            return null;
+        }
+        PersistentModuleMetadataCache.SerializedModuleMetadata serialized = crossBuildCache.get(key, entry);
+        if (serialized == null) {
+            serialized = delegate.getSerialized(key);
+            if (serialized == null) {
+                return null;
+            }
+            crossBuildCache.put(key, serialized);
+        }
+        return new DefaultCachedMetadata(serialized.entry, delegate.deserialize(serialized), timeProvider);
+    }
+
+    @Override
+    protected void store(ModuleComponentAtRepositoryKey key, ModuleMetadataCacheEntry entry, CachedMetadata cachedMetaData) {
+        crossBuildCache.put(key, delegate.storeSerialized(key, entry, cachedMetaData.getMetadata()));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.modulecache;
+
+import org.gradle.cache.internal.CrossBuildInMemoryCache;
+import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps module metadata from the persistent module metadata cache in memory, so that later builds in the same daemon
+ * do not need to look it up in the persistent cache and read it from disk again. Entries hold the serialized form of the metadata,
+ * as the metadata itself references services of the build which created it.
+ *
+ * Entries are kept in a {@link CrossBuildInMemoryCache}, so metadata used by the current or previous build is retained and
+ * older metadata is discarded when memory runs low, in the same way as the other in-memory caches of the daemon.
+ * Entries keep the timestamp of when they were cached, so the cache policy of each build still decides when they need to be refreshed.
+ *
+ * The persistent cache is shared with other processes, which can write an entry again, for example when a changing module is refreshed.
+ * An entry is only reused while it matches the current entry of the persistent cache. The entry is cheap to look up
+ * compared to reading and parsing the descriptor file.
+ */
+@ThreadSafe
+public class CrossBuildModuleMetadataCache {
+    private final CrossBuildInMemoryCache<ModuleComponentAtRepositoryKey, PersistentModuleMetadataCache.SerializedModuleMetadata> cache;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public CrossBuildModuleMetadataCache(CrossBuildInMemoryCacheFactory cacheFactory) {
+        this.cache = cacheFactory.newCache();
+    }
+
+    /**
+     * Returns the metadata cached for the given component, when it is for the given entry of the persistent cache.
+     */
+    @Nullable
+    PersistentModuleMetadataCache.SerializedModuleMetadata get(ModuleComponentAtRepositoryKey key, ModuleMetadataCacheEntry persistentEntry) {
+        PersistentModuleMetadataCache.SerializedModuleMetadata cached = cache.get(key);
+        if (cached != null && !cached.isFor(persistentEntry)) {
+            cached = null;
+        }
+        if (cached == null) {
+            missCount.incrementAndGet();
+        } else {
+            hitCount.incrementAndGet();
+        }
+        return cached;
+    }
+
+    void put(ModuleComponentAtRepositoryKey key, PersistentModuleMetadataCache.SerializedModuleMetadata serialized) {
+        cache.put(key, serialized);
+    }
+
+    /**
+     * Returns the number of hits since the statistics were last reset.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Returns the number of misses since the statistics were last reset.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public void resetStatistics() {
+        hitCount.set(0);
+        missCount.set(0);
+    }
+}
@@ -15,22 +15,30 @@
  */
 package org.gradle.api.internal.artifacts.ivyservice.modulecache;
 
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Maps;
 import org.gradle.util.BuildCommencedTimeProvider;
 
 import java.util.Map;
 
+/**
+ * Keeps the metadata used by the current build in memory. When backed by another cache, entries are softly referenced,
+ * as they can be read again from the delegate after the garbage collector discarded them. Without a delegate, this cache
+ * is the only place the metadata is kept, so entries are strongly referenced.
+ */
 public class InMemoryModuleMetadataCache extends AbstractModuleMetadataCache {
-    private Map<ModuleComponentAtRepositoryKey, CachedMetadata> inMemoryCache = Maps.newConcurrentMap();
+    private final Map<ModuleComponentAtRepositoryKey, CachedMetadata> inMemoryCache;
     private final AbstractModuleMetadataCache delegate;
 
     public InMemoryModuleMetadataCache(BuildCommencedTimeProvider timeProvider) {
         super(timeProvider);
-        delegate = null;
+        this.inMemoryCache = Maps.newConcurrentMap();
+        this.delegate = null;
     }
 
     public InMemoryModuleMetadataCache(BuildCommencedTimeProvider timeProvider, AbstractModuleMetadataCache delegate) {
         super(timeProvider);
+        this.inMemoryCache = CacheBuilder.newBuilder().softValues().<ModuleComponentAtRepositoryKey, CachedMetadata>build().asMap();
         this.delegate = delegate;
     }
 
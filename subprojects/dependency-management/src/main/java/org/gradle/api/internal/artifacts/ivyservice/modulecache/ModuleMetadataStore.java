@@ -17,6 +17,7 @@ package org.gradle.api.internal.artifacts.ivyservice.modulecache;
 
 import com.google.common.base.Joiner;
 import com.google.common.collect.Interner;
+import com.google.common.io.Files;
 import org.gradle.api.Action;
 import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
 import org.gradle.api.internal.artifacts.ImmutableModuleIdentifierFactory;
@@ -28,9 +29,10 @@ import org.gradle.internal.resource.local.PathKeyFileStore;
 import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
 import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 
 public class ModuleMetadataStore {
 
@@ -48,16 +50,24 @@ public class ModuleMetadataStore {
     }
 
     public MutableModuleComponentResolveMetadata getModuleDescriptor(ModuleComponentAtRepositoryKey component) {
+        byte[] serializedMetadata = getSerializedModuleDescriptor(component);
+        return serializedMetadata == null ? null : deserialize(serializedMetadata);
+    }
+
+    public LocallyAvailableResource putModuleDescriptor(ModuleComponentAtRepositoryKey component, ModuleComponentResolveMetadata metadata) {
+        return putSerializedModuleDescriptor(component, serialize(metadata));
+    }
+
+    /**
+     * Returns the content of the descriptor file of the given component, or null when there is no such file.
+     */
+    @Nullable
+    byte[] getSerializedModuleDescriptor(ModuleComponentAtRepositoryKey component) {
         String[] filePath = getFilePath(component);
         final LocallyAvailableResource resource = metaDataStore.get(filePath);
         if (resource != null) {
             try {
-                StringDeduplicatingDecoder decoder = new StringDeduplicatingDecoder(new KryoBackedDecoder(new FileInputStream(resource.getFile())), stringInterner);
-                try {
-                    return moduleMetadataSerializer.read(decoder, moduleIdentifierFactory);
-                } finally {
-                    decoder.close();
-                }
+                return Files.toByteArray(resource.getFile());
             } catch (Exception e) {
                 throw new RuntimeException("Could not load module metadata from " + resource.getDisplayName(), e);
             }
@@ -65,17 +75,12 @@ public class ModuleMetadataStore {
         return null;
     }
 
-    public LocallyAvailableResource putModuleDescriptor(ModuleComponentAtRepositoryKey component, final ModuleComponentResolveMetadata metadata) {
+    LocallyAvailableResource putSerializedModuleDescriptor(ModuleComponentAtRepositoryKey component, final byte[] serializedMetadata) {
         String[] filePath = getFilePath(component);
         return metaDataStore.add(PATH_JOINER.join(filePath), new Action<File>() {
             public void execute(File moduleDescriptorFile) {
                 try {
-                    KryoBackedEncoder encoder = new KryoBackedEncoder(new FileOutputStream(moduleDescriptorFile));
-                    try {
-                        moduleMetadataSerializer.write(encoder, metadata);
-                    } finally {
-                        encoder.close();
-                    }
+                    Files.write(serializedMetadata, moduleDescriptorFile);
                 } catch (Exception e) {
                     throw UncheckedException.throwAsUncheckedException(e);
                 }
@@ -83,6 +88,34 @@ public class ModuleMetadataStore {
         });
     }
 
+    byte[] serialize(ModuleComponentResolveMetadata metadata) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            KryoBackedEncoder encoder = new KryoBackedEncoder(outputStream);
+            try {
+                moduleMetadataSerializer.write(encoder, metadata);
+            } finally {
+                encoder.close();
+            }
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    MutableModuleComponentResolveMetadata deserialize(byte[] serializedMetadata) {
+        try {
+            StringDeduplicatingDecoder decoder = new StringDeduplicatingDecoder(new KryoBackedDecoder(new ByteArrayInputStream(serializedMetadata)), stringInterner);
+            try {
+                return moduleMetadataSerializer.read(decoder, moduleIdentifierFactory);
+            } finally {
+                decoder.close();
+            }
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
     private String[] getFilePath(ModuleComponentAtRepositoryKey componentId) {
         ModuleComponentIdentifier moduleComponentIdentifier = componentId.getComponentId();
         return new String[] {
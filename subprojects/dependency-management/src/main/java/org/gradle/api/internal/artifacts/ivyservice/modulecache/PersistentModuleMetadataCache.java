@@ -28,13 +28,14 @@ import org.gradle.api.internal.artifacts.repositories.metadata.MavenMutableModul
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.internal.Factory;
 import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata;
-import org.gradle.internal.component.external.model.MutableModuleComponentResolveMetadata;
 import org.gradle.internal.resource.local.DefaultPathKeyFileStore;
 import org.gradle.internal.serialize.AbstractSerializer;
 import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.Encoder;
 import org.gradle.util.BuildCommencedTimeProvider;
 
+import javax.annotation.Nullable;
+
 public class PersistentModuleMetadataCache extends AbstractModuleMetadataCache {
 
     private PersistentIndexedCache<ModuleComponentAtRepositoryKey, ModuleMetadataCacheEntry> cache;
@@ -67,42 +68,106 @@ public class PersistentModuleMetadataCache extends AbstractModuleMetadataCache {
 
     @Override
     protected CachedMetadata get(ModuleComponentAtRepositoryKey key) {
+        SerializedModuleMetadata serialized = getSerialized(key);
+        if (serialized == null) {
+            return null;
+        }
+        return new DefaultCachedMetadata(serialized.entry, deserialize(serialized), timeProvider);
+    }
+
+    @Override
+    protected void store(ModuleComponentAtRepositoryKey key, ModuleMetadataCacheEntry entry, CachedMetadata cachedMetadata) {
+        storeSerialized(key, entry, cachedMetadata.getMetadata());
+    }
+
+    /**
+     * Returns the cache entry for the given component, without reading its descriptor file.
+     */
+    @Nullable
+    ModuleMetadataCacheEntry getEntry(final ModuleComponentAtRepositoryKey key) {
         final PersistentIndexedCache<ModuleComponentAtRepositoryKey, ModuleMetadataCacheEntry> cache = getCache();
-        return artifactCacheLockingManager.useCache(new Factory<CachedMetadata>() {
+        return artifactCacheLockingManager.useCache(new Factory<ModuleMetadataCacheEntry>() {
             @Override
-            public CachedMetadata create() {
+            public ModuleMetadataCacheEntry create() {
+                return cache.get(key);
+            }
+        });
+    }
+
+    /**
+     * Returns the cache entry for the given component along with the content of its descriptor file, without deserializing it.
+     */
+    @Nullable
+    SerializedModuleMetadata getSerialized(final ModuleComponentAtRepositoryKey key) {
+        final PersistentIndexedCache<ModuleComponentAtRepositoryKey, ModuleMetadataCacheEntry> cache = getCache();
+        return artifactCacheLockingManager.useCache(new Factory<SerializedModuleMetadata>() {
+            @Override
+            public SerializedModuleMetadata create() {
                 ModuleMetadataCacheEntry entry = cache.get(key);
                 if (entry == null) {
                     return null;
                 }
                 if (entry.isMissing()) {
-                    return new DefaultCachedMetadata(entry, null, timeProvider);
+                    return new SerializedModuleMetadata(entry, null);
                 }
-                MutableModuleComponentResolveMetadata metadata = moduleMetadataStore.getModuleDescriptor(key);
-                if (metadata == null) {
+                byte[] serializedMetadata = moduleMetadataStore.getSerializedModuleDescriptor(key);
+                if (serializedMetadata == null) {
                     // Descriptor file has been deleted - ignore the entry
                     cache.remove(key);
                     return null;
                 }
-                return new DefaultCachedMetadata(entry, entry.configure(metadata), timeProvider);
+                return new SerializedModuleMetadata(entry, serializedMetadata);
             }
         });
     }
 
-    @Override
-    protected void store(final ModuleComponentAtRepositoryKey key, final ModuleMetadataCacheEntry entry, final CachedMetadata cachedMetadata) {
+    /**
+     * Stores the given metadata and returns the serialized form written to the descriptor file.
+     */
+    SerializedModuleMetadata storeSerialized(final ModuleComponentAtRepositoryKey key, final ModuleMetadataCacheEntry entry, @Nullable ModuleComponentResolveMetadata metadata) {
         if (entry.isMissing()) {
             getCache().put(key, entry);
-        } else {
-            // Need to lock the cache in order to write to the module metadata store
-            artifactCacheLockingManager.useCache(new Runnable() {
-                @Override
-                public void run() {
-                    final ModuleComponentResolveMetadata metadata = cachedMetadata.getMetadata();
-                    moduleMetadataStore.putModuleDescriptor(key, metadata);
-                    getCache().put(key, entry);
-                }
-            });
+            return new SerializedModuleMetadata(entry, null);
+        }
+        final byte[] serializedMetadata = moduleMetadataStore.serialize(metadata);
+        // Need to lock the cache in order to write to the module metadata store
+        artifactCacheLockingManager.useCache(new Runnable() {
+            @Override
+            public void run() {
+                moduleMetadataStore.putSerializedModuleDescriptor(key, serializedMetadata);
+                getCache().put(key, entry);
+            }
+        });
+        return new SerializedModuleMetadata(entry, serializedMetadata);
+    }
+
+    /**
+     * Deserializes the metadata of a present entry, using the services of the current build.
+     */
+    ModuleComponentResolveMetadata deserialize(SerializedModuleMetadata serialized) {
+        if (serialized.entry.isMissing()) {
+            return null;
+        }
+        return serialized.entry.configure(moduleMetadataStore.deserialize(serialized.serializedMetadata));
+    }
+
+    static class SerializedModuleMetadata {
+        final ModuleMetadataCacheEntry entry;
+        final byte[] serializedMetadata;
+
+        SerializedModuleMetadata(ModuleMetadataCacheEntry entry, @Nullable byte[] serializedMetadata) {
+            this.entry = entry;
+            this.serializedMetadata = serializedMetadata;
+        }
+
+        /**
+         * Whether this was read from or written as the given entry of the persistent cache. Every write of an entry has a new timestamp,
+         * so an entry that has been written again, by this or another process, does not match.
+         */
+        boolean isFor(ModuleMetadataCacheEntry persistentEntry) {
+            return entry.createTimestamp == persistentEntry.createTimestamp
+                && entry.type == persistentEntry.type
+                && entry.isChanging == persistentEntry.isChanging;
         }
     }
 
@@ -19,14 +19,13 @@ import com.google.common.base.Objects;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.gradle.api.Action;
 import org.gradle.api.GradleException;
 import org.gradle.api.artifacts.Configuration;
-import org.gradle.api.artifacts.ModuleVersionIdentifier;
 import org.gradle.api.artifacts.component.ComponentIdentifier;
 import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
 import org.gradle.api.artifacts.component.ModuleComponentSelector;
 import org.gradle.api.attributes.Attribute;
 import org.gradle.api.capabilities.Capability;
@@ -50,7 +49,6 @@ import org.gradle.api.internal.attributes.ImmutableAttributes;
 import org.gradle.api.internal.attributes.ImmutableAttributesFactory;
 import org.gradle.api.specs.Spec;
 import org.gradle.internal.component.IncompatibleVariantsSelectionException;
-import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier;
 import org.gradle.internal.component.model.DefaultCompatibilityCheckResult;
 import org.gradle.internal.component.model.DependencyMetadata;
 import org.gradle.internal.id.IdGenerator;
@@ -71,7 +69,6 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -137,8 +134,7 @@ public class DependencyGraphBuilder {
         int graphSize = estimateSize(resolveContext);
         final ResolveState resolveState = new ResolveState(idGenerator, rootModule, resolveContext.getName(), idResolver, metaDataResolver, edgeFilter, attributesSchema, moduleExclusions, moduleReplacementsData, componentSelectorConverter, attributesFactory, dependencySubstitutionApplicator, versionSelectorScheme, versionComparator, versionParser, moduleConflictHandler.getResolver(), graphSize);
 
-        Map<ModuleVersionIdentifier, ComponentIdentifier> componentIdentifierCache = Maps.newHashMapWithExpectedSize(graphSize/2);
-        traverseGraph(resolveState, componentIdentifierCache);
+        traverseGraph(resolveState);
 
         validateGraph(resolveState);
 
@@ -162,7 +158,7 @@ public class DependencyGraphBuilder {
     /**
      * Traverses the dependency graph, resolving conflicts and building the paths from the root configuration.
      */
-    private void traverseGraph(final ResolveState resolveState, final Map<ModuleVersionIdentifier, ComponentIdentifier> componentIdentifierCache) {
+    private void traverseGraph(final ResolveState resolveState) {
         resolveState.onMoreSelected(resolveState.getRoot());
         final List<EdgeState> dependencies = Lists.newArrayList();
 
@@ -177,7 +173,7 @@ public class DependencyGraphBuilder {
                 // Initialize and collect any new outgoing edges of this node
                 dependencies.clear();
                 node.visitOutgoingDependencies(dependencies);
-                resolveEdges(node, dependencies, resolveState, componentIdentifierCache);
+                resolveEdges(node, dependencies, resolveState);
             } else {
                 // We have some batched up conflicts. Resolve the first, and continue traversing the graph
                 if (moduleConflictHandler.hasConflicts()) {
@@ -230,13 +226,12 @@ public class DependencyGraphBuilder {
 
     private void resolveEdges(final NodeState node,
                               final List<EdgeState> dependencies,
-                              final ResolveState resolveState,
-                              final Map<ModuleVersionIdentifier, ComponentIdentifier> componentIdentifierCache) {
+                              final ResolveState resolveState) {
         if (dependencies.isEmpty()) {
             return;
         }
         performSelectionSerially(dependencies, resolveState);
-        maybeDownloadMetadataInParallel(node, componentIdentifierCache, dependencies);
+        maybeDownloadMetadataInParallel(node, dependencies);
         attachToTargetRevisionsSerially(dependencies);
 
     }
@@ -293,30 +288,35 @@ public class DependencyGraphBuilder {
 
     /**
      * Prepares the resolution of edges, either serially or concurrently.
-     * It uses a simple heuristic to determine if we should perform concurrent resolution, based on the the number of edges, and whether they have unresolved metadata.
+     * The metadata of all module components newly selected by the given edges is resolved concurrently when there is more than one of them
+     * that isn't cheap to fetch, i.e. not already available in memory.
+     * Selection and attachment of the edges is done serially before and after, so the shape of the graph doesn't depend on the order
+     * in which the metadata resolution completes.
      */
-    private void maybeDownloadMetadataInParallel(NodeState node, Map<ModuleVersionIdentifier, ComponentIdentifier> componentIdentifierCache, List<EdgeState> dependencies) {
-        List<ComponentState> requiringDownload = null;
+    private void maybeDownloadMetadataInParallel(NodeState node, List<EdgeState> dependencies) {
+        Set<ComponentState> requiringResolution = null;
         for (EdgeState dependency : dependencies) {
             ComponentState targetComponent = dependency.getTargetComponent();
             if (targetComponent != null && targetComponent.isSelected() && !targetComponent.alreadyResolved()) {
-                if (!metaDataResolver.isFetchingMetadataCheap(toComponentId(targetComponent.getId(), componentIdentifierCache))) {
-                    // Avoid initializing the list if there are no components requiring download (a common case)
-                    if (requiringDownload == null) {
-                        requiringDownload = Lists.newArrayList();
+                ComponentIdentifier componentId = targetComponent.getComponentId();
+                if (componentId instanceof ModuleComponentIdentifier && !metaDataResolver.isFetchingMetadataCheap(componentId)) {
+                    // Avoid initializing the set if there are no components requiring resolution (a common case)
+                    if (requiringResolution == null) {
+                        requiringResolution = Sets.newLinkedHashSet();
                     }
-                    requiringDownload.add(targetComponent);
+                    requiringResolution.add(targetComponent);
                 }
             }
         }
-        // Only download in parallel if there is more than 1 component to download
-        if (requiringDownload != null && requiringDownload.size() > 1) {
-            final ImmutableList<ComponentState> toDownloadInParallel = ImmutableList.copyOf(requiringDownload);
-            LOGGER.debug("Submitting {} metadata files to resolve in parallel for {}", toDownloadInParallel.size(), node);
+        // Only resolve in parallel if there is more than 1 component to resolve. Metadata that still needs to be parsed or
+        // processed from the local cache counts as expensive, so this is worth doing even when nothing needs to be downloaded.
+        if (requiringResolution != null && requiringResolution.size() > 1) {
+            final ImmutableList<ComponentState> toResolveInParallel = ImmutableList.copyOf(requiringResolution);
+            LOGGER.debug("Submitting {} metadata files to resolve in parallel for {}", toResolveInParallel.size(), node);
             buildOperationExecutor.runAll(new Action<BuildOperationQueue<RunnableBuildOperation>>() {
                 @Override
                 public void execute(BuildOperationQueue<RunnableBuildOperation> buildOperationQueue) {
-                    for (final ComponentState componentState : toDownloadInParallel) {
+                    for (final ComponentState componentState : toResolveInParallel) {
                         buildOperationQueue.add(new DownloadMetadataOperation(componentState));
                     }
                 }
@@ -324,15 +324,6 @@ public class DependencyGraphBuilder {
         }
     }
 
-    private ComponentIdentifier toComponentId(ModuleVersionIdentifier id, Map<ModuleVersionIdentifier, ComponentIdentifier> componentIdentifierCache) {
-        ComponentIdentifier identifier = componentIdentifierCache.get(id);
-        if (identifier == null) {
-            identifier = DefaultModuleComponentIdentifier.newId(id);
-            componentIdentifierCache.put(id, identifier);
-        }
-        return identifier;
-    }
-
     private void attachToTargetRevisionsSerially(List<EdgeState> dependencies) {
         // the following only needs to be done serially to preserve ordering of dependencies in the graph: we have visited the edges
         // but we still didn't add the result to the queue. Doing it from resolve threads would result in non-reproducible graphs, where
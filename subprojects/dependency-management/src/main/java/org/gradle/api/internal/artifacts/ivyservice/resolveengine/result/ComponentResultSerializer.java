@@ -36,17 +36,20 @@ import org.gradle.internal.serialize.Serializer;
 import java.io.IOException;
 import java.util.List;
 
+/**
+ * Serializes the components of a resolved graph. Selection reasons are deduplicated, so an instance must only be used for a single stream.
+ */
 public class ComponentResultSerializer implements Serializer<ResolvedGraphComponent> {
 
     private final ModuleVersionIdentifierSerializer idSerializer;
-    private final ComponentSelectionReasonSerializer reasonSerializer;
+    private final Serializer<ComponentSelectionReason> reasonSerializer;
     private final ComponentIdentifierSerializer componentIdSerializer;
     private final AttributeContainerSerializer attributeContainerSerializer;
 
     public ComponentResultSerializer(ImmutableModuleIdentifierFactory moduleIdentifierFactory, AttributeContainerSerializer attributeContainerSerializer) {
         idSerializer = new ModuleVersionIdentifierSerializer(moduleIdentifierFactory);
         this.attributeContainerSerializer = attributeContainerSerializer;
-        reasonSerializer = new ComponentSelectionReasonSerializer();
+        reasonSerializer = new DeduplicatingSerializer<ComponentSelectionReason>(new ComponentSelectionReasonSerializer());
         componentIdSerializer = new ComponentIdentifierSerializer();
     }
 
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.result;
+
+import org.gradle.api.attributes.AttributeContainer;
+import org.gradle.api.internal.attributes.AttributeContainerInternal;
+import org.gradle.api.internal.attributes.ImmutableAttributes;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.IOException;
+
+/**
+ * Writes each distinct set of attributes only once to a stream. Most variants of a resolved graph share a handful of attribute sets.
+ *
+ * @see DeduplicatingSerializer
+ */
+@NotThreadSafe
+class DeduplicatingAttributeContainerSerializer extends DeduplicatingSerializer<AttributeContainer> implements AttributeContainerSerializer {
+    DeduplicatingAttributeContainerSerializer(AttributeContainerSerializer delegate) {
+        super(delegate);
+    }
+
+    @Override
+    public ImmutableAttributes read(Decoder decoder) throws IOException {
+        return (ImmutableAttributes) super.read(decoder);
+    }
+
+    @Override
+    public void write(Encoder encoder, AttributeContainer container) throws IOException {
+        // Compare mutable containers by their content
+        super.write(encoder, container instanceof AttributeContainerInternal ? ((AttributeContainerInternal) container).asImmutable() : container);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.result;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Serializer;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A serializer that writes each distinct value only once to a stream, and refers to values that were already written by their index.
+ * When reading, all references to a value return the same instance.
+ *
+ * An instance keeps track of the values of a single stream, so it must only be used to write one stream or to read one stream,
+ * in the same order as the values were written.
+ */
+@NotThreadSafe
+class DeduplicatingSerializer<T> implements Serializer<T> {
+    private final Serializer<T> delegate;
+    private final Map<T, Integer> writtenValues = Maps.newHashMap();
+    private final List<T> readValues = Lists.newArrayList();
+
+    DeduplicatingSerializer(Serializer<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public T read(Decoder decoder) throws IOException {
+        int index = decoder.readSmallInt();
+        if (index < readValues.size()) {
+            return readValues.get(index);
+        }
+        if (index != readValues.size()) {
+            throw new IOException("Unexpected value index " + index + ", expected at most " + readValues.size());
+        }
+        T value = delegate.read(decoder);
+        readValues.add(value);
+        return value;
+    }
+
+    @Override
+    public void write(Encoder encoder, T value) throws IOException {
+        Integer index = writtenValues.get(value);
+        if (index != null) {
+            encoder.writeSmallInt(index);
+            return;
+        }
+        index = writtenValues.size();
+        encoder.writeSmallInt(index);
+        delegate.write(encoder, value);
+        writtenValues.put(value, index);
+    }
+}
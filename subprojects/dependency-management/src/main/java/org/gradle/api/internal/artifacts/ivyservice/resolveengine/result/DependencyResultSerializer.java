@@ -23,14 +23,18 @@ import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.Resolved
 import org.gradle.internal.resolve.ModuleVersionResolveException;
 import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Serializer;
 
 import java.io.IOException;
 import java.util.Map;
 
+/**
+ * Serializes the dependencies of a resolved graph. Selection reasons are deduplicated, so an instance must only be used for a single stream.
+ */
 public class DependencyResultSerializer {
     private final static byte SUCCESSFUL = 0;
     private final static byte FAILED = 1;
-    private final ComponentSelectionReasonSerializer componentSelectionReasonSerializer = new ComponentSelectionReasonSerializer();
+    private final Serializer<ComponentSelectionReason> componentSelectionReasonSerializer = new DeduplicatingSerializer<ComponentSelectionReason>(new ComponentSelectionReasonSerializer());
 
     public ResolvedGraphDependency read(Decoder decoder, Map<Long, ComponentSelector> selectors, Map<ComponentSelector, ModuleVersionResolveException> failures) throws IOException {
         Long selectorId = decoder.readSmallLong();
@@ -61,22 +61,23 @@ public class StreamingResolutionResultBuilder implements DependencyGraphVisitor
 
     private final Map<ComponentSelector, ModuleVersionResolveException> failures = new HashMap<ComponentSelector, ModuleVersionResolveException>();
     private final BinaryStore store;
-    private final ComponentResultSerializer componentResultSerializer;
     private final Store<ResolvedComponentResult> cache;
-    private final ComponentSelectorSerializer componentSelectorSerializer;
-    private final DependencyResultSerializer dependencyResultSerializer = new DependencyResultSerializer();
+    private final ImmutableModuleIdentifierFactory moduleIdentifierFactory;
+    private final AttributeContainerSerializer attributeContainerSerializer;
+    private final Serializers serializers;
     private final Set<Long> visitedComponents = new HashSet<Long>();
 
     public StreamingResolutionResultBuilder(BinaryStore store, Store<ResolvedComponentResult> cache, ImmutableModuleIdentifierFactory moduleIdentifierFactory, AttributeContainerSerializer attributeContainerSerializer) {
-        this.componentResultSerializer = new ComponentResultSerializer(moduleIdentifierFactory, attributeContainerSerializer);
         this.store = store;
         this.cache = cache;
-        this.componentSelectorSerializer = new ComponentSelectorSerializer(attributeContainerSerializer);
+        this.moduleIdentifierFactory = moduleIdentifierFactory;
+        this.attributeContainerSerializer = attributeContainerSerializer;
+        this.serializers = new Serializers(moduleIdentifierFactory, attributeContainerSerializer);
     }
 
     public ResolutionResult complete(Set<UnresolvedDependency> extraFailures) {
         BinaryStore.BinaryData data = store.done();
-        RootFactory rootSource = new RootFactory(data, failures, cache, componentSelectorSerializer, dependencyResultSerializer, componentResultSerializer, extraFailures);
+        RootFactory rootSource = new RootFactory(data, failures, cache, moduleIdentifierFactory, attributeContainerSerializer, extraFailures);
         return new DefaultResolutionResult(rootSource);
     }
 
@@ -101,7 +102,7 @@ public class StreamingResolutionResultBuilder implements DependencyGraphVisitor
             store.write(new BinaryStore.WriteAction() {
                 public void write(Encoder encoder) throws IOException {
                     encoder.writeByte(COMPONENT);
-                    componentResultSerializer.write(encoder, component);
+                    serializers.componentResultSerializer.write(encoder, component);
                 }
             });
         }
@@ -114,7 +115,7 @@ public class StreamingResolutionResultBuilder implements DependencyGraphVisitor
             public void write(Encoder encoder) throws IOException {
                 encoder.writeByte(SELECTOR);
                 encoder.writeSmallLong(selector.getResultId());
-                componentSelectorSerializer.write(encoder, selector.getRequested());
+                serializers.componentSelectorSerializer.write(encoder, selector.getRequested());
             }
         });
     }
@@ -132,7 +133,7 @@ public class StreamingResolutionResultBuilder implements DependencyGraphVisitor
                     encoder.writeSmallLong(fromComponent);
                     encoder.writeSmallInt(dependencies.size());
                     for (DependencyGraphEdge dependency : dependencies) {
-                        dependencyResultSerializer.write(encoder, dependency);
+                        serializers.dependencyResultSerializer.write(encoder, dependency);
                         if (dependency.getFailure() != null) {
                             //by keying the failures only by 'requested' we lose some precision
                             //at edge case we'll lose info about a different exception if we have different failure for the same requested version
@@ -144,26 +145,41 @@ public class StreamingResolutionResultBuilder implements DependencyGraphVisitor
         }
     }
 
+    /**
+     * The serializers for a single stream of results. Attribute sets and selection reasons are written only once per stream and
+     * referenced by index afterwards, so every stream that is written or read needs its own instances.
+     */
+    private static class Serializers {
+        private final ComponentResultSerializer componentResultSerializer;
+        private final ComponentSelectorSerializer componentSelectorSerializer;
+        private final DependencyResultSerializer dependencyResultSerializer;
+
+        Serializers(ImmutableModuleIdentifierFactory moduleIdentifierFactory, AttributeContainerSerializer attributeContainerSerializer) {
+            AttributeContainerSerializer deduplicatingAttributeContainerSerializer = new DeduplicatingAttributeContainerSerializer(attributeContainerSerializer);
+            this.componentResultSerializer = new ComponentResultSerializer(moduleIdentifierFactory, deduplicatingAttributeContainerSerializer);
+            this.componentSelectorSerializer = new ComponentSelectorSerializer(deduplicatingAttributeContainerSerializer);
+            this.dependencyResultSerializer = new DependencyResultSerializer();
+        }
+    }
+
     private static class RootFactory implements Factory<ResolvedComponentResult> {
 
         private final static Logger LOG = Logging.getLogger(RootFactory.class);
-        private final ComponentResultSerializer componentResultSerializer;
 
         private final BinaryStore.BinaryData data;
         private final Map<ComponentSelector, ModuleVersionResolveException> failures;
         private final Store<ResolvedComponentResult> cache;
         private final Object lock = new Object();
-        private final ComponentSelectorSerializer componentSelectorSerializer;
-        private final DependencyResultSerializer dependencyResultSerializer;
+        private final ImmutableModuleIdentifierFactory moduleIdentifierFactory;
+        private final AttributeContainerSerializer attributeContainerSerializer;
         private final Set<UnresolvedDependency> extraFailures;
 
-        RootFactory(BinaryStore.BinaryData data, Map<ComponentSelector, ModuleVersionResolveException> failures, Store<ResolvedComponentResult> cache, ComponentSelectorSerializer componentSelectorSerializer, DependencyResultSerializer dependencyResultSerializer, ComponentResultSerializer componentResultSerializer, Set<UnresolvedDependency> extraFailures) {
+        RootFactory(BinaryStore.BinaryData data, Map<ComponentSelector, ModuleVersionResolveException> failures, Store<ResolvedComponentResult> cache, ImmutableModuleIdentifierFactory moduleIdentifierFactory, AttributeContainerSerializer attributeContainerSerializer, Set<UnresolvedDependency> extraFailures) {
             this.data = data;
             this.failures = failures;
             this.cache = cache;
-            this.componentResultSerializer = componentResultSerializer;
-            this.componentSelectorSerializer = componentSelectorSerializer;
-            this.dependencyResultSerializer = dependencyResultSerializer;
+            this.moduleIdentifierFactory = moduleIdentifierFactory;
+            this.attributeContainerSerializer = attributeContainerSerializer;
             this.extraFailures = extraFailures;
         }
 
@@ -194,6 +210,8 @@ public class StreamingResolutionResultBuilder implements DependencyGraphVisitor
             byte type = -1;
             Timer clock = Time.startTimer();
             try {
+                // Each read starts at the beginning of the stream, so it needs its own serializer state
+                Serializers serializers = new Serializers(moduleIdentifierFactory, attributeContainerSerializer);
                 DefaultResolutionResultBuilder builder = new DefaultResolutionResultBuilder();
                 Map<Long, ComponentSelector> selectors = new HashMap<Long, ComponentSelector>();
                 while (true) {
@@ -208,12 +226,12 @@ public class StreamingResolutionResultBuilder implements DependencyGraphVisitor
                             LOG.debug("Loaded resolution results ({}) from {}", clock.getElapsed(), data);
                             return root;
                         case COMPONENT:
-                            ResolvedGraphComponent component = componentResultSerializer.read(decoder);
+                            ResolvedGraphComponent component = serializers.componentResultSerializer.read(decoder);
                             builder.visitComponent(component);
                             break;
                         case SELECTOR:
                             Long id = decoder.readSmallLong();
-                            ComponentSelector selector = componentSelectorSerializer.read(decoder);
+                            ComponentSelector selector = serializers.componentSelectorSerializer.read(decoder);
                             selectors.put(id, selector);
                             break;
                         case DEPENDENCY:
@@ -222,7 +240,7 @@ public class StreamingResolutionResultBuilder implements DependencyGraphVisitor
                             if (size > 0) {
                                 List<ResolvedGraphDependency> deps = Lists.newArrayListWithExpectedSize(size);
                                 for (int i = 0; i < size; i++) {
-                                    deps.add(dependencyResultSerializer.read(decoder, selectors, failures));
+                                    deps.add(serializers.dependencyResultSerializer.read(decoder, selectors, failures));
                                 }
                                 builder.visitOutgoingEdges(fromId, deps);
                             }
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store;
+
+import org.gradle.api.internal.artifacts.ivyservice.ArtifactCacheLockingManager;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.HashCodeSerializer;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link ResolutionResultsCache} backed by the artifact cache, so that results are shared by all builds and daemons using the same Gradle user home.
+ * When dependencies are refreshed, cached results are ignored but replaced by the new ones.
+ */
+public class DefaultResolutionResultsCache implements ResolutionResultsCache {
+    public static final String ENABLED_PROPERTY = "org.gradle.internal.resolution-results-cache";
+
+    private final ArtifactCacheLockingManager artifactCacheLockingManager;
+    private final boolean refreshDependencies;
+    private PersistentIndexedCache<HashCode, byte[]> cache;
+
+    public DefaultResolutionResultsCache(ArtifactCacheLockingManager artifactCacheLockingManager, boolean refreshDependencies) {
+        this.artifactCacheLockingManager = artifactCacheLockingManager;
+        this.refreshDependencies = refreshDependencies;
+    }
+
+    private synchronized PersistentIndexedCache<HashCode, byte[]> getCache() {
+        if (cache == null) {
+            cache = artifactCacheLockingManager.createCache("resolution-results", new HashCodeSerializer(), BaseSerializerFactory.BYTE_ARRAY_SERIALIZER);
+        }
+        return cache;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Nullable
+    @Override
+    public byte[] get(HashCode key) {
+        if (refreshDependencies) {
+            return null;
+        }
+        return getCache().get(key);
+    }
+
+    @Override
+    public void put(HashCode key, byte[] resolutionResult) {
+        getCache().put(key, resolutionResult);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store;
+
+import org.gradle.cache.internal.BinaryStore;
+import org.gradle.internal.serialize.kryo.StringDeduplicatingKryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.StringDeduplicatingKryoBackedEncoder;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+/**
+ * A {@link BinaryStore} that keeps the written data in memory, so that it can be persisted once complete.
+ * A store created from previously written data can be read without writing anything to it.
+ */
+public class InMemoryBinaryStore implements BinaryStore {
+    private ByteArrayOutputStream output;
+    private StringDeduplicatingKryoBackedEncoder encoder;
+    private byte[] data;
+
+    public InMemoryBinaryStore() {
+    }
+
+    public InMemoryBinaryStore(byte[] data) {
+        this.data = data;
+    }
+
+    @Override
+    public void write(WriteAction write) {
+        if (data != null) {
+            throw new IllegalStateException("Cannot write to a completed binary store.");
+        }
+        if (encoder == null) {
+            output = new ByteArrayOutputStream();
+            encoder = new StringDeduplicatingKryoBackedEncoder(output);
+        }
+        try {
+            write.write(encoder);
+        } catch (Exception e) {
+            throw new RuntimeException("Problems writing to " + this, e);
+        }
+    }
+
+    @Override
+    public BinaryData done() {
+        if (data == null) {
+            if (encoder != null) {
+                encoder.done();
+                encoder.flush();
+                data = output.toByteArray();
+                encoder = null;
+                output = null;
+            } else {
+                data = new byte[0];
+            }
+        }
+        return new InMemoryBinaryData(data, toString());
+    }
+
+    /**
+     * Returns the data written to this store, or {@code null} when the store is not complete yet.
+     */
+    @Nullable
+    public byte[] getData() {
+        return data;
+    }
+
+    public String toString() {
+        return "In-memory binary store";
+    }
+
+    private static class InMemoryBinaryData implements BinaryData {
+        private final byte[] data;
+        private final String sourceDescription;
+        private StringDeduplicatingKryoBackedDecoder decoder;
+
+        InMemoryBinaryData(byte[] data, String sourceDescription) {
+            this.data = data;
+            this.sourceDescription = sourceDescription;
+        }
+
+        @Override
+        public <T> T read(ReadAction<T> readAction) {
+            try {
+                if (decoder == null) {
+                    decoder = new StringDeduplicatingKryoBackedDecoder(new ByteArrayInputStream(data));
+                }
+                return readAction.read(decoder);
+            } catch (Exception e) {
+                throw new RuntimeException("Problems reading data from " + sourceDescription, e);
+            }
+        }
+
+        @Override
+        public void close() {
+            decoder = null;
+        }
+
+        public String toString() {
+            return sourceDescription;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store;
+
+import org.gradle.internal.hash.HashCode;
+
+import javax.annotation.Nullable;
+
+/**
+ * Stores the serialized resolution result of configurations across builds, keyed by a hash of the inputs of the resolution.
+ */
+public interface ResolutionResultsCache {
+    ResolutionResultsCache NONE = new ResolutionResultsCache() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Nullable
+        @Override
+        public byte[] get(HashCode key) {
+            return null;
+        }
+
+        @Override
+        public void put(HashCode key, byte[] resolutionResult) {
+        }
+    };
+
+    boolean isEnabled();
+
+    /**
+     * Returns the resolution result previously stored for the given key, as written by a
+     * {@link org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.StreamingResolutionResultBuilder}.
+     */
+    @Nullable
+    byte[] get(HashCode key);
+
+    void put(HashCode key, byte[] resolutionResult);
+}
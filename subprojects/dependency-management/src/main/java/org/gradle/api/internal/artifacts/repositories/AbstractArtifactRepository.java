@@ -36,6 +36,7 @@ import org.gradle.internal.action.ConfigurableRule;
 import org.gradle.internal.action.DefaultConfigurableRule;
 import org.gradle.internal.action.DefaultConfigurableRules;
 import org.gradle.internal.action.InstantiatingAction;
+import org.gradle.internal.hash.Hasher;
 import org.gradle.internal.isolation.IsolatableFactory;
 import org.gradle.internal.reflect.Instantiator;
 import org.gradle.internal.resolve.caching.ImplicitInputsCapturingInstantiator;
@@ -112,6 +113,13 @@ public abstract class AbstractArtifactRepository implements ArtifactRepositoryIn
         return repositoryContentDescriptor.toContentFilter();
     }
 
+    /**
+     * Appends the content filter of this repository to the given hasher.
+     */
+    public void appendContentFilterToHasher(Hasher hasher) {
+        repositoryContentDescriptor.appendToHasher(hasher);
+    }
+
     @Override
     public void content(Action<? super RepositoryContentDescriptor> configureAction) {
         configureAction.execute(repositoryContentDescriptor);
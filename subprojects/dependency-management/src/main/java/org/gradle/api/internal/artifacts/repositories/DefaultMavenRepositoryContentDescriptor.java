@@ -18,6 +18,7 @@ package org.gradle.api.internal.artifacts.repositories;
 import org.gradle.api.Action;
 import org.gradle.api.artifacts.repositories.MavenRepositoryContentDescriptor;
 import org.gradle.internal.Actions;
+import org.gradle.internal.hash.Hasher;
 
 class DefaultMavenRepositoryContentDescriptor extends DefaultRepositoryContentDescriptor implements MavenRepositoryContentDescriptor {
     private boolean snapshots = true;
@@ -35,6 +36,13 @@ class DefaultMavenRepositoryContentDescriptor extends DefaultRepositoryContentDe
         releases = false;
     }
 
+    @Override
+    public void appendToHasher(Hasher hasher) {
+        super.appendToHasher(hasher);
+        hasher.putBoolean(snapshots);
+        hasher.putBoolean(releases);
+    }
+
     @Override
     public Action<? super ArtifactResolutionDetails> toContentFilter() {
         Action<? super ArtifactResolutionDetails> filter = super.toContentFilter();
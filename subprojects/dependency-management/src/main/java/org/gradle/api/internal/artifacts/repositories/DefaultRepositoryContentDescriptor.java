@@ -26,8 +26,13 @@ import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
 import org.gradle.api.attributes.Attribute;
 import org.gradle.api.attributes.AttributeContainer;
 import org.gradle.internal.Cast;
+import org.gradle.internal.hash.Hasher;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
@@ -66,6 +71,54 @@ class DefaultRepositoryContentDescriptor implements RepositoryContentDescriptorI
         return cachedAction;
     }
 
+    @Override
+    public void appendToHasher(Hasher hasher) {
+        appendStrings(hasher, includedConfigurations);
+        appendStrings(hasher, excludedConfigurations);
+        appendSpecs(hasher, includeSpecs);
+        appendSpecs(hasher, excludeSpecs);
+        if (requiredAttributes == null) {
+            hasher.putNull();
+        } else {
+            List<String> attributes = new ArrayList<String>(requiredAttributes.size());
+            for (Map.Entry<Attribute<Object>, Set<Object>> entry : requiredAttributes.entrySet()) {
+                List<String> values = new ArrayList<String>(entry.getValue().size());
+                for (Object value : entry.getValue()) {
+                    values.add(String.valueOf(value));
+                }
+                Collections.sort(values);
+                attributes.add(entry.getKey().getName() + "=" + values);
+            }
+            appendStrings(hasher, attributes);
+        }
+    }
+
+    private static void appendSpecs(Hasher hasher, @Nullable Set<ContentSpec> specs) {
+        if (specs == null) {
+            hasher.putNull();
+            return;
+        }
+        List<String> values = new ArrayList<String>(specs.size());
+        for (ContentSpec spec : specs) {
+            values.add(spec.toString());
+        }
+        appendStrings(hasher, values);
+    }
+
+    private static void appendStrings(Hasher hasher, @Nullable Collection<String> values) {
+        if (values == null) {
+            hasher.putNull();
+            return;
+        }
+        // The declarations are held in hash sets, so sort them to get a stable hash
+        List<String> sorted = new ArrayList<String>(values);
+        Collections.sort(sorted);
+        hasher.putInt(sorted.size());
+        for (String value : sorted) {
+            hasher.putString(value);
+        }
+    }
+
     private static ImmutableList<SpecMatcher> createSpecMatchers(Set<ContentSpec> specs) {
         ImmutableList<SpecMatcher> matchers = null;
         if (specs != null) {
@@ -244,6 +297,11 @@ class DefaultRepositoryContentDescriptor implements RepositoryContentDescriptorI
             return hashCode;
         }
 
+        @Override
+        public String toString() {
+            return (regex ? "regex:" : "") + group + ":" + module + ":" + version;
+        }
+
         SpecMatcher toMatcher() {
             if (regex) {
                 return new PatternSpecMatcher(group, module, version);
@@ -17,10 +17,16 @@ package org.gradle.api.internal.artifacts.repositories;
 
 import org.gradle.api.Action;
 import org.gradle.api.artifacts.repositories.RepositoryContentDescriptor;
+import org.gradle.internal.hash.Hasher;
 
 import javax.annotation.Nullable;
 
 public interface RepositoryContentDescriptorInternal extends RepositoryContentDescriptor {
     @Nullable
     Action<? super ArtifactResolutionDetails> toContentFilter();
+
+    /**
+     * Appends the content declared for the repository, which decides the modules the repository is searched for, to the given hasher.
+     */
+    void appendToHasher(Hasher hasher);
 }
@@ -19,8 +19,14 @@ package org.gradle.api.internal.attributes;
 import org.gradle.api.Action;
 import org.gradle.api.attributes.CompatibilityCheckDetails;
 import org.gradle.api.attributes.MultipleCandidatesDetails;
+import org.gradle.internal.action.ConfigurableRule;
+import org.gradle.internal.action.InstantiatingAction;
+import org.gradle.internal.classloader.ClassLoaderHierarchyHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
 
 import java.util.Comparator;
+import java.util.List;
 
 public abstract class AttributeMatchingRules {
     public static <T> Action<? super CompatibilityCheckDetails<T>> orderedCompatibility(Comparator<? super T> comparator, boolean reverse) {
@@ -30,4 +36,28 @@ public abstract class AttributeMatchingRules {
     public static <T> Action<? super MultipleCandidatesDetails<T>> orderedDisambiguation(Comparator<? super T> comparator, boolean pickFirst) {
         return new DefaultOrderedDisambiguationRule<T>(comparator, pickFirst);
     }
+
+    /**
+     * Appends the implementation and parameters of the given rules to the given hasher. Returns {@code false} when a rule cannot be
+     * fingerprinted, which is the case for rules based on a comparator and for rules loaded by a classloader that cannot be hashed.
+     */
+    static boolean appendToHasher(List<? extends Action<?>> rules, Hasher hasher, ClassLoaderHierarchyHasher classLoaderHierarchyHasher) {
+        hasher.putInt(rules.size());
+        for (Action<?> rule : rules) {
+            if (!(rule instanceof InstantiatingAction)) {
+                return false;
+            }
+            for (ConfigurableRule<?> configurableRule : ((InstantiatingAction<?>) rule).getRules().getConfigurableRules()) {
+                Class<?> ruleClass = configurableRule.getRuleClass();
+                HashCode classLoaderHash = classLoaderHierarchyHasher.getClassLoaderHash(ruleClass.getClassLoader());
+                if (classLoaderHash == null) {
+                    return false;
+                }
+                hasher.putString(ruleClass.getName());
+                hasher.putHash(classLoaderHash);
+                configurableRule.getRuleParams().appendToHasher(hasher);
+            }
+        }
+        return true;
+    }
 }
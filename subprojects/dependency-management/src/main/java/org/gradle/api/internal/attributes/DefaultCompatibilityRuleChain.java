@@ -24,6 +24,8 @@ import org.gradle.api.attributes.CompatibilityRuleChain;
 import org.gradle.internal.action.DefaultConfigurableRule;
 import org.gradle.internal.action.DefaultConfigurableRules;
 import org.gradle.internal.action.InstantiatingAction;
+import org.gradle.internal.classloader.ClassLoaderHierarchyHasher;
+import org.gradle.internal.hash.Hasher;
 import org.gradle.internal.isolation.IsolatableFactory;
 import org.gradle.internal.reflect.Instantiator;
 import org.gradle.model.internal.type.ModelType;
@@ -80,6 +82,13 @@ public class DefaultCompatibilityRuleChain<T> implements CompatibilityRuleChain<
         return !rules.isEmpty();
     }
 
+    /**
+     * Appends the rules of this chain to the given hasher. Returns {@code false} when a rule cannot be fingerprinted.
+     */
+    public boolean appendToHasher(Hasher hasher, ClassLoaderHierarchyHasher classLoaderHierarchyHasher) {
+        return AttributeMatchingRules.appendToHasher(rules, hasher, classLoaderHierarchyHasher);
+    }
+
     private static class ExceptionHandler<T> implements InstantiatingAction.ExceptionHandler<CompatibilityCheckDetails<T>> {
 
         private final Class<? extends AttributeCompatibilityRule<T>> rule;
@@ -27,6 +27,8 @@ import org.gradle.api.attributes.MultipleCandidatesDetails;
 import org.gradle.internal.action.DefaultConfigurableRule;
 import org.gradle.internal.action.DefaultConfigurableRules;
 import org.gradle.internal.action.InstantiatingAction;
+import org.gradle.internal.classloader.ClassLoaderHierarchyHasher;
+import org.gradle.internal.hash.Hasher;
 import org.gradle.internal.isolation.IsolatableFactory;
 import org.gradle.internal.reflect.Instantiator;
 import org.gradle.model.internal.type.ModelType;
@@ -84,6 +86,13 @@ public class DefaultDisambiguationRuleChain<T> implements DisambiguationRuleChai
         return !rules.isEmpty();
     }
 
+    /**
+     * Appends the rules of this chain to the given hasher. Returns {@code false} when a rule cannot be fingerprinted.
+     */
+    public boolean appendToHasher(Hasher hasher, ClassLoaderHierarchyHasher classLoaderHierarchyHasher) {
+        return AttributeMatchingRules.appendToHasher(rules, hasher, classLoaderHierarchyHasher);
+    }
+
     private static class ExceptionHandler<T> implements InstantiatingAction.ExceptionHandler<MultipleCandidatesDetails<T>> {
 
         private final Class<? extends AttributeDisambiguationRule<T>> rule;
@@ -16,7 +16,9 @@
 
 package org.gradle.internal.resource.transfer;
 
+import org.gradle.internal.hash.HashValue;
 import org.gradle.internal.resource.ExternalResourceName;
+import org.gradle.internal.resource.local.ChecksumAwareFileStore;
 import org.gradle.internal.resource.local.FileStore;
 import org.gradle.internal.resource.local.LocallyAvailableExternalResource;
 import org.gradle.internal.resource.local.LocallyAvailableResource;
@@ -42,8 +44,10 @@ public interface CacheAwareExternalResourceAccessor {
     interface ResourceFileStore {
         /**
          * Called when a resource is to be cached. Should *move* the given file into the appropriate location and return a handle to the file.
+         *
+         * @param sha1 the SHA-1 hash of the content of the file
          */
-        LocallyAvailableResource moveIntoCache(File downloadedResource);
+        LocallyAvailableResource moveIntoCache(File downloadedResource, HashValue sha1);
     }
 
     abstract class DefaultResourceFileStore<K> implements ResourceFileStore {
@@ -55,7 +59,11 @@ public interface CacheAwareExternalResourceAccessor {
         }
 
         @Override
-        public final LocallyAvailableResource moveIntoCache(File downloadedResource) {
+        @SuppressWarnings("unchecked")
+        public final LocallyAvailableResource moveIntoCache(File downloadedResource, HashValue sha1) {
+            if (delegate instanceof ChecksumAwareFileStore) {
+                return ((ChecksumAwareFileStore<K>) delegate).move(computeKey(), downloadedResource, sha1);
+            }
             return delegate.move(computeKey(), downloadedResource);
         }
 
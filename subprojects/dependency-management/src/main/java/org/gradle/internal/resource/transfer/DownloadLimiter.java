@@ -0,0 +1,135 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transfer;
+
+import com.google.common.collect.Lists;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.resources.ResourceLock;
+import org.gradle.internal.resources.ResourceLockCoordinationService;
+import org.gradle.internal.work.NoAvailableWorkerLeaseException;
+import org.gradle.internal.work.WorkerLeaseService;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.List;
+
+import static org.gradle.internal.resources.DefaultResourceLockCoordinationService.lock;
+import static org.gradle.internal.resources.DefaultResourceLockCoordinationService.unlock;
+
+/**
+ * Limits the number of downloads from a repository that run at the same time.
+ *
+ * Priority downloads are started before any other waiting download. Metadata downloads use this, as the resolution of
+ * the rest of the graph waits for them, whereas artifacts are only needed once the graph is complete.
+ *
+ * A thread that has to wait for a download to start releases its worker lease and project locks while waiting, so that another worker can run
+ * in the meantime, and reacquires them all at once before the download starts.
+ *
+ * @see DownloadLimiters
+ */
+@ThreadSafe
+public class DownloadLimiter {
+    public static final DownloadLimiter UNLIMITED = new DownloadLimiter(0, null, null);
+
+    private final int maxConcurrentDownloads;
+    private final WorkerLeaseService workerLeaseService;
+    private final ResourceLockCoordinationService coordinationService;
+    private int activeDownloads;
+    private int waitingPriorityDownloads;
+
+    /**
+     * @param maxConcurrentDownloads the maximum number of concurrent downloads, or 0 for no limit.
+     */
+    public DownloadLimiter(int maxConcurrentDownloads, WorkerLeaseService workerLeaseService, ResourceLockCoordinationService coordinationService) {
+        this.maxConcurrentDownloads = maxConcurrentDownloads;
+        this.workerLeaseService = workerLeaseService;
+        this.coordinationService = coordinationService;
+    }
+
+    /**
+     * Blocks until a download can be started. Each call must be followed by a call to {@link #release()} once the download has finished.
+     */
+    public void acquire(boolean priority) {
+        if (maxConcurrentDownloads <= 0) {
+            return;
+        }
+        synchronized (this) {
+            if (canStart(priority)) {
+                activeDownloads++;
+                return;
+            }
+        }
+
+        List<ResourceLock> heldLocks = getHeldLocks();
+        if (!heldLocks.isEmpty()) {
+            coordinationService.withStateLock(unlock(heldLocks));
+        }
+        try {
+            waitToStart(priority);
+        } finally {
+            if (!heldLocks.isEmpty()) {
+                // Reacquire the worker lease together with the project locks, as worker lease service does, so that this thread never
+                // holds a project lock while waiting for a lease
+                coordinationService.withStateLock(lock(heldLocks));
+            }
+        }
+    }
+
+    public void release() {
+        if (maxConcurrentDownloads <= 0) {
+            return;
+        }
+        synchronized (this) {
+            activeDownloads--;
+            notifyAll();
+        }
+    }
+
+    private synchronized void waitToStart(boolean priority) {
+        if (priority) {
+            waitingPriorityDownloads++;
+        }
+        try {
+            while (!canStart(priority)) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } finally {
+            if (priority) {
+                waitingPriorityDownloads--;
+                notifyAll();
+            }
+        }
+        activeDownloads++;
+    }
+
+    private boolean canStart(boolean priority) {
+        return activeDownloads < maxConcurrentDownloads && (priority || waitingPriorityDownloads == 0);
+    }
+
+    private List<ResourceLock> getHeldLocks() {
+        List<ResourceLock> locks = Lists.newArrayList();
+        try {
+            locks.add(workerLeaseService.getCurrentWorkerLease());
+        } catch (NoAvailableWorkerLeaseException e) {
+            // Not a worker thread, so there is no lease to give up while waiting
+            return locks;
+        }
+        locks.addAll(workerLeaseService.getCurrentProjectLocks());
+        return locks;
+    }
+}
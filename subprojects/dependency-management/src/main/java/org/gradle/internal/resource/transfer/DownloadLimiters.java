@@ -0,0 +1,92 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transfer;
+
+import com.google.common.collect.Maps;
+import org.gradle.internal.resources.ResourceLockCoordinationService;
+import org.gradle.internal.work.WorkerLeaseService;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Provides the {@link DownloadLimiter} for the repository a resource is downloaded from.
+ *
+ * Limiters are shared for the whole build. A repository is identified by its name and by the scheme, host and port of the resource URI,
+ * so a repository that is declared by several projects shares a single limit, whereas different repositories that happen to have the
+ * same name do not.
+ */
+@ThreadSafe
+public class DownloadLimiters {
+    /**
+     * The maximum number of concurrent downloads from a single repository. A repository specific value can be set by appending
+     * the repository name to the property name, for example {@code org.gradle.internal.repository.max.concurrent.downloads.MavenRepo}.
+     * A value of 0 or less, which is the default, removes the limit.
+     */
+    public static final String MAX_CONCURRENT_DOWNLOADS = "org.gradle.internal.repository.max.concurrent.downloads";
+    public static final int DEFAULT_MAX_CONCURRENT_DOWNLOADS = 0;
+
+    public static final DownloadLimiters UNLIMITED = new DownloadLimiters(null, null) {
+        @Override
+        public DownloadLimiters forRepository(String repositoryName) {
+            return this;
+        }
+
+        @Override
+        public DownloadLimiter getLimiter(URI uri) {
+            return DownloadLimiter.UNLIMITED;
+        }
+    };
+
+    private final Map<String, DownloadLimiter> limiters;
+    private final WorkerLeaseService workerLeaseService;
+    private final ResourceLockCoordinationService coordinationService;
+    private final String repositoryName;
+
+    public DownloadLimiters(WorkerLeaseService workerLeaseService, ResourceLockCoordinationService coordinationService) {
+        this(Maps.<String, DownloadLimiter>newHashMap(), workerLeaseService, coordinationService, "");
+    }
+
+    private DownloadLimiters(Map<String, DownloadLimiter> limiters, WorkerLeaseService workerLeaseService, ResourceLockCoordinationService coordinationService, String repositoryName) {
+        this.limiters = limiters;
+        this.workerLeaseService = workerLeaseService;
+        this.coordinationService = coordinationService;
+        this.repositoryName = repositoryName;
+    }
+
+    /**
+     * Returns the limiters for the given repository. They share their limits with every other instance created from this one.
+     */
+    public DownloadLimiters forRepository(String repositoryName) {
+        return new DownloadLimiters(limiters, workerLeaseService, coordinationService, repositoryName);
+    }
+
+    public DownloadLimiter getLimiter(URI uri) {
+        String server = uri.getScheme() + "://" + (uri.getHost() != null ? uri.getHost() : uri.getAuthority()) + ":" + uri.getPort();
+        String key = repositoryName + "@" + server;
+        synchronized (limiters) {
+            DownloadLimiter limiter = limiters.get(key);
+            if (limiter == null) {
+                int maxConcurrentDownloads = Integer.getInteger(MAX_CONCURRENT_DOWNLOADS + "." + repositoryName, Integer.getInteger(MAX_CONCURRENT_DOWNLOADS, DEFAULT_MAX_CONCURRENT_DOWNLOADS));
+                limiter = maxConcurrentDownloads > 0 ? new DownloadLimiter(maxConcurrentDownloads, workerLeaseService, coordinationService) : DownloadLimiter.UNLIMITED;
+                limiters.put(key, limiter);
+            }
+            return limiter;
+        }
+    }
+}
@@ -365,7 +365,7 @@ class DefaultConfigurationSpec extends Specification {
         def failure = new ResolveException("bad", new RuntimeException())
 
         and:
-        _ * resolver.resolveGraph(_, _) >> { ConfigurationInternal config, DefaultResolverResults resolverResults ->
+        _ * resolver.resolveGraph(_, _, _) >> { ConfigurationInternal config, DefaultResolverResults resolverResults, boolean graphOnly ->
             resolverResults.failed(failure)
         }
         _ * resolutionStrategy.resolveGraphToDetermineTaskDependencies() >> true
@@ -480,7 +480,7 @@ class DefaultConfigurationSpec extends Specification {
         }
 
         _ * localComponentsResult.resolvedProjectConfigurations >> Collections.emptySet()
-        _ * resolver.resolveGraph(_, _) >> { ConfigurationInternal config, DefaultResolverResults resolverResults ->
+        _ * resolver.resolveGraph(_, _, _) >> { ConfigurationInternal config, DefaultResolverResults resolverResults, boolean graphOnly ->
             resolverResults.graphResolved(resolutionResults, localComponentsResult, visitedArtifactSet)
             resolverResults.artifactsResolved(Stub(ResolvedConfiguration), visitedArtifactSet)
         }
@@ -511,7 +511,7 @@ class DefaultConfigurationSpec extends Specification {
         _ * resolvedConfiguration.hasError() >> true
 
         _ * localComponentsResult.resolvedProjectConfigurations >> Collections.emptySet()
-        _ * resolver.resolveGraph(_, _) >> { ConfigurationInternal config, DefaultResolverResults resolverResults ->
+        _ * resolver.resolveGraph(_, _, _) >> { ConfigurationInternal config, DefaultResolverResults resolverResults, boolean graphOnly ->
             resolverResults.graphResolved(resolutionResults, localComponentsResult, visitedArtifactSet)
             resolverResults.artifactsResolved(resolvedConfiguration, visitedArtifactSet)
         }
@@ -1057,7 +1057,7 @@ class DefaultConfigurationSpec extends Specification {
             collectFiles(_) >> { return it[0] }
         }
 
-        resolver.resolveGraph(config, _) >> { ConfigurationInternal conf, DefaultResolverResults res ->
+        resolver.resolveGraph(config, _, _) >> { ConfigurationInternal conf, DefaultResolverResults res, boolean graphOnly ->
             res.graphResolved(resolutionResult, localComponentsResult, visitedArtifactSet)
         }
         resolver.resolveArtifacts(config, _) >> { ConfigurationInternal conf, DefaultResolverResults res ->
@@ -1117,7 +1117,7 @@ class DefaultConfigurationSpec extends Specification {
         config.state == RESOLVED
 
         and:
-        1 * resolver.resolveGraph(config, _) >> { ConfigurationInternal c, ResolverResults r ->
+        1 * resolver.resolveGraph(config, _, _) >> { ConfigurationInternal c, ResolverResults r, boolean graphOnly ->
             r.graphResolved(Stub(ResolutionResult), Stub(ResolvedLocalComponentsResult), visitedArtifacts())
         }
         1 * resolver.getRepositories() >> []
@@ -1158,7 +1158,7 @@ class DefaultConfigurationSpec extends Specification {
         config.state == RESOLVED
 
         and:
-        1 * resolver.resolveGraph(config, _) >> { ConfigurationInternal c, ResolverResults r ->
+        1 * resolver.resolveGraph(config, _, _) >> { ConfigurationInternal c, ResolverResults r, boolean graphOnly ->
             r.graphResolved(Stub(ResolutionResult), Stub(ResolvedLocalComponentsResult), visitedArtifacts())
         }
         1 * resolver.getRepositories() >> []
@@ -1205,7 +1205,7 @@ class DefaultConfigurationSpec extends Specification {
         config.state == RESOLVED
 
         and:
-        1 * resolver.resolveGraph(config, _) >> { ConfigurationInternal c, ResolverResults r ->
+        1 * resolver.resolveGraph(config, _, _) >> { ConfigurationInternal c, ResolverResults r, boolean graphOnly ->
             r.graphResolved(Stub(ResolutionResult), Stub(ResolvedLocalComponentsResult), visitedArtifacts())
         }
         1 * resolver.resolveArtifacts(config, _) >> { ConfigurationInternal c, ResolverResults r ->
@@ -1229,7 +1229,7 @@ class DefaultConfigurationSpec extends Specification {
         config.state == RESOLVED
 
         and:
-        1 * resolver.resolveGraph(config, _) >> { ConfigurationInternal c, ResolverResults r ->
+        1 * resolver.resolveGraph(config, _, true) >> { ConfigurationInternal c, ResolverResults r, boolean graphOnly ->
             r.graphResolved(Stub(ResolutionResult), Stub(ResolvedLocalComponentsResult), visitedArtifacts())
         }
         1 * resolver.resolveArtifacts(config, _) >> { ConfigurationInternal c, ResolverResults r ->
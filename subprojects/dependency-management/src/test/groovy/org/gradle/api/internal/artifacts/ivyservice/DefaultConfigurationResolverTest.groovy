@@ -0,0 +1,210 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice
+
+import org.gradle.api.artifacts.Dependency
+import org.gradle.api.artifacts.DependencyConstraintSet
+import org.gradle.api.artifacts.DependencySet
+import org.gradle.api.artifacts.component.BuildIdentifier
+import org.gradle.api.artifacts.dsl.RepositoryHandler
+import org.gradle.api.internal.artifacts.ArtifactDependencyResolver
+import org.gradle.api.internal.artifacts.DefaultImmutableModuleIdentifierFactory
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier
+import org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier
+import org.gradle.api.internal.artifacts.DefaultResolverResults
+import org.gradle.api.internal.artifacts.GlobalDependencyResolutionRules
+import org.gradle.api.internal.artifacts.Module
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal
+import org.gradle.api.internal.artifacts.configurations.ConflictResolution
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal
+import org.gradle.api.internal.artifacts.dependencies.DefaultExternalModuleDependency
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionComparator
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionSelectorScheme
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DependencyArtifactsVisitor
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphComponent
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphVisitor
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.RootGraphNode
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.DesugaredAttributeContainerSerializer
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.ResolutionResultsCache
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.ResolutionResultsStoreFactory
+import org.gradle.api.internal.artifacts.repositories.AbstractArtifactRepository
+import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository
+import org.gradle.api.internal.artifacts.repositories.descriptor.MavenRepositoryDescriptor
+import org.gradle.api.internal.attributes.AttributesSchemaInternal
+import org.gradle.api.internal.attributes.ImmutableAttributes
+import org.gradle.api.internal.file.TmpDirTemporaryFileProvider
+import org.gradle.api.internal.model.NamedObjectInstantiator
+import org.gradle.internal.classloader.ClassLoaderHierarchyHasher
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.internal.hash.HashCode
+import org.gradle.util.AttributeTestUtil
+import spock.lang.Specification
+
+import static org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ComponentSelectionReasons.root
+
+class DefaultConfigurationResolverTest extends Specification {
+    def resolver = Mock(ArtifactDependencyResolver)
+    def cache = Mock(ResolutionResultsCache)
+    def repository = Stub(AbstractArtifactRepository, additionalInterfaces: [ResolutionAwareRepository]) {
+        getDescriptor() >> new MavenRepositoryDescriptor.Builder("repo", new URI("https://repo.example.com/")).create()
+    }
+    def repositories = Stub(RepositoryHandler) {
+        iterator() >> { [repository].iterator() }
+    }
+    def configuration = configuration()
+    def configurationResolver = new DefaultConfigurationResolver(
+        resolver,
+        repositories,
+        Stub(GlobalDependencyResolutionRules),
+        new ResolutionResultsStoreFactory(new TmpDirTemporaryFileProvider()),
+        false,
+        Stub(AttributesSchemaInternal),
+        null,
+        new DefaultImmutableModuleIdentifierFactory(),
+        null,
+        null,
+        null,
+        new DesugaredAttributeContainerSerializer(AttributeTestUtil.attributesFactory(), NamedObjectInstantiator.INSTANCE),
+        Stub(BuildIdentifier),
+        cache,
+        new DefaultVersionSelectorScheme(new DefaultVersionComparator(), new VersionParser()),
+        Stub(ClassLoaderHierarchyHasher))
+
+    def "resolves graph and stores result in cache when there is no cached result"() {
+        def results = new DefaultResolverResults()
+
+        when:
+        configurationResolver.resolveGraph(configuration, results, true)
+
+        then:
+        _ * cache.isEnabled() >> true
+        1 * cache.get(_) >> null
+        1 * resolver.resolve(configuration, [repository], _, _, _, _, _, _) >> { args -> visitGraph(args[4], args[5]) }
+        1 * cache.put(_, { it.length > 0 })
+
+        and:
+        results.resolutionResult.root.id == rootId()
+    }
+
+    def "uses cached result instead of resolving graph"() {
+        def stored = [:]
+        cache.isEnabled() >> true
+        cache.get(_) >> { HashCode key -> stored[key] }
+        cache.put(_, _) >> { HashCode key, byte[] data -> stored[key] = data }
+        resolver.resolve(*_) >> { args -> visitGraph(args[4], args[5]) }
+        configurationResolver.resolveGraph(configuration, new DefaultResolverResults(), true)
+        def results = new DefaultResolverResults()
+
+        when:
+        configurationResolver.resolveGraph(configuration, results, true)
+
+        then:
+        0 * resolver._
+
+        and:
+        results.resolutionResult.root.id == rootId()
+    }
+
+    def "stores result for later consumers of the resolution result when artifacts of the graph are required"() {
+        when:
+        configurationResolver.resolveGraph(configuration, new DefaultResolverResults(), false)
+
+        then:
+        _ * cache.isEnabled() >> true
+        0 * cache.get(_)
+        1 * resolver.resolve(*_) >> { args -> visitGraph(args[4], args[5]) }
+        1 * cache.put(_, { it.length > 0 })
+    }
+
+    def "does not use cache when cache is disabled"() {
+        when:
+        configurationResolver.resolveGraph(configuration, new DefaultResolverResults(), graphOnly)
+
+        then:
+        _ * cache.isEnabled() >> false
+        0 * cache.get(_)
+        0 * cache.put(_, _)
+        1 * resolver.resolve(*_) >> { args -> visitGraph(args[4], args[5]) }
+
+        where:
+        graphOnly << [true, false]
+    }
+
+    def "does not use cache when configuration cannot be cached"() {
+        def dynamicConfiguration = configuration([new DefaultExternalModuleDependency("org", "lib", "1.+")])
+
+        when:
+        configurationResolver.resolveGraph(dynamicConfiguration, new DefaultResolverResults(), true)
+
+        then:
+        _ * cache.isEnabled() >> true
+        0 * cache.get(_)
+        0 * cache.put(_, _)
+        1 * resolver.resolve(*_) >> { args -> visitGraph(args[4], args[5]) }
+    }
+
+    private void visitGraph(DependencyGraphVisitor graphVisitor, DependencyArtifactsVisitor artifactsVisitor) {
+        def component = Stub(DependencyGraphComponent) {
+            getResultId() >> 1L
+            getModuleVersion() >> DefaultModuleVersionIdentifier.newId(DefaultModuleIdentifier.newId("org", "consumer"), "1.0")
+            getComponentId() >> rootId()
+            getSelectionReason() >> root()
+        }
+        def rootNode = Stub(RootGraphNode) {
+            getNodeId() >> 1L
+            getOwner() >> component
+        }
+        graphVisitor.start(rootNode)
+        graphVisitor.visitNode(rootNode)
+        graphVisitor.finish(rootNode)
+        artifactsVisitor.startArtifacts(rootNode)
+        artifactsVisitor.finishArtifacts()
+    }
+
+    private static DefaultModuleComponentIdentifier rootId() {
+        return DefaultModuleComponentIdentifier.newId(DefaultModuleIdentifier.newId("org", "consumer"), "1.0")
+    }
+
+    private ConfigurationInternal configuration(List<Dependency> dependencies = []) {
+        def resolutionStrategy = Stub(ResolutionStrategyInternal) {
+            getConflictResolution() >> ConflictResolution.latest
+        }
+        def module = Stub(Module) {
+            getGroup() >> "org"
+            getName() >> "consumer"
+            getVersion() >> "1.0"
+            getStatus() >> "integration"
+        }
+        def dependencySet = Stub(DependencySet) {
+            size() >> dependencies.size()
+            iterator() >> { dependencies.iterator() }
+        }
+        def constraints = Stub(DependencyConstraintSet) {
+            iterator() >> { [].iterator() }
+        }
+        return Stub(ConfigurationInternal) {
+            getName() >> "compileClasspath"
+            getResolutionStrategy() >> resolutionStrategy
+            getModule() >> module
+            getAttributes() >> ImmutableAttributes.EMPTY
+            getAllExcludeRules() >> ([] as Set)
+            getAllDependencies() >> dependencySet
+            getAllDependencyConstraints() >> constraints
+        }
+    }
+}
@@ -55,10 +55,10 @@ class ErrorHandlingConfigurationResolverTest extends Specification {
 
     void "delegates to backing service to resolve graph"() {
         when:
-        resolver.resolveGraph(context, results)
+        resolver.resolveGraph(context, results, false)
 
         then:
-        1 * delegate.resolveGraph(context, results) >> {
+        1 * delegate.resolveGraph(context, results, false) >> {
             results.graphResolved(resolutionResult, projectConfigResult, visitedArtifactSet)
         }
     }
@@ -94,10 +94,10 @@ class ErrorHandlingConfigurationResolverTest extends Specification {
     void "wraps graph resolve failures"() {
         given:
         def failure = new RuntimeException()
-        delegate.resolveGraph(context, results) >> { throw failure }
+        delegate.resolveGraph(context, results, false) >> { throw failure }
 
         when:
-        resolver.resolveGraph(context, results)
+        resolver.resolveGraph(context, results, false)
 
         then:
         results.resolvedConfiguration.hasError()
@@ -138,11 +138,11 @@ class ErrorHandlingConfigurationResolverTest extends Specification {
         resolvedConfiguration.getResolvedArtifacts() >> { throw failure }
         resolvedConfiguration.getLenientConfiguration() >> { throw failure }
 
-        delegate.resolveGraph(context, results) >> { results.graphResolved(resolutionResult, projectConfigResult, visitedArtifactSet) }
+        delegate.resolveGraph(context, results, false) >> { results.graphResolved(resolutionResult, projectConfigResult, visitedArtifactSet) }
         delegate.resolveArtifacts(context, results) >> { results.artifactsResolved(resolvedConfiguration, visitedArtifactSet) }
 
         when:
-        resolver.resolveGraph(context, results)
+        resolver.resolveGraph(context, results, false)
         resolver.resolveArtifacts(context, results)
 
         then:
@@ -167,11 +167,11 @@ class ErrorHandlingConfigurationResolverTest extends Specification {
         lenientConfiguration.getArtifacts(_) >> { throw failure }
         lenientConfiguration.getUnresolvedModuleDependencies() >> { throw failure }
 
-        delegate.resolveGraph(context, results) >> { results.graphResolved(resolutionResult, projectConfigResult, visitedArtifactSet) }
+        delegate.resolveGraph(context, results, false) >> { results.graphResolved(resolutionResult, projectConfigResult, visitedArtifactSet) }
         delegate.resolveArtifacts(context, results) >> { results.artifactsResolved(resolvedConfiguration, visitedArtifactSet) }
 
         when:
-        resolver.resolveGraph(context, results)
+        resolver.resolveGraph(context, results, false)
         resolver.resolveArtifacts(context, results)
 
         then:
@@ -191,11 +191,11 @@ class ErrorHandlingConfigurationResolverTest extends Specification {
             throw failure
         }
 
-        delegate.resolveGraph(context, results) >> { results.graphResolved(resolutionResult, projectConfigResult, visitedArtifactSet) }
+        delegate.resolveGraph(context, results, false) >> { results.graphResolved(resolutionResult, projectConfigResult, visitedArtifactSet) }
         delegate.resolveArtifacts(context, results) >> { results.artifactsResolved(resolvedConfiguration, visitedArtifactSet) }
 
         when:
-        resolver.resolveGraph(context, results)
+        resolver.resolveGraph(context, results, false)
         resolver.resolveArtifacts(context, results)
 
         then:
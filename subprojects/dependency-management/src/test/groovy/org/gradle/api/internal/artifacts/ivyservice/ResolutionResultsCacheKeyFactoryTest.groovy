@@ -0,0 +1,153 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice
+
+import org.gradle.api.artifacts.Dependency
+import org.gradle.api.artifacts.DependencyConstraintSet
+import org.gradle.api.artifacts.DependencySet
+import org.gradle.api.artifacts.ExcludeRule
+import org.gradle.api.artifacts.ProjectDependency
+import org.gradle.api.artifacts.component.BuildIdentifier
+import org.gradle.api.internal.artifacts.DefaultExcludeRule
+import org.gradle.api.internal.artifacts.GlobalDependencyResolutionRules
+import org.gradle.api.internal.artifacts.Module
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal
+import org.gradle.api.internal.artifacts.dependencies.DefaultExternalModuleDependency
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionComparator
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionSelectorScheme
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser
+import org.gradle.api.internal.artifacts.repositories.AbstractArtifactRepository
+import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository
+import org.gradle.api.internal.artifacts.repositories.descriptor.MavenRepositoryDescriptor
+import org.gradle.api.internal.attributes.AttributesSchemaInternal
+import org.gradle.api.internal.attributes.ImmutableAttributes
+import org.gradle.internal.classloader.ClassLoaderHierarchyHasher
+import org.gradle.internal.hash.Hasher
+import spock.lang.Specification
+
+class ResolutionResultsCacheKeyFactoryTest extends Specification {
+    def versionSelectorScheme = new DefaultVersionSelectorScheme(new DefaultVersionComparator(), new VersionParser())
+    def currentBuild = Stub(BuildIdentifier) {
+        getName() >> ":"
+    }
+    def keyFactory = new ResolutionResultsCacheKeyFactory(Stub(GlobalDependencyResolutionRules), versionSelectorScheme, currentBuild, Stub(AttributesSchemaInternal), Stub(ClassLoaderHierarchyHasher))
+
+    def "same inputs produce the same key"() {
+        expect:
+        def key = keyFactory.createKey(configuration([dependency()]), [repository("repo")])
+        key != null
+        key == keyFactory.createKey(configuration([dependency()]), [repository("repo")])
+    }
+
+    def "key changes when configuration excludes change"() {
+        def key = keyFactory.createKey(configuration([dependency()]), [repository("repo")])
+
+        expect:
+        keyFactory.createKey(configuration([dependency()], [new DefaultExcludeRule("org", "excluded")]), [repository("repo")]) != key
+    }
+
+    def "key changes when dependency excludes change"() {
+        def key = keyFactory.createKey(configuration([dependency()]), [repository("repo")])
+        def excluding = dependency()
+        excluding.exclude(group: "org", module: "excluded")
+
+        expect:
+        keyFactory.createKey(configuration([excluding]), [repository("repo")]) != key
+    }
+
+    def "key changes when repository content filter changes"() {
+        def key = keyFactory.createKey(configuration([dependency()]), [repository("repo")])
+
+        expect:
+        keyFactory.createKey(configuration([dependency()]), [repository("repo", "include org")]) != key
+        keyFactory.createKey(configuration([dependency()]), [repository("repo", "include org")]) == keyFactory.createKey(configuration([dependency()]), [repository("repo", "include org")])
+    }
+
+    def "key changes when repositories change"() {
+        def key = keyFactory.createKey(configuration([dependency()]), [repository("repo")])
+
+        expect:
+        keyFactory.createKey(configuration([dependency()]), [repository("other")]) != key
+        keyFactory.createKey(configuration([dependency()]), [repository("repo"), repository("other")]) != key
+    }
+
+    def "has no key when a dependency uses a dynamic or changing version"() {
+        expect:
+        keyFactory.createKey(configuration([new DefaultExternalModuleDependency("org", "lib", version)]), [repository("repo")]) == null
+
+        where:
+        version << ["1.+", "latest.release", "[1.0,2.0)", "1.0-SNAPSHOT"]
+    }
+
+    def "has no key when a dependency is changing"() {
+        expect:
+        keyFactory.createKey(configuration([dependency().setChanging(true)]), [repository("repo")]) == null
+    }
+
+    def "has no key when configuration has a project dependency"() {
+        expect:
+        keyFactory.createKey(configuration([Stub(ProjectDependency)]), [repository("repo")]) == null
+    }
+
+    def "has no key when a local repository is used"() {
+        def local = Stub(ResolutionAwareRepository) {
+            getDescriptor() >> new MavenRepositoryDescriptor.Builder("local", new File("repo").toURI()).create()
+        }
+
+        expect:
+        keyFactory.createKey(configuration([dependency()]), [local]) == null
+    }
+
+    private static DefaultExternalModuleDependency dependency() {
+        return new DefaultExternalModuleDependency("org", "lib", "1.0")
+    }
+
+    private ConfigurationInternal configuration(List<Dependency> dependencies, List<ExcludeRule> excludeRules = []) {
+        def module = Stub(Module) {
+            getGroup() >> "org"
+            getName() >> "consumer"
+            getVersion() >> "1.0"
+            getStatus() >> "integration"
+        }
+        def dependencySet = Stub(DependencySet) {
+            size() >> dependencies.size()
+            iterator() >> { dependencies.iterator() }
+        }
+        def constraints = Stub(DependencyConstraintSet) {
+            size() >> 0
+            iterator() >> { [].iterator() }
+        }
+        return Stub(ConfigurationInternal) {
+            getName() >> "compileClasspath"
+            getModule() >> module
+            isTransitive() >> true
+            getAttributes() >> ImmutableAttributes.EMPTY
+            getAllExcludeRules() >> (excludeRules as Set)
+            getAllDependencies() >> dependencySet
+            getAllDependencyConstraints() >> constraints
+        }
+    }
+
+    private ResolutionAwareRepository repository(String name, String contentFilter = null) {
+        def descriptor = new MavenRepositoryDescriptor.Builder(name, new URI("https://repo.example.com/" + name)).create()
+        def repository = Stub(AbstractArtifactRepository, additionalInterfaces: [ResolutionAwareRepository]) {
+            getDescriptor() >> descriptor
+            appendContentFilterToHasher(_) >> { Hasher hasher -> hasher.putString(String.valueOf(contentFilter)) }
+        }
+        return repository as ResolutionAwareRepository
+    }
+}
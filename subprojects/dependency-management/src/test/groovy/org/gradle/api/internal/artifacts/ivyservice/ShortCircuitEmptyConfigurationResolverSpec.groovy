@@ -85,7 +85,7 @@ class ShortCircuitEmptyConfigurationResolverSpec extends Specification {
         configuration.getAllDependencyConstraints() >> dependencyConstraints
 
         when:
-        dependencyResolver.resolveGraph(configuration, results)
+        dependencyResolver.resolveGraph(configuration, results, false)
 
         then:
         def result = results.resolutionResult
@@ -115,7 +115,7 @@ class ShortCircuitEmptyConfigurationResolverSpec extends Specification {
         configuration.getAllDependencyConstraints() >> dependencyConstraints
 
         when:
-        dependencyResolver.resolveGraph(configuration, results)
+        dependencyResolver.resolveGraph(configuration, results, false)
         dependencyResolver.resolveArtifacts(configuration, results)
 
         then:
@@ -164,7 +164,7 @@ class ShortCircuitEmptyConfigurationResolverSpec extends Specification {
         configuration.getAllDependencyConstraints() >> dependencyConstraints
 
         when:
-        dependencyResolver.resolveGraph(configuration, results)
+        dependencyResolver.resolveGraph(configuration, results, false)
 
         then:
 
@@ -189,7 +189,7 @@ class ShortCircuitEmptyConfigurationResolverSpec extends Specification {
         configuration.getAllDependencyConstraints() >> dependencyConstraints
 
         when:
-        dependencyResolver.resolveGraph(configuration, results)
+        dependencyResolver.resolveGraph(configuration, results, false)
 
         then:
         1 * resolutionStrategy.dependencyLockingEnabled >> true
@@ -197,7 +197,7 @@ class ShortCircuitEmptyConfigurationResolverSpec extends Specification {
         1 * lockingProvider.loadLockState('lockedConf') >> lockingState
         1 * lockingState.mustValidateLockState() >> true
         1 * lockingState.lockedDependencies >> [DefaultModuleComponentIdentifier.newId(DefaultModuleIdentifier.newId('org', 'foo'), '1.0')]
-        1 * delegate.resolveGraph(configuration, results)
+        1 * delegate.resolveGraph(configuration, results, false)
     }
 
     def "delegates to backing service to resolve build dependencies when there are one or more dependencies"() {
@@ -218,10 +218,10 @@ class ShortCircuitEmptyConfigurationResolverSpec extends Specification {
         configuration.getAllDependencies() >> dependencies
 
         when:
-        dependencyResolver.resolveGraph(configuration, results)
+        dependencyResolver.resolveGraph(configuration, results, false)
 
         then:
-        1 * delegate.resolveGraph(configuration, results)
+        1 * delegate.resolveGraph(configuration, results, false)
     }
 
     def "delegates to backing service to resolve artifacts when there are one or more dependencies"() {
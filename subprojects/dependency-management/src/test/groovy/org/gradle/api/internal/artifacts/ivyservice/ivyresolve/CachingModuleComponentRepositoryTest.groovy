@@ -258,4 +258,21 @@ class CachingModuleComponentRepositoryTest extends Specification {
         true              | MetadataFetchingCost.FAST      | MetadataFetchingCost.FAST
         true              | MetadataFetchingCost.EXPENSIVE | MetadataFetchingCost.EXPENSIVE
     }
+
+    def "estimates cached metadata not yet processed during this build as expensive"() {
+        def module = Mock(ModuleComponentIdentifier)
+        def localAccess = repo.localAccess
+        def cachedMetadata = Mock(ModuleMetadataCache.CachedMetadata)
+        moduleDescriptorCache.getCachedModuleDescriptor(_, module) >> cachedMetadata
+
+        when:
+        def cost = localAccess.estimateMetadataFetchingCost(module)
+
+        then:
+        cost == MetadataFetchingCost.EXPENSIVE
+        1 * cachedMetadata.isMissing() >> false
+        1 * cachedMetadata.getProcessedMetadata(_) >> null
+        0 * cachedMetadata._
+        0 * realRemoteAccess._
+    }
 }
@@ -19,12 +19,14 @@ import org.gradle.api.internal.artifacts.DefaultModuleIdentifier
 import org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier
 import org.gradle.api.internal.artifacts.ImmutableModuleIdentifierFactory
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.data.MavenDependencyKey
+import org.gradle.api.internal.cache.StringInterner
 import org.xml.sax.SAXParseException
 import spock.lang.Issue
 import spock.lang.Unroll
 
 class PomReaderTest extends AbstractPomReaderTest {
     final ImmutableModuleIdentifierFactory moduleIdentifierFactory = Mock()
+    final StringInterner stringInterner = new StringInterner()
 
     def "parse POM with invalid XML"() {
         when:
@@ -38,7 +40,7 @@ class PomReaderTest extends AbstractPomReaderTest {
     <description>The first test artifact</description>
 </project>
 """
-        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
 
         then:
         thrown(MetaDataParseException)
@@ -58,7 +60,7 @@ class PomReaderTest extends AbstractPomReaderTest {
     </project>
 </someothertag>
 """
-        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
 
         then:
         Throwable t = thrown(SAXParseException)
@@ -84,7 +86,7 @@ class PomReaderTest extends AbstractPomReaderTest {
     </licenses>
 </project>
 """
-        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
 
         then:
         pomReader.groupId == 'group-one'
@@ -102,6 +104,54 @@ class PomReaderTest extends AbstractPomReaderTest {
         pomReader.relocation == null
     }
 
+    def "parse POM with HTML entities, CDATA and elements that are not used"() {
+        when:
+        pomFile << """<?xml version="1.0" encoding="UTF-8"?>
+<project xmlns="http://maven.apache.org/POM/4.0.0">
+    <!-- do-not-remove: published-with-gradle-metadata -->
+    <modelVersion>4.0.0</modelVersion>
+    <groupId>group-one</groupId>
+    <artifactId>artifact-one</artifactId>
+    <version><![CDATA[version-one]]></version>
+    <description>Copyright &copy; the authors&nbsp;</description>
+    <build>
+        <plugins>
+            <plugin>
+                <groupId>plugin-group</groupId>
+                <artifactId>plugin</artifactId>
+                <dependencies>
+                    <dependency>
+                        <groupId>plugin-dependency-group</groupId>
+                        <artifactId>plugin-dependency</artifactId>
+                    </dependency>
+                </dependencies>
+            </plugin>
+        </plugins>
+    </build>
+    <properties>
+        <name>caf&eacute;</name>
+    </properties>
+    <dependencies>
+        <dependency>
+            <groupId>group-two</groupId>
+            <artifactId>artifact-two</artifactId>
+            <version>\${name}</version>
+        </dependency>
+    </dependencies>
+</project>
+"""
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
+        MavenDependencyKey keyGroupTwo = new MavenDependencyKey('group-two', 'artifact-two', 'jar', null)
+
+        then:
+        pomReader.groupId == 'group-one'
+        pomReader.version == 'version-one'
+        pomReader.hasGradleMetadataMarker()
+        pomReader.properties['name'] == 'caf\u00e9'
+        pomReader.dependencies.size() == 1
+        pomReader.dependencies[keyGroupTwo].version == 'caf\u00e9'
+    }
+
     def "use custom properties in POM project coordinates"() {
         when:
         pomFile << """
@@ -121,7 +171,7 @@ class PomReaderTest extends AbstractPomReaderTest {
     </properties>
 </project>
 """
-        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
 
         then:
         pomReader.groupId == 'group-one'
@@ -152,7 +202,7 @@ class PomReaderTest extends AbstractPomReaderTest {
     </dependencies>
 </project>
 """
-        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
         MavenDependencyKey key = new MavenDependencyKey('group-two', 'artifact-two', 'jar', null)
 
         then:
@@ -183,7 +233,7 @@ class PomReaderTest extends AbstractPomReaderTest {
     </dependencies>
 </project>
 """
-        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
         MavenDependencyKey key = new MavenDependencyKey('group-two', 'artifact-two', 'jar', null)
 
         then:
@@ -226,7 +276,7 @@ class PomReaderTest extends AbstractPomReaderTest {
     </dependencies>
 </project>
 """
-        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
         MavenDependencyKey key = new MavenDependencyKey('group-two', 'artifact-two', 'jar', 'myjar')
 
         then:
@@ -269,7 +319,7 @@ class PomReaderTest extends AbstractPomReaderTest {
     </dependencies>
 </project>
 """
-        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
         MavenDependencyKey dependencyJarkey = new MavenDependencyKey('group-two', 'artifact-two', 'jar', 'myjar')
         MavenDependencyKey dependencyTestJarkey = new MavenDependencyKey('group-two', 'artifact-two', 'test-jar', 'test')
         MavenDependencyKey dependencyEjbClientKey = new MavenDependencyKey('group-two', 'artifact-two', 'ejb-client', 'client')
@@ -301,7 +351,7 @@ class PomReaderTest extends AbstractPomReaderTest {
     </dependencyManagement>
 </project>
 """
-        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
         MavenDependencyKey key = new MavenDependencyKey('group-two', 'artifact-two', 'jar', null)
 
         then:
@@ -334,7 +384,7 @@ class PomReaderTest extends AbstractPomReaderTest {
     </dependencyManagement>
 </project>
 """
-        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
         MavenDependencyKey key = new MavenDependencyKey('group-two', 'artifact-two', 'jar', null)
 
         then:
@@ -378,7 +428,7 @@ class PomReaderTest extends AbstractPomReaderTest {
     </dependencyManagement>
 </project>
 """
-        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
         MavenDependencyKey key = new MavenDependencyKey('group-two', 'artifact-two', 'jar', 'myjar')
 
         then:
@@ -422,7 +472,7 @@ class PomReaderTest extends AbstractPomReaderTest {
     </dependencyManagement>
 </project>
 """
-        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
         MavenDependencyKey dependencyJarkey = new MavenDependencyKey('group-two', 'artifact-two', 'jar', 'myjar')
         MavenDependencyKey dependencyTestJarkey = new MavenDependencyKey('group-two', 'artifact-two', 'test-jar', 'test')
         MavenDependencyKey dependencyEjbClientKey = new MavenDependencyKey('group-two', 'artifact-two', 'ejb-client', 'client')
@@ -448,7 +498,7 @@ class PomReaderTest extends AbstractPomReaderTest {
     </parent>
 </project>
 """
-        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
 
         then:
         pomReader.groupId == 'group-two'
@@ -469,7 +519,7 @@ class PomReaderTest extends AbstractPomReaderTest {
     <version>version-one</version>
 </project>
 """
-        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
         pomReader.resolveGAV()
 
         then:
@@ -510,7 +560,7 @@ class PomReaderTest extends AbstractPomReaderTest {
     </distributionManagement>
 </project>
 """
-        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
 
         then:
         pomReader.groupId == 'group-one'
@@ -537,7 +587,7 @@ class PomReaderTest extends AbstractPomReaderTest {
     </distributionManagement>
 </project>
 """
-        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
 
         then:
         pomReader.groupId == 'group-one'
@@ -565,7 +615,7 @@ class PomReaderTest extends AbstractPomReaderTest {
     </distributionManagement>
 </project>
 """
-        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
 
         then:
         pomReader.groupId == 'group-one'
@@ -594,7 +644,7 @@ class PomReaderTest extends AbstractPomReaderTest {
     </distributionManagement>
 </project>
 """
-        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
 
         then:
         pomReader.groupId == 'group-one'
@@ -637,7 +687,7 @@ class PomReaderTest extends AbstractPomReaderTest {
     </dependencies>
 </project>
 """
-        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
         MavenDependencyKey keyGroupTwo = new MavenDependencyKey('group-two', 'artifact-two', 'jar', null)
         MavenDependencyKey keyGroupThree = new MavenDependencyKey('group-three', 'artifact-three', 'jar', null)
         MavenDependencyKey keyGroupFour = new MavenDependencyKey('group-four', 'artifact-four', 'ejb-client', null)
@@ -682,7 +732,7 @@ class PomReaderTest extends AbstractPomReaderTest {
     </dependencyManagement>
 </project>
 """
-        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
         MavenDependencyKey keyGroupTwo = new MavenDependencyKey('group-two', 'artifact-two', 'jar', null)
         MavenDependencyKey keyGroupThree = new MavenDependencyKey('group-three', 'artifact-three', 'jar', null)
         MavenDependencyKey keyGroupFour = new MavenDependencyKey('group-four', 'artifact-four', 'ejb-client', null)
@@ -725,7 +775,7 @@ class PomReaderTest extends AbstractPomReaderTest {
     </dependencies>
 </project>
 """
-        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
         MavenDependencyKey keyGroupTwo = new MavenDependencyKey('group-two', 'artifact-two', 'jar', null)
         MavenDependencyKey keyGroupThree = new MavenDependencyKey('group-two', 'artifact-three', 'jar', null)
 
@@ -782,7 +832,7 @@ class PomReaderTest extends AbstractPomReaderTest {
     </dependencies>
 </project>
 """
-        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
         pomReader.setPomParent(parentPomReader)
         MavenDependencyKey keyGroupTwo = new MavenDependencyKey('group-two', 'artifact-two', 'jar', null)
         MavenDependencyKey keyGroupThree = new MavenDependencyKey('group-two', 'artifact-three', 'jar', null)
@@ -811,7 +861,7 @@ class PomReaderTest extends AbstractPomReaderTest {
     </properties>
 </project>
 """
-        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
 
         then:
         pomReader.groupId == 'group-one'
@@ -842,7 +892,7 @@ class PomReaderTest extends AbstractPomReaderTest {
     </parent>
 </project>
 """
-        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
 
         then:
         pomReader.parentGroupId == 'parent-group'
@@ -877,7 +927,7 @@ class PomReaderTest extends AbstractPomReaderTest {
     </dependencies>
 </project>
 """
-        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
         MavenDependencyKey keyGroupTwo = new MavenDependencyKey('group-two', 'artifact-two', 'jar', null)
         moduleIdentifierFactory.module('*', 'bar') >> DefaultModuleIdentifier.newId('*', 'bar')
 
@@ -910,7 +960,7 @@ class PomReaderTest extends AbstractPomReaderTest {
     </dependencies>
 </project>
 """
-        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
         MavenDependencyKey keyGroupTwo = new MavenDependencyKey('group-two', 'artifact-two', 'jar', null)
         moduleIdentifierFactory.module('bar', '*') >> DefaultModuleIdentifier.newId('bar', '*')
 
@@ -944,7 +994,7 @@ class PomReaderTest extends AbstractPomReaderTest {
     </dependencies>
 </project>
 """
-        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
         MavenDependencyKey keyGroupTwo = new MavenDependencyKey('group-two', 'artifact-two', 'jar', null)
         moduleIdentifierFactory.module('bar', 'bar') >> DefaultModuleIdentifier.newId('bar', 'bar')
 
@@ -976,7 +1026,7 @@ class PomReaderTest extends AbstractPomReaderTest {
     </dependencies>
 </project>
 """
-        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
         MavenDependencyKey keyGroupTwo = new MavenDependencyKey('group-two', 'artifact-two', 'jar', null)
 
         then:
@@ -1009,7 +1059,7 @@ class PomReaderTest extends AbstractPomReaderTest {
     </dependencies>
 </project>
 """
-        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory)
+        pomReader = new PomReader(locallyAvailableExternalResource, moduleIdentifierFactory, stringInterner)
         MavenDependencyKey keyGroupTwo = new MavenDependencyKey('group-two', 'artifact-two', 'jar', null)
         moduleIdentifierFactory.module('*', '*') >> DefaultModuleIdentifier.newId('*', '*')
 
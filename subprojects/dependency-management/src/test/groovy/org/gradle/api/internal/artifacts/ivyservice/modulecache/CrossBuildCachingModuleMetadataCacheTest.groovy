@@ -0,0 +1,158 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache
+
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleComponentRepository
+import org.gradle.cache.internal.TestCrossBuildInMemoryCacheFactory
+import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata
+import org.gradle.util.BuildCommencedTimeProvider
+import spock.lang.Specification
+
+class CrossBuildCachingModuleMetadataCacheTest extends Specification {
+    def crossBuildCache = new CrossBuildModuleMetadataCache(new TestCrossBuildInMemoryCacheFactory())
+    def repository = Stub(ModuleComponentRepository) {
+        getId() >> "repo"
+    }
+    def id = Stub(ModuleComponentIdentifier)
+    def key = new ModuleComponentAtRepositoryKey("repo", id)
+    def metadata = Stub(ModuleComponentResolveMetadata)
+
+    def "later builds deserialize metadata stored by an earlier build without serializing it again or reading the descriptor file"() {
+        def firstPersistentCache = Mock(PersistentModuleMetadataCache)
+        def firstBuild = cache(timeProvider(1000), firstPersistentCache)
+        def secondPersistentCache = Mock(PersistentModuleMetadataCache)
+        def secondBuild = cache(timeProvider(5000), secondPersistentCache)
+        def serialized = new PersistentModuleMetadataCache.SerializedModuleMetadata(ModuleMetadataCacheEntry.forMetaData(metadata, 1000), [1, 2, 3] as byte[])
+        def deserialized = Stub(ModuleComponentResolveMetadata)
+
+        given:
+        1 * firstPersistentCache.storeSerialized(key, _, metadata) >> serialized
+        firstBuild.cacheMetaData(repository, id, metadata)
+
+        when:
+        def cached = secondBuild.getCachedModuleDescriptor(repository, id)
+
+        then:
+        1 * secondPersistentCache.getEntry(key) >> serialized.entry
+        1 * secondPersistentCache.deserialize(serialized) >> deserialized
+        0 * secondPersistentCache._
+        0 * firstPersistentCache._
+
+        and:
+        cached.metadata.is(deserialized)
+        cached.ageMillis == 4000
+        crossBuildCache.hitCount == 1
+        crossBuildCache.missCount == 0
+    }
+
+    def "keeps metadata read from the persistent cache for later builds"() {
+        def persistentCache = Mock(PersistentModuleMetadataCache)
+        def firstBuild = cache(timeProvider(3000), persistentCache)
+        def secondBuild = cache(timeProvider(5000), persistentCache)
+        def serialized = new PersistentModuleMetadataCache.SerializedModuleMetadata(ModuleMetadataCacheEntry.forMissingModule(1000), null)
+
+        when:
+        def first = firstBuild.getCachedModuleDescriptor(repository, id)
+        def second = secondBuild.getCachedModuleDescriptor(repository, id)
+
+        then:
+        2 * persistentCache.getEntry(key) >> serialized.entry
+        1 * persistentCache.getSerialized(key) >> serialized
+        2 * persistentCache.deserialize(serialized) >> null
+        0 * persistentCache._
+
+        and:
+        first.missing
+        first.ageMillis == 2000
+        second.missing
+        second.ageMillis == 4000
+        crossBuildCache.hitCount == 1
+        crossBuildCache.missCount == 1
+    }
+
+    def "reads metadata again when the persistent entry has been written again by another process"() {
+        def persistentCache = Mock(PersistentModuleMetadataCache)
+        def firstBuild = cache(timeProvider(3000), persistentCache)
+        def secondBuild = cache(timeProvider(5000), persistentCache)
+        def serialized = new PersistentModuleMetadataCache.SerializedModuleMetadata(ModuleMetadataCacheEntry.forMetaData(metadata, 1000), [1, 2, 3] as byte[])
+        def rewritten = new PersistentModuleMetadataCache.SerializedModuleMetadata(ModuleMetadataCacheEntry.forMetaData(metadata, 4000), [4, 5, 6] as byte[])
+        def deserialized = Stub(ModuleComponentResolveMetadata)
+
+        when:
+        firstBuild.getCachedModuleDescriptor(repository, id)
+        def cached = secondBuild.getCachedModuleDescriptor(repository, id)
+
+        then:
+        1 * persistentCache.getEntry(key) >> serialized.entry
+        1 * persistentCache.getSerialized(key) >> serialized
+        1 * persistentCache.deserialize(serialized) >> Stub(ModuleComponentResolveMetadata)
+
+        then:
+        1 * persistentCache.getEntry(key) >> rewritten.entry
+        1 * persistentCache.getSerialized(key) >> rewritten
+        1 * persistentCache.deserialize(rewritten) >> deserialized
+        0 * persistentCache._
+
+        and:
+        cached.metadata.is(deserialized)
+        cached.ageMillis == 1000
+        crossBuildCache.hitCount == 0
+        crossBuildCache.missCount == 2
+    }
+
+    def "is not used when the entry has been removed from the persistent cache"() {
+        def persistentCache = Mock(PersistentModuleMetadataCache)
+        def serialized = new PersistentModuleMetadataCache.SerializedModuleMetadata(ModuleMetadataCacheEntry.forMissingModule(1000), null)
+        crossBuildCache.put(key, serialized)
+
+        when:
+        def cached = cache(timeProvider(5000), persistentCache).getCachedModuleDescriptor(repository, id)
+
+        then:
+        1 * persistentCache.getEntry(key) >> null
+        0 * persistentCache._
+
+        and:
+        cached == null
+    }
+
+    def "counts hits and misses since the statistics were last reset"() {
+        def serialized = new PersistentModuleMetadataCache.SerializedModuleMetadata(ModuleMetadataCacheEntry.forMissingModule(1000), null)
+        crossBuildCache.get(key, serialized.entry)
+        crossBuildCache.put(key, serialized)
+        crossBuildCache.get(key, serialized.entry)
+
+        when:
+        crossBuildCache.resetStatistics()
+        crossBuildCache.get(key, serialized.entry)
+
+        then:
+        crossBuildCache.hitCount == 1
+        crossBuildCache.missCount == 0
+    }
+
+    def cache(BuildCommencedTimeProvider timeProvider, PersistentModuleMetadataCache persistentCache) {
+        return new CrossBuildCachingModuleMetadataCache(timeProvider, crossBuildCache, persistentCache)
+    }
+
+    def timeProvider(long currentTime) {
+        return Stub(BuildCommencedTimeProvider) {
+            getCurrentTime() >> currentTime
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.result
+
+import org.gradle.api.attributes.Attribute
+import org.gradle.api.internal.model.NamedObjectInstantiator
+import org.gradle.internal.Describables
+import org.gradle.internal.serialize.SerializerSpec
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder
+import org.gradle.util.AttributeTestUtil
+
+class DeduplicatingSerializerTest extends SerializerSpec {
+
+    def "writes each distinct value once and reads back shared instances"() {
+        def reason = ComponentSelectionReasons.of(ComponentSelectionReasons.SELECTED_BY_RULE.withDescription(Describables.of("some rule")))
+        def values = [reason, ComponentSelectionReasons.requested(), ComponentSelectionReasons.of(ComponentSelectionReasons.SELECTED_BY_RULE.withDescription(Describables.of("some rule")))]
+
+        when:
+        def bytes = write(new DeduplicatingSerializer(new ComponentSelectionReasonSerializer()), values)
+        def result = read(new DeduplicatingSerializer(new ComponentSelectionReasonSerializer()), bytes, 3)
+
+        then:
+        result == values
+        result[0].is(result[2])
+        bytes.length < write(new ComponentSelectionReasonSerializer(), values).length
+    }
+
+    def "deduplicates attribute sets by content"() {
+        def attributesFactory = AttributeTestUtil.attributesFactory()
+        def first = attributesFactory.mutable()
+        first.attribute(Attribute.of('type', String), 'jar')
+        def second = attributesFactory.mutable()
+        second.attribute(Attribute.of('type', String), 'jar')
+        def delegate = new DesugaredAttributeContainerSerializer(attributesFactory, NamedObjectInstantiator.INSTANCE)
+
+        when:
+        def bytes = write(new DeduplicatingAttributeContainerSerializer(delegate), [first, second])
+        def result = read(new DeduplicatingAttributeContainerSerializer(delegate), bytes, 2)
+
+        then:
+        result[0] == first.asImmutable()
+        result[0].is(result[1])
+        bytes.length < write(delegate, [first, second]).length
+    }
+
+    def "stores the attribute sets of a large graph in a fraction of the space and reads back one instance per distinct set"() {
+        def attributesFactory = AttributeTestUtil.attributesFactory()
+        def delegate = new DesugaredAttributeContainerSerializer(attributesFactory, NamedObjectInstantiator.INSTANCE)
+        def distinctSets = [
+            ["java-runtime", "library", "jar", "release"],
+            ["java-api", "library", "jar", "release"],
+            ["java-runtime", "library", "jar", "integration"],
+            ["java-runtime", "platform", "jar", "release"]
+        ].collect { usage, category, elements, status ->
+            def attributes = attributesFactory.mutable()
+            attributes.attribute(Attribute.of('org.gradle.usage', String), usage)
+            attributes.attribute(Attribute.of('org.gradle.category', String), category)
+            attributes.attribute(Attribute.of('org.gradle.libraryelements', String), elements)
+            attributes.attribute(Attribute.of('org.gradle.status', String), status)
+            attributes.asImmutable()
+        }
+        def values = (0..<1000).collect { distinctSets[it % distinctSets.size()] }
+
+        when:
+        def bytes = write(new DeduplicatingAttributeContainerSerializer(delegate), values)
+        def result = read(new DeduplicatingAttributeContainerSerializer(delegate), bytes, values.size())
+
+        then:
+        result == values
+        result.collect { System.identityHashCode(it) }.unique().size() == distinctSets.size()
+        bytes.length * 10 < write(delegate, values).length
+    }
+
+    private static byte[] write(serializer, List<?> values) {
+        def bytes = new ByteArrayOutputStream()
+        def encoder = new KryoBackedEncoder(bytes)
+        values.each { serializer.write(encoder, it) }
+        encoder.flush()
+        return bytes.toByteArray()
+    }
+
+    private static List<?> read(serializer, byte[] bytes, int count) {
+        def decoder = new KryoBackedDecoder(new ByteArrayInputStream(bytes))
+        return (1..count).collect { serializer.read(decoder) }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store
+
+import org.gradle.cache.internal.BinaryStore
+import spock.lang.Specification
+
+class InMemoryBinaryStoreTest extends Specification {
+
+    def "stores binary data"() {
+        def store = new InMemoryBinaryStore()
+
+        when:
+        store.write({ it.writeInt(10) } as BinaryStore.WriteAction)
+        store.write({ it.writeString("x") } as BinaryStore.WriteAction)
+        def data = store.done()
+
+        then:
+        data.read({ it.readInt() } as BinaryStore.ReadAction) == 10
+        data.read({ it.readString() } as BinaryStore.ReadAction) == "x"
+        data.close()
+    }
+
+    def "data can be read from a store created from the data of another store"() {
+        def store = new InMemoryBinaryStore()
+        store.write({ it.writeString("x") } as BinaryStore.WriteAction)
+        store.write({ it.writeString("x") } as BinaryStore.WriteAction)
+        store.done()
+
+        when:
+        def data = new InMemoryBinaryStore(store.getData()).done()
+
+        then:
+        data.read({ it.readString() } as BinaryStore.ReadAction) == "x"
+        data.read({ it.readString() } as BinaryStore.ReadAction) == "x"
+        data.close()
+    }
+
+    def "cannot write to a completed store"() {
+        def store = new InMemoryBinaryStore()
+        store.done()
+
+        when:
+        store.write({ it.writeInt(10) } as BinaryStore.WriteAction)
+
+        then:
+        thrown(IllegalStateException)
+    }
+}
@@ -18,6 +18,8 @@ package org.gradle.api.internal.artifacts.repositories
 
 import org.gradle.api.internal.artifacts.DefaultModuleIdentifier
 import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.hash.Hashing
 import spock.lang.Specification
 import spock.lang.Subject
 import spock.lang.Unroll
@@ -457,4 +459,48 @@ class DefaultRepositoryContentDescriptorTest extends Specification {
         0 * details.notFound()
     }
 
+    def "hash of declared content does not depend on declaration order"() {
+        def other = new DefaultMavenRepositoryContentDescriptor()
+
+        given:
+        descriptor.includeGroup("g1")
+        descriptor.includeGroup("g2")
+        descriptor.excludeModuleByRegex("org.*", "foo")
+        other.excludeModuleByRegex("org.*", "foo")
+        other.includeGroup("g2")
+        other.includeGroup("g1")
+
+        expect:
+        hash(descriptor) == hash(other)
+    }
+
+    def "hash of declared content changes when content changes"() {
+        def initial = hash(descriptor)
+
+        when:
+        descriptor.includeGroup("org")
+        def withInclude = hash(descriptor)
+
+        then:
+        withInclude != initial
+
+        when:
+        descriptor.notForConfigurations("compileClasspath")
+        def withConfiguration = hash(descriptor)
+
+        then:
+        withConfiguration != withInclude
+
+        when:
+        ((DefaultMavenRepositoryContentDescriptor) descriptor).releasesOnly()
+
+        then:
+        hash(descriptor) != withConfiguration
+    }
+
+    private static HashCode hash(RepositoryContentDescriptorInternal descriptor) {
+        def hasher = Hashing.newHasher()
+        descriptor.appendToHasher(hasher)
+        return hasher.hash()
+    }
 }
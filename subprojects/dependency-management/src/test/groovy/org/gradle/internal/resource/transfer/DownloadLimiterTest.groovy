@@ -0,0 +1,158 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transfer
+
+import org.gradle.internal.concurrent.ParallelismConfigurationManagerFixture
+import org.gradle.internal.resources.DefaultResourceLockCoordinationService
+import org.gradle.internal.work.DefaultWorkerLeaseService
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import org.gradle.util.Path
+
+class DownloadLimiterTest extends ConcurrentSpec {
+    def coordinationService = new DefaultResourceLockCoordinationService()
+    def workerLeaseService = new DefaultWorkerLeaseService(coordinationService, new ParallelismConfigurationManagerFixture(true, 1))
+
+    def cleanup() {
+        workerLeaseService.stop()
+    }
+
+    def "starts download when another download finishes"() {
+        def limiter = new DownloadLimiter(1, workerLeaseService, coordinationService)
+
+        when:
+        async {
+            start {
+                limiter.acquire(false)
+                instant.firstStarted
+                thread.block()
+                instant.firstFinished
+                limiter.release()
+            }
+            start {
+                thread.blockUntil.firstStarted
+                limiter.acquire(false)
+                instant.secondStarted
+                limiter.release()
+            }
+        }
+
+        then:
+        instant.secondStarted > instant.firstFinished
+    }
+
+    def "starts waiting priority download before other waiting downloads"() {
+        def limiter = new DownloadLimiter(1, workerLeaseService, coordinationService)
+
+        when:
+        async {
+            start {
+                limiter.acquire(false)
+                instant.firstStarted
+                thread.blockUntil.priorityWaiting
+                thread.block()
+                limiter.release()
+            }
+            start {
+                thread.blockUntil.firstStarted
+                instant.otherWaiting
+                limiter.acquire(false)
+                instant.otherStarted
+                limiter.release()
+            }
+            start {
+                thread.blockUntil.otherWaiting
+                instant.priorityWaiting
+                limiter.acquire(true)
+                instant.priorityStarted
+                thread.block()
+                limiter.release()
+            }
+        }
+
+        then:
+        instant.priorityStarted < instant.otherStarted
+    }
+
+    def "releases worker lease while waiting for a download to start"() {
+        def limiter = new DownloadLimiter(1, workerLeaseService, coordinationService)
+
+        when:
+        async {
+            start {
+                limiter.acquire(false)
+                instant.firstStarted
+                thread.blockUntil.otherWorkerStarted
+                limiter.release()
+            }
+            start {
+                thread.blockUntil.firstStarted
+                def cl = workerLeaseService.getWorkerLease().start()
+                instant.secondWaiting
+                limiter.acquire(false)
+                instant.secondStarted
+                limiter.release()
+                cl.leaseFinish()
+            }
+            start {
+                thread.blockUntil.secondWaiting
+                def cl = workerLeaseService.getWorkerLease().start()
+                instant.otherWorkerStarted
+                cl.leaseFinish()
+            }
+        }
+
+        then:
+        instant.otherWorkerStarted < instant.secondStarted
+    }
+
+    def "releases project lock while waiting for a download to start"() {
+        def limiter = new DownloadLimiter(1, workerLeaseService, coordinationService)
+        def projectLock = workerLeaseService.getProjectLock(Path.path(":"), Path.path(":a"))
+
+        when:
+        async {
+            start {
+                limiter.acquire(false)
+                instant.firstStarted
+                thread.blockUntil.projectLocked
+                limiter.release()
+            }
+            start {
+                thread.blockUntil.firstStarted
+                def cl = workerLeaseService.getWorkerLease().start()
+                workerLeaseService.withLocks([projectLock]) {
+                    instant.secondWaiting
+                    limiter.acquire(false)
+                    instant.secondStarted
+                    limiter.release()
+                }
+                cl.leaseFinish()
+            }
+            start {
+                thread.blockUntil.secondWaiting
+                def cl = workerLeaseService.getWorkerLease().start()
+                workerLeaseService.withLocks([projectLock]) {
+                    instant.projectLocked
+                }
+                cl.leaseFinish()
+            }
+        }
+
+        then:
+        instant.projectLocked < instant.secondStarted
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transfer
+
+import org.gradle.internal.resources.ResourceLockCoordinationService
+import org.gradle.internal.work.WorkerLeaseService
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
+import spock.lang.Specification
+
+class DownloadLimitersTest extends Specification {
+    @Rule
+    SetSystemProperties systemProperties = new SetSystemProperties()
+    def limiters = new DownloadLimiters(Mock(WorkerLeaseService), Mock(ResourceLockCoordinationService))
+
+    def "downloads are not limited by default"() {
+        expect:
+        limiters.forRepository("repo").getLimiter(new URI("https://repo.example.com/maven/a.pom")) == DownloadLimiter.UNLIMITED
+    }
+
+    def "resources from the same repository share a limiter"() {
+        System.setProperty(DownloadLimiters.MAX_CONCURRENT_DOWNLOADS, "8")
+
+        expect:
+        def limiter = limiters.forRepository("repo").getLimiter(new URI("https://repo.example.com/releases/a.pom"))
+        limiters.forRepository("repo").getLimiter(new URI("https://repo.example.com/releases/b.jar")).is(limiter)
+        !limiters.forRepository("other").getLimiter(new URI("https://repo.example.com/releases/a.pom")).is(limiter)
+        !limiters.forRepository("repo").getLimiter(new URI("https://repo.example.com:8443/releases/a.pom")).is(limiter)
+        !limiters.forRepository("repo").getLimiter(new URI("https://other.example.com/releases/a.pom")).is(limiter)
+    }
+
+    def "limit can be removed"() {
+        System.setProperty(DownloadLimiters.MAX_CONCURRENT_DOWNLOADS, "8")
+        System.setProperty(DownloadLimiters.MAX_CONCURRENT_DOWNLOADS + ".repo", "0")
+
+        expect:
+        limiters.forRepository("repo").getLimiter(new URI("https://repo.example.com/releases/a.pom")) == DownloadLimiter.UNLIMITED
+    }
+
+    def "limit can be set for a single repository"() {
+        System.setProperty(DownloadLimiters.MAX_CONCURRENT_DOWNLOADS, "0")
+        System.setProperty(DownloadLimiters.MAX_CONCURRENT_DOWNLOADS + ".repo", "2")
+
+        expect:
+        limiters.forRepository("repo").getLimiter(new URI("https://repo.example.com/releases/a.pom")) != DownloadLimiter.UNLIMITED
+        limiters.forRepository("other").getLimiter(new URI("https://repo.example.com/releases/a.pom")) == DownloadLimiter.UNLIMITED
+    }
+
+    def "unlimited instance never limits downloads"() {
+        expect:
+        DownloadLimiters.UNLIMITED.forRepository("repo").getLimiter(new URI("https://repo.example.com/releases/a.pom")) == DownloadLimiter.UNLIMITED
+    }
+}
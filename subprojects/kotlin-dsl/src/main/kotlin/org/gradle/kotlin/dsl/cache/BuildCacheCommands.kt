@@ -99,6 +99,11 @@ class StoreDirectory(
 
         val entryCount = pack(directory, metadata, outputStream)
 
-        return BuildCacheStoreCommand.Result { entryCount }
+        return object : BuildCacheStoreCommand.Result {
+
+            override fun getArtifactEntryCount(): Long = entryCount
+
+            override fun getArtifactCompressionThreads(): Int = 1
+        }
     }
 }
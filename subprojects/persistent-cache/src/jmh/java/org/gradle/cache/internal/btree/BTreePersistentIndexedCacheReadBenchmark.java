@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal.btree;
+
+import org.apache.commons.io.FileUtils;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**
+ * Compares reading entries from a {@link BTreePersistentIndexedCache} of about 500MB through the buffered stream of {@link FileBackedBlockStore}
+ * with reading them from memory mapped regions of the cache file via {@link MappedByteInput}.
+ * The cache is written and reopened once per trial, so that all reads go to the file.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class BTreePersistentIndexedCacheReadBenchmark {
+    private static final long CACHE_SIZE = 500L * 1024 * 1024;
+    private static final int READS_PER_INVOCATION = 1000;
+
+    @Param({"stream", "mapped"})
+    String input;
+
+    @Param({"512", "16384"})
+    int valueSize;
+
+    File tempDir;
+    BTreePersistentIndexedCache<Integer, byte[]> cache;
+    int[] keys;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        tempDir = Files.createTempDirectory("btree-read-benchmark").toFile();
+        File cacheFile = new File(tempDir, "cache.bin");
+        int entries = (int) (CACHE_SIZE / valueSize);
+        Random random = new Random(42);
+
+        BTreePersistentIndexedCache<Integer, byte[]> writer = createCache(cacheFile, false);
+        byte[] value = new byte[valueSize];
+        for (int i = 0; i < entries; i++) {
+            random.nextBytes(value);
+            writer.put(i, value);
+        }
+        writer.close();
+
+        cache = createCache(cacheFile, input.equals("mapped"));
+        keys = new int[READS_PER_INVOCATION];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextInt(entries);
+        }
+    }
+
+    private static BTreePersistentIndexedCache<Integer, byte[]> createCache(File cacheFile, boolean memoryMapped) {
+        return new BTreePersistentIndexedCache<Integer, byte[]>(cacheFile, BaseSerializerFactory.INTEGER_SERIALIZER, BaseSerializerFactory.BYTE_ARRAY_SERIALIZER, (short) 512, 512, memoryMapped);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        cache.close();
+        FileUtils.forceDelete(tempDir);
+    }
+
+    @Benchmark
+    public void readRandomEntries(Blackhole blackhole) {
+        for (int key : keys) {
+            blackhole.consume(cache.get(key));
+        }
+    }
+}
@@ -19,6 +19,7 @@ import com.google.common.collect.ImmutableSet;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.io.StreamByteBuffer;
+import org.gradle.internal.os.OperatingSystem;
 import org.gradle.internal.serialize.Serializer;
 import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
 import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
@@ -29,6 +30,7 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -48,6 +50,10 @@ import java.util.List;
 // todo - use more efficient lookup for free block with nearest size
 @SuppressWarnings("unchecked")
 public class BTreePersistentIndexedCache<K, V> {
+    /**
+     * Enables reading blocks from memory mapped regions of the cache file, where the platform supports it.
+     */
+    public static final String MEMORY_MAPPED_PROPERTY = "org.gradle.internal.btree.memory-mapped";
     private static final Logger LOGGER = LoggerFactory.getLogger(BTreePersistentIndexedCache.class);
     private final File cacheFile;
     private final KeyHasher<K> keyHasher;
@@ -63,12 +69,17 @@ public class BTreePersistentIndexedCache<K, V> {
 
     public BTreePersistentIndexedCache(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer,
                                        short maxChildIndexEntries, int maxFreeListEntries) {
+        this(cacheFile, keySerializer, valueSerializer, maxChildIndexEntries, maxFreeListEntries, isMemoryMappingEnabled());
+    }
+
+    public BTreePersistentIndexedCache(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer,
+                                       short maxChildIndexEntries, int maxFreeListEntries, boolean memoryMapped) {
         this.cacheFile = cacheFile;
         this.keyHasher = new KeyHasher<K>(keySerializer);
         this.serializer = valueSerializer;
         this.maxChildIndexEntries = maxChildIndexEntries;
         this.minIndexChildNodes = maxChildIndexEntries / 2;
-        BlockStore cachingStore = new CachingBlockStore(new FileBackedBlockStore(cacheFile), ImmutableSet.of(IndexBlock.class, FreeListBlockStore.FreeListBlock.class));
+        BlockStore cachingStore = new CachingBlockStore(new FileBackedBlockStore(cacheFile, memoryMapped), ImmutableSet.of(IndexBlock.class, FreeListBlockStore.FreeListBlock.class));
         this.store = new StateCheckBlockStore(new FreeListBlockStore(cachingStore, maxFreeListEntries));
         try {
             open();
@@ -77,6 +88,11 @@ public class BTreePersistentIndexedCache<K, V> {
         }
     }
 
+    private static boolean isMemoryMappingEnabled() {
+        // Windows does not allow a file to be truncated while it is mapped, and there is no way to unmap a region eagerly
+        return Boolean.getBoolean(MEMORY_MAPPED_PROPERTY) && !OperatingSystem.current().isWindows();
+    }
+
     @Override
     public String toString() {
         return "cache " + cacheFile.getName() + " (" + cacheFile + ")";
@@ -386,6 +402,20 @@ public class BTreePersistentIndexedCache<K, V> {
             tailPos = BlockPointer.pos(instr.readLong());
         }
 
+        @Override
+        protected void read(ByteBuffer buffer) {
+            int count = buffer.getInt();
+            entries.clear();
+            for (int i = 0; i < count; i++) {
+                IndexEntry entry = new IndexEntry();
+                entry.hashCode = buffer.getLong();
+                entry.dataBlock = BlockPointer.pos(buffer.getLong());
+                entry.childIndexBlock = BlockPointer.pos(buffer.getLong());
+                entries.add(entry);
+            }
+            tailPos = BlockPointer.pos(buffer.getLong());
+        }
+
         public void write(DataOutputStream outstr) throws IOException {
             outstr.writeInt(entries.size());
             for (IndexEntry entry : entries) {
@@ -694,6 +724,15 @@ public class BTreePersistentIndexedCache<K, V> {
             buffer = StreamByteBuffer.of(instr, bytes);
         }
 
+        @Override
+        protected void read(ByteBuffer byteBuffer) {
+            size = byteBuffer.getInt();
+            // Copy the value out, as the mapped region may change or go away before the value is deserialized
+            byte[] bytes = new byte[byteBuffer.getInt()];
+            byteBuffer.get(bytes);
+            buffer = StreamByteBuffer.of(Collections.singletonList(bytes));
+        }
+
         public void write(DataOutputStream outstr) throws Exception {
             outstr.writeInt(size);
             outstr.writeInt(buffer.totalBytesUnread());
@@ -17,6 +17,8 @@ package org.gradle.cache.internal.btree;
 
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 public abstract class BlockPayload {
     private Block block;
@@ -43,9 +45,43 @@ public abstract class BlockPayload {
 
     protected abstract void read(DataInputStream inputStream) throws Exception;
 
+    /**
+     * Reads the payload from the given buffer, which is positioned at the start of the payload, leaving the buffer positioned at the end of it.
+     * Payloads which are read often should override this to read from the buffer directly.
+     */
+    protected void read(ByteBuffer buffer) throws Exception {
+        read(new DataInputStream(new ByteBufferInputStream(buffer)));
+    }
+
     protected abstract void write(DataOutputStream outputStream) throws Exception;
 
     protected RuntimeException blockCorruptedException() {
         return getBlock().blockCorruptedException();
     }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(len, buffer.remaining());
+            buffer.get(b, off, count);
+            return count;
+        }
+    }
 }
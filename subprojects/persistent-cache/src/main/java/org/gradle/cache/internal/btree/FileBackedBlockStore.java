@@ -22,18 +22,30 @@ import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 
 public class FileBackedBlockStore implements BlockStore {
     private final File cacheFile;
+    private final boolean memoryMapped;
     private RandomAccessFile file;
     private ByteOutput output;
     private ByteInput input;
+    private MappedByteInput mappedInput;
     private long nextBlock;
     private Factory factory;
     private long currentFileSize;
 
     public FileBackedBlockStore(File cacheFile) {
+        this(cacheFile, false);
+    }
+
+    /**
+     * @param memoryMapped whether to read blocks from memory mapped regions of the file. Must not be used on platforms that cannot truncate a file while it is mapped, like Windows.
+     */
+    public FileBackedBlockStore(File cacheFile, boolean memoryMapped) {
         this.cacheFile = cacheFile;
+        this.memoryMapped = memoryMapped;
     }
 
     @Override
@@ -48,6 +60,7 @@ public class FileBackedBlockStore implements BlockStore {
             file = new RandomAccessFile(cacheFile, "rw");
             output = new ByteOutput(file);
             input = new ByteInput(file);
+            mappedInput = memoryMapped ? new MappedByteInput(file) : null;
             currentFileSize = file.length();
             nextBlock = currentFileSize;
             if (currentFileSize == 0) {
@@ -59,6 +72,7 @@ public class FileBackedBlockStore implements BlockStore {
     }
 
     public void close() {
+        discardMappedRegions();
         try {
             file.close();
         } catch (IOException e) {
@@ -67,6 +81,7 @@ public class FileBackedBlockStore implements BlockStore {
     }
 
     public void clear() {
+        discardMappedRegions();
         try {
             file.setLength(0);
             currentFileSize = 0;
@@ -76,6 +91,12 @@ public class FileBackedBlockStore implements BlockStore {
         nextBlock = 0;
     }
 
+    private void discardMappedRegions() {
+        if (mappedInput != null) {
+            mappedInput.discardRegions();
+        }
+    }
+
     public void attach(BlockPayload block) {
         if (block.getBlock() == null) {
             block.setBlock(new BlockImpl(block));
@@ -212,6 +233,10 @@ public class FileBackedBlockStore implements BlockStore {
             if (pos + HEADER_SIZE >= currentFileSize) {
                 throw blockCorruptedException();
             }
+            if (mappedInput != null) {
+                readMapped(pos);
+                return;
+            }
 
             DataInputStream inputStream = input.start(pos);
 
@@ -239,6 +264,35 @@ public class FileBackedBlockStore implements BlockStore {
             input.done();
         }
 
+        private void readMapped(long pos) throws Exception {
+            BlockPayload payload = getPayload();
+
+            // Read header
+            ByteBuffer header = mappedInput.read(pos, HEADER_SIZE);
+            byte type = header.get();
+            if (type != payload.getType()) {
+                throw blockCorruptedException();
+            }
+            payloadSize = header.getInt();
+            if (payloadSize < 0 || pos + HEADER_SIZE + TAIL_SIZE + payloadSize > currentFileSize) {
+                throw blockCorruptedException();
+            }
+
+            // Read body and verify count, which follows the bytes actually written rather than the space reserved for the payload.
+            // As with the stream, the count includes the header
+            ByteBuffer body = mappedInput.read(pos + HEADER_SIZE, payloadSize + TAIL_SIZE);
+            int start = body.position();
+            try {
+                payload.read(body);
+                int bodyCount = body.position() - start;
+                if (bodyCount > payloadSize || body.getInt() != HEADER_SIZE + bodyCount) {
+                    throw blockCorruptedException();
+                }
+            } catch (BufferUnderflowException e) {
+                throw blockCorruptedException();
+            }
+        }
+
         public RuntimeException blockCorruptedException() {
             return new CorruptedCacheException(String.format("Corrupted %s found in %s.", this,
                     FileBackedBlockStore.this));
@@ -17,6 +17,7 @@ package org.gradle.cache.internal.btree;
 
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -150,6 +151,18 @@ public class FreeListBlockStore implements BlockStore {
             }
         }
 
+        @Override
+        protected void read(ByteBuffer buffer) {
+            nextBlock = BlockPointer.pos(buffer.getLong());
+            largestInNextBlock = buffer.getInt();
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                BlockPointer pos = BlockPointer.pos(buffer.getLong());
+                int size = buffer.getInt();
+                entries.add(new FreeListEntry(pos, size));
+            }
+        }
+
         @Override
         protected void write(DataOutputStream outputStream) throws Exception {
             outputStream.writeLong(nextBlock.getPos());
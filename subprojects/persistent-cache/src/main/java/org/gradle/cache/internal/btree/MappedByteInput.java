@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal.btree;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads blocks directly from regions of the backing file which are mapped into memory, without copying them to the heap first.
+ *
+ * <p>The file is mapped read-only in regions of a fixed size. The last region is mapped up to the length of the file at the time it is mapped.
+ * It is only mapped again once the file has grown to twice the mapped length, as a replaced mapping stays alive until it is garbage collected.
+ * Ranges beyond the mapped length, or spanning two regions, are read through the file channel instead.
+ * Writes go through the file, relying on the operating system to keep the mapped regions coherent with them.
+ * The mappings must be discarded when the file is truncated, as accessing a mapped region beyond the end of the file is fatal.</p>
+ */
+class MappedByteInput {
+    static final long DEFAULT_REGION_SIZE = 64L * 1024 * 1024;
+
+    private final RandomAccessFile file;
+    private final long regionSize;
+    private final List<MappedByteBuffer> regions = new ArrayList<MappedByteBuffer>();
+    private ByteBuffer readBuffer = ByteBuffer.allocate(4096);
+
+    public MappedByteInput(RandomAccessFile file) {
+        this(file, DEFAULT_REGION_SIZE);
+    }
+
+    MappedByteInput(RandomAccessFile file, long regionSize) {
+        this.file = file;
+        this.regionSize = regionSize;
+    }
+
+    /**
+     * Returns a buffer containing the given range of the file, positioned at the start of the range and limited to its end.
+     * The buffer is only valid until the next call.
+     *
+     * @throws EOFException when the range extends beyond the end of the file.
+     */
+    public ByteBuffer read(long offset, int length) throws IOException {
+        int regionIndex = (int) (offset / regionSize);
+        long regionStart = regionIndex * regionSize;
+        long end = offset + length;
+        if (end <= regionStart + regionSize) {
+            MappedByteBuffer region = region(regionIndex, end - regionStart);
+            if (region != null) {
+                ByteBuffer range = region.duplicate();
+                range.limit((int) (end - regionStart));
+                range.position((int) (offset - regionStart));
+                return range;
+            }
+        }
+        return readFromChannel(offset, length);
+    }
+
+    /**
+     * Discards all mapped regions.
+     */
+    public void discardRegions() {
+        regions.clear();
+    }
+
+    private MappedByteBuffer region(int index, long requiredLength) throws IOException {
+        while (regions.size() <= index) {
+            regions.add(null);
+        }
+        MappedByteBuffer region = regions.get(index);
+        if (region != null && region.capacity() >= requiredLength) {
+            return region;
+        }
+        long regionStart = index * regionSize;
+        long length = Math.min(regionSize, file.length() - regionStart);
+        if (length < requiredLength) {
+            return null;
+        }
+        if (region != null && length < Math.min(regionSize, 2L * region.capacity())) {
+            // The file has not grown enough yet to be worth another mapping
+            return null;
+        }
+        region = file.getChannel().map(FileChannel.MapMode.READ_ONLY, regionStart, length);
+        regions.set(index, region);
+        return region;
+    }
+
+    private ByteBuffer readFromChannel(long offset, int length) throws IOException {
+        if (readBuffer.capacity() < length) {
+            readBuffer = ByteBuffer.allocate(Math.max(length, 2 * readBuffer.capacity()));
+        }
+        readBuffer.clear();
+        readBuffer.limit(length);
+        FileChannel channel = file.getChannel();
+        while (readBuffer.hasRemaining()) {
+            if (channel.read(readBuffer, offset + readBuffer.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+        readBuffer.flip();
+        return readBuffer;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal.btree
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.Requires
+import org.gradle.util.TestPrecondition
+import org.junit.Rule
+import spock.lang.Specification
+
+@Requires(TestPrecondition.NOT_WINDOWS)
+class MappedByteInputTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    RandomAccessFile file
+    MappedByteInput input
+
+    def setup() {
+        file = new RandomAccessFile(tmpDir.file("test.bin"), "rw")
+        input = new MappedByteInput(file, 10)
+    }
+
+    def cleanup() {
+        input.discardRegions()
+        file.close()
+    }
+
+    def "can reuse to read from multiple locations in file"() {
+        given:
+        file.seek(0)
+        file.writeInt(123)
+        file.writeInt(321)
+        file.writeInt(456)
+
+        expect:
+        def buffer = input.read(0, 8)
+        buffer.getInt() == 123
+        buffer.getInt() == 321
+        !buffer.hasRemaining()
+
+        def buffer2 = input.read(4, 8)
+        buffer2.getInt() == 321
+        buffer2.getInt() == 456
+
+        input.read(0, 4).getInt() == 123
+    }
+
+    def "can read across region boundaries"() {
+        given:
+        file.seek(0)
+        100.times { file.writeInt(it) }
+
+        expect:
+        def buffer = input.read(8, 392)
+        (2..<100).every { buffer.getInt() == it }
+        !buffer.hasRemaining()
+    }
+
+    def "can read content written after regions have been mapped"() {
+        given:
+        file.seek(0)
+        file.writeInt(123)
+
+        expect:
+        input.read(0, 4).getInt() == 123
+
+        when:
+        file.writeInt(321)
+        file.writeInt(456)
+
+        then:
+        def buffer = input.read(0, 12)
+        buffer.getInt() == 123
+        buffer.getInt() == 321
+        buffer.getInt() == 456
+    }
+
+    def "maps a region again only once the file has grown to twice the mapped length"() {
+        given:
+        def largeRegionInput = new MappedByteInput(file, 1024)
+        file.seek(0)
+        file.writeInt(1)
+        file.writeInt(2)
+
+        expect:
+        largeRegionInput.read(0, 8).direct
+
+        when:
+        file.writeInt(3)
+
+        then:
+        // Read through the file, as 12 bytes are less than twice the 8 bytes mapped
+        def unmapped = largeRegionInput.read(8, 4)
+        !unmapped.direct
+        unmapped.getInt() == 3
+
+        when:
+        file.writeInt(4)
+
+        then:
+        def remapped = largeRegionInput.read(8, 8)
+        remapped.direct
+        remapped.getInt() == 3
+        remapped.getInt() == 4
+
+        cleanup:
+        largeRegionInput.discardRegions()
+    }
+
+    def "cannot read beyond end of file"() {
+        given:
+        file.seek(0)
+        file.writeInt(123)
+
+        when:
+        input.read(2, 4)
+
+        then:
+        thrown(EOFException)
+
+        when:
+        input.read(123, 4)
+
+        then:
+        thrown(EOFException)
+    }
+}
@@ -20,6 +20,7 @@ import org.apache.http.HttpException;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponse;
 import org.apache.http.auth.AuthScheme;
 import org.apache.http.auth.AuthSchemeProvider;
 import org.apache.http.auth.AuthScope;
@@ -37,6 +38,7 @@ import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.client.utils.DateUtils;
 import org.apache.http.config.RegistryBuilder;
 import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.conn.util.PublicSuffixMatcher;
 import org.apache.http.conn.util.PublicSuffixMatcherLoader;
@@ -46,6 +48,7 @@ import org.apache.http.impl.auth.BasicSchemeFactory;
 import org.apache.http.impl.auth.DigestSchemeFactory;
 import org.apache.http.impl.auth.KerberosSchemeFactory;
 import org.apache.http.impl.auth.SPNegoSchemeFactory;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.SystemDefaultCredentialsProvider;
 import org.apache.http.impl.conn.SystemDefaultRoutePlanner;
@@ -80,7 +83,6 @@ import java.util.Collections;
 
 public class HttpClientConfigurer {
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpClientConfigurer.class);
-    private static final int MAX_HTTP_CONNECTIONS = 20;
     private static final String[] SSL_PROTOCOLS;
 
     private static final String HTTPS_PROTOCOLS = "https.protocols";
@@ -113,9 +115,17 @@ public class HttpClientConfigurer {
         configureRequestConfig(builder);
         configureSocketConfig(builder);
         configureRedirectStrategy(builder);
+        configureConnectionPool(builder);
         builder.setDefaultCredentialsProvider(credentialsProvider);
-        builder.setMaxConnTotal(MAX_HTTP_CONNECTIONS);
-        builder.setMaxConnPerRoute(MAX_HTTP_CONNECTIONS);
+    }
+
+    private void configureConnectionPool(HttpClientBuilder builder) {
+        builder.setMaxConnTotal(httpSettings.getMaxConnections());
+        builder.setMaxConnPerRoute(httpSettings.getMaxConnections());
+        long keepAliveTimeoutMs = httpSettings.getKeepAliveTimeoutMs();
+        if (keepAliveTimeoutMs > 0) {
+            builder.setKeepAliveStrategy(new LimitedKeepAliveStrategy(keepAliveTimeoutMs));
+        }
     }
 
     private void configureSslSocketConnectionFactory(HttpClientBuilder builder, SslContextFactory sslContextFactory, HostnameVerifier hostnameVerifier) {
@@ -302,4 +312,22 @@ public class HttpClientConfigurer {
             }
         }
     }
+
+    /**
+     * Keeps idle connections open for at most the given time, or for less when the server asks for it.
+     * Load balancers often drop idle connections without closing them, and a request sent over such a connection fails.
+     */
+    private static class LimitedKeepAliveStrategy implements ConnectionKeepAliveStrategy {
+        private final long maxKeepAliveMs;
+
+        LimitedKeepAliveStrategy(long maxKeepAliveMs) {
+            this.maxKeepAliveMs = maxKeepAliveMs;
+        }
+
+        @Override
+        public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+            long serverKeepAliveMs = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAliveMs > 0 ? Math.min(serverKeepAliveMs, maxKeepAliveMs) : maxKeepAliveMs;
+        }
+    }
 }
@@ -35,4 +35,14 @@ public interface HttpSettings {
     SslContextFactory getSslContextFactory();
 
     HostnameVerifier getHostnameVerifier();
+
+    /**
+     * The maximum number of connections kept open to all servers, and to each server.
+     */
+    int getMaxConnections();
+
+    /**
+     * The maximum time an idle connection is kept open for reuse, or a negative value to keep it open as long as the server allows.
+     */
+    long getKeepAliveTimeoutMs();
 }
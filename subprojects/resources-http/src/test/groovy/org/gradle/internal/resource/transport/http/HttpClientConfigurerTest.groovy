@@ -16,8 +16,10 @@
 package org.gradle.internal.resource.transport.http
 
 import com.google.common.util.concurrent.UncheckedExecutionException
+import org.apache.http.HttpVersion
 import org.apache.http.auth.AuthScope
 import org.apache.http.impl.client.HttpClientBuilder
+import org.apache.http.message.BasicHttpResponse
 import org.apache.http.ssl.SSLContexts
 import org.gradle.api.artifacts.repositories.PasswordCredentials
 import org.gradle.internal.SystemProperties
@@ -202,4 +204,20 @@ class HttpClientConfigurerTest extends Specification {
         httpClientBuilder.defaultRequestConfig.socketTimeout == 30000
         httpClientBuilder.defaultSocketConfig.soKeepAlive
     }
+
+    def "configures http client connection pool"() {
+        httpSettings.authenticationSettings >> []
+        httpSettings.proxySettings >> proxySettings
+        httpSettings.sslContextFactory >> sslContextFactory
+        httpSettings.maxConnections >> 64
+        httpSettings.keepAliveTimeoutMs >> 5000
+
+        when:
+        configurer.configure(httpClientBuilder)
+
+        then:
+        httpClientBuilder.maxConnTotal == 64
+        httpClientBuilder.maxConnPerRoute == 64
+        httpClientBuilder.keepAliveStrategy.getKeepAliveDuration(new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK"), null) == 5000
+    }
 }
@@ -78,6 +78,8 @@ class HttpClientHelperTest extends AbstractHttpClientTest {
         return Stub(HttpSettings) {
             getProxySettings() >> Mock(HttpProxySettings)
             getSecureProxySettings() >> Mock(HttpProxySettings)
+            getMaxConnections() >> DefaultHttpSettings.DEFAULT_MAX_CONNECTIONS
+            getKeepAliveTimeoutMs() >> -1
             getSslContextFactory() >> Mock(SslContextFactory) {
                 createSslContext() >> SSLContexts.createDefault()
             }
@@ -51,6 +51,8 @@ class HttpClientHelperTimeoutTest extends Specification {
             getProxySettings() >> Mock(HttpProxySettings)
             getSecureProxySettings() >> Mock(HttpProxySettings)
             getTimeoutSettings() >> { new JavaSystemPropertiesHttpTimeoutSettings() }
+            getMaxConnections() >> DefaultHttpSettings.DEFAULT_MAX_CONNECTIONS
+            getKeepAliveTimeoutMs() >> -1
             getSslContextFactory() >> Mock(SslContextFactory) {
                 createSslContext() >> SSLContexts.createDefault()
             }
@@ -33,8 +33,27 @@ public interface FileSystemMirror {
 
     void putSnapshot(FileSystemLocationSnapshot file);
 
+    /**
+     * Stores the snapshot of a location read from the file system, unless the location has been invalidated since the given generation.
+     *
+     * @param generation the result of {@link #getGeneration()} before the location was read.
+     */
+    void putSnapshot(FileSystemLocationSnapshot file, long generation);
+
     @Nullable
     FileMetadataSnapshot getMetadata(String absolutePath);
 
     void putMetadata(String absolutePath, FileMetadataSnapshot stat);
+
+    /**
+     * Stores the metadata of a location read from the file system, unless the location has been invalidated since the given generation.
+     *
+     * @param generation the result of {@link #getGeneration()} before the location was read.
+     */
+    void putMetadata(String absolutePath, FileMetadataSnapshot stat, long generation);
+
+    /**
+     * Returns the current generation of the mirror, which advances each time state is invalidated.
+     */
+    long getGeneration();
 }
@@ -16,14 +16,22 @@
 
 package org.gradle.internal.snapshot.impl;
 
+import com.google.common.base.Predicate;
 import org.gradle.internal.file.FileMetadataSnapshot;
 import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
 import org.gradle.internal.snapshot.FileSystemMirror;
 import org.gradle.internal.snapshot.WellKnownFileLocations;
 
 import javax.annotation.Nullable;
+import java.io.File;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * See {@link DefaultFileSystemSnapshotter} for some more details
@@ -35,6 +43,14 @@ public class DefaultFileSystemMirror implements FileSystemMirror {
     // Maps from interned absolute path for a file to snapshot for the file.
     private final Map<String, FileSystemLocationSnapshot> files = new ConcurrentHashMap<String, FileSystemLocationSnapshot>();
     private final Map<String, FileSystemLocationSnapshot> cacheFiles = new ConcurrentHashMap<String, FileSystemLocationSnapshot>();
+    // The paths with state in metadata or files, sorted so that the descendants of a changed location can be found without a full scan.
+    // May contain paths that no longer have state.
+    private final NavigableSet<String> paths = new ConcurrentSkipListSet<String>();
+    // Advances on each invalidation, so that state which has been invalidated while it was read from the file system is not stored afterwards.
+    private final AtomicLong generation = new AtomicLong();
+    // Maps from absolute path to the generation of the latest invalidation of that location. Only needed while state is being read, so cleared between builds.
+    private final Map<String, Long> invalidations = new ConcurrentHashMap<String, Long>();
+    private volatile long allInvalidated;
 
     private final WellKnownFileLocations wellKnownFileLocations;
 
@@ -59,10 +75,26 @@ public class DefaultFileSystemMirror implements FileSystemMirror {
         if (wellKnownFileLocations.isImmutable(absolutePath)) {
             cacheFiles.put(absolutePath, snapshot);
         } else {
+            paths.add(absolutePath);
             files.put(absolutePath, snapshot);
         }
     }
 
+    @Override
+    public void putSnapshot(FileSystemLocationSnapshot snapshot, long generation) {
+        String absolutePath = snapshot.getAbsolutePath();
+        if (wellKnownFileLocations.isImmutable(absolutePath)) {
+            cacheFiles.put(absolutePath, snapshot);
+        } else {
+            paths.add(absolutePath);
+            files.put(absolutePath, snapshot);
+            // Check after storing, so that an invalidation recorded after the check also discards the stored state
+            if (invalidatedSince(absolutePath, generation)) {
+                files.remove(absolutePath, snapshot);
+            }
+        }
+    }
+
     @Override
     public FileMetadataSnapshot getMetadata(String absolutePath) {
         if (wellKnownFileLocations.isImmutable(absolutePath)) {
@@ -76,29 +108,135 @@ public class DefaultFileSystemMirror implements FileSystemMirror {
         if (wellKnownFileLocations.isImmutable(absolutePath)) {
             cacheMetadata.put(absolutePath, metadata);
         } else {
+            paths.add(absolutePath);
             this.metadata.put(absolutePath, metadata);
         }
     }
 
+    @Override
+    public void putMetadata(String absolutePath, FileMetadataSnapshot metadata, long generation) {
+        if (wellKnownFileLocations.isImmutable(absolutePath)) {
+            cacheMetadata.put(absolutePath, metadata);
+        } else {
+            paths.add(absolutePath);
+            this.metadata.put(absolutePath, metadata);
+            if (invalidatedSince(absolutePath, generation)) {
+                this.metadata.remove(absolutePath, metadata);
+            }
+        }
+    }
+
+    @Override
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Whether the given location, or one of its ancestors, has been invalidated after the given generation.
+     */
+    private boolean invalidatedSince(String absolutePath, long generation) {
+        if (allInvalidated > generation) {
+            return true;
+        }
+        if (invalidations.isEmpty()) {
+            return false;
+        }
+        for (String location = absolutePath; location != null; location = new File(location).getParent()) {
+            Long invalidation = invalidations.get(location);
+            if (invalidation != null && invalidation > generation) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void recordInvalidation(String absolutePath, long invalidation) {
+        Long previous = invalidations.putIfAbsent(absolutePath, invalidation);
+        while (previous != null && previous < invalidation && !invalidations.replace(absolutePath, previous, invalidation)) {
+            previous = invalidations.putIfAbsent(absolutePath, invalidation);
+        }
+    }
+
     public void beforeOutputChange() {
         // When the outputs are generated, throw away all state for files that do not live in an append-only cache.
         // This is intentionally very simple, to be improved later
+        allInvalidated = generation.incrementAndGet();
         metadata.clear();
         files.clear();
+        paths.clear();
     }
 
     public void beforeBuildFinished() {
         // We throw away all state between builds
+        invalidations.clear();
         metadata.clear();
         cacheMetadata.clear();
         files.clear();
         cacheFiles.clear();
+        paths.clear();
+    }
+
+    /**
+     * Throws away the state for files that do not live in an append-only cache, except for the locations accepted by the given predicate.
+     * This allows the state of watched locations to be reused by the next build.
+     *
+     * @return the locations whose state has been thrown away.
+     */
+    public Set<String> beforeBuildFinished(Predicate<String> retainedLocations) {
+        invalidations.clear();
+        cacheMetadata.clear();
+        cacheFiles.clear();
+        Set<String> discarded = new HashSet<String>();
+        discardUnless(metadata, retainedLocations, discarded);
+        discardUnless(files, retainedLocations, discarded);
+        paths.removeAll(discarded);
+        return discarded;
+    }
+
+    /**
+     * Throws away the state of the given location, of all its descendants and of all its ancestors, as a change to a file
+     * invalidates the snapshots of the directories containing it.
+     */
+    public void changed(String changedPath) {
+        long invalidation = generation.incrementAndGet();
+        for (String ancestor = changedPath; ancestor != null; ancestor = new File(ancestor).getParent()) {
+            recordInvalidation(ancestor, invalidation);
+            discard(ancestor);
+        }
+        String prefix = changedPath.endsWith(File.separator) ? changedPath : changedPath + File.separatorChar;
+        String end = prefix.substring(0, prefix.length() - 1) + (char) (File.separatorChar + 1);
+        Iterator<String> descendants = paths.subSet(prefix, end).iterator();
+        while (descendants.hasNext()) {
+            String descendant = descendants.next();
+            metadata.remove(descendant);
+            files.remove(descendant);
+            descendants.remove();
+        }
+    }
+
+    private void discard(String absolutePath) {
+        metadata.remove(absolutePath);
+        files.remove(absolutePath);
+        paths.remove(absolutePath);
+    }
+
+    private static void discardUnless(Map<String, ?> state, Predicate<String> retainedLocations, Set<String> discarded) {
+        for (Iterator<String> iterator = state.keySet().iterator(); iterator.hasNext(); ) {
+            String absolutePath = iterator.next();
+            if (!retainedLocations.apply(absolutePath)) {
+                iterator.remove();
+                discarded.add(absolutePath);
+            }
+        }
     }
 
     public void beforeOutputChange(Iterable<String> affectedOutputPaths) {
+        long invalidation = generation.incrementAndGet();
         for (String affectedOutputPath : affectedOutputPaths) {
+            recordInvalidation(affectedOutputPath, invalidation);
             metadata.remove(affectedOutputPath);
             files.remove(affectedOutputPath);
+            paths.remove(affectedOutputPath);
             cacheMetadata.remove(affectedOutputPath);
             cacheFiles.remove(affectedOutputPath);
         }
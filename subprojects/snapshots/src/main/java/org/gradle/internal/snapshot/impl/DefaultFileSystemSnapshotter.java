@@ -70,11 +70,15 @@ public class DefaultFileSystemSnapshotter implements FileSystemSnapshotter {
     private final DirectorySnapshotter directorySnapshotter;
 
     public DefaultFileSystemSnapshotter(FileHasher hasher, StringInterner stringInterner, FileSystem fileSystem, FileSystemMirror fileSystemMirror, String... defaultExcludes) {
+        this(hasher, stringInterner, fileSystem, fileSystemMirror, FileHashingExecutor.SEQUENTIAL, defaultExcludes);
+    }
+
+    public DefaultFileSystemSnapshotter(FileHasher hasher, StringInterner stringInterner, FileSystem fileSystem, FileSystemMirror fileSystemMirror, FileHashingExecutor fileHashingExecutor, String... defaultExcludes) {
         this.hasher = hasher;
         this.stringInterner = stringInterner;
         this.fileSystem = fileSystem;
         this.fileSystemMirror = fileSystemMirror;
-        this.directorySnapshotter = new DirectorySnapshotter(hasher, fileSystem, stringInterner, defaultExcludes);
+        this.directorySnapshotter = new DirectorySnapshotter(hasher, fileSystem, stringInterner, fileHashingExecutor, defaultExcludes);
     }
 
     @Override
@@ -94,12 +98,13 @@ public class DefaultFileSystemSnapshotter implements FileSystemSnapshotter {
             @Nullable
             @Override
             public HashCode create() {
+                long generation = fileSystemMirror.getGeneration();
                 InternableString internableAbsolutePath = new InternableString(absolutePath);
-                FileMetadataSnapshot metadata = statAndCache(internableAbsolutePath, file);
+                FileMetadataSnapshot metadata = statAndCache(internableAbsolutePath, file, generation);
                 if (metadata.getType() != FileType.RegularFile) {
                     return null;
                 }
-                FileSystemLocationSnapshot snapshot = snapshotAndCache(internableAbsolutePath, file, metadata, null);
+                FileSystemLocationSnapshot snapshot = snapshotAndCache(internableAbsolutePath, file, metadata, null, generation);
                 return snapshot.getHash();
             }
         });
@@ -128,27 +133,29 @@ public class DefaultFileSystemSnapshotter implements FileSystemSnapshotter {
     }
 
     private FileSystemLocationSnapshot snapshotAndCache(File file, @Nullable PatternSet patternSet) {
+        // Anything read from the file system from here on is dropped by the mirror when the location changes in the meantime
+        long generation = fileSystemMirror.getGeneration();
         InternableString absolutePath = new InternableString(file.getAbsolutePath());
-        FileMetadataSnapshot metadata = statAndCache(absolutePath, file);
-        return snapshotAndCache(absolutePath, file, metadata, patternSet);
+        FileMetadataSnapshot metadata = statAndCache(absolutePath, file, generation);
+        return snapshotAndCache(absolutePath, file, metadata, patternSet, generation);
     }
 
-    private FileMetadataSnapshot statAndCache(InternableString absolutePath, File file) {
+    private FileMetadataSnapshot statAndCache(InternableString absolutePath, File file, long generation) {
         FileMetadataSnapshot metadata = fileSystemMirror.getMetadata(absolutePath.asNonInterned());
         if (metadata == null) {
             metadata = fileSystem.stat(file);
-            fileSystemMirror.putMetadata(absolutePath.asInterned(), metadata);
+            fileSystemMirror.putMetadata(absolutePath.asInterned(), metadata, generation);
         }
         return metadata;
     }
 
-    private FileSystemLocationSnapshot snapshotAndCache(InternableString absolutePath, File file, FileMetadataSnapshot metadata, @Nullable PatternSet patternSet) {
+    private FileSystemLocationSnapshot snapshotAndCache(InternableString absolutePath, File file, FileMetadataSnapshot metadata, @Nullable PatternSet patternSet, long generation) {
         FileSystemLocationSnapshot fileSystemLocationSnapshot = fileSystemMirror.getSnapshot(absolutePath.asNonInterned());
         if (fileSystemLocationSnapshot == null) {
             MutableBoolean hasBeenFiltered = new MutableBoolean(false);
             fileSystemLocationSnapshot = snapshot(absolutePath.asInterned(), patternSet, file, metadata, hasBeenFiltered);
             if (!hasBeenFiltered.get()) {
-                fileSystemMirror.putSnapshot(fileSystemLocationSnapshot);
+                fileSystemMirror.putSnapshot(fileSystemLocationSnapshot, generation);
             }
         }
         return fileSystemLocationSnapshot;
@@ -40,6 +40,7 @@ import org.gradle.internal.nativeintegration.filesystem.Stat;
 import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
 import org.gradle.internal.snapshot.MerkleDirectorySnapshotBuilder;
 import org.gradle.internal.snapshot.RegularFileSnapshot;
+import org.gradle.internal.snapshot.RelativePathSegmentsTracker;
 
 import javax.annotation.Nullable;
 import java.io.File;
@@ -53,6 +54,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
 
@@ -61,26 +63,39 @@ public class DirectorySnapshotter {
     private final FileSystem fileSystem;
     private final StringInterner stringInterner;
     private final DefaultExcludes defaultExcludes;
+    private final FileHashingExecutor fileHashingExecutor;
 
     public DirectorySnapshotter(FileHasher hasher, FileSystem fileSystem, StringInterner stringInterner, String... defaultExcludes) {
+        this(hasher, fileSystem, stringInterner, FileHashingExecutor.SEQUENTIAL, defaultExcludes);
+    }
+
+    public DirectorySnapshotter(FileHasher hasher, FileSystem fileSystem, StringInterner stringInterner, FileHashingExecutor fileHashingExecutor, String... defaultExcludes) {
         this.hasher = hasher;
         this.fileSystem = fileSystem;
         this.stringInterner = stringInterner;
+        this.fileHashingExecutor = fileHashingExecutor;
         this.defaultExcludes = new DefaultExcludes(defaultExcludes);
     }
 
+    /**
+     * Walks the directory tree, handing the regular files found to the {@link FileHashingExecutor} to be hashed while the walk continues.
+     * The visits recorded during the walk are then replayed in their original order, so the resulting Merkle tree does not depend on how the files were hashed.
+     */
     public FileSystemLocationSnapshot snapshot(String absolutePath, @Nullable PatternSet patterns, final MutableBoolean hasBeenFiltered) {
         Path rootPath = Paths.get(absolutePath);
         final Spec<FileTreeElement> spec = (patterns == null || patterns.isEmpty()) ? null : patterns.getAsSpec();
-        final MerkleDirectorySnapshotBuilder builder = MerkleDirectorySnapshotBuilder.sortingRequired();
+        final RelativePathSegmentsTracker relativePathTracker = new RelativePathSegmentsTracker();
+        final List<Visit> visits = new ArrayList<Visit>();
+        final FileHashingExecutor.Session hashing = fileHashingExecutor.start();
 
         try {
             Files.walkFileTree(rootPath, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new java.nio.file.FileVisitor<Path>() {
                 @Override
                 public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
                     String name = stringInterner.intern(dir.getFileName().toString());
-                    if (builder.isRoot() || isAllowed(dir, name, true, attrs, builder.getRelativePath())) {
-                        builder.preVisitDirectory(internedAbsolutePath(dir), name);
+                    if (relativePathTracker.isRoot() || isAllowed(dir, name, true, attrs, relativePathTracker.getRelativePath())) {
+                        relativePathTracker.enter(name);
+                        visits.add(new DirectoryVisit(internedAbsolutePath(dir), name));
                         return FileVisitResult.CONTINUE;
                     } else {
                         return FileVisitResult.SKIP_SUBTREE;
@@ -90,7 +105,7 @@ public class DirectorySnapshotter {
                 @Override
                 public FileVisitResult visitFile(Path file, @Nullable BasicFileAttributes attrs) {
                     String name = stringInterner.intern(file.getFileName().toString());
-                    if (isAllowed(file, name, false, attrs, builder.getRelativePath())) {
+                    if (isAllowed(file, name, false, attrs, relativePathTracker.getRelativePath())) {
                         if (attrs == null) {
                             throw new GradleException(String.format("Cannot read file '%s': not authorized.", file));
                         }
@@ -108,7 +123,7 @@ public class DirectorySnapshotter {
                     // File loop exceptions are ignored. When we encounter a loop (via symbolic links), we continue
                     // so we include all the other files apart from the loop.
                     // This way, we include each file only once.
-                    if (isNotFileSystemLoopException(exc) && isAllowed(file, file.getFileName().toString(), false, null, builder.getRelativePath())) {
+                    if (isNotFileSystemLoopException(exc) && isAllowed(file, file.getFileName().toString(), false, null, relativePathTracker.getRelativePath())) {
                         throw new GradleException(String.format("Could not read path '%s'.", file), exc);
                     }
                     return FileVisitResult.CONTINUE;
@@ -122,7 +137,8 @@ public class DirectorySnapshotter {
                     if (isNotFileSystemLoopException(exc)) {
                         throw new GradleException(String.format("Could not read directory path '%s'.", dir), exc);
                     }
-                    builder.postVisitDirectory();
+                    relativePathTracker.leave();
+                    visits.add(POST_VISIT_DIRECTORY);
                     return FileVisitResult.CONTINUE;
                 }
 
@@ -133,9 +149,9 @@ public class DirectorySnapshotter {
                 private void addFileSnapshot(Path file, String name, BasicFileAttributes attrs) {
                     Preconditions.checkNotNull(attrs, "Unauthorized access to %", file);
                     DefaultFileMetadata metadata = new DefaultFileMetadata(FileType.RegularFile, attrs.lastModifiedTime().toMillis(), attrs.size());
-                    HashCode hash = hasher.hash(file.toFile(), metadata);
-                    RegularFileSnapshot fileSnapshot = new RegularFileSnapshot(internedAbsolutePath(file), name, hash, metadata.getLastModified());
-                    builder.visit(fileSnapshot);
+                    FileVisit fileVisit = new FileVisit(file.toFile(), internedAbsolutePath(file), name, metadata);
+                    visits.add(fileVisit);
+                    hashing.submit(fileVisit);
                 }
 
                 private String internedAbsolutePath(Path file) {
@@ -161,11 +177,73 @@ public class DirectorySnapshotter {
                 }
             });
         } catch (IOException e) {
+            hashing.cancel();
             throw new GradleException(String.format("Could not list contents of directory '%s'.", rootPath), e);
+        } catch (RuntimeException e) {
+            hashing.cancel();
+            throw e;
+        }
+
+        hashing.finish();
+
+        MerkleDirectorySnapshotBuilder builder = MerkleDirectorySnapshotBuilder.sortingRequired();
+        for (Visit visit : visits) {
+            visit.replay(builder);
         }
         return builder.getResult();
     }
 
+    private interface Visit {
+        void replay(MerkleDirectorySnapshotBuilder builder);
+    }
+
+    private static final Visit POST_VISIT_DIRECTORY = new Visit() {
+        @Override
+        public void replay(MerkleDirectorySnapshotBuilder builder) {
+            builder.postVisitDirectory();
+        }
+    };
+
+    private static class DirectoryVisit implements Visit {
+        private final String absolutePath;
+        private final String name;
+
+        public DirectoryVisit(String absolutePath, String name) {
+            this.absolutePath = absolutePath;
+            this.name = name;
+        }
+
+        @Override
+        public void replay(MerkleDirectorySnapshotBuilder builder) {
+            builder.preVisitDirectory(absolutePath, name);
+        }
+    }
+
+    private class FileVisit implements Visit, Runnable {
+        private final File file;
+        private final String absolutePath;
+        private final String name;
+        private final DefaultFileMetadata metadata;
+        private HashCode hash;
+
+        public FileVisit(File file, String absolutePath, String name, DefaultFileMetadata metadata) {
+            this.file = file;
+            this.absolutePath = absolutePath;
+            this.name = name;
+            this.metadata = metadata;
+        }
+
+        @Override
+        public void run() {
+            hash = hasher.hash(file, metadata);
+        }
+
+        @Override
+        public void replay(MerkleDirectorySnapshotBuilder builder) {
+            builder.visit(new RegularFileSnapshot(absolutePath, name, hash, metadata.getLastModified()));
+        }
+    }
+
     @VisibleForTesting
     static class DefaultExcludes {
         private final ImmutableSet<String> excludeFileNames;
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.snapshot.impl;
+
+/**
+ * Runs the actions hashing the regular files found by the {@link DirectorySnapshotter}.
+ */
+public interface FileHashingExecutor {
+    FileHashingExecutor SEQUENTIAL = new FileHashingExecutor() {
+        @Override
+        public Session start() {
+            return new Session() {
+                @Override
+                public void submit(Runnable action) {
+                    action.run();
+                }
+
+                @Override
+                public void finish() {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            };
+        }
+    };
+
+    /**
+     * Starts running a group of independent actions, which are submitted while they are found.
+     */
+    Session start();
+
+    interface Session {
+        /**
+         * Submits an action, which may run right away, on another thread, or only when the session is finished.
+         */
+        void submit(Runnable action);
+
+        /**
+         * Runs the remaining actions and returns when all of them have completed, rethrowing the first failure.
+         */
+        void finish();
+
+        /**
+         * Discards the actions which have not started yet, for example when finding further actions failed.
+         */
+        void cancel();
+    }
+}
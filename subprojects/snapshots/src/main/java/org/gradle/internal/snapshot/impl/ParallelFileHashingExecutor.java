@@ -0,0 +1,199 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.snapshot.impl;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.resources.ResourceLockCoordinationService;
+import org.gradle.internal.work.WorkerLeaseRegistry.WorkerLease;
+import org.gradle.internal.work.WorkerLeaseService;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.gradle.internal.resources.DefaultResourceLockCoordinationService.tryLock;
+import static org.gradle.internal.resources.DefaultResourceLockCoordinationService.unlock;
+
+/**
+ * Hashes files using up to {@link WorkerLeaseService#getMaxWorkerCount()} threads, including the calling one.
+ *
+ * <p>Actions are queued while the files are found, and helper threads start taking them from the queue right away.
+ * A helper thread only runs actions while it holds a worker lease, so hashing does not use more threads than the build is allowed to,
+ * and it stops when no lease is available. The calling thread always takes part in the work once all actions have been submitted,
+ * so a snapshot never waits for a helper thread which could not start.</p>
+ *
+ * <p>When an action fails or the calling thread is interrupted, the actions which have not started yet are discarded.</p>
+ */
+public class ParallelFileHashingExecutor implements FileHashingExecutor, Stoppable {
+    // Hashing a handful of files is cheaper than handing them to another thread
+    private static final int MIN_ACTIONS_PER_THREAD = 16;
+
+    private final ManagedExecutor executor;
+    private final WorkerLeaseService workerLeaseService;
+    private final ResourceLockCoordinationService coordinationService;
+
+    public ParallelFileHashingExecutor(ExecutorFactory executorFactory, WorkerLeaseService workerLeaseService, ResourceLockCoordinationService coordinationService) {
+        this.executor = executorFactory.create("File hashing", workerLeaseService.getMaxWorkerCount());
+        this.workerLeaseService = workerLeaseService;
+        this.coordinationService = coordinationService;
+    }
+
+    @Override
+    public Session start() {
+        int maxHelpers = workerLeaseService.getMaxWorkerCount() - 1;
+        if (maxHelpers <= 0) {
+            return SEQUENTIAL.start();
+        }
+        return new ParallelSession(maxHelpers);
+    }
+
+    @Override
+    public void stop() {
+        executor.stop();
+    }
+
+    private class ParallelSession implements Session {
+        private final int maxHelpers;
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<Runnable>();
+        private final AtomicInteger activeHelpers = new AtomicInteger();
+        private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        private final Runnable helper = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    help();
+                } finally {
+                    activeHelpers.decrementAndGet();
+                }
+            }
+        };
+        private volatile boolean cancelled;
+        // Only used by the calling thread
+        private int submitted;
+        // Guarded by this
+        private int pending;
+
+        ParallelSession(int maxHelpers) {
+            this.maxHelpers = maxHelpers;
+        }
+
+        @Override
+        public void submit(Runnable action) {
+            if (cancelled) {
+                return;
+            }
+            synchronized (this) {
+                pending++;
+            }
+            queue.add(action);
+            if (++submitted % MIN_ACTIONS_PER_THREAD == 0) {
+                maybeStartHelper();
+            }
+        }
+
+        private void maybeStartHelper() {
+            int helpers = activeHelpers.get();
+            if (helpers < maxHelpers && activeHelpers.compareAndSet(helpers, helpers + 1)) {
+                try {
+                    executor.execute(helper);
+                } catch (RejectedExecutionException e) {
+                    activeHelpers.decrementAndGet();
+                }
+            }
+        }
+
+        private void help() {
+            if (cancelled || queue.isEmpty()) {
+                return;
+            }
+            // This thread holds no lease, so this is a lease of its own rather than a child borrowing the lease of the calling thread
+            WorkerLease lease = workerLeaseService.getWorkerLease();
+            if (!coordinationService.withStateLock(tryLock(lease))) {
+                // All workers are busy, leave the actions to the calling thread
+                return;
+            }
+            try {
+                runQueued();
+            } finally {
+                coordinationService.withStateLock(unlock(lease));
+            }
+        }
+
+        private void runQueued() {
+            Runnable action;
+            while (!cancelled && !Thread.currentThread().isInterrupted() && (action = queue.poll()) != null) {
+                try {
+                    action.run();
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                    cancel();
+                } finally {
+                    completed();
+                }
+            }
+        }
+
+        private synchronized void completed() {
+            pending--;
+            if (pending == 0) {
+                notifyAll();
+            }
+        }
+
+        @Override
+        public void finish() {
+            runQueued();
+            try {
+                synchronized (this) {
+                    // Throws right away when the calling thread has been interrupted
+                    while (pending > 0) {
+                        if (cancelled) {
+                            discardQueued();
+                            if (pending == 0) {
+                                break;
+                            }
+                        }
+                        wait();
+                    }
+                }
+            } catch (InterruptedException e) {
+                cancel();
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            if (failure.get() != null) {
+                throw UncheckedException.throwAsUncheckedException(failure.get());
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            discardQueued();
+        }
+
+        private void discardQueued() {
+            while (queue.poll() != null) {
+                completed();
+            }
+        }
+    }
+}
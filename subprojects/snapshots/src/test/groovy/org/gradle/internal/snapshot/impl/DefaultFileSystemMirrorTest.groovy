@@ -16,6 +16,7 @@
 
 package org.gradle.internal.snapshot.impl
 
+import com.google.common.base.Predicate
 import org.gradle.BuildResult
 import org.gradle.api.internal.GradleInternal
 import org.gradle.api.internal.changedetection.state.DefaultWellKnownFileLocations
@@ -132,4 +133,108 @@ class DefaultFileSystemMirrorTest extends Specification {
         mirror.getMetadata(file.path) == null
         mirror.getSnapshot(file.path) == null
     }
+
+    def "retains state about watched files at end of build"() {
+        def watched = tmpDir.file("watched/a")
+        def unwatched = tmpDir.file("unwatched/b")
+        def cached = cacheDir.file("c")
+        def watchedSnapshot = Stub(RegularFileSnapshot)
+        def unwatchedSnapshot = Stub(RegularFileSnapshot)
+        def cachedSnapshot = Stub(RegularFileSnapshot)
+
+        given:
+        _ * watchedSnapshot.absolutePath >> watched.path
+        _ * unwatchedSnapshot.absolutePath >> unwatched.path
+        _ * cachedSnapshot.absolutePath >> cached.path
+        mirror.putSnapshot(watchedSnapshot)
+        mirror.putSnapshot(unwatchedSnapshot)
+        mirror.putSnapshot(cachedSnapshot)
+
+        when:
+        def discarded = mirror.beforeBuildFinished({ String path -> path == watched.path } as Predicate<String>)
+
+        then:
+        discarded == [unwatched.path] as Set
+        mirror.getSnapshot(watched.path) == watchedSnapshot
+        mirror.getSnapshot(unwatched.path) == null
+        mirror.getSnapshot(cached.path) == null
+    }
+
+    def "discards state about changed file, its ancestors and its descendants"() {
+        def dir = tmpDir.file("dir")
+        def file = dir.file("sub/a")
+        def sibling = tmpDir.file("dir-sibling")
+        def child = file.file("child")
+        def snapshots = [dir, file, child, sibling].collectEntries { location ->
+            [(location): Stub(FileSystemLocationSnapshot) {
+                getAbsolutePath() >> location.path
+            }]
+        }
+
+        given:
+        snapshots.values().each { mirror.putSnapshot(it) }
+        mirror.putMetadata(file.path, Stub(FileMetadataSnapshot))
+
+        when:
+        mirror.changed(file.path)
+
+        then:
+        mirror.getSnapshot(dir.path) == null
+        mirror.getSnapshot(file.path) == null
+        mirror.getSnapshot(child.path) == null
+        mirror.getMetadata(file.path) == null
+        mirror.getSnapshot(sibling.path) == snapshots[sibling]
+    }
+
+    def "drops state read before a change to the location or one of its ancestors"() {
+        def dir = tmpDir.file("dir")
+        def file = dir.file("sub/a")
+        def sibling = tmpDir.file("dir-sibling")
+        def fileSnapshot = Stub(FileSystemLocationSnapshot) {
+            getAbsolutePath() >> file.path
+        }
+        def siblingSnapshot = Stub(FileSystemLocationSnapshot) {
+            getAbsolutePath() >> sibling.path
+        }
+        def metadata = Stub(FileMetadataSnapshot)
+
+        when:
+        def generation = mirror.generation
+        mirror.changed(tmpDir.file(location).path)
+        mirror.putSnapshot(fileSnapshot, generation)
+        mirror.putMetadata(file.path, metadata, generation)
+        mirror.putSnapshot(siblingSnapshot, generation)
+
+        then:
+        mirror.getSnapshot(file.path) == null
+        mirror.getMetadata(file.path) == null
+        mirror.getSnapshot(sibling.path) == siblingSnapshot
+
+        when:
+        generation = mirror.generation
+        mirror.putSnapshot(fileSnapshot, generation)
+        mirror.putMetadata(file.path, metadata, generation)
+
+        then:
+        mirror.getSnapshot(file.path) == fileSnapshot
+        mirror.getMetadata(file.path) == metadata
+
+        where:
+        location << ["dir/sub/a", "dir"]
+    }
+
+    def "drops state read before all state is discarded"() {
+        def file = tmpDir.file("a")
+        def fileSnapshot = Stub(FileSystemLocationSnapshot) {
+            getAbsolutePath() >> file.path
+        }
+
+        when:
+        def generation = mirror.generation
+        mirror.beforeOutputChange()
+        mirror.putSnapshot(fileSnapshot, generation)
+
+        then:
+        mirror.getSnapshot(file.path) == null
+    }
 }
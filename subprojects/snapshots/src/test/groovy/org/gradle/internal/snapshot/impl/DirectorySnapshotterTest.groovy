@@ -21,10 +21,15 @@ import org.gradle.api.internal.cache.StringInterner
 import org.gradle.api.internal.file.TestFiles
 import org.gradle.api.tasks.util.PatternSet
 import org.gradle.internal.MutableBoolean
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.concurrent.DefaultParallelismConfiguration
+import org.gradle.internal.concurrent.ParallelismConfigurationManager
 import org.gradle.internal.hash.TestFileHasher
+import org.gradle.internal.resources.DefaultResourceLockCoordinationService
 import org.gradle.internal.snapshot.DirectorySnapshot
 import org.gradle.internal.snapshot.FileSystemLocationSnapshot
 import org.gradle.internal.snapshot.FileSystemSnapshotVisitor
+import org.gradle.internal.work.DefaultWorkerLeaseService
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.gradle.util.UsesNativeServices
 import org.junit.Rule
@@ -132,6 +137,46 @@ class DirectorySnapshotterTest extends Specification {
         ] as Set
     }
 
+    def "hashing files in parallel produces the same snapshot"() {
+        given:
+        def rootDir = tmpDir.createDir("root")
+        (1..10).each { dir ->
+            (1..20).each { file ->
+                rootDir.file("dir${dir}/sub/file${file}.txt").text = "content ${dir} ${file}"
+            }
+        }
+        def parallelismConfigurationManager = Stub(ParallelismConfigurationManager) {
+            getParallelismConfiguration() >> new DefaultParallelismConfiguration(true, 4)
+        }
+        def coordinationService = new DefaultResourceLockCoordinationService()
+        def workerLeaseService = new DefaultWorkerLeaseService(coordinationService, parallelismConfigurationManager)
+        def fileHashingExecutor = new ParallelFileHashingExecutor(new DefaultExecutorFactory(), workerLeaseService, coordinationService)
+        def parallelSnapshotter = new DirectorySnapshotter(fileHasher, TestFiles.fileSystem(), new StringInterner(), fileHashingExecutor)
+
+        when:
+        def sequentialSnapshot = directorySnapshotter.snapshot(rootDir.absolutePath, null, new MutableBoolean())
+        def parallelSnapshot = parallelSnapshotter.snapshot(rootDir.absolutePath, null, new MutableBoolean())
+
+        then:
+        parallelSnapshot.hash == sequentialSnapshot.hash
+        relativePaths(parallelSnapshot) == relativePaths(sequentialSnapshot)
+
+        cleanup:
+        fileHashingExecutor?.stop()
+        workerLeaseService?.stop()
+    }
+
+    private static List<String> relativePaths(FileSystemLocationSnapshot snapshot) {
+        def relativePaths = []
+        snapshot.accept(new RelativePathTrackingVisitor() {
+            @Override
+            void visit(String absolutePath, Deque<String> relativePath) {
+                relativePaths << relativePath.join("/")
+            }
+        })
+        return relativePaths
+    }
+
     def "default excludes are correctly parsed"() {
         def defaultExcludes = new DirectorySnapshotter.DefaultExcludes(DirectoryScanner.getDefaultExcludes())
 
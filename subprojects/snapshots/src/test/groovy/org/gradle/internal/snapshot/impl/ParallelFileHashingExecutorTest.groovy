@@ -0,0 +1,185 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.snapshot.impl
+
+import org.gradle.internal.UncheckedException
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.concurrent.DefaultParallelismConfiguration
+import org.gradle.internal.concurrent.ParallelismConfigurationManager
+import org.gradle.internal.resources.DefaultResourceLockCoordinationService
+import org.gradle.internal.resources.ResourceLockCoordinationService
+import org.gradle.internal.work.DefaultWorkerLeaseService
+import org.gradle.internal.work.WorkerLeaseRegistry
+import org.gradle.internal.work.WorkerLeaseService
+import spock.lang.Specification
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class ParallelFileHashingExecutorTest extends Specification {
+    def parallelismConfigurationManager = Stub(ParallelismConfigurationManager) {
+        getParallelismConfiguration() >> new DefaultParallelismConfiguration(true, 4)
+    }
+    def coordinationService = new DefaultResourceLockCoordinationService()
+    def workerLeaseService = new DefaultWorkerLeaseService(coordinationService, parallelismConfigurationManager)
+    def executor = new ParallelFileHashingExecutor(new DefaultExecutorFactory(), workerLeaseService, coordinationService)
+
+    def cleanup() {
+        executor.stop()
+        workerLeaseService.stop()
+    }
+
+    def "runs all actions using multiple threads"() {
+        def threads = new ConcurrentHashMap<Thread, Boolean>()
+        def ran = new ConcurrentHashMap<Integer, Boolean>()
+
+        when:
+        def session = executor.start()
+        (1..1000).each { index ->
+            session.submit {
+                threads.put(Thread.currentThread(), true)
+                ran.put(index, true)
+                Thread.sleep(1)
+            }
+        }
+        session.finish()
+
+        then:
+        ran.keySet() == (1..1000) as Set
+        threads.size() > 1
+        threads.containsKey(Thread.currentThread())
+    }
+
+    def "runs a few actions on the calling thread"() {
+        def threads = new ConcurrentHashMap<Thread, Boolean>()
+
+        when:
+        def session = executor.start()
+        10.times {
+            session.submit { threads.put(Thread.currentThread(), true) }
+        }
+        session.finish()
+
+        then:
+        threads.keySet() == [Thread.currentThread()] as Set
+    }
+
+    def "starts running actions before all of them have been submitted"() {
+        def started = new CountDownLatch(1)
+
+        when:
+        def session = executor.start()
+        session.submit { started.countDown() }
+        15.times {
+            session.submit {}
+        }
+        def startedBeforeFinish = started.await(10, TimeUnit.SECONDS)
+        session.finish()
+
+        then:
+        startedBeforeFinish
+    }
+
+    def "runs all actions on the calling thread when no worker lease is available"() {
+        def busyCoordinationService = Stub(ResourceLockCoordinationService) {
+            withStateLock(_) >> false
+        }
+        def busyWorkerLeaseService = Stub(WorkerLeaseService) {
+            getMaxWorkerCount() >> 4
+            getWorkerLease() >> Stub(WorkerLeaseRegistry.WorkerLease)
+        }
+        def busyExecutor = new ParallelFileHashingExecutor(new DefaultExecutorFactory(), busyWorkerLeaseService, busyCoordinationService)
+        def threads = new ConcurrentHashMap<Thread, Boolean>()
+        def ran = new ConcurrentHashMap<Integer, Boolean>()
+
+        when:
+        def session = busyExecutor.start()
+        (1..100).each { index ->
+            session.submit {
+                threads.put(Thread.currentThread(), true)
+                ran.put(index, true)
+            }
+        }
+        session.finish()
+
+        then:
+        ran.keySet() == (1..100) as Set
+        threads.keySet() == [Thread.currentThread()] as Set
+
+        cleanup:
+        busyExecutor.stop()
+    }
+
+    def "rethrows failure and discards the actions which have not started"() {
+        def failure = new RuntimeException("broken")
+        def ran = new ConcurrentHashMap<Integer, Boolean>()
+
+        when:
+        def session = executor.start()
+        (1..10).each { index ->
+            session.submit {
+                ran.put(index, true)
+                if (index == 1) {
+                    throw failure
+                }
+            }
+        }
+        session.finish()
+
+        then:
+        def e = thrown(RuntimeException)
+        e.is(failure)
+        ran.keySet() == [1] as Set
+    }
+
+    def "discards submitted actions when cancelled"() {
+        def ran = new ConcurrentHashMap<Integer, Boolean>()
+
+        when:
+        def session = executor.start()
+        (1..10).each { index ->
+            session.submit { ran.put(index, true) }
+        }
+        session.cancel()
+        session.submit { ran.put(11, true) }
+        session.finish()
+
+        then:
+        ran.isEmpty()
+    }
+
+    def "stops waiting and discards remaining actions when the calling thread is interrupted"() {
+        def ran = new ConcurrentHashMap<Integer, Boolean>()
+
+        when:
+        def session = executor.start()
+        (1..10).each { index ->
+            session.submit { ran.put(index, true) }
+        }
+        Thread.currentThread().interrupt()
+        session.finish()
+
+        then:
+        def e = thrown(UncheckedException)
+        e.cause instanceof InterruptedException
+        ran.isEmpty()
+
+        cleanup:
+        Thread.interrupted()
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.processors;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput of forwarding test output lines to the result processor, with and without batching.
+ * Each output event is encoded and flushed, as the connection to the build process does for every message.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class TestOutputBatchingBenchmark {
+    private static final String LINE = "12:00:00.000 [main] DEBUG org.example.SomeService - processing item 42 of the current batch\n";
+
+    @Param({"unbatched", "batched"})
+    String mode;
+
+    TestOutputRedirector.Forwarder forwarder;
+    TestOutputRedirector redirector;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        int maxBatchLength = mode.equals("batched") ? TestOutputRedirector.MAX_BATCH_LENGTH : 0;
+        redirector = new TestOutputRedirector(new EncodingResultProcessor(), new DefaultStandardOutputRedirector(), maxBatchLength, TestOutputRedirector.MAX_BATCH_AGE_MILLIS);
+        redirector.setOutputOwner("test");
+        forwarder = redirector.outForwarder;
+    }
+
+    @Benchmark
+    public void forwardOutput() {
+        for (int i = 0; i < 1000; i++) {
+            forwarder.onOutput(LINE);
+        }
+        redirector.batch.flush();
+    }
+
+    private static class EncodingResultProcessor implements TestResultProcessor {
+        private final KryoBackedEncoder encoder = new KryoBackedEncoder(NullOutputStream.NULL_OUTPUT_STREAM);
+
+        @Override
+        public void output(Object testId, TestOutputEvent event) {
+            encoder.writeString(testId.toString());
+            encoder.writeSmallInt(event.getDestination().ordinal());
+            encoder.writeString(event.getMessage());
+            encoder.flush();
+        }
+
+        @Override
+        public void started(TestDescriptorInternal test, TestStartEvent event) {
+        }
+
+        @Override
+        public void completed(Object testId, TestCompleteEvent event) {
+        }
+
+        @Override
+        public void failure(Object testId, Throwable result) {
+        }
+    }
+}
@@ -100,12 +100,7 @@ public class TestOutputStore {
             output.writeSmallLong(classId);
             output.writeSmallLong(testId);
 
-            byte[] bytes;
-            try {
-                bytes = outputEvent.getMessage().getBytes(messageStorageCharset.name());
-            } catch (UnsupportedEncodingException e) {
-                throw UncheckedException.throwAsUncheckedException(e);
-            }
+            byte[] bytes = outputEvent.getMessage().getBytes(messageStorageCharset);
             output.writeSmallInt(bytes.length);
             output.writeBytes(bytes, 0, bytes.length);
         }
@@ -46,6 +46,10 @@ public class CaptureTestOutputTestResultProcessor implements TestResultProcessor
 
     @Override
     public void started(final TestDescriptorInternal test, TestStartEvent event) {
+        if (rootId != null) {
+            //send the output captured so far before the test starts, so that events are received in order
+            outputRedirector.flush();
+        }
         processor.started(test, event);
 
         outputRedirector.setOutputOwner(test.getId());
@@ -84,11 +88,13 @@ public class CaptureTestOutputTestResultProcessor implements TestResultProcessor
 
     @Override
     public void output(Object testId, TestOutputEvent event) {
+        outputRedirector.flush();
         processor.output(testId, event);
     }
 
     @Override
     public void failure(Object testId, Throwable result) {
+        outputRedirector.flush();
         processor.failure(testId, result);
     }
 }
@@ -30,15 +30,21 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Manages a set of parallel TestClassProcessors. Uses a simple round-robin algorithm to assign test classes to
- * processors.
+ * Manages a set of parallel TestClassProcessors. Assigns each test class to the processor with the lowest total estimated
+ * duration of the test classes assigned to it so far. Without previous durations, this assigns test classes round-robin.
+ *
+ * <p>Processors are created when test classes are received, apart from a given number of processors which are created up front.
+ * Processors created up front start up while the test classes are still being detected, at the cost of starting processors
+ * that may not receive any test classes.</p>
  */
 public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     private final int maxProcessors;
     private final Factory<TestClassProcessor> factory;
     private final ActorFactory actorFactory;
+    private final TestClassDurationEstimates durationEstimates;
+    private final long[] estimatedLoads;
+    private final int eagerProcessors;
     private TestResultProcessor resultProcessor;
-    private int pos;
     private List<TestClassProcessor> processors = new ArrayList<TestClassProcessor>();
     private List<TestClassProcessor> rawProcessors = new ArrayList<TestClassProcessor>();
     private List<Actor> actors = new ArrayList<Actor>();
@@ -46,9 +52,20 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     private volatile boolean stoppedNow;
 
     public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory) {
+        this(maxProcessors, factory, actorFactory, TestClassDurationEstimates.NONE);
+    }
+
+    public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory, TestClassDurationEstimates durationEstimates) {
+        this(maxProcessors, factory, actorFactory, durationEstimates, 0);
+    }
+
+    public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory, TestClassDurationEstimates durationEstimates, int eagerProcessors) {
         this.maxProcessors = maxProcessors;
         this.factory = factory;
         this.actorFactory = actorFactory;
+        this.durationEstimates = durationEstimates;
+        this.estimatedLoads = new long[maxProcessors];
+        this.eagerProcessors = Math.min(eagerProcessors, maxProcessors);
     }
 
     @Override
@@ -56,6 +73,9 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
         // Create a processor that processes events in its own thread
         resultProcessorActor = actorFactory.createActor(resultProcessor);
         this.resultProcessor = resultProcessorActor.getProxy(TestResultProcessor.class);
+        while (processors.size() < eagerProcessors) {
+            addProcessor();
+        }
     }
 
     @Override
@@ -64,20 +84,35 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
             return;
         }
 
-        TestClassProcessor processor;
+        int index;
         if (processors.size() < maxProcessors) {
-            processor = factory.create();
-            rawProcessors.add(processor);
-            Actor actor = actorFactory.createActor(processor);
-            processor = actor.getProxy(TestClassProcessor.class);
-            actors.add(actor);
-            processors.add(processor);
-            processor.startProcessing(resultProcessor);
+            index = addProcessor();
         } else {
-            processor = processors.get(pos);
-            pos = (pos + 1) % processors.size();
+            index = leastLoadedProcessor();
+        }
+        estimatedLoads[index] += durationEstimates.estimate(testClass.getTestClassName());
+        processors.get(index).processTestClass(testClass);
+    }
+
+    private int addProcessor() {
+        TestClassProcessor processor = factory.create();
+        rawProcessors.add(processor);
+        Actor actor = actorFactory.createActor(processor);
+        processor = actor.getProxy(TestClassProcessor.class);
+        actors.add(actor);
+        processors.add(processor);
+        processor.startProcessing(resultProcessor);
+        return processors.size() - 1;
+    }
+
+    private int leastLoadedProcessor() {
+        int index = 0;
+        for (int i = 1; i < processors.size(); i++) {
+            if (estimatedLoads[i] < estimatedLoads[index]) {
+                index = i;
+            }
         }
-        processor.processTestClass(testClass);
+        return index;
     }
 
     @Override
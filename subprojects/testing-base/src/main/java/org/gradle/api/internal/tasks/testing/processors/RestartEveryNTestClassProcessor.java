@@ -37,6 +37,7 @@ public class RestartEveryNTestClassProcessor implements TestClassProcessor {
     @Override
     public void startProcessing(TestResultProcessor resultProcessor) {
         this.resultProcessor = resultProcessor;
+        startBatch();
     }
 
     @Override
@@ -46,8 +47,7 @@ public class RestartEveryNTestClassProcessor implements TestClassProcessor {
         }
 
         if (processor == null) {
-            processor = factory.create();
-            processor.startProcessing(resultProcessor);
+            startBatch();
         }
         processor.processTestClass(testClass);
         testCount++;
@@ -72,6 +72,11 @@ public class RestartEveryNTestClassProcessor implements TestClassProcessor {
         }
     }
 
+    private void startBatch() {
+        processor = factory.create();
+        processor.startProcessing(resultProcessor);
+    }
+
     private void endBatch() {
         try {
             processor.stop();
@@ -20,22 +20,60 @@ import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 
-import java.util.LinkedHashSet;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.PriorityQueue;
 import java.util.Set;
 
 /**
  * In order to speed up the development feedback cycle, this class guarantee previous failed test classes
  * to be passed to its delegate first.
+ *
+ * The test classes are also ordered by their estimated duration, longest first, so that the long running test classes do not
+ * end up running alone at the end of the test task. Test classes with the same estimate keep their order.
+ *
+ * Test classes are held back until every previously failed test class has been seen, or until all test classes are known. All of the
+ * test classes held back this way are ordered by duration. Once every previously failed test class has been passed on, only a bounded
+ * number of test classes is held back, so that the delegate can start running tests while test classes are still being detected.
+ * Without previous durations, the test classes are passed on as they arrive.
  */
 public class RunPreviousFailedFirstTestClassProcessor implements TestClassProcessor {
+    static final int DEFAULT_LOOK_AHEAD = 64;
+
+    private static final Comparator<PendingTestClass> LONGEST_FIRST = new Comparator<PendingTestClass>() {
+        @Override
+        public int compare(PendingTestClass left, PendingTestClass right) {
+            if (left.estimate != right.estimate) {
+                return left.estimate > right.estimate ? -1 : 1;
+            }
+            return left.sequence < right.sequence ? -1 : left.sequence > right.sequence ? 1 : 0;
+        }
+    };
+
     private final Set<String> previousFailedTestClasses;
+    private final TestClassDurationEstimates durationEstimates;
+    private final int lookAhead;
     private final TestClassProcessor delegate;
-    private final LinkedHashSet<TestClassRunInfo> prioritizedTestClasses = new LinkedHashSet<TestClassRunInfo>();
-    private final LinkedHashSet<TestClassRunInfo> otherTestClasses = new LinkedHashSet<TestClassRunInfo>();
+    private final Set<String> unseenFailedTestClasses;
+    private final Set<TestClassRunInfo> seenTestClasses = new HashSet<TestClassRunInfo>();
+    private final PriorityQueue<PendingTestClass> prioritizedTestClasses = new PriorityQueue<PendingTestClass>(11, LONGEST_FIRST);
+    private final PriorityQueue<PendingTestClass> otherTestClasses = new PriorityQueue<PendingTestClass>(11, LONGEST_FIRST);
+    private long sequence;
 
     public RunPreviousFailedFirstTestClassProcessor(Set<String> previousFailedTestClasses, TestClassProcessor delegate) {
+        this(previousFailedTestClasses, TestClassDurationEstimates.NONE, delegate);
+    }
+
+    public RunPreviousFailedFirstTestClassProcessor(Set<String> previousFailedTestClasses, TestClassDurationEstimates durationEstimates, TestClassProcessor delegate) {
+        this(previousFailedTestClasses, durationEstimates, DEFAULT_LOOK_AHEAD, delegate);
+    }
+
+    RunPreviousFailedFirstTestClassProcessor(Set<String> previousFailedTestClasses, TestClassDurationEstimates durationEstimates, int lookAhead, TestClassProcessor delegate) {
         this.previousFailedTestClasses = previousFailedTestClasses;
+        this.durationEstimates = durationEstimates;
+        this.lookAhead = durationEstimates.hasPreviousDurations() ? lookAhead : 0;
         this.delegate = delegate;
+        this.unseenFailedTestClasses = new HashSet<String>(previousFailedTestClasses);
     }
 
     @Override
@@ -45,21 +83,26 @@ public class RunPreviousFailedFirstTestClassProcessor implements TestClassProces
 
     @Override
     public void processTestClass(TestClassRunInfo testClass) {
+        if (!seenTestClasses.add(testClass)) {
+            return;
+        }
+        PendingTestClass pendingTestClass = new PendingTestClass(testClass, durationEstimates.estimate(testClass.getTestClassName()), sequence++);
         if (previousFailedTestClasses.contains(testClass.getTestClassName())) {
-            prioritizedTestClasses.add(testClass);
+            unseenFailedTestClasses.remove(testClass.getTestClassName());
+            prioritizedTestClasses.add(pendingTestClass);
         } else {
-            otherTestClasses.add(testClass);
+            otherTestClasses.add(pendingTestClass);
+        }
+        if (unseenFailedTestClasses.isEmpty()) {
+            passOn(prioritizedTestClasses, 0);
+            passOn(otherTestClasses, lookAhead);
         }
     }
 
     @Override
     public void stop() {
-        for (TestClassRunInfo test : prioritizedTestClasses) {
-            delegate.processTestClass(test);
-        }
-        for (TestClassRunInfo test : otherTestClasses) {
-            delegate.processTestClass(test);
-        }
+        passOn(prioritizedTestClasses, 0);
+        passOn(otherTestClasses, 0);
         delegate.stop();
     }
 
@@ -67,4 +110,22 @@ public class RunPreviousFailedFirstTestClassProcessor implements TestClassProces
     public void stopNow() {
         delegate.stopNow();
     }
+
+    private void passOn(PriorityQueue<PendingTestClass> testClasses, int retain) {
+        while (testClasses.size() > retain) {
+            delegate.processTestClass(testClasses.poll().testClass);
+        }
+    }
+
+    private static class PendingTestClass {
+        final TestClassRunInfo testClass;
+        final long estimate;
+        final long sequence;
+
+        PendingTestClass(TestClassRunInfo testClass, long estimate, long sequence) {
+            this.testClass = testClass;
+            this.estimate = estimate;
+            this.sequence = sequence;
+        }
+    }
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.processors;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Estimates the time a test class takes to run from its duration in the previous run of the test task.
+ * Test classes that did not run previously are estimated to take the average duration of the ones that did.
+ */
+public class TestClassDurationEstimates {
+    public static final TestClassDurationEstimates NONE = new TestClassDurationEstimates(Collections.<String, Long>emptyMap());
+
+    private final Map<String, Long> previousDurations;
+    private final long defaultDuration;
+
+    public TestClassDurationEstimates(Map<String, Long> previousDurations) {
+        this.previousDurations = previousDurations;
+        long total = 0;
+        for (Long duration : previousDurations.values()) {
+            total += duration;
+        }
+        this.defaultDuration = previousDurations.isEmpty() ? 0 : total / previousDurations.size();
+    }
+
+    public boolean hasPreviousDurations() {
+        return !previousDurations.isEmpty();
+    }
+
+    /**
+     * Returns the estimated duration of the given test class in milliseconds. This is always at least 1, so that test classes
+     * without history are spread evenly.
+     */
+    public long estimate(String testClassName) {
+        Long duration = previousDurations.get(testClassName);
+        return Math.max(1, duration == null ? defaultDuration : duration);
+    }
+}
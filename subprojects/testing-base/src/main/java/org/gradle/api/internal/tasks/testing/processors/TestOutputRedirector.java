@@ -21,49 +21,80 @@ import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.logging.StandardOutputListener;
 import org.gradle.api.tasks.testing.TestOutputEvent;
 
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
 class TestOutputRedirector {
+    // Output is sent to the build process in batches, as sending every line as a separate event is expensive for tests that log a lot
+    static final int MAX_BATCH_LENGTH = 8192;
+    static final long MAX_BATCH_AGE_MILLIS = 100;
+
     private final StandardOutputRedirector redirector;
+    final OutputBatch batch;
     Forwarder outForwarder;
     Forwarder errForwarder;
 
     TestOutputRedirector(TestResultProcessor processor, StandardOutputRedirector redirector) {
+        this(processor, redirector, MAX_BATCH_LENGTH, MAX_BATCH_AGE_MILLIS);
+    }
+
+    TestOutputRedirector(TestResultProcessor processor, StandardOutputRedirector redirector, int maxBatchLength, long maxBatchAgeMillis) {
         this.redirector = redirector;
-        this.outForwarder = new Forwarder(processor, TestOutputEvent.Destination.StdOut);
-        this.errForwarder = new Forwarder(processor, TestOutputEvent.Destination.StdErr);
+        this.batch = new OutputBatch(processor, maxBatchLength, maxBatchAgeMillis);
+        this.outForwarder = new Forwarder(batch, TestOutputEvent.Destination.StdOut);
+        this.errForwarder = new Forwarder(batch, TestOutputEvent.Destination.StdErr);
     }
 
     void startRedirecting() {
         assert outForwarder.outputOwner != null;
         assert errForwarder.outputOwner != null;
 
+        batch.startScheduledFlush();
         redirector.redirectStandardOutputTo(outForwarder);
         redirector.redirectStandardErrorTo(errForwarder);
         redirector.start();
     }
 
     void stopRedirecting() {
-        redirector.stop();
+        try {
+            redirector.stop();
+        } finally {
+            batch.stopScheduledFlush();
+            batch.flush();
+        }
     }
 
     void setOutputOwner(Object testId) {
         assert testId != null;
+        flush();
+        outForwarder.outputOwner = testId;
+        errForwarder.outputOwner = testId;
+    }
+
+    /**
+     * Sends all output captured so far to the result processor.
+     */
+    void flush() {
         if (System.out != null) {
             System.out.flush();
         }
         if (System.err != null) {
             System.err.flush();
         }
-        outForwarder.outputOwner = testId;
-        errForwarder.outputOwner = testId;
+        batch.flush();
     }
 
     static class Forwarder implements StandardOutputListener {
-        final TestResultProcessor processor;
+        final OutputBatch batch;
         final TestOutputEvent.Destination dest;
         Object outputOwner;
 
-        public Forwarder(TestResultProcessor processor, TestOutputEvent.Destination dest) {
-            this.processor = processor;
+        public Forwarder(OutputBatch batch, TestOutputEvent.Destination dest) {
+            this.batch = batch;
             this.dest = dest;
         }
 
@@ -72,7 +103,187 @@ class TestOutputRedirector {
             if (outputOwner == null) {
                 throw new RuntimeException("Unable send output event from test executor. Please report this problem. Destination: " + dest + ", event: " + output.toString());
             }
-            processor.output(outputOwner, new DefaultTestOutputEvent(dest, output.toString()));
+            batch.append(outputOwner, dest, output);
         }
     }
+
+    /**
+     * Collects consecutive output for the same test and destination into a single output event. The batch is sent when it gets too
+     * large or too old, when output for another test or destination arrives, or when it is flushed explicitly.
+     *
+     * While the scheduled flush is started, a batch is also sent once it gets too old when no more output arrives, so that output of a test
+     * which stops writing is not held back. All batches share a single thread for this.
+     *
+     * Output events are sent to the result processor without holding the lock of the batch, as the processor may itself write to
+     * the redirected streams while a test thread holding the lock of such a stream is appending output. Completed batches are queued
+     * and sent in order by one thread at a time.
+     */
+    static class OutputBatch {
+        private final TestResultProcessor processor;
+        private final int maxLength;
+        private final long maxAgeNanos;
+        private final StringBuilder buffer = new StringBuilder();
+        private final Runnable flushIfExpired = new Runnable() {
+            @Override
+            public void run() {
+                flushIfExpired();
+            }
+        };
+        private final Queue<PendingOutput> pending = new ArrayDeque<PendingOutput>();
+        private Object owner;
+        private TestOutputEvent.Destination destination;
+        private long startTime;
+        private boolean scheduledFlush;
+        private boolean sending;
+        private long queuedCount;
+        private long sentCount;
+
+        OutputBatch(TestResultProcessor processor, int maxLength, long maxAgeMillis) {
+            this.processor = processor;
+            this.maxLength = maxLength;
+            this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMillis);
+        }
+
+        void append(Object owner, TestOutputEvent.Destination destination, CharSequence output) {
+            synchronized (this) {
+                if (buffer.length() > 0 && (destination != this.destination || !owner.equals(this.owner))) {
+                    queueBuffer();
+                }
+                if (buffer.length() == 0) {
+                    this.owner = owner;
+                    this.destination = destination;
+                    this.startTime = System.nanoTime();
+                    if (scheduledFlush) {
+                        SharedScheduler.INSTANCE.schedule(flushIfExpired, maxAgeNanos, TimeUnit.NANOSECONDS);
+                    }
+                }
+                buffer.append(output);
+                if (buffer.length() >= maxLength || System.nanoTime() - startTime >= maxAgeNanos) {
+                    queueBuffer();
+                }
+            }
+            sendPending();
+        }
+
+        /**
+         * Sends the current batch, and waits until all batches queued before have been sent.
+         */
+        void flush() {
+            long flushed;
+            synchronized (this) {
+                queueBuffer();
+                flushed = queuedCount;
+            }
+            while (true) {
+                sendPending();
+                synchronized (this) {
+                    while (sentCount < flushed && sending) {
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                    if (sentCount >= flushed) {
+                        return;
+                    }
+                }
+                // The sending thread gave up, send the remaining output from this thread
+            }
+        }
+
+        void flushIfExpired() {
+            synchronized (this) {
+                if (buffer.length() == 0 || System.nanoTime() - startTime < maxAgeNanos) {
+                    return;
+                }
+                queueBuffer();
+            }
+            sendPending();
+        }
+
+        synchronized void startScheduledFlush() {
+            scheduledFlush = true;
+        }
+
+        synchronized void stopScheduledFlush() {
+            // Flushes which are already scheduled find nothing to send once the batch has been flushed
+            scheduledFlush = false;
+        }
+
+        private void queueBuffer() {
+            if (buffer.length() == 0) {
+                return;
+            }
+            String message = buffer.toString();
+            buffer.setLength(0);
+            if (buffer.capacity() > 2 * maxLength) {
+                // Don't hold on to the space used by a single large chunk of output
+                buffer.trimToSize();
+            }
+            pending.add(new PendingOutput(owner, new DefaultTestOutputEvent(destination, message)));
+            queuedCount++;
+        }
+
+        private void sendPending() {
+            synchronized (this) {
+                if (sending || pending.isEmpty()) {
+                    // Another thread, or this thread further up the stack, is sending and will pick up the queued output
+                    return;
+                }
+                sending = true;
+            }
+            boolean done = false;
+            try {
+                while (!done) {
+                    PendingOutput next;
+                    synchronized (this) {
+                        next = pending.poll();
+                        if (next == null) {
+                            sending = false;
+                            done = true;
+                            continue;
+                        }
+                    }
+                    try {
+                        processor.output(next.owner, next.event);
+                    } finally {
+                        synchronized (this) {
+                            sentCount++;
+                            notifyAll();
+                        }
+                    }
+                }
+            } finally {
+                if (!done) {
+                    synchronized (this) {
+                        sending = false;
+                        notifyAll();
+                    }
+                }
+            }
+        }
+    }
+
+    private static class PendingOutput {
+        final Object owner;
+        final TestOutputEvent event;
+
+        PendingOutput(Object owner, TestOutputEvent event) {
+            this.owner = owner;
+            this.event = event;
+        }
+    }
+
+    private static class SharedScheduler {
+        static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "Test output flush");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
 }
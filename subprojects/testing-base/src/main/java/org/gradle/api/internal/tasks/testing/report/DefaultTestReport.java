@@ -15,6 +15,7 @@
  */
 package org.gradle.api.internal.tasks.testing.report;
 
+import com.google.common.base.Charsets;
 import org.gradle.api.Action;
 import org.gradle.api.GradleException;
 import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult;
@@ -23,6 +24,12 @@ import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult;
 import org.gradle.api.internal.tasks.testing.junit.result.TestResultsProvider;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.hash.HashingOutputStream;
 import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.operations.BuildOperationQueue;
@@ -34,19 +41,46 @@ import org.gradle.reporting.HtmlReportBuilder;
 import org.gradle.reporting.HtmlReportRenderer;
 import org.gradle.reporting.ReportRenderer;
 import org.gradle.util.GFileUtils;
+import org.gradle.util.GradleVersion;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.gradle.api.tasks.testing.TestResult.ResultType.SKIPPED;
 
+/**
+ * Generates the HTML test report. Pages are rendered in parallel.
+ *
+ * <p>When a file to keep class page hashes in is given, class pages are only rendered when their content changes. A hash of the inputs
+ * to each class page is stored in that file, outside of the report, so that the pages of classes whose results and output did not
+ * change since the previous report are kept as they are. This is mostly useful for aggregated reports, where only some of the
+ * aggregated test tasks have run again.</p>
+ */
 public class DefaultTestReport implements TestReporter {
     private final BuildOperationExecutor buildOperationExecutor;
+    private final File classPageHashesFile;
     private final static Logger LOG = Logging.getLogger(DefaultTestReport.class);
 
     public DefaultTestReport(BuildOperationExecutor buildOperationExecutor) {
+        this(buildOperationExecutor, null);
+    }
+
+    /**
+     * @param classPageHashesFile the file to keep the class page hashes of the report in, or null to always render every class page.
+     */
+    public DefaultTestReport(BuildOperationExecutor buildOperationExecutor, @Nullable File classPageHashesFile) {
         this.buildOperationExecutor = buildOperationExecutor;
+        this.classPageHashesFile = classPageHashesFile;
     }
 
     @Override
@@ -81,49 +115,201 @@ public class DefaultTestReport implements TestReporter {
         return model;
     }
 
-    private void generateFiles(AllTestResults model, final TestResultsProvider resultsProvider, final File reportDir) {
+    private void generateFiles(final AllTestResults model, final TestResultsProvider resultsProvider, final File reportDir) {
         try {
             HtmlReportRenderer htmlRenderer = new HtmlReportRenderer();
-            buildOperationExecutor.run(new RunnableBuildOperation() {
-                @Override
-                public void run(BuildOperationContext context) {
-                    // Clean-up old HTML report directories
-                    GFileUtils.deleteQuietly(new File(reportDir, "packages"));
-                    GFileUtils.deleteQuietly(new File(reportDir, "classes"));
-                }
-
-                @Override
-                public BuildOperationDescriptor.Builder description() {
-                    return BuildOperationDescriptor.displayName("Delete old HTML results");
-                }
-            });
+            final Map<String, HashCode> previousClassPageHashes = readClassPageHashes(reportDir);
+            final Map<String, HashCode> classPageHashes = new ConcurrentHashMap<String, HashCode>();
 
             htmlRenderer.render(model, new ReportRenderer<AllTestResults, HtmlReportBuilder>() {
                 @Override
                 public void render(final AllTestResults model, final HtmlReportBuilder output) throws IOException {
-                    buildOperationExecutor.runAll(new Action<BuildOperationQueue<HtmlReportFileGenerator<? extends CompositeTestResults>>>() {
+                    buildOperationExecutor.runAll(new Action<BuildOperationQueue<RunnableBuildOperation>>() {
                         @Override
-                        public void execute(BuildOperationQueue<HtmlReportFileGenerator<? extends CompositeTestResults>> queue) {
+                        public void execute(BuildOperationQueue<RunnableBuildOperation> queue) {
                             queue.add(generator("index.html", model, new OverviewPageRenderer(), output));
                             for (PackageTestResults packageResults : model.getPackages()) {
                                 queue.add(generator(packageResults.getBaseUrl(), packageResults, new PackagePageRenderer(), output));
                                 for (ClassTestResults classResults : packageResults.getClasses()) {
-                                    queue.add(generator(classResults.getBaseUrl(), classResults, new ClassPageRenderer(resultsProvider), output));
+                                    String fileUrl = classResults.getBaseUrl();
+                                    if (classPageHashesFile == null) {
+                                        queue.add(generator(fileUrl, classResults, new ClassPageRenderer(resultsProvider), output));
+                                    } else {
+                                        queue.add(new ClassPageGenerator(fileUrl, classResults, resultsProvider, output, reportDir, previousClassPageHashes.get(fileUrl), classPageHashes));
+                                    }
                                 }
                             }
                         }
                     });
                 }
             }, reportDir);
+
+            buildOperationExecutor.run(new RunnableBuildOperation() {
+                @Override
+                public void run(BuildOperationContext context) {
+                    Set<String> packagePages = new HashSet<String>();
+                    Set<String> classPages = new HashSet<String>();
+                    for (PackageTestResults packageResults : model.getPackages()) {
+                        packagePages.add(packageResults.getBaseUrl());
+                        for (ClassTestResults classResults : packageResults.getClasses()) {
+                            classPages.add(classResults.getBaseUrl());
+                        }
+                    }
+                    deleteStalePages(reportDir, "packages", packagePages);
+                    deleteStalePages(reportDir, "classes", classPages);
+                    writeClassPageHashes(reportDir, classPageHashes);
+                }
+
+                @Override
+                public BuildOperationDescriptor.Builder description() {
+                    return BuildOperationDescriptor.displayName("Delete old HTML results");
+                }
+            });
         } catch (Exception e) {
             throw new GradleException(String.format("Could not generate test report to '%s'.", reportDir), e);
         }
     }
 
+    private Map<String, HashCode> readClassPageHashes(File reportDir) {
+        if (classPageHashesFile == null || !classPageHashesFile.isFile()) {
+            return Collections.emptyMap();
+        }
+        Map<String, HashCode> hashes = new HashMap<String, HashCode>();
+        try {
+            String[] lines = GFileUtils.readFile(classPageHashesFile, "utf-8").split("\n");
+            if (!lines[0].equals(reportDir.getAbsolutePath())) {
+                // Hashes of a report in another location
+                return Collections.emptyMap();
+            }
+            for (int i = 1; i < lines.length; i++) {
+                String line = lines[i];
+                int separator = line.indexOf(' ');
+                if (separator > 0) {
+                    hashes.put(line.substring(separator + 1), HashCode.fromString(line.substring(0, separator)));
+                }
+            }
+        } catch (RuntimeException e) {
+            LOG.debug("Could not read the class page hashes of the previous report, regenerating all class pages.", e);
+            return Collections.emptyMap();
+        } finally {
+            // Only valid once all pages have been written again
+            GFileUtils.deleteQuietly(classPageHashesFile);
+        }
+        return hashes;
+    }
+
+    private void writeClassPageHashes(File reportDir, Map<String, HashCode> hashes) {
+        if (classPageHashesFile == null) {
+            return;
+        }
+        StringBuilder content = new StringBuilder(reportDir.getAbsolutePath()).append('\n');
+        for (Map.Entry<String, HashCode> entry : hashes.entrySet()) {
+            content.append(entry.getValue()).append(' ').append(entry.getKey()).append('\n');
+        }
+        GFileUtils.writeFile(content.toString(), classPageHashesFile, "utf-8");
+    }
+
+    private static void deleteStalePages(File reportDir, String pageDir, Set<String> currentPages) {
+        File[] pages = new File(reportDir, pageDir).listFiles();
+        if (pages == null) {
+            return;
+        }
+        for (File page : pages) {
+            if (!currentPages.contains(pageDir + "/" + page.getName())) {
+                GFileUtils.deleteQuietly(page);
+            }
+        }
+    }
+
     public static <T extends CompositeTestResults> HtmlReportFileGenerator<T> generator(String fileUrl, T results, PageRenderer<T> renderer, HtmlReportBuilder output) {
         return new HtmlReportFileGenerator<T>(fileUrl, results, renderer, output);
     }
 
+    /**
+     * Renders a class page, unless the inputs to the page have the same hash as when the existing page was rendered.
+     */
+    private static class ClassPageGenerator implements RunnableBuildOperation {
+        private final String fileUrl;
+        private final ClassTestResults results;
+        private final TestResultsProvider resultsProvider;
+        private final HtmlReportBuilder output;
+        private final File reportDir;
+        private final HashCode previousHash;
+        private final Map<String, HashCode> hashes;
+
+        ClassPageGenerator(String fileUrl, ClassTestResults results, TestResultsProvider resultsProvider, HtmlReportBuilder output, File reportDir, HashCode previousHash, Map<String, HashCode> hashes) {
+            this.fileUrl = fileUrl;
+            this.results = results;
+            this.resultsProvider = resultsProvider;
+            this.output = output;
+            this.reportDir = reportDir;
+            this.previousHash = previousHash;
+            this.hashes = hashes;
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Generate HTML test report for ".concat(results.getTitle()));
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            HashCode hash = hashPageInputs();
+            if (!hash.equals(previousHash) || !new File(reportDir, fileUrl).isFile()) {
+                output.renderHtmlPage(fileUrl, results, new ClassPageRenderer(resultsProvider));
+            }
+            hashes.put(fileUrl, hash);
+        }
+
+        private HashCode hashPageInputs() {
+            Hasher hasher = Hashing.newHasher();
+            hasher.putString(GradleVersion.current().getVersion());
+            hasher.putString(results.getName());
+            hasher.putString(results.getDisplayName());
+            hasher.putInt(results.getTestResults().size());
+            for (TestResult test : results.getTestResults()) {
+                hasher.putString(test.getName());
+                hasher.putString(test.getDisplayName());
+                hasher.putString(test.getResultType().name());
+                hasher.putLong(test.getDuration());
+                hasher.putInt(test.getFailures().size());
+                for (TestFailure failure : test.getFailures()) {
+                    putNullableString(hasher, failure.getMessage());
+                    putNullableString(hasher, failure.getStackTrace());
+                    putNullableString(hasher, failure.getExceptionType());
+                }
+            }
+            putOutput(hasher, TestOutputEvent.Destination.StdOut);
+            putOutput(hasher, TestOutputEvent.Destination.StdErr);
+            return hasher.hash();
+        }
+
+        private void putOutput(Hasher hasher, TestOutputEvent.Destination destination) {
+            if (!resultsProvider.hasOutput(results.getId(), destination)) {
+                hasher.putBoolean(false);
+                return;
+            }
+            hasher.putBoolean(true);
+            HashingOutputStream outputHasher = Hashing.primitiveStreamHasher();
+            Writer writer = new OutputStreamWriter(outputHasher, Charsets.UTF_8);
+            resultsProvider.writeAllOutput(results.getId(), destination, writer);
+            try {
+                writer.flush();
+            } catch (IOException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            hasher.putHash(outputHasher.hash());
+        }
+
+        private static void putNullableString(Hasher hasher, String value) {
+            if (value == null) {
+                hasher.putNull();
+            } else {
+                hasher.putString(value);
+            }
+        }
+    }
+
     private static class HtmlReportFileGenerator<T extends CompositeTestResults> implements RunnableBuildOperation {
         private final String fileUrl;
         private final T results;
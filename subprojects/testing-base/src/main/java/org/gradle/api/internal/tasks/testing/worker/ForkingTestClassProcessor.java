@@ -65,30 +65,40 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
         this.documentationRegistry = documentationRegistry;
     }
 
+    /**
+     * Starts the worker process, so that it can start up before the first test class is received.
+     */
     @Override
     public void startProcessing(TestResultProcessor resultProcessor) {
         this.resultProcessor = resultProcessor;
+        lock.lock();
+        try {
+            if (stoppedNow) {
+                return;
+            }
+
+            completion = currentWorkerLease.startChild();
+            try {
+                remoteProcessor = forkProcess();
+            } catch (RuntimeException e) {
+                completion.leaseFinish();
+                completion = null;
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
     public void processTestClass(TestClassRunInfo testClass) {
         lock.lock();
         try {
-            if (stoppedNow) {
+            if (stoppedNow || remoteProcessor == null) {
+                // Stopped, or the worker process failed to start, which has already been reported
                 return;
             }
 
-            if (remoteProcessor == null) {
-                completion = currentWorkerLease.startChild();
-                try {
-                    remoteProcessor = forkProcess();
-                } catch (RuntimeException e) {
-                    completion.leaseFinish();
-                    completion = null;
-                    throw e;
-                }
-            }
-
             remoteProcessor.processTestClass(testClass);
         } finally {
             lock.unlock();
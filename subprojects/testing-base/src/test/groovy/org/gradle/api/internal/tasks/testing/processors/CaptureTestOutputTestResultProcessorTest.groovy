@@ -47,12 +47,25 @@ class CaptureTestOutputTestResultProcessorTest extends Specification {
 
         when: processor.started(test, testEvent)
 
+        then: 1 * redirector.flush()
         then:
         1 * target.started(test, testEvent)
         1 * redirector.setOutputOwner("2")
         0 * _
     }
 
+    def "sends captured output before failures"() {
+        def failure = new RuntimeException()
+
+        processor.started(new DefaultTestSuiteDescriptor("1", "Foo"), new TestStartEvent(1))
+
+        when: processor.failure("1", failure)
+
+        then: 1 * redirector.flush()
+        then: 1 * target.failure("1", failure)
+        0 * _
+    }
+
     def "when test completes its parent will be the owner of output"() {
         def test = new DefaultTestDescriptor("2", "Bar", "Baz")
         def testEvent = new TestStartEvent(2, "99")
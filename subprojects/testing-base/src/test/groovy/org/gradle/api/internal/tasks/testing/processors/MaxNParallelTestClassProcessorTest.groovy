@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.tasks.testing.processors
 
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
 import org.gradle.api.internal.tasks.testing.TestClassProcessor
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo
 import org.gradle.api.internal.tasks.testing.TestResultProcessor
@@ -85,6 +86,94 @@ class MaxNParallelTestClassProcessorTest extends Specification {
         1 * resultProcessorActor.stop()
     }
 
+    def startsEagerProcessorsOnStart() {
+        TestClassRunInfo test = Mock()
+        TestClassProcessor processor1 = Mock()
+        TestClassProcessor processor2 = Mock()
+        TestClassProcessor asyncProcessor1 = Mock()
+        TestClassProcessor asyncProcessor2 = Mock()
+        Actor actor1 = Mock()
+        Actor actor2 = Mock()
+        def eagerProcessor = new MaxNParallelTestClassProcessor(2, factory, actorFactory, TestClassDurationEstimates.NONE, 2)
+
+        when:
+        eagerProcessor.startProcessing(resultProcessor)
+
+        then:
+        1 * actorFactory.createActor(resultProcessor) >> resultProcessorActor
+        1 * resultProcessorActor.getProxy(TestResultProcessor) >> asyncResultProcessor
+        then:
+        1 * factory.create() >> processor1
+        1 * actorFactory.createActor(processor1) >> actor1
+        1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
+        1 * asyncProcessor1.startProcessing(asyncResultProcessor)
+        then:
+        1 * factory.create() >> processor2
+        1 * actorFactory.createActor(processor2) >> actor2
+        1 * actor2.getProxy(TestClassProcessor) >> asyncProcessor2
+        1 * asyncProcessor2.startProcessing(asyncResultProcessor)
+
+        when:
+        eagerProcessor.processTestClass(test)
+        eagerProcessor.processTestClass(test)
+
+        then:
+        0 * factory.create()
+        1 * asyncProcessor1.processTestClass(test)
+        1 * asyncProcessor2.processTestClass(test)
+    }
+
+    def startsRemainingProcessorsOnDemandAfterEagerProcessors() {
+        TestClassRunInfo test = Mock()
+        TestClassProcessor processor1 = Mock()
+        TestClassProcessor processor2 = Mock()
+        TestClassProcessor asyncProcessor1 = Mock()
+        TestClassProcessor asyncProcessor2 = Mock()
+        Actor actor1 = Mock()
+        Actor actor2 = Mock()
+        def eagerProcessor = new MaxNParallelTestClassProcessor(2, factory, actorFactory, TestClassDurationEstimates.NONE, 1)
+
+        when:
+        eagerProcessor.startProcessing(resultProcessor)
+
+        then:
+        1 * actorFactory.createActor(resultProcessor) >> resultProcessorActor
+        1 * resultProcessorActor.getProxy(TestResultProcessor) >> asyncResultProcessor
+        1 * factory.create() >> processor1
+        1 * actorFactory.createActor(processor1) >> actor1
+        1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
+        1 * asyncProcessor1.startProcessing(asyncResultProcessor)
+
+        when:
+        eagerProcessor.processTestClass(test)
+
+        then:
+        1 * factory.create() >> processor2
+        1 * actorFactory.createActor(processor2) >> actor2
+        1 * actor2.getProxy(TestClassProcessor) >> asyncProcessor2
+        1 * asyncProcessor2.startProcessing(asyncResultProcessor)
+        1 * asyncProcessor2.processTestClass(test)
+        0 * asyncProcessor1.processTestClass(_)
+    }
+
+    def startsNoMoreEagerProcessorsThanTheMaximum() {
+        TestClassProcessor rawProcessor = Mock()
+        TestClassProcessor asyncProcessor = Mock()
+        Actor actor = Mock()
+        def eagerProcessor = new MaxNParallelTestClassProcessor(2, factory, actorFactory, TestClassDurationEstimates.NONE, 5)
+
+        when:
+        eagerProcessor.startProcessing(resultProcessor)
+
+        then:
+        1 * actorFactory.createActor(resultProcessor) >> resultProcessorActor
+        1 * resultProcessorActor.getProxy(TestResultProcessor) >> asyncResultProcessor
+        2 * factory.create() >> rawProcessor
+        2 * actorFactory.createActor(rawProcessor) >> actor
+        2 * actor.getProxy(TestClassProcessor) >> asyncProcessor
+        2 * asyncProcessor.startProcessing(asyncResultProcessor)
+    }
+
     def startsMultipleProcessorsOnDemandAndStopsAtEnd() {
         TestClassRunInfo test = Mock()
         TestClassProcessor processor1 = Mock()
@@ -168,6 +257,40 @@ class MaxNParallelTestClassProcessorTest extends Specification {
         1 * asyncProcessor2.processTestClass(test)
     }
 
+    def "assigns test classes to the processor with the lowest estimated load"() {
+        def balancingProcessor = new MaxNParallelTestClassProcessor(2, factory, actorFactory, new TestClassDurationEstimates([Slow: 100L, Fast1: 10L, Fast2: 10L, Fast3: 10L]))
+        def slow = new DefaultTestClassRunInfo("Slow")
+        def fast1 = new DefaultTestClassRunInfo("Fast1")
+        def fast2 = new DefaultTestClassRunInfo("Fast2")
+        def fast3 = new DefaultTestClassRunInfo("Fast3")
+        TestClassProcessor processor1 = Mock()
+        TestClassProcessor processor2 = Mock()
+        TestClassProcessor asyncProcessor1 = Mock()
+        TestClassProcessor asyncProcessor2 = Mock()
+        Actor actor1 = Mock()
+        Actor actor2 = Mock()
+
+        given:
+        actorFactory.createActor(resultProcessor) >> resultProcessorActor
+        resultProcessorActor.getProxy(TestResultProcessor) >> asyncResultProcessor
+        factory.create() >>> [processor1, processor2]
+        actorFactory.createActor(processor1) >> actor1
+        actorFactory.createActor(processor2) >> actor2
+        actor1.getProxy(TestClassProcessor) >> asyncProcessor1
+        actor2.getProxy(TestClassProcessor) >> asyncProcessor2
+        balancingProcessor.startProcessing(resultProcessor)
+
+        when:
+        [slow, fast1, fast2, fast3].each { balancingProcessor.processTestClass(it) }
+
+        then:
+        1 * asyncProcessor1.processTestClass(slow)
+        1 * asyncProcessor2.processTestClass(fast1)
+        1 * asyncProcessor2.processTestClass(fast2)
+        1 * asyncProcessor2.processTestClass(fast3)
+        0 * asyncProcessor1.processTestClass(_)
+    }
+
     def "stopNow propagates to factory created processors"() {
         TestClassRunInfo test = Mock()
         TestClassProcessor processor1 = Mock()
@@ -31,7 +31,7 @@ class RestartEveryNTestClassProcessorTest extends Specification {
     private final TestResultProcessor resultProcessor = Mock();
     private RestartEveryNTestClassProcessor processor = new RestartEveryNTestClassProcessor(factory, 2);
 
-    def 'creates delegate processor on first test'() {
+    def 'creates delegate processor on start'() {
         when:
         processor.startProcessing(resultProcessor)
         processor.processTestClass(test1)
@@ -111,7 +111,21 @@ class RestartEveryNTestClassProcessorTest extends Specification {
         0 * _._
     }
 
-    def 'does nothing on end of processing when no tests received'() {
+    def 'stops delegate processor on end of processing when no tests received'() {
+        when:
+        processor.startProcessing(resultProcessor)
+        processor.stop()
+
+        then:
+        1 * factory.create() >> delegate
+        then:
+        1 * delegate.startProcessing(resultProcessor)
+        then:
+        1 * delegate.stop()
+        0 * _._
+    }
+
+    def 'does nothing on end of processing when not started'() {
         expect:
         processor.stop()
     }
@@ -46,4 +46,112 @@ class RunPreviousFailedFirstTestClassProcessorTest extends Specification {
         then:
         1 * delegate.stop()
     }
+
+    def 'test classes are passed to delegate longest first after previous failed test classes'() {
+        given:
+        processor = new RunPreviousFailedFirstTestClassProcessor(['Class5', 'Class6'] as Set, new TestClassDurationEstimates([Class1: 10L, Class2: 300L, Class4: 10L, Class5: 20L, Class6: 30L]), delegate)
+
+        when:
+        processor.startProcessing(testResultProcessor)
+        ['Class1', 'Class2', 'Class5', 'Class3', 'Class4', 'Class6'].each { processor.processTestClass(new DefaultTestClassRunInfo(it)) }
+        processor.stop()
+
+        then:
+        1 * delegate.startProcessing(testResultProcessor)
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class6'))
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class5'))
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class2'))
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class3'))
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class1'))
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class4'))
+        then:
+        1 * delegate.stop()
+    }
+
+    def 'holds back test classes until all previous failed test classes have been seen'() {
+        given:
+        processor = new RunPreviousFailedFirstTestClassProcessor(['Class3'] as Set, delegate)
+
+        when:
+        ['Class1', 'Class2'].each { processor.processTestClass(new DefaultTestClassRunInfo(it)) }
+
+        then:
+        0 * delegate._
+
+        when:
+        processor.processTestClass(new DefaultTestClassRunInfo('Class3'))
+
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class3'))
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class1'))
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class2'))
+
+        when:
+        processor.processTestClass(new DefaultTestClassRunInfo('Class4'))
+
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class4'))
+    }
+
+    def 'test classes are passed to delegate as they arrive without previous failures and durations'() {
+        given:
+        processor = new RunPreviousFailedFirstTestClassProcessor([] as Set, TestClassDurationEstimates.NONE, delegate)
+
+        when:
+        processor.processTestClass(new DefaultTestClassRunInfo('Class1'))
+
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class1'))
+
+        when:
+        ['Class2', 'Class1', 'Class3'].each { processor.processTestClass(new DefaultTestClassRunInfo(it)) }
+        processor.stop()
+
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class2'))
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class3'))
+        then:
+        1 * delegate.stop()
+        0 * delegate._
+    }
+
+    def 'passes the longest test class to delegate once more than the look-ahead are held back'() {
+        given:
+        processor = new RunPreviousFailedFirstTestClassProcessor([] as Set, new TestClassDurationEstimates([Class1: 10L, Class2: 300L, Class3: 20L, Class4: 400L]), 2, delegate)
+
+        when:
+        ['Class1', 'Class2'].each { processor.processTestClass(new DefaultTestClassRunInfo(it)) }
+
+        then:
+        0 * delegate._
+
+        when:
+        processor.processTestClass(new DefaultTestClassRunInfo('Class3'))
+
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class2'))
+        0 * delegate._
+
+        when:
+        processor.processTestClass(new DefaultTestClassRunInfo('Class4'))
+        processor.stop()
+
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class4'))
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class3'))
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class1'))
+        then:
+        1 * delegate.stop()
+    }
 }
@@ -22,6 +22,9 @@ import org.gradle.api.tasks.testing.TestOutputEvent
 import spock.lang.Specification
 import spock.lang.Subject
 
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
 class TestOutputRedirectorTest extends Specification {
 
     TestResultProcessor processor = Mock(TestResultProcessor)
@@ -65,17 +68,133 @@ class TestOutputRedirectorTest extends Specification {
         redirector.errForwarder.outputOwner == "2"
     }
 
-    def "passes output events"() {
-        def f = new TestOutputRedirector.Forwarder(processor, TestOutputEvent.Destination.StdErr)
+    def "passes output events when flushed"() {
+        def f = new TestOutputRedirector.Forwarder(redirector.batch, TestOutputEvent.Destination.StdErr)
         f.outputOwner = "5"
 
-        when: f.onOutput("ala")
+        when:
+        f.onOutput("ala")
+
+        then:
+        0 * _
+
+        when:
+        redirector.flush()
 
         then:
         1 * processor.output("5", { DefaultTestOutputEvent e ->
-            e.destination == TestOutputEvent.Destination.StdErr
+            e.destination == TestOutputEvent.Destination.StdErr &&
             e.message == "ala"
         })
         0 * _
     }
+
+    def "combines consecutive output for the same test and destination"() {
+        def redirector = new TestOutputRedirector(processor, redir, 8192, 60000)
+        redirector.setOutputOwner("1")
+
+        when:
+        redirector.outForwarder.onOutput("a\n")
+        redirector.outForwarder.onOutput("b\n")
+        redirector.errForwarder.onOutput("c\n")
+        redirector.setOutputOwner("2")
+        redirector.errForwarder.onOutput("d\n")
+        redirector.flush()
+
+        then:
+        1 * processor.output("1", { it.destination == TestOutputEvent.Destination.StdOut && it.message == "a\nb\n" })
+
+        then:
+        1 * processor.output("1", { it.destination == TestOutputEvent.Destination.StdErr && it.message == "c\n" })
+
+        then:
+        1 * processor.output("2", { it.destination == TestOutputEvent.Destination.StdErr && it.message == "d\n" })
+        0 * _
+    }
+
+    def "sends output once the batch is large enough"() {
+        def redirector = new TestOutputRedirector(processor, redir, 4, 60000)
+        redirector.setOutputOwner("1")
+
+        when:
+        redirector.outForwarder.onOutput("ab")
+
+        then:
+        0 * _
+
+        when:
+        redirector.outForwarder.onOutput("cd")
+
+        then:
+        1 * processor.output("1", { it.message == "abcd" })
+        0 * _
+    }
+
+    def "sends output once the batch is old enough when no further output arrives"() {
+        def sent = new CountDownLatch(1)
+        def processor = Stub(TestResultProcessor) {
+            output("1", { it.message == "ala" }) >> { sent.countDown() }
+        }
+        def redirector = new TestOutputRedirector(processor, redir, 8192, 10)
+        redirector.setOutputOwner("1")
+        redirector.startRedirecting()
+
+        when:
+        redirector.outForwarder.onOutput("ala")
+
+        then:
+        sent.await(10, TimeUnit.SECONDS)
+
+        cleanup:
+        redirector.stopRedirecting()
+    }
+
+    def "sends remaining output when redirecting stops"() {
+        redirector.setOutputOwner("1")
+        redirector.startRedirecting()
+        redirector.outForwarder.onOutput("ala")
+
+        when:
+        redirector.stopRedirecting()
+
+        then:
+        1 * redir.stop()
+
+        then:
+        1 * processor.output("1", { it.message == "ala" })
+        0 * _
+    }
+
+    def "sends output without holding the lock of the batch"() {
+        def redirector = new TestOutputRedirector(processor, redir, 4, 60000)
+        redirector.setOutputOwner("1")
+
+        when:
+        redirector.outForwarder.onOutput("abcd")
+        redirector.outForwarder.onOutput("ef")
+        redirector.flush()
+
+        then:
+        2 * processor.output("1", _) >> {
+            assert !Thread.holdsLock(redirector.batch)
+        }
+        0 * _
+    }
+
+    def "output written by the result processor while sending is sent after the current output"() {
+        def redirector = new TestOutputRedirector(processor, redir, 4, 60000)
+        redirector.setOutputOwner("1")
+
+        when:
+        redirector.outForwarder.onOutput("abcd")
+
+        then:
+        1 * processor.output("1", { it.message == "abcd" }) >> {
+            redirector.errForwarder.onOutput("nested")
+        }
+
+        then:
+        1 * processor.output("1", { it.message == "nested" })
+        0 * _
+    }
 }
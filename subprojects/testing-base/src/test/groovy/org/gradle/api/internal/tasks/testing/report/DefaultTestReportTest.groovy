@@ -44,6 +44,7 @@ class DefaultTestReportTest extends Specification {
     DefaultTestReport report
     final TestFile reportDir = tmpDir.file('report')
     final TestFile indexFile = reportDir.file('index.html')
+    final TestFile classPageHashesFile = tmpDir.file('class-page-hashes.txt')
     final TestResultsProvider testResultProvider = Mock()
     final WorkerLeaseService workerLeaseService = new TestWorkerLeaseService()
 
@@ -52,7 +53,7 @@ class DefaultTestReportTest extends Specification {
         buildOperationExecutor = new DefaultBuildOperationExecutor(
             Mock(BuildOperationListener), Mock(Clock), new NoOpProgressLoggerFactory(),
             new DefaultBuildOperationQueueFactory(workerLeaseService), new DefaultExecutorFactory(), parallelExecutionManager, new DefaultBuildOperationIdFactory())
-        return new DefaultTestReport(buildOperationExecutor)
+        return new DefaultTestReport(buildOperationExecutor, classPageHashesFile)
     }
 
     def generatesReportWhenThereAreNoTestResults() {
@@ -488,6 +489,91 @@ class DefaultTestReportTest extends Specification {
         packageFile.assertHasLinkTo('../classes/Test', 'Test')
     }
 
+    def "only renders class pages whose results changed since the previous report"() {
+        given:
+        report = reportWithMaxThreads(1)
+        report.generateReport(aggregatedBuildResultsRun1(), reportDir)
+        def fooPage = reportDir.file('classes/org.gradle.aggregation.FooTest.html')
+        def barPage = reportDir.file('classes/org.gradle.aggregation.BarTest.html')
+        fooPage.text = "unchanged"
+        barPage.text = "unchanged"
+
+        when:
+        report.generateReport(buildResults {
+            testClassResult("org.gradle.aggregation.FooTest") {
+                testcase("first") {
+                    duration = 1000;
+                }
+            }
+            testClassResult("org.gradle.aggregation.BarTest") {
+                testcase("second") {
+                    duration = 1100;
+                    stdout "this is\nstandard output"
+                    stderr "this is\nstandard error"
+                }
+            }
+        }, reportDir)
+
+        then:
+        fooPage.text == "unchanged"
+        results(barPage).assertHasDuration("1.100s")
+    }
+
+    def "keeps class page hashes outside of the report"() {
+        given:
+        report = reportWithMaxThreads(1)
+
+        when:
+        report.generateReport(aggregatedBuildResultsRun1(), reportDir)
+
+        then:
+        classPageHashesFile.file
+        reportDir.file('classes').list() as Set == ['org.gradle.aggregation.FooTest.html', 'org.gradle.aggregation.BarTest.html'] as Set
+    }
+
+    def "renders every class page when the class page hashes belong to a report in another location"() {
+        given:
+        report = reportWithMaxThreads(1)
+        def otherReportDir = tmpDir.file('other-report')
+        report.generateReport(aggregatedBuildResultsRun1(), reportDir)
+        def fooPage = otherReportDir.file('classes/org.gradle.aggregation.FooTest.html')
+        fooPage.text = "unchanged"
+
+        when:
+        report.generateReport(aggregatedBuildResultsRun1(), otherReportDir)
+
+        then:
+        results(fooPage).assertHasTests(1)
+    }
+
+    def "renders every class page when no file to keep class page hashes in is given"() {
+        given:
+        reportWithMaxThreads(1)
+        report = new DefaultTestReport(buildOperationExecutor)
+        report.generateReport(aggregatedBuildResultsRun1(), reportDir)
+        def fooPage = reportDir.file('classes/org.gradle.aggregation.FooTest.html')
+        fooPage.text = "unchanged"
+
+        when:
+        report.generateReport(aggregatedBuildResultsRun1(), reportDir)
+
+        then:
+        results(fooPage).assertHasTests(1)
+    }
+
+    def "removes pages of classes and packages that are no longer part of the results"() {
+        given:
+        report = reportWithMaxThreads(1)
+        report.generateReport(passingBuildResults(), reportDir)
+
+        when:
+        report.generateReport(aggregatedBuildResultsRun1(), reportDir)
+
+        then:
+        reportDir.file('classes').list() as Set == ['org.gradle.aggregation.FooTest.html', 'org.gradle.aggregation.BarTest.html'] as Set
+        reportDir.file('packages').list() as Set == ['org.gradle.aggregation.html'] as Set
+    }
+
     def escapesHtmlContentInReport() {
         given:
         report = reportWithMaxThreads(1)
@@ -21,6 +21,7 @@ import org.gradle.api.internal.DocumentationRegistry
 import org.gradle.api.internal.classpath.Module
 import org.gradle.api.internal.classpath.ModuleRegistry
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory
 import org.gradle.internal.classpath.ClassPath
 import org.gradle.internal.remote.ObjectConnection
@@ -52,24 +53,56 @@ class ForkingTestClassProcessorTest extends Specification {
         workerProcessBuilder.getJavaCommand() >> Stub (JavaExecHandleBuilder)
     }
 
-    def "acquires worker lease and starts worker process on first test"() {
+    def "acquires worker lease and starts worker process when processing starts"() {
         def test1 = Mock(TestClassRunInfo)
         def test2 = Mock(TestClassRunInfo)
 
         def remoteProcessor = Mock(RemoteTestClassProcessor)
 
         when:
-        processor.processTestClass(test1)
-        processor.processTestClass(test2)
+        processor.startProcessing(Stub(TestResultProcessor))
 
         then:
         1 * workerLease.startChild()
         1 * processor.forkProcess() >> remoteProcessor
+        0 * remoteProcessor._
+
+        when:
+        processor.processTestClass(test1)
+        processor.processTestClass(test2)
+
+        then:
+        0 * workerLease._
+        0 * processor.forkProcess()
         1 * remoteProcessor.processTestClass(test1)
         1 * remoteProcessor.processTestClass(test2)
         0 * remoteProcessor._
     }
 
+    def "releases worker lease and ignores test classes when worker process fails to start"() {
+        def completion = Mock(WorkerLeaseRegistry.WorkerLeaseCompletion)
+        def failure = new RuntimeException("broken")
+
+        when:
+        processor.startProcessing(Stub(TestResultProcessor))
+
+        then:
+        1 * workerLease.startChild() >> completion
+        1 * processor.forkProcess() >> { throw failure }
+        1 * completion.leaseFinish()
+        def e = thrown(RuntimeException)
+        e.is(failure)
+
+        when:
+        processor.processTestClass(Mock(TestClassRunInfo))
+        processor.stop()
+
+        then:
+        0 * processor.forkProcess()
+        0 * workerProcess._
+        0 * completion._
+    }
+
     def "starts process with a limited implementation classpath"() {
         setup:
         1 * workerProcess.getConnection() >> Stub(ObjectConnection) { addOutgoing(_) >> Stub(RemoteTestClassProcessor) }
@@ -99,6 +132,7 @@ class ForkingTestClassProcessorTest extends Specification {
         1 * workerProcess.getConnection() >> Stub(ObjectConnection) { addOutgoing(_) >> Stub(RemoteTestClassProcessor) }
 
         when:
+        processor.startProcessing(Stub(TestResultProcessor))
         processor.processTestClass(Mock(TestClassRunInfo))
         processor.stopNow()
 
@@ -113,6 +147,7 @@ class ForkingTestClassProcessorTest extends Specification {
         1 * workerProcess.getConnection() >> Stub(ObjectConnection) { addOutgoing(_) >> Stub(RemoteTestClassProcessor) }
 
         when:
+        processor.startProcessing(Stub(TestResultProcessor))
         processor.processTestClass(Mock(TestClassRunInfo))
         processor.stopNow()
         processor.stop()
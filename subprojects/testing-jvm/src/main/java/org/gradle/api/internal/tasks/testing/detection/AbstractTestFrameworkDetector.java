@@ -21,54 +21,75 @@ import org.apache.commons.lang.StringUtils;
 import org.gradle.api.internal.file.RelativeFile;
 import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.cache.internal.FileContentCache;
+import org.gradle.cache.internal.FileContentCacheFactory;
 import org.gradle.internal.Factories;
 import org.gradle.internal.Factory;
 import org.gradle.internal.IoActions;
+import org.gradle.internal.serialize.AbstractSerializer;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.Type;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.gradle.internal.FileUtils.hasExtension;
 
+/**
+ * Detects test classes by inspecting their byte code, and the byte code of their super classes.
+ *
+ * <p>The information read from a class file is cached by the hash of the file content, so that unchanged classes are not
+ * read again by later builds. Test classes can be processed from multiple threads once detection has started.</p>
+ */
 public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor> implements TestFrameworkDetector {
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractTestFrameworkDetector.class);
     private static final String JAVA_LANG_OBJECT = "java/lang/Object";
+    private static final int TEST_CLASS_CACHE_SIZE = 100000;
 
     private List<File> testClassDirectories;
     private final ClassFileExtractionManager classFileExtractionManager;
-    private final Map<File, Boolean> superClasses;
+    private final FileContentCacheFactory cacheFactory;
+    private final String cacheName;
+    private final Map<String, Boolean> superClasses;
+    private FileContentCache<TestClass> testClassCache;
     private TestClassProcessor testClassProcessor;
 
     private Set<File> testClassesDirectories;
     private Set<File> testClasspath;
 
-    protected AbstractTestFrameworkDetector(ClassFileExtractionManager classFileExtractionManager) {
+    /**
+     * @param cacheName The name of the cache holding the information read from class files. Must be unique for each test framework.
+     */
+    protected AbstractTestFrameworkDetector(ClassFileExtractionManager classFileExtractionManager, FileContentCacheFactory cacheFactory, String cacheName) {
         assert classFileExtractionManager != null;
         this.classFileExtractionManager = classFileExtractionManager;
-        this.superClasses = new HashMap<File, Boolean>();
+        this.cacheFactory = cacheFactory;
+        this.cacheName = cacheName;
+        this.superClasses = new ConcurrentHashMap<String, Boolean>();
     }
 
     protected abstract T createClassVisitor();
 
-    private File getSuperTestClassFile(String superClassName) {
-        prepareClasspath();
+    @Nullable
+    private TestClass readSuperClass(String superClassName) {
         if (StringUtils.isEmpty(superClassName)) {
             throw new IllegalArgumentException("superClassName is empty!");
         }
 
         File superTestClassFile = null;
-        for (File testClassDirectory : testClassDirectories) {
+        for (File testClassDirectory : getTestClassDirectories()) {
             File candidate = new File(testClassDirectory, superClassName + ".class");
             if (candidate.exists()) {
                 superTestClassFile = candidate;
@@ -76,19 +97,28 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         }
 
         if (superTestClassFile != null) {
-            return superTestClassFile;
+            return readClassFile(superTestClassFile, Factories.constant(superClassName));
         } else if (JAVA_LANG_OBJECT.equals(superClassName)) {
             // java.lang.Object found, which is not a test class
             return null;
         } else {
             // super test class file not in test class directories
-            return classFileExtractionManager.getLibraryClassFile(superClassName);
+            byte[] classBytes = classFileExtractionManager.getLibraryClassBytes(superClassName);
+            if (classBytes == null) {
+                return null;
+            }
+            try {
+                return readClass(classBytes);
+            } catch (Throwable e) {
+                LOGGER.debug("Failed to read library class " + superClassName + "; assuming it's a test class and continuing", e);
+                return TestClass.forUnparseableFile(superClassName);
+            }
         }
     }
 
-    private void prepareClasspath() {
+    private synchronized List<File> getTestClassDirectories() {
         if (testClassDirectories != null) {
-            return;
+            return testClassDirectories;
         }
 
         testClassDirectories = new ArrayList<File>();
@@ -105,6 +135,7 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
                 }
             }
         }
+        return testClassDirectories;
     }
 
     @Override
@@ -118,30 +149,30 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
     }
 
     private TestClass readClassFile(File testClassFile, Factory<String> fallbackClassNameProvider) {
-        final TestClassVisitor classVisitor = createClassVisitor();
-
-        InputStream classStream = null;
-        try {
-            classStream = new BufferedInputStream(new FileInputStream(testClassFile));
-            final ClassReader classReader = new ClassReader(IOUtils.toByteArray(classStream));
-            classReader.accept(classVisitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
-            return TestClass.forParseableFile(classVisitor);
-        } catch (Throwable e) {
-            LOGGER.debug("Failed to read class file " + testClassFile.getAbsolutePath() + "; assuming it's a test class and continuing", e);
+        TestClass testClass = testClassCache.get(testClassFile);
+        if (testClass.getClassName() == null) {
+            // Unparseable class files are cached without a name, as the name is only known to the caller
             return TestClass.forUnparseableFile(fallbackClassNameProvider.create());
-        } finally {
-            IoActions.closeQuietly(classStream);
         }
+        return testClass;
+    }
+
+    private TestClass readClass(byte[] classBytes) {
+        final TestClassVisitor classVisitor = createClassVisitor();
+        final ClassReader classReader = new ClassReader(classBytes);
+        classReader.accept(classVisitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
+        return TestClass.forParseableFile(classVisitor);
     }
 
     @Override
     public boolean processTestClass(final RelativeFile testClassFile) {
-        return processTestClass(testClassFile.getFile(), false, new Factory<String>() {
+        TestClass testClass = readClassFile(testClassFile.getFile(), new Factory<String>() {
             @Override
             public String create() {
                 return testClassFile.getRelativePath().getPathString().replace(".class", "");
             }
         });
+        return processTestClass(testClass, false);
     }
 
     /**
@@ -149,9 +180,7 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
      * class is a test class. First the package of the parent class is checked, if it is a java.lang or groovy.lang the class can't be a test class, otherwise the parent class is scanned. <p/> When a
      * parent class is a test class all the extending classes are marked as test classes.
      */
-    private boolean processTestClass(File testClassFile, boolean superClass, Factory<String> fallbackClassNameProvider) {
-        TestClass testClass = readClassFile(testClassFile, fallbackClassNameProvider);
-
+    private boolean processTestClass(TestClass testClass, boolean superClass) {
         boolean isTest = testClass.isTest();
 
         if (!isTest) { // scan parent class
@@ -160,14 +189,7 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
             if (isKnownTestCaseClassName(superClassName)) {
                 isTest = true;
             } else {
-                File superClassFile = getSuperTestClassFile(superClassName);
-
-                if (superClassFile != null) {
-                    isTest = processSuperClass(superClassFile, superClassName);
-                } else {
-                    LOGGER.debug("test-class-scan : failed to scan parent class {}, could not find the class file",
-                        superClassName);
-                }
+                isTest = processSuperClass(superClassName);
             }
         }
 
@@ -178,19 +200,21 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
 
     protected abstract boolean isKnownTestCaseClassName(String testCaseClassName);
 
-    private boolean processSuperClass(File testClassFile, String superClassName) {
-        boolean isTest;
-
-        Boolean isSuperTest = superClasses.get(testClassFile);
-
-        if (isSuperTest == null) {
-            isTest = processTestClass(testClassFile, true, Factories.constant(superClassName));
+    private boolean processSuperClass(String superClassName) {
+        Boolean isSuperTest = superClasses.get(superClassName);
+        if (isSuperTest != null) {
+            return isSuperTest;
+        }
 
-            superClasses.put(testClassFile, isTest);
-        } else {
-            isTest = isSuperTest;
+        TestClass superTestClass = readSuperClass(superClassName);
+        if (superTestClass == null) {
+            LOGGER.debug("test-class-scan : failed to scan parent class {}, could not find the class file",
+                superClassName);
+            return false;
         }
 
+        boolean isTest = processTestClass(superTestClass, true);
+        superClasses.put(superClassName, isTest);
         return isTest;
     }
 
@@ -208,9 +232,34 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
     @Override
     public void startDetection(TestClassProcessor testClassProcessor) {
         this.testClassProcessor = testClassProcessor;
+        if (testClassCache == null) {
+            testClassCache = cacheFactory.newCache(cacheName, TEST_CLASS_CACHE_SIZE, new TestClassFileReader(), new TestClassSerializer());
+        }
+    }
+
+    private class TestClassFileReader implements FileContentCacheFactory.Calculator<TestClass> {
+        @Override
+        public TestClass calculate(File file, boolean isRegularFile) {
+            if (!isRegularFile) {
+                return TestClass.UNPARSEABLE;
+            }
+
+            InputStream classStream = null;
+            try {
+                classStream = new BufferedInputStream(new FileInputStream(file));
+                return readClass(IOUtils.toByteArray(classStream));
+            } catch (Throwable e) {
+                LOGGER.debug("Failed to read class file " + file.getAbsolutePath() + "; assuming it's a test class and continuing", e);
+                return TestClass.UNPARSEABLE;
+            } finally {
+                IoActions.closeQuietly(classStream);
+            }
+        }
     }
 
     private static class TestClass {
+        static final TestClass UNPARSEABLE = new TestClass(true, false, null, null);
+
         private final boolean test;
         private final boolean isAbstract;
         private final String className;
@@ -248,4 +297,22 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         }
     }
 
+    private static class TestClassSerializer extends AbstractSerializer<TestClass> {
+        @Override
+        public TestClass read(Decoder decoder) throws Exception {
+            boolean test = decoder.readBoolean();
+            boolean isAbstract = decoder.readBoolean();
+            String className = decoder.readNullableString();
+            String superClassName = decoder.readNullableString();
+            return new TestClass(test, isAbstract, className, superClassName);
+        }
+
+        @Override
+        public void write(Encoder encoder, TestClass value) throws Exception {
+            encoder.writeBoolean(value.isTest());
+            encoder.writeBoolean(value.isAbstract());
+            encoder.writeNullableString(value.getClassName());
+            encoder.writeNullableString(value.getSuperClassName());
+        }
+    }
 }
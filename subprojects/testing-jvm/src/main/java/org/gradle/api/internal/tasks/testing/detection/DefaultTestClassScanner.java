@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.tasks.testing.detection;
 
+import org.gradle.api.Action;
 import org.gradle.api.file.EmptyFileVisitor;
 import org.gradle.api.file.FileTree;
 import org.gradle.api.file.FileVisitDetails;
@@ -23,32 +24,56 @@ import org.gradle.api.internal.file.RelativeFile;
 import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.regex.Pattern;
 
 /**
  * The default test class scanner. Depending on the availability of a test framework detector,
  * a detection or filename scan is performed to find test classes.
+ *
+ * When a build operation executor is available, class files are inspected by the detector in parallel, in batches. The test classes
+ * of each batch are passed on once the batch and all batches before it are complete, so that they arrive in the same order as with
+ * a serial scan while detection continues.
  */
 public class DefaultTestClassScanner implements Runnable {
     private static final Pattern ANONYMOUS_CLASS_NAME = Pattern.compile(".*\\$\\d+");
+    private static final int CLASS_FILES_PER_OPERATION = 200;
     private final FileTree candidateClassFiles;
     private final TestFrameworkDetector testFrameworkDetector;
     private final TestClassProcessor testClassProcessor;
+    private final BuildOperationExecutor buildOperationExecutor;
 
     public DefaultTestClassScanner(FileTree candidateClassFiles, TestFrameworkDetector testFrameworkDetector,
                                    TestClassProcessor testClassProcessor) {
+        this(candidateClassFiles, testFrameworkDetector, testClassProcessor, null);
+    }
+
+    public DefaultTestClassScanner(FileTree candidateClassFiles, TestFrameworkDetector testFrameworkDetector,
+                                   TestClassProcessor testClassProcessor, @Nullable BuildOperationExecutor buildOperationExecutor) {
         this.candidateClassFiles = candidateClassFiles;
         this.testFrameworkDetector = testFrameworkDetector;
         this.testClassProcessor = testClassProcessor;
+        this.buildOperationExecutor = buildOperationExecutor;
     }
 
     @Override
     public void run() {
         if (testFrameworkDetector == null) {
             filenameScan();
-        } else {
+        } else if (buildOperationExecutor == null) {
             detectionScan();
+        } else {
+            parallelDetectionScan();
         }
     }
 
@@ -61,6 +86,32 @@ public class DefaultTestClassScanner implements Runnable {
         });
     }
 
+    private void parallelDetectionScan() {
+        final List<RelativeFile> classFiles = new ArrayList<RelativeFile>();
+        candidateClassFiles.visit(new ClassFileVisitor() {
+            public void visitClassFile(FileVisitDetails fileDetails) {
+                classFiles.add(new RelativeFile(fileDetails.getFile(), fileDetails.getRelativePath()));
+            }
+        });
+        if (classFiles.isEmpty()) {
+            return;
+        }
+
+        final int batchCount = (classFiles.size() + CLASS_FILES_PER_OPERATION - 1) / CLASS_FILES_PER_OPERATION;
+        final DetectedTestClasses detectedTestClasses = new DetectedTestClasses(testClassProcessor, batchCount);
+        testFrameworkDetector.startDetection(detectedTestClasses);
+        buildOperationExecutor.runAll(new Action<BuildOperationQueue<RunnableBuildOperation>>() {
+            @Override
+            public void execute(BuildOperationQueue<RunnableBuildOperation> buildOperationQueue) {
+                for (int batch = 0; batch < batchCount; batch++) {
+                    int start = batch * CLASS_FILES_PER_OPERATION;
+                    int end = Math.min(start + CLASS_FILES_PER_OPERATION, classFiles.size());
+                    buildOperationQueue.add(new DetectTestClassesOperation(detectedTestClasses, batch, classFiles.subList(start, end)));
+                }
+            }
+        });
+    }
+
     private void filenameScan() {
         candidateClassFiles.visit(new ClassFileVisitor() {
             public void visitClassFile(FileVisitDetails fileDetails) {
@@ -89,6 +140,89 @@ public class DefaultTestClassScanner implements Runnable {
         }
     }
 
+    private class DetectTestClassesOperation implements RunnableBuildOperation {
+        private final DetectedTestClasses detectedTestClasses;
+        private final int batch;
+        private final List<RelativeFile> classFiles;
+
+        DetectTestClassesOperation(DetectedTestClasses detectedTestClasses, int batch, List<RelativeFile> classFiles) {
+            this.detectedTestClasses = detectedTestClasses;
+            this.batch = batch;
+            this.classFiles = classFiles;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            List<TestClassRunInfo> testClasses = new ArrayList<TestClassRunInfo>();
+            detectedTestClasses.startBatch(testClasses);
+            try {
+                for (RelativeFile classFile : classFiles) {
+                    testFrameworkDetector.processTestClass(classFile);
+                }
+            } finally {
+                detectedTestClasses.endBatch();
+            }
+            detectedTestClasses.batchComplete(batch, testClasses);
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Detect test classes in " + classFiles.size() + " class files");
+        }
+    }
+
+    /**
+     * Collects the test classes detected by multiple threads. The detector reports the test classes on the thread which processes the class file,
+     * so each thread collects into the batch it is currently working on. Complete batches are passed on in order, one thread at a time.
+     */
+    private static class DetectedTestClasses implements TestClassProcessor {
+        private final TestClassProcessor testClassProcessor;
+        private final List<List<TestClassRunInfo>> completeBatches;
+        private final ThreadLocal<List<TestClassRunInfo>> currentBatch = new ThreadLocal<List<TestClassRunInfo>>();
+        private int nextBatch;
+
+        DetectedTestClasses(TestClassProcessor testClassProcessor, int batchCount) {
+            this.testClassProcessor = testClassProcessor;
+            this.completeBatches = new ArrayList<List<TestClassRunInfo>>(Collections.<List<TestClassRunInfo>>nCopies(batchCount, null));
+        }
+
+        void startBatch(List<TestClassRunInfo> testClasses) {
+            currentBatch.set(testClasses);
+        }
+
+        void endBatch() {
+            currentBatch.remove();
+        }
+
+        synchronized void batchComplete(int batch, List<TestClassRunInfo> testClasses) {
+            completeBatches.set(batch, testClasses);
+            while (nextBatch < completeBatches.size() && completeBatches.get(nextBatch) != null) {
+                for (TestClassRunInfo testClass : completeBatches.get(nextBatch)) {
+                    testClassProcessor.processTestClass(testClass);
+                }
+                completeBatches.set(nextBatch, Collections.<TestClassRunInfo>emptyList());
+                nextBatch++;
+            }
+        }
+
+        @Override
+        public void startProcessing(TestResultProcessor resultProcessor) {
+        }
+
+        @Override
+        public void processTestClass(TestClassRunInfo testClass) {
+            currentBatch.get().add(testClass);
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public void stopNow() {
+        }
+    }
+
     private String getClassName(FileVisitDetails fileDetails) {
         return fileDetails.getRelativePath().getPathString().replaceAll("\\.class", "").replace('/', '.');
     }
@@ -31,6 +31,7 @@ import org.gradle.api.internal.tasks.testing.processors.MaxNParallelTestClassPro
 import org.gradle.api.internal.tasks.testing.processors.PatternMatchTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.RestartEveryNTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.RunPreviousFailedFirstTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.processors.TestClassDurationEstimates;
 import org.gradle.api.internal.tasks.testing.processors.TestMainAction;
 import org.gradle.api.internal.tasks.testing.worker.ForkingTestClassProcessor;
 import org.gradle.api.logging.Logger;
@@ -49,6 +50,7 @@ import java.util.Set;
  * The default test class scanner factory.
  */
 public class DefaultTestExecuter implements TestExecuter<JvmTestExecutionSpec> {
+    public static final String START_FIRST_WORKER_EAGERLY = "org.gradle.internal.test.start.first.worker.eagerly";
 
     private static final Logger LOGGER = Logging.getLogger(DefaultTestExecuter.class);
 
@@ -94,10 +96,11 @@ public class DefaultTestExecuter implements TestExecuter<JvmTestExecutionSpec> {
                 return new RestartEveryNTestClassProcessor(forkingProcessorFactory, testExecutionSpec.getForkEvery());
             }
         };
+        TestClassDurationEstimates durationEstimates = new TestClassDurationEstimates(testExecutionSpec.getPreviousTestClassDurations());
         processor =
             new PatternMatchTestClassProcessor(testFilter,
-                new RunPreviousFailedFirstTestClassProcessor(testExecutionSpec.getPreviousFailedTestClasses(),
-                    new MaxNParallelTestClassProcessor(getMaxParallelForks(testExecutionSpec), reforkingProcessorFactory, actorFactory)));
+                new RunPreviousFailedFirstTestClassProcessor(testExecutionSpec.getPreviousFailedTestClasses(), durationEstimates,
+                    new MaxNParallelTestClassProcessor(getMaxParallelForks(testExecutionSpec), reforkingProcessorFactory, actorFactory, durationEstimates, getEagerForks())));
 
         final FileTree testClassFiles = testExecutionSpec.getCandidateClassFiles();
 
@@ -106,7 +109,7 @@ public class DefaultTestExecuter implements TestExecuter<JvmTestExecutionSpec> {
             TestFrameworkDetector testFrameworkDetector = testFramework.getDetector();
             testFrameworkDetector.setTestClasses(testExecutionSpec.getTestClassesDirs().getFiles());
             testFrameworkDetector.setTestClasspath(classpath);
-            detector = new DefaultTestClassScanner(testClassFiles, testFrameworkDetector, processor);
+            detector = new DefaultTestClassScanner(testClassFiles, testFrameworkDetector, processor, buildOperationExecutor);
         } else {
             detector = new DefaultTestClassScanner(testClassFiles, null, processor);
         }
@@ -123,6 +126,19 @@ public class DefaultTestExecuter implements TestExecuter<JvmTestExecutionSpec> {
         }
     }
 
+    /**
+     * When enabled, starts the first test worker process along with the test task, so that it starts up while the test classes are being detected.
+     * By default, workers are only started once a test class has been detected, so no worker is started for a test task without test classes.
+     * This is skipped when tests are selected by name, as the selected tests may well not be in this test task at all.
+     */
+    private int getEagerForks() {
+        if (!Boolean.getBoolean(START_FIRST_WORKER_EAGERLY)) {
+            return 0;
+        }
+        boolean selectsTests = !testFilter.getIncludePatterns().isEmpty() || !testFilter.getCommandLineIncludePatterns().isEmpty();
+        return selectsTests ? 0 : 1;
+    }
+
     private int getMaxParallelForks(JvmTestExecutionSpec testExecutionSpec) {
         int maxParallelForks = testExecutionSpec.getMaxParallelForks();
         if (maxParallelForks > maxWorkerCount) {
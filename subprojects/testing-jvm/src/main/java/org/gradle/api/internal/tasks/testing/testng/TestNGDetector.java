@@ -17,10 +17,11 @@ package org.gradle.api.internal.tasks.testing.testng;
 
 import org.gradle.api.internal.tasks.testing.detection.AbstractTestFrameworkDetector;
 import org.gradle.api.internal.tasks.testing.detection.ClassFileExtractionManager;
+import org.gradle.cache.internal.FileContentCacheFactory;
 
 class TestNGDetector extends AbstractTestFrameworkDetector<TestNGTestClassDetector> {
-    TestNGDetector(ClassFileExtractionManager classFileExtractionManager) {
-        super(classFileExtractionManager);
+    TestNGDetector(ClassFileExtractionManager classFileExtractionManager, FileContentCacheFactory cacheFactory) {
+        super(classFileExtractionManager, cacheFactory, "testng-test-classes");
     }
 
     @Override
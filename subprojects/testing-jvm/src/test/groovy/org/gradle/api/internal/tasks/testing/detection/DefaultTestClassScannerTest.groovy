@@ -21,7 +21,9 @@ import org.gradle.api.file.FileVisitDetails
 import org.gradle.api.file.FileVisitor
 import org.gradle.api.file.RelativePath
 import org.gradle.api.internal.file.DefaultFileVisitDetails
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
 import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.internal.operations.TestBuildOperationExecutor
 import org.junit.Test
 import spock.lang.Specification
 import spock.lang.Subject
@@ -78,6 +80,69 @@ class DefaultTestClassScannerTest extends Specification {
         0 * _._
     }
 
+    @Test
+    void detectsTestClassesUsingBuildOperationsAndPassesThemOnInVisitOrder() {
+        given:
+        def processor = Mock(TestClassProcessor)
+        def scanner = new DefaultTestClassScanner(files, detector, processor, new TestBuildOperationExecutor())
+        def detectionProcessor = null
+
+        when:
+        scanner.run()
+
+        then:
+        1 * files.visit(_) >> { args ->
+            FileVisitor visitor = args[0]
+            visitor.visitFile(stubFileVisitDetails('b/Test2'))
+            visitor.visitFile(stubFileVisitDetails('a/Test1'))
+        }
+        1 * detector.startDetection(_) >> { args -> detectionProcessor = args[0] }
+        1 * detector.processTestClass({ it.relativePath.pathString == 'b/Test2.class' }) >> { args ->
+            detectionProcessor.processTestClass(new DefaultTestClassRunInfo('b.Test2'))
+            true
+        }
+        1 * detector.processTestClass({ it.relativePath.pathString == 'a/Test1.class' }) >> { args ->
+            detectionProcessor.processTestClass(new DefaultTestClassRunInfo('a.Test1'))
+            true
+        }
+        then:
+        1 * processor.processTestClass({ it.testClassName == 'b.Test2' })
+        then:
+        1 * processor.processTestClass({ it.testClassName == 'a.Test1' })
+        0 * processor._
+    }
+
+    @Test
+    void passesOnTestClassesOfEachBatchOnceEarlierBatchesAreComplete() {
+        given:
+        def processor = Mock(TestClassProcessor)
+        def scanner = new DefaultTestClassScanner(files, detector, processor, new TestBuildOperationExecutor())
+        def detectionProcessor = null
+
+        when:
+        scanner.run()
+
+        then:
+        1 * files.visit(_) >> { args ->
+            FileVisitor visitor = args[0]
+            (0..<250).each { visitor.visitFile(stubFileVisitDetails("Test$it")) }
+        }
+        1 * detector.startDetection(_) >> { args -> detectionProcessor = args[0] }
+        250 * detector.processTestClass(_) >> { args ->
+            detectionProcessor.processTestClass(new DefaultTestClassRunInfo(args[0].relativePath.pathString - '.class'))
+            true
+        }
+        then:
+        1 * processor.processTestClass({ it.testClassName == 'Test0' })
+        then:
+        198 * processor.processTestClass(_)
+        then:
+        1 * processor.processTestClass({ it.testClassName == 'Test199' })
+        then:
+        50 * processor.processTestClass(_)
+        0 * processor._
+    }
+
     FileVisitDetails stubFileVisitDetails(String className) {
         return new DefaultFileVisitDetails(new File("${className}.class"), new RelativePath(false, "${className}.class"), null, null, null)
     }
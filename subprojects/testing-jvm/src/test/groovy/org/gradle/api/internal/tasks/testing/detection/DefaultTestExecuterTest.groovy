@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection
+
+import org.gradle.api.file.FileCollection
+import org.gradle.api.file.FileTree
+import org.gradle.api.internal.DocumentationRegistry
+import org.gradle.api.internal.classpath.ModuleRegistry
+import org.gradle.api.internal.tasks.testing.JvmTestExecutionSpec
+import org.gradle.api.internal.tasks.testing.TestFramework
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.filter.DefaultTestFilter
+import org.gradle.internal.actor.internal.DefaultActorFactory
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.operations.BuildOperationExecutor
+import org.gradle.internal.operations.BuildOperationRef
+import org.gradle.internal.time.Clock
+import org.gradle.internal.work.WorkerLeaseRegistry
+import org.gradle.process.JavaForkOptions
+import org.gradle.process.internal.worker.WorkerProcessFactory
+import org.gradle.util.Path
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
+import spock.lang.Specification
+
+class DefaultTestExecuterTest extends Specification {
+    @Rule
+    SetSystemProperties systemProperties = new SetSystemProperties()
+    def workerProcessFactory = Mock(WorkerProcessFactory)
+    def workerLease = Mock(WorkerLeaseRegistry.WorkerLease)
+    def workerLeaseRegistry = Stub(WorkerLeaseRegistry) {
+        getCurrentWorkerLease() >> workerLease
+    }
+    def buildOperationExecutor = Stub(BuildOperationExecutor) {
+        getCurrentOperation() >> Stub(BuildOperationRef)
+    }
+    def actorFactory = new DefaultActorFactory(new DefaultExecutorFactory())
+    def testFilter = new DefaultTestFilter()
+    def spec = new JvmTestExecutionSpec(Stub(TestFramework), [], Stub(FileTree), false, Stub(FileCollection), ":test", Path.path(":test"), 0, Stub(JavaForkOptions), 2, [] as Set, [:])
+    def executer = new DefaultTestExecuter(workerProcessFactory, actorFactory, Stub(ModuleRegistry), workerLeaseRegistry, buildOperationExecutor, 4, Stub(Clock), Stub(DocumentationRegistry), testFilter)
+
+    def cleanup() {
+        actorFactory.stop()
+    }
+
+    def "starts no test worker when no test classes are detected"() {
+        when:
+        executer.execute(spec, Mock(TestResultProcessor))
+
+        then:
+        0 * workerLease.startChild()
+        0 * workerProcessFactory._
+    }
+
+    def "starts no test worker up front when tests are selected by name"() {
+        System.setProperty(DefaultTestExecuter.START_FIRST_WORKER_EAGERLY, "true")
+        testFilter.includeTestsMatching("SomeTest")
+
+        when:
+        executer.execute(spec, Mock(TestResultProcessor))
+
+        then:
+        0 * workerLease.startChild()
+        0 * workerProcessFactory._
+    }
+}